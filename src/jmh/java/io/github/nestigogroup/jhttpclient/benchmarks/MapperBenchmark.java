@@ -0,0 +1,127 @@
+package io.github.nestigogroup.jhttpclient.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.nestigogroup.jhttpclient.exceptions.ObjectMappingException;
+import io.github.nestigogroup.jhttpclient.interfaces.IObjectCodec;
+import io.github.nestigogroup.jhttpclient.interfaces.IObjectMapper;
+import io.github.nestigogroup.jhttpclient.mapper.RecordJsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link RecordJsonMapper} with a Jackson backed {@link IObjectMapper} on record DTOs, through the bound {@link IObjectCodec} the Json clients use.
+ * Run with <i>mvn -P benchmarks test-compile exec:exec</i>, JMH arguments can be passed with <i>-Dbenchmarks.args=...</i>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    public record Line(String sku, int quantity, BigDecimal price) {}
+
+    public record Customer(String id, String name, String city, boolean vip) {}
+
+    public record Order(String id, long createdAt, Customer customer, List<Line> lines, String note) {}
+
+    @Param({"record", "jackson"})
+    public String mapper;
+
+    @Param({"1", "50"})
+    public int lines;
+
+    private IObjectCodec<Order> codec;
+    private Order order;
+    private String json;
+
+    @Setup
+    public void setup() throws ObjectMappingException {
+        IObjectMapper objectMapper = mapper.equals("record") ? new RecordJsonMapper() : new JacksonMapper();
+        codec = objectMapper.bind(Order.class);
+        var orderLines = new ArrayList<Line>();
+        for (var i = 0; i < lines; i++) {
+            orderLines.add(new Line("SKU-" + i, i + 1, new BigDecimal("19.99")));
+        }
+        order = new Order("ord-1", 1_700_000_000_000L, new Customer("c-7", "Jane Doe", "Sofia", true), orderLines, "leave at the door");
+        json = codec.write(order);
+    }
+
+    @Benchmark
+    public Order read() throws ObjectMappingException {
+        return codec.read(json);
+    }
+
+    @Benchmark
+    public String write() throws ObjectMappingException {
+        return codec.write(order);
+    }
+
+    /**
+     * Jackson {@link IObjectMapper} with the reader/writer resolved once per bound type
+     */
+    public static final class JacksonMapper implements IObjectMapper {
+
+        private final ObjectMapper objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        @Override
+        public String convertToJson(Object obj) throws ObjectMappingException {
+            try {
+                return objectMapper.writeValueAsString(obj);
+            } catch (JsonProcessingException e) {
+                throw new ObjectMappingException(e);
+            }
+        }
+
+        @Override
+        public <T> T convertFromJson(String json, Class<T> outClass) throws ObjectMappingException {
+            try {
+                return objectMapper.readValue(json, outClass);
+            } catch (JsonProcessingException e) {
+                throw new ObjectMappingException(e);
+            }
+        }
+
+        @Override
+        public <T> IObjectCodec<T> bind(Class<T> type) {
+            var reader = objectMapper.readerFor(type);
+            var writer = objectMapper.writerFor(type);
+            return new IObjectCodec<>() {
+                @Override
+                public T read(String json) throws ObjectMappingException {
+                    try {
+                        return reader.readValue(json);
+                    } catch (JsonProcessingException e) {
+                        throw new ObjectMappingException(e);
+                    }
+                }
+
+                @Override
+                public String write(T value) throws ObjectMappingException {
+                    try {
+                        return writer.writeValueAsString(value);
+                    } catch (JsonProcessingException e) {
+                        throw new ObjectMappingException(e);
+                    }
+                }
+            };
+        }
+    }
+}
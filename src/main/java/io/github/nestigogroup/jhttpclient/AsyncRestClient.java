@@ -1,7 +1,9 @@
 package io.github.nestigogroup.jhttpclient;
 
 import io.github.nestigogroup.jhttpclient.internal.AsyncHttpClient;
+import io.github.nestigogroup.jhttpclient.requests.RequestOptions;
 import io.github.nestigogroup.jhttpclient.responses.FileResponse;
+import io.github.nestigogroup.jhttpclient.responses.LazyHeaders;
 import io.github.nestigogroup.jhttpclient.responses.NoBodyResponse;
 import io.github.nestigogroup.jhttpclient.responses.StringResponse;
 
@@ -65,7 +67,17 @@ public class AsyncRestClient extends AsyncHttpClient {
      * @return CompletableFuture resolving to {@link NoBodyResponse object} containing the response code and the response headers
      */
     public CompletableFuture<NoBodyResponse> head(String url) {
-        return headBodyHandler(url).thenApplyAsync(resp -> new NoBodyResponse(resp.statusCode(), resp.headers().map()));
+        return head(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous HEAD request
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link NoBodyResponse object} containing the response code and the response headers
+     */
+    public CompletableFuture<NoBodyResponse> head(String url, RequestOptions options) {
+        return mapAsync(headBodyHandler(url, options), resp -> new NoBodyResponse(resp.statusCode(), new LazyHeaders(resp.headers())));
     }
 
     /**
@@ -74,7 +86,17 @@ public class AsyncRestClient extends AsyncHttpClient {
      * @return CompletableFuture resolving to {@link StringResponse object} containing the response code, response headers and the response body as {@link String}
      */
     public CompletableFuture<StringResponse> get(String url) {
-        return getString(url).thenApplyAsync(resp -> new StringResponse(resp.statusCode(), resp.headers().map(), resp.body()));
+        return get(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous GET request
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link StringResponse object} containing the response code, response headers and the response body as {@link String}
+     */
+    public CompletableFuture<StringResponse> get(String url, RequestOptions options) {
+        return mapAsync(getString(url, options), resp -> new StringResponse(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body()));
     }
 
     /**
@@ -84,7 +106,18 @@ public class AsyncRestClient extends AsyncHttpClient {
      * @return CompletableFuture resolving to {@link StringResponse object} containing the response code, response headers and the response body as {@link String}
      */
     public CompletableFuture<StringResponse> post(String url, String body) {
-        return postString(url, HttpRequest.BodyPublishers.ofString(body)).thenApplyAsync(resp -> new StringResponse(resp.statusCode(), resp.headers().map(), resp.body()));
+        return post(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous POST request
+     * @param url The Request URL
+     * @param body The request String body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link StringResponse object} containing the response code, response headers and the response body as {@link String}
+     */
+    public CompletableFuture<StringResponse> post(String url, String body, RequestOptions options) {
+        return mapAsync(postString(url, HttpRequest.BodyPublishers.ofString(body), options), resp -> new StringResponse(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body()));
     }
 
     /**
@@ -94,7 +127,18 @@ public class AsyncRestClient extends AsyncHttpClient {
      * @return CompletableFuture resolving to {@link StringResponse object} containing the response code, response headers and the response body as {@link String}
      */
     public CompletableFuture<StringResponse> put(String url, String body) {
-        return putString(url, HttpRequest.BodyPublishers.ofString(body)).thenApplyAsync(resp -> new StringResponse(resp.statusCode(), resp.headers().map(), resp.body()));
+        return put(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous PUT request
+     * @param url The Request URL
+     * @param body The request String body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link StringResponse object} containing the response code, response headers and the response body as {@link String}
+     */
+    public CompletableFuture<StringResponse> put(String url, String body, RequestOptions options) {
+        return mapAsync(putString(url, HttpRequest.BodyPublishers.ofString(body), options), resp -> new StringResponse(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body()));
     }
 
     /**
@@ -104,7 +148,18 @@ public class AsyncRestClient extends AsyncHttpClient {
      * @return CompletableFuture resolving to {@link StringResponse object} containing the response code, response headers and the response body as {@link String}
      */
     public CompletableFuture<StringResponse> patch(String url, String body) {
-        return patchString(url, HttpRequest.BodyPublishers.ofString(body)).thenApplyAsync(resp -> new StringResponse(resp.statusCode(), resp.headers().map(), resp.body()));
+        return patch(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous PATCH request
+     * @param url The Request URL
+     * @param body The request String body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link StringResponse object} containing the response code, response headers and the response body as {@link String}
+     */
+    public CompletableFuture<StringResponse> patch(String url, String body, RequestOptions options) {
+        return mapAsync(patchString(url, HttpRequest.BodyPublishers.ofString(body), options), resp -> new StringResponse(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body()));
     }
 
     /**
@@ -113,7 +168,17 @@ public class AsyncRestClient extends AsyncHttpClient {
      * @return CompletableFuture resolving to {@link StringResponse object} containing the response code, response headers and the response body as {@link String}
      */
     public CompletableFuture<StringResponse> delete(String url) {
-        return deleteString(url).thenApplyAsync(resp -> new StringResponse(resp.statusCode(), resp.headers().map(), resp.body()));
+        return delete(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous DELETE request
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link StringResponse object} containing the response code, response headers and the response body as {@link String}
+     */
+    public CompletableFuture<StringResponse> delete(String url, RequestOptions options) {
+        return mapAsync(deleteString(url, options), resp -> new StringResponse(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body()));
     }
 
     /**
@@ -123,6 +188,17 @@ public class AsyncRestClient extends AsyncHttpClient {
      * @return CompletableFuture resolving to {@link FileResponse object} containing the response code, response headers and the response body as {@link Path}
      */
     public CompletableFuture<FileResponse> downloadFile(String url, Path downloadPath) throws ExecutionException, InterruptedException {
-        return getFile(url, downloadPath).thenApplyAsync(resp -> new FileResponse(resp.statusCode(), resp.headers().map(), resp.body()));
+        return downloadFile(url, downloadPath, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Downloads a file to specified location
+     * @param url - The file URL
+     * @param downloadPath - The location where the file to be stored
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link FileResponse object} containing the response code, response headers and the response body as {@link Path}
+     */
+    public CompletableFuture<FileResponse> downloadFile(String url, Path downloadPath, RequestOptions options) throws ExecutionException, InterruptedException {
+        return mapAsync(getFile(url, downloadPath, options), resp -> new FileResponse(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body()));
     }
 }
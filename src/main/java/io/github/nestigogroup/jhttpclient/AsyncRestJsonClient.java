@@ -1,32 +1,56 @@
 package io.github.nestigogroup.jhttpclient;
 
+import io.github.nestigogroup.jhttpclient.batch.BatchLoader;
+import io.github.nestigogroup.jhttpclient.batch.BatchSettings;
 import io.github.nestigogroup.jhttpclient.exceptions.ObjectMappingException;
 import io.github.nestigogroup.jhttpclient.exceptions.RuntimeObjectMappingException;
+import io.github.nestigogroup.jhttpclient.helpers.TypeToken;
+import io.github.nestigogroup.jhttpclient.interfaces.IBodyCodec;
+import io.github.nestigogroup.jhttpclient.interfaces.IObjectCodec;
 import io.github.nestigogroup.jhttpclient.interfaces.IObjectMapper;
 import io.github.nestigogroup.jhttpclient.internal.AsyncHttpClient;
+import io.github.nestigogroup.jhttpclient.internal.BodyCodecs;
+import io.github.nestigogroup.jhttpclient.internal.HttpMappingEvent;
+import io.github.nestigogroup.jhttpclient.projection.JsonProjector;
+import io.github.nestigogroup.jhttpclient.requests.RequestOptions;
 import io.github.nestigogroup.jhttpclient.responses.FileResponse;
+import io.github.nestigogroup.jhttpclient.responses.LazyHeaders;
+import io.github.nestigogroup.jhttpclient.responses.LazyMappedResponse;
 import io.github.nestigogroup.jhttpclient.responses.NoBodyResponse;
 import io.github.nestigogroup.jhttpclient.responses.MappedResponse;
 import io.github.nestigogroup.jhttpclient.responses.StringResponse;
 
 import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.lang.reflect.Type;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * Simplified Async Rest Http Client for working with Rest services that handles serialization/deserialization of request/responses
- * <b>Content-Type</b> is set to <i>application/json</i> by default (but can be overridden)
+ * <b>Content-Type</b> is set to <i>application/json</i> by default (but can be overridden).
+ * Binary formats are added with {@link #addBodyCodec(IBodyCodec)}: the typed calls decode each response with the codec matching its <b>Content-Type</b>,
+ * the lazy and projected calls always read Json
  */
 public class AsyncRestJsonClient extends AsyncHttpClient {
 
     private IObjectMapper externalMapper;
+    private final Map<Type, IObjectCodec<?>> codecs = new ConcurrentHashMap<>();
+    private volatile BodyCodecs bodyCodecs = BodyCodecs.EMPTY;
+    private volatile IBodyCodec requestCodec;
 
     /**
      * The default constructor is made private as the Client doesn't work without provided {@link IObjectMapper} implementation
@@ -78,13 +102,49 @@ public class AsyncRestJsonClient extends AsyncHttpClient {
         addHeader("Content-Type", "application/json");
     }
 
+    /**
+     * Registers a body codec: responses of its media type are decoded with it and the <b>Accept</b> header of the typed calls lists
+     * the codecs in the order they were added, before Json. Replaces a codec registered for the same media type
+     * @param codec the {@link IBodyCodec}
+     */
+    public synchronized void addBodyCodec(IBodyCodec codec) {
+        bodyCodecs = bodyCodecs.with(codec);
+        if (requestCodec != null) {
+            requestCodec = bodyCodecs.find(requestCodec.mediaType());
+        }
+    }
+
+    /**
+     * Sets the format of the request bodies and the <b>Content-Type</b> header accordingly.
+     * A per-request <b>Content-Type</b> header in the {@link RequestOptions} selects the codec of that request
+     * @param mediaType the media type of a registered {@link IBodyCodec}, <b>null</b> or <i>application/json</i> for the {@link IObjectMapper}
+     */
+    public synchronized void setRequestMediaType(String mediaType) {
+        var codec = bodyCodecs.find(mediaType);
+        if (codec == null && mediaType != null && !mediaType.toLowerCase(Locale.ROOT).startsWith("application/json")) {
+            throw new IllegalArgumentException("No body codec registered for " + mediaType);
+        }
+        requestCodec = codec;
+        addHeader("Content-Type", codec != null ? codec.mediaType() : "application/json");
+    }
+
     /**
      * Performs an asynchronous HEAD request
      * @param url The Request URL
      * @return CompletableFuture resolving to {@link NoBodyResponse object} containing the response code and the response headers
      */
     public CompletableFuture<NoBodyResponse> head(String url) {
-        return headBodyHandler(url).thenApplyAsync(resp -> new NoBodyResponse(resp.statusCode(), resp.headers().map()));
+        return head(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous HEAD request
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link NoBodyResponse object} containing the response code and the response headers
+     */
+    public CompletableFuture<NoBodyResponse> head(String url, RequestOptions options) {
+        return mapAsync(headBodyHandler(url, options), resp -> new NoBodyResponse(resp.statusCode(), new LazyHeaders(resp.headers())));
     }
 
     /**
@@ -94,15 +154,105 @@ public class AsyncRestJsonClient extends AsyncHttpClient {
      * @throws RuntimeObjectMappingException if the deserialization fails
      */
     public <T> CompletableFuture<MappedResponse<T>> get(String url, Class<T> outClass) {
-        return getString(url).thenApplyAsync(resp -> {
+        return get(url, outClass, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous GET request
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link MappedResponse object} containing the response code, response headers and the response body as deserialized POJO/Record
+     * @throws RuntimeObjectMappingException if the deserialization fails
+     */
+    public <T> CompletableFuture<MappedResponse<T>> get(String url, Class<T> outClass, RequestOptions options) {
+        return mapAsync(getBodyHandler(url, bodyCodecs.handler(getCharset()), bodyCodecs.negotiate(options)), resp -> {
             try {
-                return new MappedResponse<>(resp.statusCode(), resp.headers().map(), externalMapper.convertFromJson(resp.body(), outClass));
+                return new MappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), read(resp, codec(outClass), outClass));
             } catch (ObjectMappingException e) {
                 throw new RuntimeObjectMappingException(e);
             }
         });
     }
 
+    /**
+     * Performs an asynchronous GET request mapping the body to a generic type, e.g. <i>new TypeToken&lt;List&lt;Order&gt;&gt;() {}</i>
+     * @param url The Request URL
+     * @param type the {@link TypeToken} of the target type
+     * @return CompletableFuture resolving to {@link MappedResponse object} containing the response code, response headers and the response body as deserialized type
+     * @throws RuntimeObjectMappingException if the deserialization fails
+     */
+    public <T> CompletableFuture<MappedResponse<T>> get(String url, TypeToken<T> type) {
+        return get(url, type, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous GET request mapping the body to a generic type, e.g. <i>new TypeToken&lt;List&lt;Order&gt;&gt;() {}</i>
+     * @param url The Request URL
+     * @param type the {@link TypeToken} of the target type
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link MappedResponse object} containing the response code, response headers and the response body as deserialized type
+     * @throws RuntimeObjectMappingException if the deserialization fails
+     */
+    public <T> CompletableFuture<MappedResponse<T>> get(String url, TypeToken<T> type, RequestOptions options) {
+        return mapAsync(getBodyHandler(url, bodyCodecs.handler(getCharset()), bodyCodecs.negotiate(options)), resp -> {
+            try {
+                return new MappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), read(resp, codec(type), type.getType()));
+            } catch (ObjectMappingException e) {
+                throw new RuntimeObjectMappingException(e);
+            }
+        });
+    }
+
+    /**
+     * Performs an asynchronous GET request and defers the deserialization of the body to the first {@link LazyMappedResponse#body()} call
+     * @param url The Request URL
+     * @return CompletableFuture resolving to {@link LazyMappedResponse object} containing the response code, response headers and the raw response body
+     */
+    public <T> CompletableFuture<LazyMappedResponse<T>> getLazy(String url, Class<T> outClass) {
+        return getLazy(url, outClass, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous GET request and defers the deserialization of the body to the first {@link LazyMappedResponse#body()} call
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link LazyMappedResponse object} containing the response code, response headers and the raw response body
+     */
+    public <T> CompletableFuture<LazyMappedResponse<T>> getLazy(String url, Class<T> outClass, RequestOptions options) {
+        return map(getString(url, BodyCodecs.json(options)), resp -> new LazyMappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body(), codec(outClass)));
+    }
+
+    /**
+     * Performs an asynchronous GET request and reads only the fields named by the projection {@link Record} (see {@link JsonProjector}).
+     * The body is scanned while it streams in, on the client executor or a pool dedicated to blocking reads, and the exchange is closed as soon as all fields were found
+     * @param url The Request URL
+     * @param projection the projection {@link Record} class
+     * @return CompletableFuture resolving to {@link MappedResponse object} containing the response code, response headers and the projection {@link Record}
+     * @throws RuntimeObjectMappingException if the deserialization fails
+     */
+    public <R extends Record> CompletableFuture<MappedResponse<R>> getProjected(String url, Class<R> projection) {
+        return getProjected(url, projection, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous GET request and reads only the fields named by the projection {@link Record} (see {@link JsonProjector}).
+     * The body is scanned while it streams in, on the client executor or a pool dedicated to blocking reads, and the exchange is closed as soon as all fields were found
+     * @param url The Request URL
+     * @param projection the projection {@link Record} class
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link MappedResponse object} containing the response code, response headers and the projection {@link Record}
+     * @throws RuntimeObjectMappingException if the deserialization fails
+     */
+    public <R extends Record> CompletableFuture<MappedResponse<R>> getProjected(String url, Class<R> projection, RequestOptions options) {
+        return mapBlocking(getBodyHandler(url, HttpResponse.BodyHandlers.ofInputStream(), BodyCodecs.json(options)), resp -> {
+            try (var body = resp.body()) {
+                return new MappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), JsonProjector.project(body, projection, externalMapper));
+            } catch (ObjectMappingException | IOException e) {
+                throw new RuntimeObjectMappingException(e);
+            }
+        });
+    }
+
     /**
      * Performs an asynchronous POST request
      * @param url The Request URL
@@ -111,9 +261,21 @@ public class AsyncRestJsonClient extends AsyncHttpClient {
      * @throws RuntimeObjectMappingException if the serialization/deserialization fails
      */
     public <T> CompletableFuture<MappedResponse<T>> post(String url, Class<T> outClass, Object body) throws ObjectMappingException {
-        return postString(url, HttpRequest.BodyPublishers.ofString(externalMapper.convertToJson(body))).thenApplyAsync(resp -> {
+        return post(url, outClass, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous POST request
+     * @param url The Request URL
+     * @param body The request POJO/Record body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link StringResponse object} containing the response code, response headers and the response body as deserialized POJO/Record
+     * @throws RuntimeObjectMappingException if the serialization/deserialization fails
+     */
+    public <T> CompletableFuture<MappedResponse<T>> post(String url, Class<T> outClass, Object body, RequestOptions options) throws ObjectMappingException {
+        return mapAsync(postBodyHandler(url, bodyCodecs.handler(getCharset()), encode(body, options), bodyCodecs.negotiate(options)), resp -> {
             try {
-                return new MappedResponse<>(resp.statusCode(), resp.headers().map(), externalMapper.convertFromJson(resp.body(), outClass));
+                return new MappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), read(resp, codec(outClass), outClass));
             } catch (ObjectMappingException e) {
                 throw new RuntimeObjectMappingException(e);
             }
@@ -128,9 +290,21 @@ public class AsyncRestJsonClient extends AsyncHttpClient {
      * @throws RuntimeObjectMappingException if the serialization/deserialization fails
      */
     public <T> CompletableFuture<MappedResponse<T>> put(String url, Class<T> outClass, Object body) throws ObjectMappingException {
-        return putString(url, HttpRequest.BodyPublishers.ofString(externalMapper.convertToJson(body))).thenApplyAsync(resp -> {
+        return put(url, outClass, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous PUT request
+     * @param url The Request URL
+     * @param body The request POJO/Record body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link StringResponse object} containing the response code, response headers and the response body as deserialized POJO/Record
+     * @throws RuntimeObjectMappingException if the serialization/deserialization fails
+     */
+    public <T> CompletableFuture<MappedResponse<T>> put(String url, Class<T> outClass, Object body, RequestOptions options) throws ObjectMappingException {
+        return mapAsync(putBodyHandler(url, bodyCodecs.handler(getCharset()), encode(body, options), bodyCodecs.negotiate(options)), resp -> {
             try {
-                return new MappedResponse<>(resp.statusCode(), resp.headers().map(), externalMapper.convertFromJson(resp.body(), outClass));
+                return new MappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), read(resp, codec(outClass), outClass));
             } catch (ObjectMappingException e) {
                 throw new RuntimeObjectMappingException(e);
             }
@@ -145,9 +319,21 @@ public class AsyncRestJsonClient extends AsyncHttpClient {
      * @throws RuntimeObjectMappingException if the serialization/deserialization fails
      */
     public <T> CompletableFuture<MappedResponse<T>> patch(String url, Class<T> outClass, Object body) throws ObjectMappingException {
-        return patchString(url, HttpRequest.BodyPublishers.ofString(externalMapper.convertToJson(body))).thenApplyAsync(resp -> {
+        return patch(url, outClass, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous PATCH request
+     * @param url The Request URL
+     * @param body The request POJO/Record body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link StringResponse object} containing the response code, response headers and the response body as deserialized POJO/Record
+     * @throws RuntimeObjectMappingException if the serialization/deserialization fails
+     */
+    public <T> CompletableFuture<MappedResponse<T>> patch(String url, Class<T> outClass, Object body, RequestOptions options) throws ObjectMappingException {
+        return mapAsync(patchBodyHandler(url, bodyCodecs.handler(getCharset()), encode(body, options), bodyCodecs.negotiate(options)), resp -> {
             try {
-                return new MappedResponse<>(resp.statusCode(), resp.headers().map(), externalMapper.convertFromJson(resp.body(), outClass));
+                return new MappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), read(resp, codec(outClass), outClass));
             } catch (ObjectMappingException e) {
                 throw new RuntimeObjectMappingException(e);
             }
@@ -161,9 +347,20 @@ public class AsyncRestJsonClient extends AsyncHttpClient {
      * @throws RuntimeObjectMappingException if the deserialization fails
      */
     public <T> CompletableFuture<MappedResponse<T>> delete(String url, Class<T> outClass) {
-        return deleteString(url).thenApplyAsync(resp -> {
+        return delete(url, outClass, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs an asynchronous DELETE request
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link MappedResponse object} containing the response code, response headers and the response body as deserialized POJO/Record
+     * @throws RuntimeObjectMappingException if the deserialization fails
+     */
+    public <T> CompletableFuture<MappedResponse<T>> delete(String url, Class<T> outClass, RequestOptions options) {
+        return mapAsync(deleteBodyHandler(url, bodyCodecs.handler(getCharset()), bodyCodecs.negotiate(options)), resp -> {
             try {
-                return new MappedResponse<>(resp.statusCode(), resp.headers().map(), externalMapper.convertFromJson(resp.body(), outClass));
+                return new MappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), read(resp, codec(outClass), outClass));
             } catch (ObjectMappingException e) {
                 throw new RuntimeObjectMappingException(e);
             }
@@ -177,6 +374,114 @@ public class AsyncRestJsonClient extends AsyncHttpClient {
      * @return CompletableFuture resolving to {@link FileResponse object} containing the response code, response headers and the response body as {@link Path}
      */
     public CompletableFuture<FileResponse> downloadFile(String url, Path downloadPath) throws ExecutionException, InterruptedException {
-        return getFile(url, downloadPath).thenApplyAsync(resp -> new FileResponse(resp.statusCode(), resp.headers().map(), resp.body()));
+        return downloadFile(url, downloadPath, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Downloads a file to specified location
+     * @param url - The file URL
+     * @param downloadPath - The location where the file to be stored
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link FileResponse object} containing the response code, response headers and the response body as {@link Path}
+     */
+    public CompletableFuture<FileResponse> downloadFile(String url, Path downloadPath, RequestOptions options) throws ExecutionException, InterruptedException {
+        return mapAsync(getFile(url, downloadPath, options), resp -> new FileResponse(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body()));
+    }
+
+    /**
+     * Creates a {@link BatchLoader} bound to a batch endpoint (e.g. <i>POST /items:batchGet</i>): the keys of a window are sent as a Json array
+     * in a single POST request and the response Json array of values is split back to the callers by the key of each value
+     * @param url The batch endpoint URL
+     * @param valueClass Target {@link Class} of the values
+     * @param keyOf function extracting the key of a value
+     * @param settings the {@link BatchSettings} of the window
+     * @return the {@link BatchLoader}, its futures fail with {@link RuntimeObjectMappingException} if the serialization/deserialization fails
+     * and with {@link IOException} on transport errors or a non-2xx response
+     */
+    public <K, V> BatchLoader<K, V> batchLoader(String url, Class<V> valueClass, Function<V, K> keyOf, BatchSettings settings) {
+        return batchLoader(url, valueClass, keyOf, settings, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Creates a {@link BatchLoader} bound to a batch endpoint (e.g. <i>POST /items:batchGet</i>): the keys of a window are sent as a Json array
+     * in a single POST request and the response Json array of values is split back to the callers by the key of each value
+     * @param url The batch endpoint URL
+     * @param valueClass Target {@link Class} of the values
+     * @param keyOf function extracting the key of a value
+     * @param settings the {@link BatchSettings} of the window
+     * @param options the per-request {@link RequestOptions} merged with the client defaults, applied to every batch request
+     * @return the {@link BatchLoader}, its futures fail with {@link RuntimeObjectMappingException} if the serialization/deserialization fails
+     * and with {@link IOException} on transport errors or a non-2xx response
+     */
+    public <K, V> BatchLoader<K, V> batchLoader(String url, Class<V> valueClass, Function<V, K> keyOf, BatchSettings settings, RequestOptions options) {
+        var responseType = TypeToken.listOf(valueClass);
+        return new BatchLoader<>(keys -> {
+            HttpRequest.BodyPublisher body;
+            try {
+                body = encode(keys, options);
+            } catch (ObjectMappingException e) {
+                return CompletableFuture.failedFuture(new RuntimeObjectMappingException(e));
+            }
+            return mapAsync(postBodyHandler(url, bodyCodecs.handler(getCharset()), body, bodyCodecs.negotiate(options)), resp -> {
+                if (resp.statusCode() / 100 != 2) {
+                    throw new CompletionException(new IOException("Batch request to " + url + " failed with status " + resp.statusCode()));
+                }
+                try {
+                    var values = new HashMap<K, V>();
+                    for (var value : read(resp, codec(responseType), responseType.getType())) {
+                        if (value != null) {
+                            values.put(keyOf.apply(value), value);
+                        }
+                    }
+                    return values;
+                } catch (ObjectMappingException e) {
+                    throw new RuntimeObjectMappingException(e);
+                }
+            });
+        }, settings);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> IObjectCodec<T> codec(Class<T> outClass) {
+        var codec = codecs.get(outClass);
+        if (codec == null) {
+            codec = codecs.computeIfAbsent(outClass, type -> externalMapper.bind(outClass));
+        }
+        return (IObjectCodec<T>) codec;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> IObjectCodec<T> codec(TypeToken<T> typeToken) {
+        var codec = codecs.get(typeToken.getType());
+        if (codec == null) {
+            codec = codecs.computeIfAbsent(typeToken.getType(), type -> externalMapper.bind(typeToken));
+        }
+        return (IObjectCodec<T>) codec;
+    }
+
+    private <T> T read(HttpResponse<BodyCodecs.Body> resp, IObjectCodec<T> codec, Type type) throws ObjectMappingException {
+        var event = new HttpMappingEvent();
+        event.begin();
+        var body = resp.body();
+        T value = body.codec() != null ? body.codec().decode(body.bytes(), type) : codec.read(body.text());
+        event.complete(resp, type, body.size());
+        return value;
+    }
+
+    private HttpRequest.BodyPublisher encode(Object body, RequestOptions options) throws ObjectMappingException {
+        var contentType = options.headers().get("Content-Type");
+        var codec = contentType != null ? bodyCodecs.find(contentType) : requestCodec;
+        if (codec != null) {
+            return HttpRequest.BodyPublishers.ofByteArray(codec.encode(body));
+        }
+        return HttpRequest.BodyPublishers.ofString(toJson(body));
+    }
+
+    @SuppressWarnings("unchecked")
+    private String toJson(Object body) throws ObjectMappingException {
+        if (body == null) {
+            return externalMapper.convertToJson(null);
+        }
+        return codec((Class<Object>) body.getClass()).write(body);
     }
 }
@@ -1,7 +1,9 @@
 package io.github.nestigogroup.jhttpclient;
 
 import io.github.nestigogroup.jhttpclient.internal.BlockingHttpClient;
+import io.github.nestigogroup.jhttpclient.requests.RequestOptions;
 import io.github.nestigogroup.jhttpclient.responses.FileResponse;
+import io.github.nestigogroup.jhttpclient.responses.LazyHeaders;
 import io.github.nestigogroup.jhttpclient.responses.NoBodyResponse;
 import io.github.nestigogroup.jhttpclient.responses.StringResponse;
 
@@ -64,8 +66,18 @@ public class RestClient extends BlockingHttpClient {
      * @return NoBodyResponse object containing the response code and the response headers
      */
     public NoBodyResponse head(String url) throws IOException, InterruptedException {
-        var resp = headBodyHandler(url);
-        return new NoBodyResponse(resp.statusCode(), resp.headers().map());
+        return head(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a HEAD request
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return NoBodyResponse object containing the response code and the response headers
+     */
+    public NoBodyResponse head(String url, RequestOptions options) throws IOException, InterruptedException {
+        var resp = headBodyHandler(url, options);
+        return new NoBodyResponse(resp.statusCode(), new LazyHeaders(resp.headers()));
     }
 
     /**
@@ -74,8 +86,18 @@ public class RestClient extends BlockingHttpClient {
      * @return StringResponse object containing the response code, response headers and the response body as {@link String}
      */
     public StringResponse get(String url) throws IOException, InterruptedException {
-        var resp = getString(url);
-        return new StringResponse(resp.statusCode(), resp.headers().map(), resp.body());
+        return get(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a GET request
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return StringResponse object containing the response code, response headers and the response body as {@link String}
+     */
+    public StringResponse get(String url, RequestOptions options) throws IOException, InterruptedException {
+        var resp = getString(url, options);
+        return new StringResponse(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body());
     }
 
     /**
@@ -85,8 +107,19 @@ public class RestClient extends BlockingHttpClient {
      * @return StringResponse object containing the response code, response headers and the response body as {@link String}
      */
     public StringResponse post(String url, String body) throws IOException, InterruptedException {
-        var resp = postString(url, HttpRequest.BodyPublishers.ofString(body));
-        return new StringResponse(resp.statusCode(), resp.headers().map(), resp.body());
+        return post(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a POST request
+     * @param url The Request URL
+     * @param body The request String body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return StringResponse object containing the response code, response headers and the response body as {@link String}
+     */
+    public StringResponse post(String url, String body, RequestOptions options) throws IOException, InterruptedException {
+        var resp = postString(url, HttpRequest.BodyPublishers.ofString(body), options);
+        return new StringResponse(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body());
     }
 
     /**
@@ -96,8 +129,19 @@ public class RestClient extends BlockingHttpClient {
      * @return StringResponse object containing the response code, response headers and the response body as {@link String}
      */
     public StringResponse put(String url, String body) throws IOException, InterruptedException {
-        var resp = putString(url, HttpRequest.BodyPublishers.ofString(body));
-        return new StringResponse(resp.statusCode(), resp.headers().map(), resp.body());
+        return put(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a PUT request
+     * @param url The Request URL
+     * @param body The request String body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return StringResponse object containing the response code, response headers and the response body as {@link String}
+     */
+    public StringResponse put(String url, String body, RequestOptions options) throws IOException, InterruptedException {
+        var resp = putString(url, HttpRequest.BodyPublishers.ofString(body), options);
+        return new StringResponse(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body());
     }
 
     /**
@@ -107,8 +151,19 @@ public class RestClient extends BlockingHttpClient {
      * @return StringResponse object containing the response code, response headers and the response body as {@link String}
      */
     public StringResponse patch(String url, String body) throws IOException, InterruptedException {
-        var resp = patchString(url, HttpRequest.BodyPublishers.ofString(body));
-        return new StringResponse(resp.statusCode(), resp.headers().map(), resp.body());
+        return patch(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a PATCH request
+     * @param url The Request URL
+     * @param body The request String body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return StringResponse object containing the response code, response headers and the response body as {@link String}
+     */
+    public StringResponse patch(String url, String body, RequestOptions options) throws IOException, InterruptedException {
+        var resp = patchString(url, HttpRequest.BodyPublishers.ofString(body), options);
+        return new StringResponse(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body());
     }
 
 
@@ -118,8 +173,18 @@ public class RestClient extends BlockingHttpClient {
      * @return StringResponse object containing the response code, response headers and the response body as {@link String}
      */
     public StringResponse delete(String url) throws IOException, InterruptedException {
-        var resp = deleteString(url);
-        return new StringResponse(resp.statusCode(), resp.headers().map(), resp.body());
+        return delete(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a DELETE request
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return StringResponse object containing the response code, response headers and the response body as {@link String}
+     */
+    public StringResponse delete(String url, RequestOptions options) throws IOException, InterruptedException {
+        var resp = deleteString(url, options);
+        return new StringResponse(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body());
     }
 
     /**
@@ -129,8 +194,19 @@ public class RestClient extends BlockingHttpClient {
      * @return FileResponse object containing the response code, response headers and the response body as {@link Path}
      */
     public FileResponse downloadFile(String url, Path downloadPath) throws IOException, InterruptedException {
-        var resp = getFile(url, downloadPath);
-        return new FileResponse(resp.statusCode(), resp.headers().map(), resp.body());
+        return downloadFile(url, downloadPath, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Downloads a file to specified location
+     * @param url - The file URL
+     * @param downloadPath - The location where the file to be stored
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return FileResponse object containing the response code, response headers and the response body as {@link Path}
+     */
+    public FileResponse downloadFile(String url, Path downloadPath, RequestOptions options) throws IOException, InterruptedException {
+        var resp = getFile(url, downloadPath, options);
+        return new FileResponse(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body());
     }
 
 }
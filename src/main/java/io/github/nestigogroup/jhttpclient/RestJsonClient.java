@@ -1,29 +1,47 @@
 package io.github.nestigogroup.jhttpclient;
 
 import io.github.nestigogroup.jhttpclient.exceptions.ObjectMappingException;
+import io.github.nestigogroup.jhttpclient.helpers.TypeToken;
+import io.github.nestigogroup.jhttpclient.interfaces.IBodyCodec;
+import io.github.nestigogroup.jhttpclient.interfaces.IObjectCodec;
 import io.github.nestigogroup.jhttpclient.interfaces.IObjectMapper;
 import io.github.nestigogroup.jhttpclient.internal.BlockingHttpClient;
+import io.github.nestigogroup.jhttpclient.internal.BodyCodecs;
+import io.github.nestigogroup.jhttpclient.internal.HttpMappingEvent;
+import io.github.nestigogroup.jhttpclient.projection.JsonProjector;
+import io.github.nestigogroup.jhttpclient.requests.RequestOptions;
 import io.github.nestigogroup.jhttpclient.responses.FileResponse;
+import io.github.nestigogroup.jhttpclient.responses.LazyHeaders;
+import io.github.nestigogroup.jhttpclient.responses.LazyMappedResponse;
 import io.github.nestigogroup.jhttpclient.responses.NoBodyResponse;
 import io.github.nestigogroup.jhttpclient.responses.MappedResponse;
 
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
+import java.lang.reflect.Type;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 
 /**
  * Simplified Rest Http Client for working with Rest services that handles serialization/deserialization of request/responses
- * <b>Content-Type</b> is set to <i>application/json</i> by default (but can be overridden)
+ * <b>Content-Type</b> is set to <i>application/json</i> by default (but can be overridden).
+ * Binary formats are added with {@link #addBodyCodec(IBodyCodec)}: the typed calls decode each response with the codec matching its <b>Content-Type</b>,
+ * the lazy and projected calls always read Json
  */
 public class RestJsonClient extends BlockingHttpClient {
 
     private IObjectMapper externalMapper;
+    private final Map<Type, IObjectCodec<?>> codecs = new ConcurrentHashMap<>();
+    private volatile BodyCodecs bodyCodecs = BodyCodecs.EMPTY;
+    private volatile IBodyCodec requestCodec;
 
     /**
      * The default constructor is made private as the Client doesn't work without provided {@link IObjectMapper} implementation
@@ -75,14 +93,50 @@ public class RestJsonClient extends BlockingHttpClient {
         addHeader("Content-Type", "application/json");
     }
 
+    /**
+     * Registers a body codec: responses of its media type are decoded with it and the <b>Accept</b> header of the typed calls lists
+     * the codecs in the order they were added, before Json. Replaces a codec registered for the same media type
+     * @param codec the {@link IBodyCodec}
+     */
+    public synchronized void addBodyCodec(IBodyCodec codec) {
+        bodyCodecs = bodyCodecs.with(codec);
+        if (requestCodec != null) {
+            requestCodec = bodyCodecs.find(requestCodec.mediaType());
+        }
+    }
+
+    /**
+     * Sets the format of the request bodies and the <b>Content-Type</b> header accordingly.
+     * A per-request <b>Content-Type</b> header in the {@link RequestOptions} selects the codec of that request
+     * @param mediaType the media type of a registered {@link IBodyCodec}, <b>null</b> or <i>application/json</i> for the {@link IObjectMapper}
+     */
+    public synchronized void setRequestMediaType(String mediaType) {
+        var codec = bodyCodecs.find(mediaType);
+        if (codec == null && mediaType != null && !mediaType.toLowerCase(Locale.ROOT).startsWith("application/json")) {
+            throw new IllegalArgumentException("No body codec registered for " + mediaType);
+        }
+        requestCodec = codec;
+        addHeader("Content-Type", codec != null ? codec.mediaType() : "application/json");
+    }
+
     /**
      * Executes a HEAD request
      * @param url The Request URL
      * @return NoBodyResponse object containing the response code and the response headers
      */
     public NoBodyResponse head(String url) throws IOException, InterruptedException {
-        var resp = headBodyHandler(url);
-        return new NoBodyResponse(resp.statusCode(), resp.headers().map());
+        return head(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a HEAD request
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return NoBodyResponse object containing the response code and the response headers
+     */
+    public NoBodyResponse head(String url, RequestOptions options) throws IOException, InterruptedException {
+        var resp = headBodyHandler(url, options);
+        return new NoBodyResponse(resp.statusCode(), new LazyHeaders(resp.headers()));
     }
 
     /**
@@ -93,8 +147,92 @@ public class RestJsonClient extends BlockingHttpClient {
      * @throws ObjectMappingException if the deserialization fails
      */
     public <T> MappedResponse<T> get(String url, Class<T> outClass) throws IOException, InterruptedException, ObjectMappingException {
-        var resp = getString(url);
-        return new MappedResponse<>(resp.statusCode(), resp.headers().map(), externalMapper.convertFromJson(resp.body(), outClass));
+        return get(url, outClass, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a GET request
+     *
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return MappedResponse object containing the response code, response headers and the response body as deserialized POJO/Record
+     * @throws ObjectMappingException if the deserialization fails
+     */
+    public <T> MappedResponse<T> get(String url, Class<T> outClass, RequestOptions options) throws IOException, InterruptedException, ObjectMappingException {
+        var resp = getBodyHandler(url, bodyCodecs.handler(getCharset()), bodyCodecs.negotiate(options));
+        return new MappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), read(resp, codec(outClass), outClass));
+    }
+
+    /**
+     * Executes a GET request mapping the body to a generic type, e.g. <i>new TypeToken&lt;List&lt;Order&gt;&gt;() {}</i>
+     * @param url The Request URL
+     * @param type the {@link TypeToken} of the target type
+     * @return MappedResponse object containing the response code, response headers and the response body as deserialized type
+     * @throws ObjectMappingException if the deserialization fails
+     */
+    public <T> MappedResponse<T> get(String url, TypeToken<T> type) throws IOException, InterruptedException, ObjectMappingException {
+        return get(url, type, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a GET request mapping the body to a generic type, e.g. <i>new TypeToken&lt;List&lt;Order&gt;&gt;() {}</i>
+     * @param url The Request URL
+     * @param type the {@link TypeToken} of the target type
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return MappedResponse object containing the response code, response headers and the response body as deserialized type
+     * @throws ObjectMappingException if the deserialization fails
+     */
+    public <T> MappedResponse<T> get(String url, TypeToken<T> type, RequestOptions options) throws IOException, InterruptedException, ObjectMappingException {
+        var resp = getBodyHandler(url, bodyCodecs.handler(getCharset()), bodyCodecs.negotiate(options));
+        return new MappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), read(resp, codec(type), type.getType()));
+    }
+
+    /**
+     * Executes a GET request and defers the deserialization of the body to the first {@link LazyMappedResponse#body()} call
+     * @param url The Request URL
+     * @return LazyMappedResponse object containing the response code, response headers and the raw response body
+     */
+    public <T> LazyMappedResponse<T> getLazy(String url, Class<T> outClass) throws IOException, InterruptedException {
+        return getLazy(url, outClass, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a GET request and defers the deserialization of the body to the first {@link LazyMappedResponse#body()} call
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return LazyMappedResponse object containing the response code, response headers and the raw response body
+     */
+    public <T> LazyMappedResponse<T> getLazy(String url, Class<T> outClass, RequestOptions options) throws IOException, InterruptedException {
+        var resp = getString(url, BodyCodecs.json(options));
+        return new LazyMappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body(), codec(outClass));
+    }
+
+    /**
+     * Executes a GET request and reads only the fields named by the projection {@link Record} (see {@link JsonProjector}).
+     * The body is scanned while it streams in and the exchange is closed as soon as all fields were found
+     * @param url The Request URL
+     * @param projection the projection {@link Record} class
+     * @return MappedResponse object containing the response code, response headers and the projection {@link Record}
+     * @throws ObjectMappingException if the deserialization fails
+     */
+    public <R extends Record> MappedResponse<R> getProjected(String url, Class<R> projection) throws IOException, InterruptedException, ObjectMappingException {
+        return getProjected(url, projection, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a GET request and reads only the fields named by the projection {@link Record} (see {@link JsonProjector}).
+     * The body is scanned while it streams in and the exchange is closed as soon as all fields were found
+     * @param url The Request URL
+     * @param projection the projection {@link Record} class
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return MappedResponse object containing the response code, response headers and the projection {@link Record}
+     * @throws ObjectMappingException if the deserialization fails
+     */
+    public <R extends Record> MappedResponse<R> getProjected(String url, Class<R> projection, RequestOptions options) throws IOException, InterruptedException, ObjectMappingException {
+        var resp = getBodyHandler(url, HttpResponse.BodyHandlers.ofInputStream(), BodyCodecs.json(options));
+        try (var body = resp.body()) {
+            return new MappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), JsonProjector.project(body, projection, externalMapper));
+        }
     }
 
     /**
@@ -105,8 +243,20 @@ public class RestJsonClient extends BlockingHttpClient {
      * @throws ObjectMappingException if the serialization/deserialization fails
      */
     public <T> MappedResponse<T> post(String url, Class<T> outClass, Object body) throws IOException, InterruptedException, ObjectMappingException {
-        var resp = postString(url, HttpRequest.BodyPublishers.ofString(externalMapper.convertToJson(body)));
-        return new MappedResponse<>(resp.statusCode(), resp.headers().map(), externalMapper.convertFromJson(resp.body(), outClass));
+        return post(url, outClass, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a POST request
+     * @param url The Request URL
+     * @param body The request POJO/Record body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return MappedResponse object containing the response code, response headers and the response body as deserialized POJO/Record
+     * @throws ObjectMappingException if the serialization/deserialization fails
+     */
+    public <T> MappedResponse<T> post(String url, Class<T> outClass, Object body, RequestOptions options) throws IOException, InterruptedException, ObjectMappingException {
+        var resp = postBodyHandler(url, bodyCodecs.handler(getCharset()), encode(body, options), bodyCodecs.negotiate(options));
+        return new MappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), read(resp, codec(outClass), outClass));
     }
 
     /**
@@ -117,8 +267,20 @@ public class RestJsonClient extends BlockingHttpClient {
      * @throws ObjectMappingException if the serialization/deserialization fails
      */
     public <T> MappedResponse<T> put(String url, Class<T> outClass, Object body) throws IOException, InterruptedException, ObjectMappingException {
-        var resp = putString(url, HttpRequest.BodyPublishers.ofString(externalMapper.convertToJson(body)));
-        return new MappedResponse<>(resp.statusCode(), resp.headers().map(), externalMapper.convertFromJson(resp.body(), outClass));
+        return put(url, outClass, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a PUT request
+     * @param url The Request URL
+     * @param body The request POJO/Record body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return MappedResponse object containing the response code, response headers and the response body as deserialized POJO/Record
+     * @throws ObjectMappingException if the serialization/deserialization fails
+     */
+    public <T> MappedResponse<T> put(String url, Class<T> outClass, Object body, RequestOptions options) throws IOException, InterruptedException, ObjectMappingException {
+        var resp = putBodyHandler(url, bodyCodecs.handler(getCharset()), encode(body, options), bodyCodecs.negotiate(options));
+        return new MappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), read(resp, codec(outClass), outClass));
     }
 
     /**
@@ -129,8 +291,20 @@ public class RestJsonClient extends BlockingHttpClient {
      * @throws ObjectMappingException if the serialization/deserialization fails
      */
     public <T> MappedResponse<T> patch(String url, Class<T> outClass, Object body) throws IOException, InterruptedException, ObjectMappingException {
-        var resp = patchString(url, HttpRequest.BodyPublishers.ofString(externalMapper.convertToJson(body)));
-        return new MappedResponse<>(resp.statusCode(), resp.headers().map(), externalMapper.convertFromJson(resp.body(), outClass));
+        return patch(url, outClass, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a PATCH request
+     * @param url The Request URL
+     * @param body The request POJO/Record body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return MappedResponse object containing the response code, response headers and the response body as deserialized POJO/Record
+     * @throws ObjectMappingException if the serialization/deserialization fails
+     */
+    public <T> MappedResponse<T> patch(String url, Class<T> outClass, Object body, RequestOptions options) throws IOException, InterruptedException, ObjectMappingException {
+        var resp = patchBodyHandler(url, bodyCodecs.handler(getCharset()), encode(body, options), bodyCodecs.negotiate(options));
+        return new MappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), read(resp, codec(outClass), outClass));
     }
 
     /**
@@ -140,8 +314,19 @@ public class RestJsonClient extends BlockingHttpClient {
      * @throws ObjectMappingException if the deserialization fails
      */
     public <T> MappedResponse<T> delete(String url, Class<T> outClass) throws IOException, InterruptedException, ObjectMappingException {
-        var resp = deleteString(url);
-        return new MappedResponse<>(resp.statusCode(), resp.headers().map(), externalMapper.convertFromJson(resp.body(), outClass));
+        return delete(url, outClass, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a DELETE request
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return MappedResponse object containing the response code, response headers and the response body as deserialized POJO/Record
+     * @throws ObjectMappingException if the deserialization fails
+     */
+    public <T> MappedResponse<T> delete(String url, Class<T> outClass, RequestOptions options) throws IOException, InterruptedException, ObjectMappingException {
+        var resp = deleteBodyHandler(url, bodyCodecs.handler(getCharset()), bodyCodecs.negotiate(options));
+        return new MappedResponse<>(resp.statusCode(), new LazyHeaders(resp.headers()), read(resp, codec(outClass), outClass));
     }
 
     /**
@@ -151,8 +336,62 @@ public class RestJsonClient extends BlockingHttpClient {
      * @return FileResponse object containing the response code, response headers and the response body as {@link Path}
      */
     public FileResponse downloadFile(String url, Path downloadPath) throws IOException, InterruptedException {
-        var resp = getFile(url, downloadPath);
-        return new FileResponse(resp.statusCode(), resp.headers().map(), resp.body());
+        return downloadFile(url, downloadPath, RequestOptions.DEFAULT);
     }
 
+    /**
+     * Downloads a file to specified location
+     * @param url - The file URL
+     * @param downloadPath - The location where the file to be stored
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return FileResponse object containing the response code, response headers and the response body as {@link Path}
+     */
+    public FileResponse downloadFile(String url, Path downloadPath, RequestOptions options) throws IOException, InterruptedException {
+        var resp = getFile(url, downloadPath, options);
+        return new FileResponse(resp.statusCode(), new LazyHeaders(resp.headers()), resp.body());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> IObjectCodec<T> codec(Class<T> outClass) {
+        var codec = codecs.get(outClass);
+        if (codec == null) {
+            codec = codecs.computeIfAbsent(outClass, type -> externalMapper.bind(outClass));
+        }
+        return (IObjectCodec<T>) codec;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> IObjectCodec<T> codec(TypeToken<T> typeToken) {
+        var codec = codecs.get(typeToken.getType());
+        if (codec == null) {
+            codec = codecs.computeIfAbsent(typeToken.getType(), type -> externalMapper.bind(typeToken));
+        }
+        return (IObjectCodec<T>) codec;
+    }
+
+    private <T> T read(HttpResponse<BodyCodecs.Body> resp, IObjectCodec<T> codec, Type type) throws ObjectMappingException {
+        var event = new HttpMappingEvent();
+        event.begin();
+        var body = resp.body();
+        T value = body.codec() != null ? body.codec().decode(body.bytes(), type) : codec.read(body.text());
+        event.complete(resp, type, body.size());
+        return value;
+    }
+
+    private HttpRequest.BodyPublisher encode(Object body, RequestOptions options) throws ObjectMappingException {
+        var contentType = options.headers().get("Content-Type");
+        var codec = contentType != null ? bodyCodecs.find(contentType) : requestCodec;
+        if (codec != null) {
+            return HttpRequest.BodyPublishers.ofByteArray(codec.encode(body));
+        }
+        return HttpRequest.BodyPublishers.ofString(toJson(body));
+    }
+
+    @SuppressWarnings("unchecked")
+    private String toJson(Object body) throws ObjectMappingException {
+        if (body == null) {
+            return externalMapper.convertToJson(null);
+        }
+        return codec((Class<Object>) body.getClass()).write(body);
+    }
 }
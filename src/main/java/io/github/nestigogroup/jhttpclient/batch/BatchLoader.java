@@ -0,0 +1,146 @@
+package io.github.nestigogroup.jhttpclient.batch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces individual {@link #load(Object)} calls made within a short window into a single call of the batch function (DataLoader-style)
+ * and splits the result back to each caller's {@link CompletableFuture}.
+ * Keys are deduplicated within the window and against batches still in flight, keys missing from the batch result resolve to <b>null</b>.
+ * Instances are thread-safe, see <i>AsyncRestJsonClient#batchLoader</i> for the HTTP batch endpoint binding
+ */
+public final class BatchLoader<K, V> {
+
+    private final Function<List<K>, CompletableFuture<Map<K, V>>> batchFunction;
+    private final BatchSettings settings;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private Map<K, CompletableFuture<V>> window = new LinkedHashMap<>();
+
+    /**
+     * @param batchFunction function loading the values of a batch of distinct keys
+     * @param settings the {@link BatchSettings} of the window
+     */
+    public BatchLoader(Function<List<K>, CompletableFuture<Map<K, V>>> batchFunction, BatchSettings settings) {
+        this.batchFunction = Objects.requireNonNull(batchFunction, "batchFunction");
+        this.settings = settings != null ? settings : BatchSettings.DEFAULT;
+    }
+
+    /**
+     * Requests the value of a key, it is loaded with the other keys of the current window
+     * @param key the key
+     * @return CompletableFuture resolving to the value or <b>null</b> if the batch result does not contain the key.
+     * Every caller gets its own future, cancelling or completing it leaves the other callers of the key alone
+     */
+    public CompletableFuture<V> load(K key) {
+        Objects.requireNonNull(key, "key");
+        return shared(key).copy();
+    }
+
+    /**
+     * Requests the values of several keys
+     * @param keys the keys
+     * @return CompletableFuture resolving to the values by key once all keys were loaded
+     */
+    public CompletableFuture<Map<K, V>> loadMany(Collection<K> keys) {
+        var futures = new LinkedHashMap<K, CompletableFuture<V>>();
+        for (var key : keys) {
+            futures.put(key, load(key));
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            var values = new LinkedHashMap<K, V>();
+            futures.forEach((key, future) -> values.put(key, future.join()));
+            return values;
+        });
+    }
+
+    /**
+     * Dispatches the current window without waiting for it to fill
+     */
+    public void flush() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (this) {
+            if (window.isEmpty()) {
+                return;
+            }
+            batch = window;
+            window = new LinkedHashMap<>();
+            inFlight.putAll(batch);
+        }
+        dispatch(batch);
+    }
+
+    /**
+     * @return the future of the key shared by its callers, never handed out
+     */
+    private CompletableFuture<V> shared(K key) {
+        var loading = inFlight.get(key);
+        if (loading != null) {
+            return loading;
+        }
+        Map<K, CompletableFuture<V>> full = null;
+        CompletableFuture<V> result;
+        synchronized (this) {
+            result = window.get(key);
+            if (result != null) {
+                return result;
+            }
+            result = new CompletableFuture<>();
+            window.put(key, result);
+            if (window.size() >= settings.maxBatchSize()) {
+                full = window;
+                window = new LinkedHashMap<>();
+                inFlight.putAll(full);
+            } else if (window.size() == 1) {
+                var scheduled = window;
+                CompletableFuture.delayedExecutor(settings.maxDelay().toNanos(), TimeUnit.NANOSECONDS).execute(() -> flush(scheduled));
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return result;
+    }
+
+    private void flush(Map<K, CompletableFuture<V>> scheduled) {
+        synchronized (this) {
+            if (window != scheduled) {
+                // already dispatched because it filled up or was flushed
+                return;
+            }
+            window = new LinkedHashMap<>();
+            inFlight.putAll(scheduled);
+        }
+        dispatch(scheduled);
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        CompletableFuture<Map<K, V>> values;
+        try {
+            values = batchFunction.apply(new ArrayList<>(batch.keySet()));
+        } catch (RuntimeException e) {
+            values = CompletableFuture.failedFuture(e);
+        }
+        values.whenComplete((result, error) -> {
+            batch.forEach(inFlight::remove);
+            var cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            var resolved = result != null ? result : new HashMap<K, V>();
+            batch.forEach((key, future) -> {
+                if (cause != null) {
+                    future.completeExceptionally(cause);
+                } else {
+                    future.complete(resolved.get(key));
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.nestigogroup.jhttpclient.batch;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Immutable window settings of a {@link BatchLoader}: a batch is dispatched when it holds <i>maxBatchSize</i> keys
+ * or <i>maxDelay</i> after its first key, whichever comes first
+ */
+public final class BatchSettings {
+
+    /**
+     * Up to 100 keys per batch, collected for at most 5 milliseconds
+     */
+    public static final BatchSettings DEFAULT = new BatchSettings(100, Duration.ofMillis(5));
+
+    private final int maxBatchSize;
+    private final Duration maxDelay;
+
+    private BatchSettings(int maxBatchSize, Duration maxDelay) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelay = Objects.requireNonNull(maxDelay, "maxDelay");
+    }
+
+    /**
+     * Creates the {@link #DEFAULT} settings to be extended with the <i>with*</i> methods
+     * @return the {@link #DEFAULT} settings
+     */
+    public static BatchSettings create() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a copy of the settings with the specified batch size limit
+     * @param maxBatchSize the maximum number of distinct keys per batch
+     * @return new {@link BatchSettings} instance
+     */
+    public BatchSettings withMaxBatchSize(int maxBatchSize) {
+        return new BatchSettings(maxBatchSize, maxDelay);
+    }
+
+    /**
+     * Returns a copy of the settings with the specified window length
+     * @param maxDelay the maximum time a key waits for the batch to fill, {@link Duration#ZERO} dispatches on the next tick
+     * @return new {@link BatchSettings} instance
+     */
+    public BatchSettings withMaxDelay(Duration maxDelay) {
+        return new BatchSettings(maxBatchSize, maxDelay);
+    }
+
+    /**
+     * @return the maximum number of distinct keys per batch
+     */
+    public int maxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * @return the maximum time a key waits for the batch to fill
+     */
+    public Duration maxDelay() {
+        return maxDelay;
+    }
+}
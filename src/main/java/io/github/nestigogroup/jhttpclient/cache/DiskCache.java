@@ -0,0 +1,446 @@
+package io.github.nestigogroup.jhttpclient.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Persistent on-disk cache for large response bodies (artifacts, models, ...) that survives restarts.
+ * <ul>
+ *     <li>bodies are stored content-addressed (by SHA-256) under <i>objects/</i>, so identical bodies are stored once</li>
+ *     <li>the index is a memory-mapped open-addressing hash table keyed by the URL and the values of the request headers named by <b>Vary</b></li>
+ *     <li>entries are evicted least-recently-used first when the total size of the stored bodies exceeds the configured maximum</li>
+ *     <li>only responses with an <b>ETag</b> are stored, hits are always revalidated with <b>If-None-Match</b></li>
+ *     <li>hits are served by zero-copy transfer ({@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}) from the cache file</li>
+ * </ul>
+ * The cache is used by the <i>getCachedFile</i> methods of the clients once set with <i>setDiskCache</i>. A directory must not be shared by multiple open instances
+ */
+public final class DiskCache implements Closeable {
+
+    /**
+     * A cached body
+     * @param etag the entity tag to revalidate with
+     * @param file the content-addressed cache file, must not be modified
+     * @param size the body size in bytes
+     */
+    public record Entry(String etag, Path file, long size) {
+    }
+
+    private static final int MAGIC = 0x4A484443;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 256;
+    private static final int HASH_SIZE = 32;
+    private static final int TEXT_MAX = 160;
+    private static final byte EMPTY = 0;
+    private static final byte ENTRY = 1;
+    private static final byte VARY = 2;
+    private static final byte DELETED = 3;
+    private static final int OFFSET_STATE = 0;
+    private static final int OFFSET_KEY = 1;
+    private static final int OFFSET_CONTENT = OFFSET_KEY + HASH_SIZE;
+    private static final int OFFSET_SIZE = OFFSET_CONTENT + HASH_SIZE;
+    private static final int OFFSET_ACCESS = OFFSET_SIZE + Long.BYTES;
+    private static final int OFFSET_TEXT_LENGTH = OFFSET_ACCESS + Long.BYTES;
+    private static final int OFFSET_TEXT = OFFSET_TEXT_LENGTH + Short.BYTES;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path objects;
+    private final Path temp;
+    private final long maxBytes;
+    private final FileChannel indexChannel;
+    private final MappedByteBuffer index;
+    private final int capacity;
+    private final Map<String, Integer> references = new HashMap<>();
+    private final Map<String, Long> sizes = new HashMap<>();
+    private long totalBytes;
+    private int usedSlots;
+
+    /**
+     * Opens (or creates) a cache with room for 4096 index entries
+     * @param directory the cache directory
+     * @param maxBytes the maximum total size of the cached bodies
+     */
+    public DiskCache(Path directory, long maxBytes) throws IOException {
+        this(directory, maxBytes, 4096);
+    }
+
+    /**
+     * Opens (or creates) a cache
+     * @param directory the cache directory
+     * @param maxBytes the maximum total size of the cached bodies
+     * @param maxEntries the number of index slots, ignored when opening an existing index
+     */
+    public DiskCache(Path directory, long maxBytes, int maxEntries) throws IOException {
+        this.maxBytes = maxBytes;
+        this.objects = Files.createDirectories(directory.resolve("objects"));
+        this.temp = Files.createDirectories(directory.resolve("tmp"));
+        try (var leftovers = Files.list(temp)) {
+            for (var file : (Iterable<Path>) leftovers::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        var indexFile = directory.resolve("index.bin");
+        var exists = Files.exists(indexFile) && Files.size(indexFile) >= HEADER_SIZE;
+        indexChannel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        var slots = maxEntries;
+        if (exists) {
+            var header = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(0) == MAGIC && header.getInt(4) == FORMAT_VERSION) {
+                slots = header.getInt(8);
+            } else {
+                exists = false;
+                indexChannel.truncate(0);
+            }
+        }
+        capacity = slots;
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        if (!exists) {
+            index.putInt(0, MAGIC);
+            index.putInt(4, FORMAT_VERSION);
+            index.putInt(8, capacity);
+        }
+        load();
+    }
+
+    /**
+     * Looks up the cached body for a request
+     * @param uri the request {@link URI}
+     * @param requestHeaders the request {@link HttpHeaders} (used for <b>Vary</b> matching)
+     * @return the cached {@link Entry} or <b>null</b> on a miss
+     */
+    public synchronized Entry lookup(URI uri, HttpHeaders requestHeaders) {
+        var url = uri.toString();
+        var marker = find(hash("U " + url));
+        if (marker < 0) {
+            return null;
+        }
+        touch(marker);
+        var slot = find(entryKey(url, readText(marker), requestHeaders));
+        if (slot < 0) {
+            return null;
+        }
+        var content = readContent(slot);
+        var file = objects.resolve(content);
+        if (!Files.exists(file)) {
+            remove(slot);
+            return null;
+        }
+        touch(slot);
+        return new Entry(readText(slot), file, readSize(slot));
+    }
+
+    /**
+     * Creates a temporary file inside the cache directory for a download that might be stored
+     * @return the temporary file {@link Path}
+     */
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(temp, "download", ".tmp");
+    }
+
+    /**
+     * Stores a downloaded body, the temporary file is moved into the content-addressed store.
+     * Responses without <b>ETag</b>, with <b>Cache-Control: no-store</b> or <b>Vary: *</b> and bodies larger than the cache are not stored
+     * @param uri the request {@link URI}
+     * @param requestHeaders the request {@link HttpHeaders}
+     * @param responseHeaders the response {@link HttpHeaders}
+     * @param downloadedFile the temporary file created by {@link #createTempFile()}
+     * @param sha256 the SHA-256 digest of the body
+     * @return the stored {@link Entry} or <b>null</b> when the response is not cacheable (the temporary file is left untouched)
+     */
+    public Entry store(URI uri, HttpHeaders requestHeaders, HttpHeaders responseHeaders, Path downloadedFile, byte[] sha256) throws IOException {
+        var etag = responseHeaders.firstValue("ETag").orElse(null);
+        var varyNames = varyNames(responseHeaders);
+        var noStore = responseHeaders.allValues("Cache-Control").stream().anyMatch(v -> v.toLowerCase(Locale.ROOT).contains("no-store"));
+        var size = Files.size(downloadedFile);
+        if (etag == null || noStore || varyNames == null || size > maxBytes
+                || utf8Length(etag) > TEXT_MAX || utf8Length(varyNames) > TEXT_MAX) {
+            return null;
+        }
+        var content = HEX.formatHex(sha256);
+        var file = objects.resolve(content);
+        synchronized (this) {
+            if (Files.exists(file)) {
+                Files.delete(downloadedFile);
+            } else {
+                move(downloadedFile, file);
+            }
+            var url = uri.toString();
+            var marker = insert(hash("U " + url), VARY);
+            writeText(marker, varyNames);
+            touch(marker);
+            var key = entryKey(url, varyNames, requestHeaders);
+            var existing = find(key);
+            var previous = existing >= 0 ? readContent(existing) : null;
+            var slot = existing >= 0 ? existing : insert(key, ENTRY);
+            index.put(slotOffset(slot) + OFFSET_STATE, ENTRY);
+            index.put(slotOffset(slot) + OFFSET_CONTENT, sha256, 0, HASH_SIZE);
+            index.putLong(slotOffset(slot) + OFFSET_SIZE, size);
+            writeText(slot, etag);
+            touch(slot);
+            // the new body is retained first, a replaced body with the same content must not be released (and deleted) in between
+            retain(content, size);
+            if (previous != null) {
+                release(previous);
+            }
+            evict(slot, marker);
+            return Files.exists(file) ? new Entry(etag, file, size) : null;
+        }
+    }
+
+    /**
+     * Copies a cached body to the target file using zero-copy transfer
+     * @param entry the cached {@link Entry}
+     * @param target the target file, replaced if it exists
+     * @throws java.nio.file.NoSuchFileException when the entry was evicted in the meantime
+     */
+    public void copyTo(Entry entry, Path target) throws IOException {
+        try (var source = FileChannel.open(entry.file(), StandardOpenOption.READ);
+             var destination = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            var size = source.size();
+            var position = 0L;
+            while (position < size) {
+                position += source.transferTo(position, size - position, destination);
+            }
+        }
+    }
+
+    /**
+     * @return the total size of the cached bodies in bytes
+     */
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return the number of cached bodies
+     */
+    public synchronized int entries() {
+        return sizes.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        index.force();
+        indexChannel.close();
+    }
+
+    private void load() throws IOException {
+        for (var slot = 0; slot < capacity; slot++) {
+            var state = index.get(slotOffset(slot));
+            if (state == ENTRY) {
+                var content = readContent(slot);
+                var file = objects.resolve(content);
+                if (Files.exists(file)) {
+                    retain(content, Files.size(file));
+                    usedSlots++;
+                } else {
+                    index.put(slotOffset(slot), DELETED);
+                }
+            } else if (state == VARY) {
+                usedSlots++;
+            }
+        }
+        evict(-1, -1);
+    }
+
+    private void evict(int keepSlot, int keepMarker) throws IOException {
+        while (totalBytes > maxBytes || usedSlots > capacity * 3 / 4) {
+            var victim = -1;
+            var oldest = Long.MAX_VALUE;
+            for (var slot = 0; slot < capacity; slot++) {
+                var state = index.get(slotOffset(slot));
+                if ((state == ENTRY || (state == VARY && totalBytes <= maxBytes)) && slot != keepSlot && slot != keepMarker) {
+                    var access = index.getLong(slotOffset(slot) + OFFSET_ACCESS);
+                    if (access < oldest) {
+                        oldest = access;
+                        victim = slot;
+                    }
+                }
+            }
+            if (victim < 0) {
+                return;
+            }
+            remove(victim);
+        }
+    }
+
+    private void remove(int slot) {
+        if (index.get(slotOffset(slot)) == ENTRY) {
+            release(readContent(slot));
+        }
+        index.put(slotOffset(slot), DELETED);
+        usedSlots--;
+    }
+
+    private void retain(String content, long size) {
+        if (references.merge(content, 1, Integer::sum) == 1) {
+            sizes.put(content, size);
+            totalBytes += size;
+        }
+    }
+
+    private void release(String content) {
+        var remaining = references.merge(content, -1, Integer::sum);
+        if (remaining == null || remaining <= 0) {
+            references.remove(content);
+            var size = sizes.remove(content);
+            if (size != null) {
+                totalBytes -= size;
+            }
+            try {
+                Files.deleteIfExists(objects.resolve(content));
+            } catch (IOException ignored) {
+                // a file that can't be deleted now is no longer referenced and gets overwritten by the next store
+            }
+        }
+    }
+
+    private int find(byte[] key) {
+        var start = Math.floorMod(Arrays.hashCode(key), capacity);
+        for (var i = 0; i < capacity; i++) {
+            var slot = (start + i) % capacity;
+            var state = index.get(slotOffset(slot));
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state != DELETED && keyEquals(slot, key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int insert(byte[] key, byte state) throws IOException {
+        var existing = find(key);
+        if (existing >= 0) {
+            return existing;
+        }
+        if (usedSlots >= capacity - 1) {
+            evict(-1, -1);
+        }
+        var start = Math.floorMod(Arrays.hashCode(key), capacity);
+        for (var i = 0; i < capacity; i++) {
+            var slot = (start + i) % capacity;
+            var current = index.get(slotOffset(slot));
+            if (current == EMPTY || current == DELETED) {
+                index.put(slotOffset(slot) + OFFSET_STATE, state);
+                index.put(slotOffset(slot) + OFFSET_KEY, key, 0, HASH_SIZE);
+                index.put(slotOffset(slot) + OFFSET_CONTENT, new byte[HASH_SIZE], 0, HASH_SIZE);
+                index.putLong(slotOffset(slot) + OFFSET_SIZE, 0);
+                usedSlots++;
+                return slot;
+            }
+        }
+        throw new IOException("Disk cache index is full");
+    }
+
+    private boolean keyEquals(int slot, byte[] key) {
+        var offset = slotOffset(slot) + OFFSET_KEY;
+        for (var i = 0; i < HASH_SIZE; i++) {
+            if (index.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void touch(int slot) {
+        index.putLong(slotOffset(slot) + OFFSET_ACCESS, System.currentTimeMillis());
+    }
+
+    private String readContent(int slot) {
+        var content = new byte[HASH_SIZE];
+        index.get(slotOffset(slot) + OFFSET_CONTENT, content, 0, HASH_SIZE);
+        return HEX.formatHex(content);
+    }
+
+    private long readSize(int slot) {
+        return index.getLong(slotOffset(slot) + OFFSET_SIZE);
+    }
+
+    private String readText(int slot) {
+        var length = index.getShort(slotOffset(slot) + OFFSET_TEXT_LENGTH);
+        var text = new byte[length];
+        index.get(slotOffset(slot) + OFFSET_TEXT, text, 0, length);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    private void writeText(int slot, String value) {
+        var text = value.getBytes(StandardCharsets.UTF_8);
+        index.putShort(slotOffset(slot) + OFFSET_TEXT_LENGTH, (short) text.length);
+        index.put(slotOffset(slot) + OFFSET_TEXT, text, 0, text.length);
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static byte[] entryKey(String url, String varyNames, HttpHeaders requestHeaders) {
+        var key = new StringBuilder("E ").append(url);
+        if (!varyNames.isEmpty()) {
+            for (var name : varyNames.split(",")) {
+                key.append('\n').append(name).append(':').append(String.join(",", requestHeaders.allValues(name)));
+            }
+        }
+        return hash(key.toString());
+    }
+
+    private static String varyNames(HttpHeaders responseHeaders) {
+        var names = new TreeSet<String>();
+        for (var value : responseHeaders.allValues("Vary")) {
+            for (var name : value.split(",")) {
+                var trimmed = name.trim().toLowerCase(Locale.ROOT);
+                if (trimmed.equals("*")) {
+                    return null;
+                }
+                if (!trimmed.isEmpty()) {
+                    names.add(trimmed);
+                }
+            }
+        }
+        return String.join(",", names);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(source, target);
+            } catch (FileAlreadyExistsException ignored) {
+                Files.delete(source);
+            }
+        }
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static byte[] hash(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -5,4 +5,19 @@ package io.github.nestigogroup.jhttpclient.exceptions;
  */
 public class ObjectMappingException extends Exception {
 
+    public ObjectMappingException() {
+        super();
+    }
+
+    public ObjectMappingException(String message) {
+        super(message);
+    }
+
+    public ObjectMappingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ObjectMappingException(Throwable cause) {
+        super(cause);
+    }
 }
@@ -0,0 +1,15 @@
+package io.github.nestigogroup.jhttpclient.exceptions;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Exception to be thrown when a request is rejected by the client-side {@link io.github.nestigogroup.jhttpclient.ratelimit.RateLimiter RateLimiter}
+ * because it would have to wait longer than the configured maximum
+ */
+public class RateLimitExceededException extends IOException {
+
+    public RateLimitExceededException(URI uri) {
+        super("Rate limit exceeded for " + uri);
+    }
+}
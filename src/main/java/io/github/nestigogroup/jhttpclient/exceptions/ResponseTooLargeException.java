@@ -0,0 +1,24 @@
+package io.github.nestigogroup.jhttpclient.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Exception to be thrown when a response body exceeds the configured maximum response size.
+ * The exchange is aborted when the exception is raised, so the rest of the body is never read
+ */
+public class ResponseTooLargeException extends IOException {
+
+    private final long maxResponseSize;
+
+    public ResponseTooLargeException(long maxResponseSize, long size) {
+        super("Response body of at least " + size + " bytes exceeds the maximum of " + maxResponseSize + " bytes");
+        this.maxResponseSize = maxResponseSize;
+    }
+
+    /**
+     * @return the cap that was exceeded in bytes
+     */
+    public long getMaxResponseSize() {
+        return maxResponseSize;
+    }
+}
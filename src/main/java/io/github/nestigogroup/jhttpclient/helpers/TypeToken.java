@@ -0,0 +1,135 @@
+package io.github.nestigogroup.jhttpclient.helpers;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Captures a (generic) target type for the mappers, e.g. <i>new TypeToken&lt;List&lt;Order&gt;&gt;() {}</i>
+ */
+public abstract class TypeToken<T> {
+
+    private final Type type;
+
+    /**
+     * Captures the type argument of the anonymous subclass
+     */
+    protected TypeToken() {
+        if (!(getClass().getGenericSuperclass() instanceof ParameterizedType superclass)) {
+            throw new IllegalStateException("TypeToken must be created with a type argument, e.g. new TypeToken<List<Order>>() {}");
+        }
+        this.type = superclass.getActualTypeArguments()[0];
+    }
+
+    private TypeToken(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * Creates a {@link TypeToken} for a non-generic {@link Class}
+     * @param type the target {@link Class}
+     * @return the {@link TypeToken}
+     */
+    public static <T> TypeToken<T> of(Class<T> type) {
+        return new TypeToken<>(type) {};
+    }
+
+    /**
+     * Creates a {@link TypeToken} for a {@link List} of the provided element {@link Class}
+     * @param elementType the element {@link Class}
+     * @return the {@link TypeToken} of <i>List&lt;elementType&gt;</i>
+     */
+    public static <T> TypeToken<List<T>> listOf(Class<T> elementType) {
+        return new TypeToken<>(new ListType(elementType)) {};
+    }
+
+    /**
+     * @return the captured {@link Type}
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the erasure of the captured {@link Type}, e.g. <i>List</i> for <i>List&lt;Order&gt;</i>
+     */
+    public Class<?> getRawType() {
+        return rawType(type);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TypeToken<?> other && type.equals(other.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return type.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return type.getTypeName();
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return clazz;
+        }
+        if (type instanceof ParameterizedType parameterized) {
+            return rawType(parameterized.getRawType());
+        }
+        if (type instanceof GenericArrayType array) {
+            return rawType(array.getGenericComponentType()).arrayType();
+        }
+        if (type instanceof WildcardType wildcard) {
+            return rawType(wildcard.getUpperBounds()[0]);
+        }
+        if (type instanceof TypeVariable<?> variable) {
+            return rawType(variable.getBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    /**
+     * {@link ParameterizedType} of <i>List&lt;T&gt;</i> created at runtime
+     */
+    private record ListType(Class<?> elementType) implements ParameterizedType {
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return new Type[]{elementType};
+        }
+
+        @Override
+        public Type getRawType() {
+            return List.class;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return null;
+        }
+
+        @Override
+        public String getTypeName() {
+            return List.class.getName() + "<" + elementType.getTypeName() + ">";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ParameterizedType other && other.getRawType() == List.class && other.getOwnerType() == null
+                    && Arrays.equals(getActualTypeArguments(), other.getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            // same as the JDK ParameterizedType implementation, so equal types share cache entries
+            return Arrays.hashCode(getActualTypeArguments()) ^ List.class.hashCode();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.nestigogroup.jhttpclient.http2;
+
+/**
+ * Immutable settings of the HTTP/2 multiplexing mode.
+ * Requests to a host are spread over up to <i>maxConnectionsPerHost</i> connections with at most <i>maxConcurrentStreams</i> streams each,
+ * requests above that are queued locally instead of failing
+ */
+public final class Http2Settings {
+
+    /**
+     * 100 concurrent streams (the minimum recommended by RFC 9113 and the most common server setting) on up to 4 connections per host
+     */
+    public static final Http2Settings DEFAULT = new Http2Settings(100, 4);
+
+    private final int maxConcurrentStreams;
+    private final int maxConnectionsPerHost;
+
+    private Http2Settings(int maxConcurrentStreams, int maxConnectionsPerHost) {
+        if (maxConcurrentStreams < 1 || maxConnectionsPerHost < 1) {
+            throw new IllegalArgumentException("maxConcurrentStreams and maxConnectionsPerHost must be positive");
+        }
+        this.maxConcurrentStreams = maxConcurrentStreams;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    /**
+     * Creates the {@link #DEFAULT} settings to be extended with the <i>with*</i> methods
+     * @return the {@link #DEFAULT} settings
+     */
+    public static Http2Settings create() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a copy of the settings with the specified stream limit per connection.
+     * Should match the server's <b>SETTINGS_MAX_CONCURRENT_STREAMS</b>, a lower server limit is learned from the refused streams
+     * @param maxConcurrentStreams the maximum concurrent streams per connection
+     * @return new {@link Http2Settings} instance
+     */
+    public Http2Settings withMaxConcurrentStreams(int maxConcurrentStreams) {
+        return new Http2Settings(maxConcurrentStreams, maxConnectionsPerHost);
+    }
+
+    /**
+     * Returns a copy of the settings with the specified connection limit per host
+     * @param maxConnectionsPerHost the maximum connections opened to a single host when the stream limit is the bottleneck
+     * @return new {@link Http2Settings} instance
+     */
+    public Http2Settings withMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        return new Http2Settings(maxConcurrentStreams, maxConnectionsPerHost);
+    }
+
+    /**
+     * @return the maximum concurrent streams per connection
+     */
+    public int maxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    /**
+     * @return the maximum connections per host
+     */
+    public int maxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.nestigogroup.jhttpclient.http2;
+
+/**
+ * Point-in-time stream utilization of a single connection
+ * @param host the origin (<i>scheme://host:port</i>)
+ * @param connection the connection index for the host, starting at <b>0</b>
+ * @param activeStreams the requests currently in flight on the connection
+ * @param maxConcurrentStreams the stream limit applied to the connection (the learned server limit if lower than configured), <b>0</b> for HTTP/1.1 hosts
+ * @param queued the requests to the host waiting for a free stream
+ * @param multiplexed whether HTTP/2 was negotiated with the host, <b>false</b> also while unknown
+ */
+public record StreamUtilization(String host, int connection, int activeStreams, int maxConcurrentStreams, int queued, boolean multiplexed) {
+
+    /**
+     * @return the share of the stream limit in use, between <b>0</b> and <b>1</b>
+     */
+    public double utilization() {
+        return maxConcurrentStreams == 0 ? 0 : Math.min(1d, (double) activeStreams / maxConcurrentStreams);
+    }
+}
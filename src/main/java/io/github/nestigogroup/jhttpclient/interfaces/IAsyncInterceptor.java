@@ -0,0 +1,43 @@
+package io.github.nestigogroup.jhttpclient.interfaces;
+
+import io.github.nestigogroup.jhttpclient.responses.InterceptedResponse;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous request interceptor of the async clients. For every request the interceptors run in the order they were added:
+ * each can rewrite the request and then short-circuit it with a response, the body handler is wrapped by all interceptors that ran,
+ * the first added being the outermost
+ */
+public interface IAsyncInterceptor {
+
+    /**
+     * Rewrites the request, e.g. to add authentication or compression headers
+     * @param request the {@link HttpRequest} as rewritten by the previous interceptors
+     * @return the request to send
+     */
+    default CompletableFuture<HttpRequest> onRequestAsync(HttpRequest request) {
+        return CompletableFuture.completedFuture(request);
+    }
+
+    /**
+     * Answers the request without sending it, e.g. from a cache
+     * @param request the rewritten {@link HttpRequest}
+     * @return the {@link InterceptedResponse} or <b>null</b> to continue
+     */
+    default CompletableFuture<InterceptedResponse> respondAsync(HttpRequest request) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Wraps the response body handler, e.g. to decompress or tee the body
+     * @param request the request being sent
+     * @param handler the {@link HttpResponse.BodyHandler} wrapped by the interceptors added after this one
+     * @return the wrapped handler
+     */
+    default <T> HttpResponse.BodyHandler<T> wrap(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        return handler;
+    }
+}
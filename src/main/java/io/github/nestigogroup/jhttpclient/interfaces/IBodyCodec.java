@@ -0,0 +1,34 @@
+package io.github.nestigogroup.jhttpclient.interfaces;
+
+import io.github.nestigogroup.jhttpclient.exceptions.ObjectMappingException;
+
+import java.lang.reflect.Type;
+
+/**
+ * Byte-oriented body format of the Json clients (e.g. CBOR, Smile or protobuf), registered next to the {@link IObjectMapper}
+ * and chosen per response by its <b>Content-Type</b>. Implementations should be safe for concurrent use
+ */
+public interface IBodyCodec {
+
+    /**
+     * @return the media type sent as <b>Content-Type</b> and listed in <b>Accept</b>, e.g. <i>application/cbor</i>
+     */
+    String mediaType();
+
+    /**
+     * Converts a POJO/Record to the body bytes
+     * @param value the value, may be <b>null</b>
+     * @return the encoded body
+     * @throws ObjectMappingException when the value fails to be encoded
+     */
+    byte[] encode(Object value) throws ObjectMappingException;
+
+    /**
+     * Maps the body bytes to the target type
+     * @param body the received body
+     * @param type Target {@link Type}, a {@link Class} or a generic type
+     * @return the mapped value
+     * @throws ObjectMappingException when the body is not valid or can't be mapped to the provided {@link Type}
+     */
+    <T> T decode(byte[] body, Type type) throws ObjectMappingException;
+}
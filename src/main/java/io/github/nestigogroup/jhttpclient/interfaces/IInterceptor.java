@@ -0,0 +1,52 @@
+package io.github.nestigogroup.jhttpclient.interfaces;
+
+import io.github.nestigogroup.jhttpclient.responses.InterceptedResponse;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Synchronous request interceptor, usable with both the blocking and the async clients (on the calling thread).
+ * See {@link IAsyncInterceptor} for the order in which interceptors run
+ */
+public interface IInterceptor extends IAsyncInterceptor {
+
+    /**
+     * Rewrites the request, e.g. to add authentication or compression headers
+     * @param request the {@link HttpRequest} as rewritten by the previous interceptors
+     * @return the request to send
+     * @throws IOException to fail the request
+     */
+    default HttpRequest onRequest(HttpRequest request) throws IOException {
+        return request;
+    }
+
+    /**
+     * Answers the request without sending it, e.g. from a cache
+     * @param request the rewritten {@link HttpRequest}
+     * @return the {@link InterceptedResponse} or <b>null</b> to continue
+     * @throws IOException to fail the request
+     */
+    default InterceptedResponse respond(HttpRequest request) throws IOException {
+        return null;
+    }
+
+    @Override
+    default CompletableFuture<HttpRequest> onRequestAsync(HttpRequest request) {
+        try {
+            return CompletableFuture.completedFuture(onRequest(request));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    default CompletableFuture<InterceptedResponse> respondAsync(HttpRequest request) {
+        try {
+            return CompletableFuture.completedFuture(respond(request));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
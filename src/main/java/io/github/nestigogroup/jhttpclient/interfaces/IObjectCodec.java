@@ -0,0 +1,26 @@
+package io.github.nestigogroup.jhttpclient.interfaces;
+
+import io.github.nestigogroup.jhttpclient.exceptions.ObjectMappingException;
+
+/**
+ * Reusable reader/writer bound to a single target type, obtained from {@link IObjectMapper#bind(Class)}.
+ * Implementations should resolve everything type specific once, when bound, and be safe for concurrent use
+ */
+public interface IObjectCodec<T> {
+
+    /**
+     * Maps valid Json String to the bound type
+     * @param json Valid Json {@link String}
+     * @return the mapped value
+     * @throws ObjectMappingException when input String is not valid or can't be mapped to the bound type
+     */
+    T read(String json) throws ObjectMappingException;
+
+    /**
+     * Converts a value of the bound type to Json String
+     * @param value the value
+     * @return Valid Json {@link String}
+     * @throws ObjectMappingException when the value fails to be converted to String
+     */
+    String write(T value) throws ObjectMappingException;
+}
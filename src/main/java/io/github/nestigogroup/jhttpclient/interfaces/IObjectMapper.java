@@ -1,6 +1,9 @@
 package io.github.nestigogroup.jhttpclient.interfaces;
 
 import io.github.nestigogroup.jhttpclient.exceptions.ObjectMappingException;
+import io.github.nestigogroup.jhttpclient.helpers.TypeToken;
+
+import java.lang.reflect.Type;
 
 /**
  * Interface to be implemented to match the used Json serializer library
@@ -23,4 +26,50 @@ public interface IObjectMapper {
      * @throws ObjectMappingException when input String is not valid or can't be mapped to the provided {@link Class}
      */
     <T> T convertFromJson(String json, Class<T> outClass) throws ObjectMappingException;
+
+    /**
+     * Method that maps valid Json String to a generic type (e.g. <i>List&lt;Order&gt;</i>).
+     * The default implementation supports only plain {@link Class} targets, mappers supporting generics should override it
+     * @param json Valid Json {@link String}
+     * @param type Target {@link Type}
+     * @return the mapped value
+     * @throws ObjectMappingException when input String is not valid or can't be mapped to the provided {@link Type}
+     */
+    @SuppressWarnings("unchecked")
+    default <T> T convertFromJson(String json, Type type) throws ObjectMappingException {
+        if (type instanceof Class<?> outClass) {
+            return (T) convertFromJson(json, outClass);
+        }
+        throw new ObjectMappingException("Generic type " + type.getTypeName() + " is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Binds a reusable {@link IObjectCodec} to the target {@link Class}
+     * @param type Target {@link Class} of the desired POJO or {@link Record}
+     * @return the bound {@link IObjectCodec}
+     */
+    default <T> IObjectCodec<T> bind(Class<T> type) {
+        return bind(TypeToken.of(type));
+    }
+
+    /**
+     * Binds a reusable {@link IObjectCodec} to the (generic) target type.
+     * The default implementation delegates every call to this mapper, implementations should override it to pre-resolve their readers/writers once
+     * @param type the {@link TypeToken} of the target type
+     * @return the bound {@link IObjectCodec}
+     */
+    default <T> IObjectCodec<T> bind(TypeToken<T> type) {
+        var target = type.getType();
+        return new IObjectCodec<>() {
+            @Override
+            public T read(String json) throws ObjectMappingException {
+                return convertFromJson(json, target);
+            }
+
+            @Override
+            public String write(T value) throws ObjectMappingException {
+                return convertToJson(value);
+            }
+        };
+    }
 }
@@ -1,9 +1,24 @@
 package io.github.nestigogroup.jhttpclient.internal;
 
-import io.github.nestigogroup.jhttpclient.helpers.RequestHelper;
+import io.github.nestigogroup.jhttpclient.cache.DiskCache;
+import io.github.nestigogroup.jhttpclient.exceptions.RateLimitExceededException;
+import io.github.nestigogroup.jhttpclient.exceptions.ResponseTooLargeException;
+import io.github.nestigogroup.jhttpclient.http2.Http2Settings;
+import io.github.nestigogroup.jhttpclient.http2.StreamUtilization;
+import io.github.nestigogroup.jhttpclient.interfaces.IAsyncInterceptor;
+import io.github.nestigogroup.jhttpclient.monitoring.ClientMonitorMXBean;
+import io.github.nestigogroup.jhttpclient.monitoring.ClientSnapshot;
+import io.github.nestigogroup.jhttpclient.monitoring.TenantSnapshot;
+import io.github.nestigogroup.jhttpclient.ratelimit.RateLimiter;
+import io.github.nestigogroup.jhttpclient.requests.Priority;
+import io.github.nestigogroup.jhttpclient.requests.RequestOptions;
+import io.github.nestigogroup.jhttpclient.requests.TenantSettings;
+import io.github.nestigogroup.jhttpclient.timeouts.AdaptiveTimeouts;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
 import javax.net.ssl.SSLContext;
-import java.net.URI;
+import java.io.IOException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
@@ -11,26 +26,49 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.Duration;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
  * Non-blocking Http Client build around the {@link HttpClient}
  */
-public class AsyncHttpClient {
+public class AsyncHttpClient implements AutoCloseable {
 
-    private final HttpClient httpClient;
+    private final SharedTransport.Lease transport;
+    private final Executor executor;
     private final Map<String, String> headers;
     private final Charset charset;
+    private final ClientMonitor monitor = new ClientMonitor();
+    private volatile RateLimiter rateLimiter;
+    private volatile long maxResponseSize;
+    private volatile DiskCache diskCache;
+    private volatile boolean traceContext = true;
+    private volatile TimeoutTracker timeoutTracker;
+    private volatile ExpectContinue expectContinue;
+    private volatile IAsyncInterceptor[] interceptors = new IAsyncInterceptor[0];
+    private volatile StreamScheduler streamScheduler;
+    private volatile DispatchGate dispatchGate;
+    private int maxInFlight;
+    private TenantSettings tenantSettings = TenantSettings.DEFAULT;
 
     /**
      * Creates an instance of the {@link AsyncHttpClient} with HTTP version 1.1, preventing redirects from <i>Https</i> to <i>Http</i>, 30 seconds timeout and UTF-8 as Charset
      */
     public AsyncHttpClient() {
-        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).followRedirects(HttpClient.Redirect.NORMAL).connectTimeout(Duration.ofSeconds(30)).build();
-        headers = new HashMap<>();
+        transport = SharedTransport.acquire(this, HttpClient.Version.HTTP_1_1, null, HttpClient.Redirect.NORMAL, Duration.ofSeconds(30), null);
+        executor = null;
+        headers = new ConcurrentHashMap<>();
         addHeader("User-Agent", "RestHttpClient/1.0");
         charset = StandardCharsets.UTF_8;
     }
@@ -59,21 +97,14 @@ public class AsyncHttpClient {
      * @param charset The specified {@link Charset}
      */
     public AsyncHttpClient(HttpClient.Version version, Executor executor, HttpClient.Redirect redirectPolicy, Duration timeout, SSLContext sslContext, Map<String, String> headers, Charset charset) {
-        this.headers = new HashMap<>();
-        var clientBuilder = HttpClient.newBuilder();
-        clientBuilder.version(version);
-        if(executor != null) {
-            clientBuilder.executor(executor);
-        }
-        clientBuilder.followRedirects(redirectPolicy);
-        clientBuilder.connectTimeout(timeout);
-        clientBuilder.sslContext(sslContext);
+        this.headers = new ConcurrentHashMap<>();
         if (headers != null) {
             this.headers.putAll(headers);
         }
         addHeader("User-Agent", "RestHttpClient/1.0");
         this.charset = charset != null ? charset : StandardCharsets.UTF_8;
-        httpClient = clientBuilder.build();
+        transport = SharedTransport.acquire(this, version, executor, redirectPolicy, timeout, Objects.requireNonNull(sslContext, "sslContext"));
+        this.executor = executor;
     }
 
     /**
@@ -94,14 +125,215 @@ public class AsyncHttpClient {
         headers.remove(name);
     }
 
+    /**
+     * @return the {@link Charset} of the text bodies
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Sets the client-side {@link RateLimiter} applied to all requests after. Use <b>null</b> to disable rate limiting
+     * @param rateLimiter the {@link RateLimiter} or <b>null</b>
+     */
+    public void setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Sets the maximum response body size for all requests after. Larger responses are aborted with {@link ResponseTooLargeException}
+     * as soon as the <b>Content-Length</b> or the received byte count exceeds it. Can be overridden per request with {@link RequestOptions#withMaxResponseSize(long)}
+     * @param maxResponseSize the cap in bytes, <b>0</b> or negative value for no cap
+     */
+    public void setMaxResponseSize(long maxResponseSize) {
+        this.maxResponseSize = maxResponseSize;
+    }
+
+    /**
+     * Sets a budget of the response body bytes held by all responses of requests sent after. While it is exhausted new responses wait,
+     * without reading their body, until running responses complete or consume their bytes (see {@link ClientSnapshot#budgetUsedBytes()})
+     * @param maxBytes the budget in bytes, <b>0</b> or negative value for no budget
+     */
+    public void setByteBudget(long maxBytes) {
+        monitor.budget(maxBytes > 0 ? new ByteBudget(maxBytes) : null);
+    }
+
+    /**
+     * Sends requests with a body of at least <i>threshold</i> bytes, or of unknown length, with <b>Expect: 100-continue</b> so the server can
+     * answer (e.g. 401 or 413) before the body is sent. Per-request expectations ({@link RequestOptions#withExpectContinue(boolean)}) apply regardless of the threshold.
+     * With a <i>wait</i>, an exchange that received neither the interim nor the final response in time is sent again without the expectation
+     * @param threshold the minimum body size in bytes, <b>0</b> or negative value for per-request expectations only
+     * @param wait the wait for the interim response or <b>null</b> to wait until the response or the request timeout
+     */
+    public void setExpectContinue(long threshold, Duration wait) {
+        this.expectContinue = threshold > 0 || wait != null ? new ExpectContinue(threshold, wait) : null;
+    }
+
+    /**
+     * Releases the underlying {@link HttpClient}, which is shared by the clients created with the same version, executor, redirect policy, timeout and {@link SSLContext}
+     * and is built on the first request, and the HTTP/2 lanes of {@link #setHttp2Settings(Http2Settings)}, shared the same way. The last client to be closed (or garbage collected) drops them.
+     * Requests sent after are rejected with {@link IllegalStateException}
+     */
+    @Override
+    public void close() {
+        var scheduler = streamScheduler;
+        if (scheduler != null) {
+            scheduler.close();
+        }
+        transport.release();
+    }
+
+    /**
+     * Sets the {@link DiskCache} used by the <i>getCachedFile</i> methods. Use <b>null</b> to disable caching
+     * @param diskCache the {@link DiskCache} or <b>null</b>
+     */
+    public void setDiskCache(DiskCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
+    /**
+     * Enables or disables the W3C <b>traceparent</b> header sent with all requests after (enabled by default).
+     * A <b>traceparent</b> set in the client or per-request headers is continued as the parent of the new span, otherwise a new trace is started
+     * @param enabled whether to propagate the trace context
+     */
+    public void setTraceContextPropagation(boolean enabled) {
+        this.traceContext = enabled;
+    }
+
+    /**
+     * Enables adaptive response timeouts for all requests after: requests without a per-request timeout get a timeout derived from the
+     * recent latency of their host and route (see {@link AdaptiveTimeouts}). Use <b>null</b> to disable the mode
+     * @param settings the {@link AdaptiveTimeouts} or <b>null</b>
+     */
+    public void setAdaptiveTimeouts(AdaptiveTimeouts settings) {
+        this.timeoutTracker = settings != null ? new TimeoutTracker(settings) : null;
+    }
+
+    /**
+     * Returns the current adaptive timeout of every tracked route
+     * @return {@link Map} of <i>host route-template</i> to timeout, empty when the mode is disabled
+     */
+    public Map<String, Duration> getRouteTimeouts() {
+        var tracker = timeoutTracker;
+        return tracker != null ? tracker.timeouts() : Map.of();
+    }
+
+    /**
+     * Captures the requests currently in flight per host, split into queued (waiting for the rate limiter or a free HTTP/2 stream) and active,
+     * with the oldest request age, the response bytes received by unfinished requests and the throughput of the last 10 seconds
+     * @return the {@link ClientSnapshot}
+     */
+    public ClientSnapshot getSnapshot() {
+        return monitor.getSnapshot();
+    }
+
+    /**
+     * Registers the {@link ClientMonitorMXBean} of this client with the platform MBean server as
+     * <i>io.github.nestigogroup.jhttpclient:type=HttpClient,name=&lt;name&gt;</i>, replacing a previous registration of this client
+     * @param name the client name, unique within the JVM
+     * @return the registered {@link ObjectName}
+     * @throws JMException if the name is invalid or already registered
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        return monitor.register(name);
+    }
+
+    /**
+     * Removes the registration made by {@link #registerMBean(String)}, has no effect if the client is not registered
+     * @throws JMException if the MBean server rejects the removal
+     */
+    public void unregisterMBean() throws JMException {
+        monitor.unregister();
+    }
+
+    /**
+     * Adds an interceptor to the chain applied to all requests after, interceptors run in the order they were added
+     * (see {@link IAsyncInterceptor}). The chain is copied on change, so requests in progress keep the chain they started with
+     * @param interceptor the {@link IAsyncInterceptor}
+     */
+    public synchronized void addInterceptor(IAsyncInterceptor interceptor) {
+        interceptors = Interceptors.add(interceptors, interceptor);
+    }
+
+    /**
+     * Removes an interceptor from the chain, has no effect if it was not added
+     * @param interceptor the {@link IAsyncInterceptor}
+     */
+    public synchronized void removeInterceptor(IAsyncInterceptor interceptor) {
+        interceptors = Interceptors.remove(interceptors, interceptor);
+    }
+
+    /**
+     * Enables the HTTP/2 multiplexing mode for all requests after: requests are sent as HTTP/2, kept under the per-connection stream limit,
+     * queued locally when all connections to the host are full and spread over additional connections when the stream limit is the bottleneck.
+     * Hosts that negotiate HTTP/1.1 are detected from the first response and bypass the limits. Use <b>null</b> to disable the mode.
+     * The lanes are built on first use, the lanes of replaced settings are released once their requests are done and they become unreachable
+     * @param settings the {@link Http2Settings} or <b>null</b>
+     */
+    public void setHttp2Settings(Http2Settings settings) {
+        this.streamScheduler = settings != null ? new StreamScheduler(settings, transport) : null;
+    }
+
+    /**
+     * Caps the number of requests in flight for all requests after. Requests above the cap wait locally and are started by
+     * {@link RequestOptions#withPriority(Priority) priority} as others complete, each waiting class getting a share of the freed slots
+     * proportional to its {@link Priority#weight()}. The HTTP/2 stream limits order their queues the same way
+     * @param maxInFlight the maximum number of requests in flight, <b>0</b> or negative value for no cap
+     */
+    public synchronized void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = Math.max(0, maxInFlight);
+        this.dispatchGate = newDispatchGate();
+    }
+
+    /**
+     * Sets the fair queuing of the requests tagged with {@link RequestOptions#withTenant(String)} for all requests after.
+     * Waiting requests are started tenant by tenant in deficit round-robin order, weighted per tenant, and each tenant is held to its own
+     * in-flight cap even while the client cap has room. Weights only order requests that wait: without {@link #setMaxInFlight(int)} or a
+     * tenant cap no request ever waits and the weights have no effect. Use <b>null</b> to restore the {@link TenantSettings#DEFAULT}
+     * @param settings the {@link TenantSettings} or <b>null</b>
+     */
+    public synchronized void setTenantSettings(TenantSettings settings) {
+        this.tenantSettings = settings != null ? settings : TenantSettings.DEFAULT;
+        this.dispatchGate = newDispatchGate();
+    }
+
+    /**
+     * Returns the in-flight and queued requests per tenant, only requests subject to {@link #setMaxInFlight(int)} or a tenant cap are counted
+     * @return {@link List} of {@link TenantSnapshot}, empty when no cap is set
+     */
+    public List<TenantSnapshot> getTenantSnapshots() {
+        var gate = dispatchGate;
+        return gate != null ? gate.tenants() : List.of();
+    }
+
+    /**
+     * Returns the stream utilization of every connection opened in HTTP/2 multiplexing mode.
+     * A request occupies its stream until its body handler completes (for streaming handlers until the headers are received)
+     * @return {@link List} of {@link StreamUtilization}, empty when the mode is disabled
+     */
+    public List<StreamUtilization> getStreamUtilization() {
+        var scheduler = streamScheduler;
+        return scheduler != null ? scheduler.utilization() : List.of();
+    }
+
     /**
      * Performs async HEAD request and returns to the caller {@link CompletableFuture}
      * @param url The Request URL
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<Void>> headBodyHandler(String url) {
-        var request = HttpRequest.newBuilder().uri(URI.create(url)).method("HEAD", HttpRequest.BodyPublishers.noBody()).headers(RequestHelper.convertToHeadersArray(headers)).build();
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        return headBodyHandler(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async HEAD request and returns to the caller {@link CompletableFuture}
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<Void>> headBodyHandler(String url, RequestOptions options) {
+        var request = RequestFactory.build(url, "HEAD", HttpRequest.BodyPublishers.noBody(), headers, options, traceContext);
+        return send(request, HttpResponse.BodyHandlers.discarding(), options);
     }
 
     /**
@@ -111,8 +343,19 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public <T> CompletableFuture<HttpResponse<T>> getBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler) {
-        var request = HttpRequest.newBuilder().uri(URI.create(url)).GET().headers(RequestHelper.convertToHeadersArray(headers)).build();
-        return httpClient.sendAsync(request, respHandler);
+        return getBodyHandler(url, respHandler, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async GET request and returns to the caller {@link CompletableFuture}
+     * @param url The Request URL
+     * @param respHandler The specific handler to process the response (refer: {@link java.net.http.HttpResponse.BodyHandler})
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public <T> CompletableFuture<HttpResponse<T>> getBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, RequestOptions options) {
+        var request = RequestFactory.build(url, "GET", HttpRequest.BodyPublishers.noBody(), headers, options, traceContext);
+        return send(request, respHandler, options);
     }
 
     /**
@@ -121,7 +364,17 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<byte[]>> getBinary(String url) {
-        return getBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray());
+        return getBinary(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async GET request and returns to the caller {@link CompletableFuture} with <b>byte[]</b> response body
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<byte[]>> getBinary(String url, RequestOptions options) {
+        return getBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), options);
     }
 
     /**
@@ -130,7 +383,17 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<String>> getString(String url) {
-        return getBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset));
+        return getString(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async GET request and returns to the caller {@link CompletableFuture} with {@link String} response body
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<String>> getString(String url, RequestOptions options) {
+        return getBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), options);
     }
 
     /**
@@ -140,7 +403,143 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<Path>> getFile(String url, Path path) {
-        return getBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path));
+        return getFile(url, path, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async GET request and returns to the caller {@link CompletableFuture} and stores the response in <b>File</b> define by the provided {@link Path}
+     * @param url The Request URL
+     * @param path The location where the file should be downloaded
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<Path>> getFile(String url, Path path, RequestOptions options) {
+        return getBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), options);
+    }
+
+    /**
+     * Executes asynchronously a GET request toward the provided url through the configured {@link DiskCache} and stores the response body in the <b>File</b> defined by the provided {@link Path}.
+     * Cached bodies are revalidated with <b>If-None-Match</b> and copied from the cache on <b>304 Not Modified</b>, reported as <b>200</b>.
+     * Without a configured {@link DiskCache} the body is downloaded directly
+     * @param url The Request URL
+     * @param path The file where the body should be stored
+     * @return CompletableFuture resolving to {@link java.net.http.HttpResponse} object
+     */
+    public CompletableFuture<HttpResponse<Path>> getCachedFile(String url, Path path) {
+        return getCachedFile(url, path, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes asynchronously a GET request toward the provided url through the configured {@link DiskCache} and stores the response body in the <b>File</b> defined by the provided {@link Path}.
+     * Cached bodies are revalidated with <b>If-None-Match</b> and copied from the cache on <b>304 Not Modified</b>, reported as <b>200</b>.
+     * Without a configured {@link DiskCache} the body is downloaded directly
+     * @param url The Request URL
+     * @param path The file where the body should be stored
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture resolving to {@link java.net.http.HttpResponse} object
+     */
+    public CompletableFuture<HttpResponse<Path>> getCachedFile(String url, Path path, RequestOptions options) {
+        var request = RequestFactory.build(url, "GET", HttpRequest.BodyPublishers.noBody(), headers, options, traceContext);
+        var cache = diskCache;
+        if (cache == null) {
+            return send(request, HttpResponse.BodyHandlers.ofFile(path), options);
+        }
+        return cachedDownload(cache, request, path, options, true);
+    }
+
+    /**
+     * Streams the body of a GET response from <i>sourceUrl</i> into a request toward <i>targetUrl</i> without buffering it in memory or on disk.
+     * The source is read only as fast as the target accepts the body, its <b>Content-Length</b> and <b>Content-Type</b> are passed on
+     * @param sourceUrl the URL to download from
+     * @param targetUrl the URL to upload to
+     * @param method the upload HTTP method, e.g. <i>PUT</i> or <i>POST</i>
+     * @param respHandler The specific handler to process the target response (refer: {@link java.net.http.HttpResponse.BodyHandler})
+     * @return CompletableFuture that resolves to the target {@link HttpResponse}, cancelling it aborts both transfers
+     */
+    public <T> CompletableFuture<HttpResponse<T>> relay(String sourceUrl, String targetUrl, String method, HttpResponse.BodyHandler<T> respHandler) {
+        return relay(sourceUrl, targetUrl, method, respHandler, RequestOptions.DEFAULT, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Streams the body of a GET response from <i>sourceUrl</i> into a request toward <i>targetUrl</i> without buffering it in memory or on disk.
+     * The source is read only as fast as the target accepts the body, its <b>Content-Length</b> and <b>Content-Type</b> are passed on
+     * (the latter unless set in the target options). A non-2xx source response fails with {@link IOException} without contacting the target,
+     * a failed source aborts the upload and a target that fails or answers early stops the download
+     * @param sourceUrl the URL to download from
+     * @param targetUrl the URL to upload to
+     * @param method the upload HTTP method, e.g. <i>PUT</i> or <i>POST</i>
+     * @param respHandler The specific handler to process the target response (refer: {@link java.net.http.HttpResponse.BodyHandler})
+     * @param sourceOptions the {@link RequestOptions} of the download
+     * @param targetOptions the {@link RequestOptions} of the upload
+     * @return CompletableFuture that resolves to the target {@link HttpResponse}, cancelling it aborts both transfers
+     */
+    public <T> CompletableFuture<HttpResponse<T>> relay(String sourceUrl, String targetUrl, String method, HttpResponse.BodyHandler<T> respHandler, RequestOptions sourceOptions, RequestOptions targetOptions) {
+        var result = new CompletableFuture<HttpResponse<T>>();
+        var relayed = new AtomicReference<RelayPublisher>();
+        var upload = new AtomicReference<CompletableFuture<HttpResponse<T>>>();
+        var source = RequestFactory.build(sourceUrl, "GET", HttpRequest.BodyPublishers.noBody(), headers, sourceOptions, traceContext);
+        var download = send(source, HttpResponse.BodyHandlers.ofPublisher(), sourceOptions);
+        download.whenComplete((sourceResp, sourceError) -> {
+            if (sourceError != null) {
+                result.completeExceptionally(sourceError instanceof CompletionException && sourceError.getCause() != null ? sourceError.getCause() : sourceError);
+                return;
+            }
+            var relay = new RelayPublisher(sourceResp.body());
+            relayed.set(relay);
+            if (result.isDone()) {
+                relay.cancel();
+                return;
+            }
+            if (sourceResp.statusCode() / 100 != 2) {
+                relay.cancel();
+                result.completeExceptionally(new IOException("Relay source " + sourceUrl + " responded with status " + sourceResp.statusCode()));
+                return;
+            }
+            var length = sourceResp.headers().firstValueAsLong("Content-Length").orElse(-1);
+            HttpRequest.BodyPublisher body;
+            if (length > 0) {
+                body = HttpRequest.BodyPublishers.fromPublisher(relay, length);
+            } else if (length == 0) {
+                relay.cancel();
+                body = HttpRequest.BodyPublishers.noBody();
+            } else {
+                body = HttpRequest.BodyPublishers.fromPublisher(relay);
+            }
+            var options = targetOptions;
+            var contentType = sourceResp.headers().firstValue("Content-Type");
+            if (contentType.isPresent() && options.headers().keySet().stream().noneMatch("Content-Type"::equalsIgnoreCase)) {
+                options = options.withHeader("Content-Type", contentType.get());
+            }
+            var target = RequestFactory.build(targetUrl, method, body, headers, options, traceContext);
+            var sent = send(target, respHandler, options);
+            upload.set(sent);
+            if (result.isCancelled()) {
+                sent.cancel(true);
+            }
+            sent.whenComplete((targetResp, targetError) -> {
+                relay.cancel();
+                if (targetError != null) {
+                    result.completeExceptionally(targetError instanceof CompletionException && targetError.getCause() != null ? targetError.getCause() : targetError);
+                } else {
+                    result.complete(targetResp);
+                }
+            });
+        });
+        result.whenComplete((resp, e) -> {
+            if (!result.isCancelled()) {
+                return;
+            }
+            download.cancel(true);
+            var sent = upload.get();
+            if (sent != null) {
+                sent.cancel(true);
+            }
+            var relay = relayed.get();
+            if (relay != null) {
+                relay.cancel();
+            }
+        });
+        return result;
     }
 
     /**
@@ -151,8 +550,20 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public <T> CompletableFuture<HttpResponse<T>> postBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, HttpRequest.BodyPublisher body) {
-        var request = HttpRequest.newBuilder().uri(URI.create(url)).POST(body).headers(RequestHelper.convertToHeadersArray(headers)).build();
-        return httpClient.sendAsync(request, respHandler);
+        return postBodyHandler(url, respHandler, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async POST request and returns to the caller {@link CompletableFuture}
+     * @param url The Request URL
+     * @param respHandler The specific handler to process the response (refer: {@link java.net.http.HttpResponse.BodyHandler})
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public <T> CompletableFuture<HttpResponse<T>> postBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, HttpRequest.BodyPublisher body, RequestOptions options) {
+        var request = RequestFactory.build(url, "POST", body, headers, options, traceContext);
+        return send(request, respHandler, options);
     }
 
     /**
@@ -162,17 +573,39 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<byte[]>> postBinary(String url, HttpRequest.BodyPublisher body) {
-        return postBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), body);
+        return postBinary(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async POST request and returns to the caller {@link CompletableFuture} with <b>byte[]</b> response body
+     * @param url The Request URL
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<byte[]>> postBinary(String url, HttpRequest.BodyPublisher body, RequestOptions options) {
+        return postBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), body, options);
+    }
+
+    /**
+     * Performs async POST request and returns to the caller {@link CompletableFuture} with {@link String} response body
+     * @param url The Request URL
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<String>> postString(String url, HttpRequest.BodyPublisher body) {
+        return postString(url, body, RequestOptions.DEFAULT);
     }
 
     /**
      * Performs async POST request and returns to the caller {@link CompletableFuture} with {@link String} response body
      * @param url The Request URL
      * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
-    public CompletableFuture<HttpResponse<String> >postString(String url, HttpRequest.BodyPublisher body) {
-        return postBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), body);
+    public CompletableFuture<HttpResponse<String>> postString(String url, HttpRequest.BodyPublisher body, RequestOptions options) {
+        return postBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), body, options);
     }
 
     /**
@@ -183,7 +616,19 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<Path>> postFile(String url, Path path, HttpRequest.BodyPublisher body) {
-        return postBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), body);
+        return postFile(url, path, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async POST request and returns to the caller {@link CompletableFuture} and stores the response in <b>File</b> define by the provided {@link Path}
+     * @param url The Request URL
+     * @param path The location where the file should be downloaded
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<Path>> postFile(String url, Path path, HttpRequest.BodyPublisher body, RequestOptions options) {
+        return postBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), body, options);
     }
 
     /**
@@ -194,8 +639,20 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public <T> CompletableFuture<HttpResponse<T>> putBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, HttpRequest.BodyPublisher body) {
-        var request = HttpRequest.newBuilder().uri(URI.create(url)).PUT(body).headers(RequestHelper.convertToHeadersArray(headers)).build();
-        return httpClient.sendAsync(request, respHandler);
+        return putBodyHandler(url, respHandler, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async PUT request and returns to the caller {@link CompletableFuture}
+     * @param url The Request URL
+     * @param respHandler The specific handler to process the response (refer: {@link java.net.http.HttpResponse.BodyHandler})
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public <T> CompletableFuture<HttpResponse<T>> putBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, HttpRequest.BodyPublisher body, RequestOptions options) {
+        var request = RequestFactory.build(url, "PUT", body, headers, options, traceContext);
+        return send(request, respHandler, options);
     }
 
     /**
@@ -205,7 +662,18 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<byte[]>> putBinary(String url, HttpRequest.BodyPublisher body) {
-        return putBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), body);
+        return putBinary(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async PUT request and returns to the caller {@link CompletableFuture} with <b>byte[]</b> response body
+     * @param url The Request URL
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<byte[]>> putBinary(String url, HttpRequest.BodyPublisher body, RequestOptions options) {
+        return putBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), body, options);
     }
 
     /**
@@ -215,7 +683,18 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<String>> putString(String url, HttpRequest.BodyPublisher body) {
-        return putBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), body);
+        return putString(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async PUT request and returns to the caller {@link CompletableFuture} with {@link String} response body
+     * @param url The Request URL
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<String>> putString(String url, HttpRequest.BodyPublisher body, RequestOptions options) {
+        return putBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), body, options);
     }
 
     /**
@@ -226,7 +705,19 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<Path>> putFile(String url, Path path, HttpRequest.BodyPublisher body) {
-        return putBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), body);
+        return putFile(url, path, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async PUT request and returns to the caller {@link CompletableFuture} and stores the response in <b>File</b> define by the provided {@link Path}
+     * @param url The Request URL
+     * @param path The location where the file should be downloaded
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<Path>> putFile(String url, Path path, HttpRequest.BodyPublisher body, RequestOptions options) {
+        return putBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), body, options);
     }
 
     /**
@@ -237,8 +728,20 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public <T> CompletableFuture<HttpResponse<T>> patchBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, HttpRequest.BodyPublisher body) {
-        var request = HttpRequest.newBuilder().uri(URI.create(url)).method("PATCH", body).headers(RequestHelper.convertToHeadersArray(headers)).build();
-        return httpClient.sendAsync(request, respHandler);
+        return patchBodyHandler(url, respHandler, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async PATCH request and returns to the caller {@link CompletableFuture}
+     * @param url The Request URL
+     * @param respHandler The specific handler to process the response (refer: {@link java.net.http.HttpResponse.BodyHandler})
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public <T> CompletableFuture<HttpResponse<T>> patchBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, HttpRequest.BodyPublisher body, RequestOptions options) {
+        var request = RequestFactory.build(url, "PATCH", body, headers, options, traceContext);
+        return send(request, respHandler, options);
     }
 
     /**
@@ -248,7 +751,18 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<byte[]>> patchBinary(String url, HttpRequest.BodyPublisher body) {
-        return patchBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), body);
+        return patchBinary(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async PATCH request and returns to the caller {@link CompletableFuture} with <b>byte[]</b> response body
+     * @param url The Request URL
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<byte[]>> patchBinary(String url, HttpRequest.BodyPublisher body, RequestOptions options) {
+        return patchBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), body, options);
     }
 
     /**
@@ -258,7 +772,18 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<String>> patchString(String url, HttpRequest.BodyPublisher body) {
-        return patchBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), body);
+        return patchString(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async PATCH request and returns to the caller {@link CompletableFuture} with {@link String} response body
+     * @param url The Request URL
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<String>> patchString(String url, HttpRequest.BodyPublisher body, RequestOptions options) {
+        return patchBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), body, options);
     }
 
     /**
@@ -269,7 +794,19 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<Path>> patchFile(String url, Path path, HttpRequest.BodyPublisher body) {
-        return patchBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), body);
+        return patchFile(url, path, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async PATCH request and returns to the caller {@link CompletableFuture} and stores the response in <b>File</b> define by the provided {@link Path}
+     * @param url The Request URL
+     * @param path The location where the file should be downloaded
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<Path>> patchFile(String url, Path path, HttpRequest.BodyPublisher body, RequestOptions options) {
+        return patchBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), body, options);
     }
 
     /**
@@ -279,8 +816,19 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public <T> CompletableFuture<HttpResponse<T>> deleteBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler) {
-        var request = HttpRequest.newBuilder().uri(URI.create(url)).DELETE().headers(RequestHelper.convertToHeadersArray(headers)).build();
-        return httpClient.sendAsync(request, respHandler);
+        return deleteBodyHandler(url, respHandler, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async DELETE request and returns to the caller {@link CompletableFuture}
+     * @param url The Request URL
+     * @param respHandler The specific handler to process the response (refer: {@link java.net.http.HttpResponse.BodyHandler})
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public <T> CompletableFuture<HttpResponse<T>> deleteBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, RequestOptions options) {
+        var request = RequestFactory.build(url, "DELETE", HttpRequest.BodyPublishers.noBody(), headers, options, traceContext);
+        return send(request, respHandler, options);
     }
 
     /**
@@ -289,7 +837,17 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<byte[]>> deleteBinary(String url) {
-        return deleteBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray());
+        return deleteBinary(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async DELETE request and returns to the caller {@link CompletableFuture} with <b>byte[]</b> response body
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<byte[]>> deleteBinary(String url, RequestOptions options) {
+        return deleteBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), options);
     }
 
     /**
@@ -298,7 +856,17 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<String>> deleteString(String url) {
-        return deleteBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset));
+        return deleteString(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async DELETE request and returns to the caller {@link CompletableFuture} with {@link String} response body
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<String>> deleteString(String url, RequestOptions options) {
+        return deleteBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), options);
     }
 
     /**
@@ -308,6 +876,195 @@ public class AsyncHttpClient {
      * @return CompletableFuture that resolves to {@link HttpResponse}
      */
     public CompletableFuture<HttpResponse<Path>> deleteFile(String url, Path path) {
-        return deleteBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path));
+        return deleteFile(url, path, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Performs async DELETE request and returns to the caller {@link CompletableFuture} and stores the response in <b>File</b> define by the provided {@link Path}
+     * @param url The Request URL
+     * @param path The location where the file should be downloaded
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return CompletableFuture that resolves to {@link HttpResponse}
+     */
+    public CompletableFuture<HttpResponse<Path>> deleteFile(String url, Path path, RequestOptions options) {
+        return deleteBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), options);
+    }
+
+    private CompletableFuture<HttpResponse<Path>> cachedDownload(DiskCache cache, HttpRequest request, Path path, RequestOptions options, boolean revalidate) {
+        CachedDownload download;
+        try {
+            download = new CachedDownload(cache, request, revalidate);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        var sent = send(download.request(), download.bodyHandler(), options);
+        return Cancellation.derive(sent, sent
+                .whenComplete((resp, e) -> {
+                    if (e != null) {
+                        download.abort();
+                    }
+                })
+                .thenComposeAsync(resp -> {
+                    try {
+                        var response = download.complete(resp, path);
+                        return response != null ? CompletableFuture.completedFuture(response) : cachedDownload(cache, request, path, options, false);
+                    } catch (IOException e) {
+                        download.abort();
+                        return CompletableFuture.failedFuture(e);
+                    }
+                }, blockingExecutor()));
+    }
+
+    /**
+     * Maps the response of an exchange of this client, cancelling the returned future or letting its timeout fire aborts the exchange
+     * like cancelling the exchange future itself
+     * @param exchange the future returned by the client
+     * @param mapper the mapping function
+     * @return the mapped future
+     */
+    protected static <T, U> CompletableFuture<U> map(CompletableFuture<T> exchange, Function<? super T, ? extends U> mapper) {
+        return Cancellation.derive(exchange, exchange.thenApply(mapper));
+    }
+
+    /**
+     * Maps the response of an exchange of this client in the default async pool, cancelling the returned future or letting its timeout fire
+     * aborts the exchange like cancelling the exchange future itself
+     * @param exchange the future returned by the client
+     * @param mapper the mapping function
+     * @return the mapped future
+     */
+    protected static <T, U> CompletableFuture<U> mapAsync(CompletableFuture<T> exchange, Function<? super T, ? extends U> mapper) {
+        return Cancellation.derive(exchange, exchange.thenApplyAsync(mapper));
+    }
+
+    /**
+     * Maps the response of an exchange with a mapper that blocks while the body streams in (e.g. reads an {@link java.io.InputStream} body).
+     * The mapper runs on the executor of the client or, without one, on a shared pool dedicated to blocking reads, never in the default async pool.
+     * Cancelling the returned future or letting its timeout fire aborts the exchange like cancelling the exchange future itself
+     * @param exchange the future returned by the client
+     * @param mapper the blocking mapping function
+     * @return the mapped future
+     */
+    protected <T, U> CompletableFuture<U> mapBlocking(CompletableFuture<T> exchange, Function<? super T, ? extends U> mapper) {
+        return Cancellation.derive(exchange, exchange.thenApplyAsync(mapper, blockingExecutor()));
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, RequestOptions options) {
+        var chain = interceptors;
+        var cancellation = new Cancellation();
+        return cancellation.link(chain.length == 0 ? execute(request, bodyHandler, options, cancellation) : intercept(chain, 0, request, bodyHandler, options, cancellation));
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> intercept(IAsyncInterceptor[] chain, int index, HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, RequestOptions options, Cancellation cancellation) {
+        if (index == chain.length) {
+            return execute(request, Interceptors.wrap(chain, index, request, bodyHandler), options, cancellation);
+        }
+        var interceptor = chain[index];
+        return interceptor.onRequestAsync(request).thenCompose(rewritten -> interceptor.respondAsync(rewritten).thenCompose(intercepted -> intercepted != null
+                ? Interceptors.respondAsync(rewritten, intercepted, Interceptors.wrap(chain, index, rewritten, bodyHandler))
+                : intercept(chain, index + 1, rewritten, bodyHandler, options, cancellation)));
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> execute(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, RequestOptions options, Cancellation cancellation) {
+        var tracker = timeoutTracker;
+        var timed = tracker != null ? tracker.apply(request) : request;
+        var recorder = ExchangeRecorder.start(timed);
+        var inFlight = monitor.begin(timed);
+        var respHandler = inFlight.wrap(LimitingBodyHandler.of(bodyHandler, timed.method(), options, maxResponseSize));
+        var budget = monitor.budget();
+        if (budget != null) {
+            respHandler = budget.wrap(respHandler, timed.method());
+        }
+        if (tracker != null) {
+            respHandler = tracker.wrap(timed, respHandler, inFlight);
+        }
+        respHandler = cancellation.wrap(respHandler);
+        var response = limit(timed, recorder != null ? recorder.wrap(respHandler) : respHandler, options, inFlight, cancellation)
+                .whenComplete((resp, e) -> {
+                    inFlight.end();
+                    if (e != null && tracker != null) {
+                        tracker.onFailure(request, timed, e);
+                    }
+                });
+        return recorder != null ? response.whenComplete(recorder::finish) : response;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> limit(HttpRequest request, HttpResponse.BodyHandler<T> respHandler, RequestOptions options, ClientMonitor.InFlight inFlight, Cancellation cancellation) {
+        var limiter = rateLimiter;
+        if (limiter == null) {
+            return admit(request, respHandler, options, inFlight, cancellation);
+        }
+        var wait = limiter.reserve(request.uri());
+        if (wait < 0) {
+            return CompletableFuture.failedFuture(new RateLimitExceededException(request.uri()));
+        }
+        CompletableFuture<HttpResponse<T>> response;
+        if (wait == 0) {
+            response = admit(request, respHandler, options, inFlight, cancellation);
+        } else {
+            var delay = new CompletableFuture<Void>().completeOnTimeout(null, wait, TimeUnit.NANOSECONDS);
+            cancellation.attach(delay);
+            response = delay.thenCompose(ignored -> admit(request, respHandler, options, inFlight, cancellation));
+        }
+        return response.whenComplete((resp, e) -> {
+            if (resp != null) {
+                limiter.onResponse(request.uri(), resp.statusCode(), resp.headers());
+            } else if (!inFlight.isActive() && cancellation.isCancelled()) {
+                // cancelled while waiting for the permit or a dispatch slot, the request was never sent
+                limiter.release(request.uri());
+            }
+        });
+    }
+
+    private DispatchGate newDispatchGate() {
+        return maxInFlight > 0 || tenantSettings.hasCaps() ? new DispatchGate(maxInFlight, tenantSettings) : null;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> admit(HttpRequest request, HttpResponse.BodyHandler<T> respHandler, RequestOptions options, ClientMonitor.InFlight inFlight, Cancellation cancellation) {
+        if (cancellation.isCancelled()) {
+            return CompletableFuture.failedFuture(new CancellationException("Exchange cancelled"));
+        }
+        var gate = dispatchGate;
+        var priority = options.priority();
+        var response = gate == null
+                ? dispatch(request, respHandler, priority, inFlight)
+                : gate.submit(options.tenant(), priority, () -> dispatch(request, respHandler, priority, inFlight));
+        cancellation.attach(response);
+        return response;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> dispatch(HttpRequest request, HttpResponse.BodyHandler<T> respHandler, Priority priority, ClientMonitor.InFlight inFlight) {
+        var guard = expectContinue;
+        if (guard == null) {
+            return transmit(request, respHandler, priority, inFlight);
+        }
+        return guard.send(request, respHandler, (marked, handler) -> transmit(marked, handler, priority, inFlight));
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> transmit(HttpRequest request, HttpResponse.BodyHandler<T> respHandler, Priority priority, ClientMonitor.InFlight inFlight) {
+        var scheduler = streamScheduler;
+        if (scheduler != null) {
+            return scheduler.submit(request, respHandler, priority, inFlight::activate);
+        }
+        inFlight.activate();
+        return transport.client().sendAsync(request, respHandler);
+    }
+
+    /**
+     * @return the client executor or the shared pool for blocking work such as body reads and cache file moves
+     */
+    private Executor blockingExecutor() {
+        return executor != null ? executor : BlockingReads.EXECUTOR;
+    }
+
+    /**
+     * Daemon threads for the blocking body reads of the clients without an executor, created on first use and idle ones expire
+     */
+    private static final class BlockingReads {
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+            var thread = new Thread(runnable, "jhttpclient-blocking-read");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 }
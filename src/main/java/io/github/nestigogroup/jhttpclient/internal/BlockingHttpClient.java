@@ -1,10 +1,19 @@
 package io.github.nestigogroup.jhttpclient.internal;
 
-import io.github.nestigogroup.jhttpclient.helpers.RequestHelper;
+import io.github.nestigogroup.jhttpclient.cache.DiskCache;
+import io.github.nestigogroup.jhttpclient.exceptions.RateLimitExceededException;
+import io.github.nestigogroup.jhttpclient.exceptions.ResponseTooLargeException;
+import io.github.nestigogroup.jhttpclient.interfaces.IInterceptor;
+import io.github.nestigogroup.jhttpclient.monitoring.ClientMonitorMXBean;
+import io.github.nestigogroup.jhttpclient.monitoring.ClientSnapshot;
+import io.github.nestigogroup.jhttpclient.ratelimit.RateLimiter;
+import io.github.nestigogroup.jhttpclient.requests.RequestOptions;
+import io.github.nestigogroup.jhttpclient.timeouts.AdaptiveTimeouts;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
-import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
@@ -12,25 +21,37 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.Duration;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Blocking Http Client build around the {@link HttpClient}
  */
-public class BlockingHttpClient {
+public class BlockingHttpClient implements AutoCloseable {
 
-    private final HttpClient httpClient;
+    private final SharedTransport.Lease transport;
     private final Map<String, String> headers;
     private final Charset charset;
+    private final ClientMonitor monitor = new ClientMonitor();
+    private volatile RateLimiter rateLimiter;
+    private volatile long maxResponseSize;
+    private volatile DiskCache diskCache;
+    private volatile boolean traceContext = true;
+    private volatile TimeoutTracker timeoutTracker;
+    private volatile ExpectContinue expectContinue;
+    private volatile IInterceptor[] interceptors = new IInterceptor[0];
 
     /**
      * Creates an instance of the {@link BlockingHttpClient} with HTTP version 1.1, preventing redirects from <i>Https</i> to <i>Http</i>, 30 seconds timeout and UTF-8 as Charset
      */
     public BlockingHttpClient() {
-        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).followRedirects(HttpClient.Redirect.NORMAL).connectTimeout(Duration.ofSeconds(30)).build();
-        headers = new HashMap<>();
+        transport = SharedTransport.acquire(this, HttpClient.Version.HTTP_1_1, null, HttpClient.Redirect.NORMAL, Duration.ofSeconds(30), null);
+        headers = new ConcurrentHashMap<>();
         addHeader("User-Agent", "RestHttpClient/1.0");
         charset = StandardCharsets.UTF_8;
     }
@@ -59,21 +80,13 @@ public class BlockingHttpClient {
      * @param charset The specified {@link Charset}
      */
     public BlockingHttpClient(HttpClient.Version version, Executor executor, HttpClient.Redirect redirectPolicy, Duration timeout, SSLContext sslContext, Map<String, String> headers, Charset charset) {
-        this.headers = new HashMap<>();
-        var clientBuilder = HttpClient.newBuilder();
-        clientBuilder.version(version);
-        if(executor != null) {
-            clientBuilder.executor(executor);
-        }
-        clientBuilder.followRedirects(redirectPolicy);
-        clientBuilder.connectTimeout(timeout);
-        clientBuilder.sslContext(sslContext);
+        this.headers = new ConcurrentHashMap<>();
         if (headers != null) {
             this.headers.putAll(headers);
         }
         addHeader("User-Agent", "RestHttpClient/1.0");
         this.charset = charset != null ? charset : StandardCharsets.UTF_8;
-        httpClient = clientBuilder.build();
+        transport = SharedTransport.acquire(this, version, executor, redirectPolicy, timeout, Objects.requireNonNull(sslContext, "sslContext"));
     }
 
     /**
@@ -94,14 +107,157 @@ public class BlockingHttpClient {
         headers.remove(name);
     }
 
+    /**
+     * @return the {@link Charset} of the text bodies
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Sets the client-side {@link RateLimiter} applied to all requests after. Use <b>null</b> to disable rate limiting
+     * @param rateLimiter the {@link RateLimiter} or <b>null</b>
+     */
+    public void setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Sets the maximum response body size for all requests after. Larger responses are aborted with {@link ResponseTooLargeException}
+     * as soon as the <b>Content-Length</b> or the received byte count exceeds it. Can be overridden per request with {@link RequestOptions#withMaxResponseSize(long)}
+     * @param maxResponseSize the cap in bytes, <b>0</b> or negative value for no cap
+     */
+    public void setMaxResponseSize(long maxResponseSize) {
+        this.maxResponseSize = maxResponseSize;
+    }
+
+    /**
+     * Sets a budget of the response body bytes held by all responses of requests sent after. While it is exhausted new responses wait,
+     * without reading their body, until running responses complete or consume their bytes (see {@link ClientSnapshot#budgetUsedBytes()})
+     * @param maxBytes the budget in bytes, <b>0</b> or negative value for no budget
+     */
+    public void setByteBudget(long maxBytes) {
+        monitor.budget(maxBytes > 0 ? new ByteBudget(maxBytes) : null);
+    }
+
+    /**
+     * Sends requests with a body of at least <i>threshold</i> bytes, or of unknown length, with <b>Expect: 100-continue</b> so the server can
+     * answer (e.g. 401 or 413) before the body is sent. Per-request expectations ({@link RequestOptions#withExpectContinue(boolean)}) apply regardless of the threshold.
+     * With a <i>wait</i>, an exchange that received neither the interim nor the final response in time is sent again without the expectation
+     * @param threshold the minimum body size in bytes, <b>0</b> or negative value for per-request expectations only
+     * @param wait the wait for the interim response or <b>null</b> to wait until the response or the request timeout
+     */
+    public void setExpectContinue(long threshold, Duration wait) {
+        this.expectContinue = threshold > 0 || wait != null ? new ExpectContinue(threshold, wait) : null;
+    }
+
+    /**
+     * Releases the underlying {@link HttpClient}, which is shared by the clients created with the same version, executor, redirect policy, timeout and {@link SSLContext}
+     * and is built on the first request. The last client to be closed (or garbage collected) drops it. Requests sent after are rejected with {@link IllegalStateException}
+     */
+    @Override
+    public void close() {
+        transport.release();
+    }
+
+    /**
+     * Sets the {@link DiskCache} used by the <i>getCachedFile</i> methods. Use <b>null</b> to disable caching
+     * @param diskCache the {@link DiskCache} or <b>null</b>
+     */
+    public void setDiskCache(DiskCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
+    /**
+     * Enables or disables the W3C <b>traceparent</b> header sent with all requests after (enabled by default).
+     * A <b>traceparent</b> set in the client or per-request headers is continued as the parent of the new span, otherwise a new trace is started
+     * @param enabled whether to propagate the trace context
+     */
+    public void setTraceContextPropagation(boolean enabled) {
+        this.traceContext = enabled;
+    }
+
+    /**
+     * Enables adaptive response timeouts for all requests after: requests without a per-request timeout get a timeout derived from the
+     * recent latency of their host and route (see {@link AdaptiveTimeouts}). Use <b>null</b> to disable the mode
+     * @param settings the {@link AdaptiveTimeouts} or <b>null</b>
+     */
+    public void setAdaptiveTimeouts(AdaptiveTimeouts settings) {
+        this.timeoutTracker = settings != null ? new TimeoutTracker(settings) : null;
+    }
+
+    /**
+     * Returns the current adaptive timeout of every tracked route
+     * @return {@link Map} of <i>host route-template</i> to timeout, empty when the mode is disabled
+     */
+    public Map<String, Duration> getRouteTimeouts() {
+        var tracker = timeoutTracker;
+        return tracker != null ? tracker.timeouts() : Map.of();
+    }
+
+    /**
+     * Captures the requests currently in flight per host, split into queued (waiting for the rate limiter or a free HTTP/2 stream) and active,
+     * with the oldest request age, the response bytes received by unfinished requests and the throughput of the last 10 seconds
+     * @return the {@link ClientSnapshot}
+     */
+    public ClientSnapshot getSnapshot() {
+        return monitor.getSnapshot();
+    }
+
+    /**
+     * Registers the {@link ClientMonitorMXBean} of this client with the platform MBean server as
+     * <i>io.github.nestigogroup.jhttpclient:type=HttpClient,name=&lt;name&gt;</i>, replacing a previous registration of this client
+     * @param name the client name, unique within the JVM
+     * @return the registered {@link ObjectName}
+     * @throws JMException if the name is invalid or already registered
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        return monitor.register(name);
+    }
+
+    /**
+     * Removes the registration made by {@link #registerMBean(String)}, has no effect if the client is not registered
+     * @throws JMException if the MBean server rejects the removal
+     */
+    public void unregisterMBean() throws JMException {
+        monitor.unregister();
+    }
+
+    /**
+     * Adds an interceptor to the chain applied to all requests after, interceptors run in the order they were added
+     * (see {@link IInterceptor}). The chain is copied on change, so requests in progress keep the chain they started with
+     * @param interceptor the {@link IInterceptor}
+     */
+    public synchronized void addInterceptor(IInterceptor interceptor) {
+        interceptors = Interceptors.add(interceptors, interceptor);
+    }
+
+    /**
+     * Removes an interceptor from the chain, has no effect if it was not added
+     * @param interceptor the {@link IInterceptor}
+     */
+    public synchronized void removeInterceptor(IInterceptor interceptor) {
+        interceptors = Interceptors.remove(interceptors, interceptor);
+    }
+
     /**
      * Executes in a blocking manner a HEAD request toward the provided url
      * @param url The Request URL
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<Void> headBodyHandler(String url) throws IOException, InterruptedException {
-        var request = HttpRequest.newBuilder().uri(URI.create(url)).method("HEAD", HttpRequest.BodyPublishers.noBody()).headers(RequestHelper.convertToHeadersArray(headers)).build();
-        return httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        return headBodyHandler(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a HEAD request toward the provided url
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<Void> headBodyHandler(String url, RequestOptions options) throws IOException, InterruptedException {
+        var request = RequestFactory.build(url, "HEAD", HttpRequest.BodyPublishers.noBody(), headers, options, traceContext);
+        return send(request, HttpResponse.BodyHandlers.discarding(), options);
     }
 
     /**
@@ -111,8 +267,19 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public <T> HttpResponse<T> getBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler) throws IOException, InterruptedException {
-        var request = HttpRequest.newBuilder().uri(URI.create(url)).GET().headers(RequestHelper.convertToHeadersArray(headers)).build();
-        return httpClient.send(request, respHandler);
+        return getBodyHandler(url, respHandler, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a GET request toward the provided url
+     * @param url The Request URL
+     * @param respHandler The specific handler to process the response (refer: {@link java.net.http.HttpResponse.BodyHandler})
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public <T> HttpResponse<T> getBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, RequestOptions options) throws IOException, InterruptedException {
+        var request = RequestFactory.build(url, "GET", HttpRequest.BodyPublishers.noBody(), headers, options, traceContext);
+        return send(request, respHandler, options);
     }
 
     /**
@@ -121,7 +288,17 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<byte[]> getBinary(String url) throws IOException, InterruptedException {
-        return getBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray());
+        return getBinary(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a GET request toward the provided url and process the response as <b>byte[]</b>
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<byte[]> getBinary(String url, RequestOptions options) throws IOException, InterruptedException {
+        return getBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), options);
     }
 
     /**
@@ -130,7 +307,17 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<String> getString(String url) throws IOException, InterruptedException {
-        return getBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset));
+        return getString(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a GET request toward the provided url and process the response as {@link String}
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<String> getString(String url, RequestOptions options) throws IOException, InterruptedException {
+        return getBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), options);
     }
 
     /**
@@ -140,7 +327,62 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<Path> getFile(String url, Path path) throws IOException, InterruptedException {
-        return getBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path));
+        return getFile(url, path, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a GET request toward the provided url and process the response by storing it in <b>File</b> define by the provided {@link Path}
+     * @param url The Request URL
+     * @param path The location where the file should be downloaded
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<Path> getFile(String url, Path path, RequestOptions options) throws IOException, InterruptedException {
+        return getBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), options);
+    }
+
+    /**
+     * Executes in a blocking manner a GET request toward the provided url through the configured {@link DiskCache} and stores the response body in the <b>File</b> defined by the provided {@link Path}.
+     * Cached bodies are revalidated with <b>If-None-Match</b> and copied from the cache on <b>304 Not Modified</b>, reported as <b>200</b>.
+     * Without a configured {@link DiskCache} the body is downloaded directly
+     * @param url The Request URL
+     * @param path The file where the body should be stored
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<Path> getCachedFile(String url, Path path) throws IOException, InterruptedException {
+        return getCachedFile(url, path, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a GET request toward the provided url through the configured {@link DiskCache} and stores the response body in the <b>File</b> defined by the provided {@link Path}.
+     * Cached bodies are revalidated with <b>If-None-Match</b> and copied from the cache on <b>304 Not Modified</b>, reported as <b>200</b>.
+     * Without a configured {@link DiskCache} the body is downloaded directly
+     * @param url The Request URL
+     * @param path The file where the body should be stored
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<Path> getCachedFile(String url, Path path, RequestOptions options) throws IOException, InterruptedException {
+        var request = RequestFactory.build(url, "GET", HttpRequest.BodyPublishers.noBody(), headers, options, traceContext);
+        var cache = diskCache;
+        if (cache == null) {
+            return send(request, HttpResponse.BodyHandlers.ofFile(path), options);
+        }
+        var revalidate = true;
+        while (true) {
+            var download = new CachedDownload(cache, request, revalidate);
+            try {
+                var response = download.complete(send(download.request(), download.bodyHandler(), options), path);
+                if (response != null) {
+                    return response;
+                }
+                // the cached body was evicted between the lookup and the copy, download it again
+                revalidate = false;
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                download.abort();
+                throw e;
+            }
+        }
     }
 
     /**
@@ -151,8 +393,20 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public <T> HttpResponse<T> postBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, HttpRequest.BodyPublisher body) throws IOException, InterruptedException {
-        var request = HttpRequest.newBuilder().uri(URI.create(url)).POST(body).headers(RequestHelper.convertToHeadersArray(headers)).build();
-        return httpClient.send(request, respHandler);
+        return postBodyHandler(url, respHandler, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a POST request toward the provided url
+     * @param url The Request URL
+     * @param respHandler The specific handler to process the response (refer: {@link java.net.http.HttpResponse.BodyHandler})
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public <T> HttpResponse<T> postBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, HttpRequest.BodyPublisher body, RequestOptions options) throws IOException, InterruptedException {
+        var request = RequestFactory.build(url, "POST", body, headers, options, traceContext);
+        return send(request, respHandler, options);
     }
 
     /**
@@ -162,7 +416,18 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<byte[]> postBinary(String url, HttpRequest.BodyPublisher body) throws IOException, InterruptedException {
-        return postBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), body);
+        return postBinary(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a POST request toward the provided url and process the response as <b>byte[]</b>
+     * @param url The Request URL
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<byte[]> postBinary(String url, HttpRequest.BodyPublisher body, RequestOptions options) throws IOException, InterruptedException {
+        return postBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), body, options);
     }
 
     /**
@@ -172,7 +437,18 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<String> postString(String url, HttpRequest.BodyPublisher body) throws IOException, InterruptedException {
-        return postBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), body);
+        return postString(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a POST request toward the provided url and process the response as {@link String}
+     * @param url The Request URL
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<String> postString(String url, HttpRequest.BodyPublisher body, RequestOptions options) throws IOException, InterruptedException {
+        return postBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), body, options);
     }
 
     /**
@@ -183,7 +459,19 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<Path> postFile(String url, Path path, HttpRequest.BodyPublisher body) throws IOException, InterruptedException {
-        return postBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), body);
+        return postFile(url, path, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a POST request toward the provided url the response by storing it in <b>File</b> define by the provided {@link Path}
+     * @param url The Request URL
+     * @param path The location where the file should be downloaded
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<Path> postFile(String url, Path path, HttpRequest.BodyPublisher body, RequestOptions options) throws IOException, InterruptedException {
+        return postBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), body, options);
     }
 
     /**
@@ -194,8 +482,20 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public <T> HttpResponse<T> putBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, HttpRequest.BodyPublisher body) throws IOException, InterruptedException {
-        var request = HttpRequest.newBuilder().uri(URI.create(url)).PUT(body).headers(RequestHelper.convertToHeadersArray(headers)).build();
-        return httpClient.send(request, respHandler);
+        return putBodyHandler(url, respHandler, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a PUT request toward the provided url
+     * @param url The Request URL
+     * @param respHandler The specific handler to process the response (refer: {@link java.net.http.HttpResponse.BodyHandler})
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public <T> HttpResponse<T> putBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, HttpRequest.BodyPublisher body, RequestOptions options) throws IOException, InterruptedException {
+        var request = RequestFactory.build(url, "PUT", body, headers, options, traceContext);
+        return send(request, respHandler, options);
     }
 
     /**
@@ -205,7 +505,18 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<byte[]> putBinary(String url, HttpRequest.BodyPublisher body) throws IOException, InterruptedException {
-        return putBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), body);
+        return putBinary(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a PUT request toward the provided url and process the response as <b>byte[]</b>
+     * @param url The Request URL
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<byte[]> putBinary(String url, HttpRequest.BodyPublisher body, RequestOptions options) throws IOException, InterruptedException {
+        return putBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), body, options);
     }
 
     /**
@@ -215,7 +526,18 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<String> putString(String url, HttpRequest.BodyPublisher body) throws IOException, InterruptedException {
-        return putBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), body);
+        return putString(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a PUT request toward the provided url and process the response as {@link String}
+     * @param url The Request URL
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<String> putString(String url, HttpRequest.BodyPublisher body, RequestOptions options) throws IOException, InterruptedException {
+        return putBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), body, options);
     }
 
     /**
@@ -226,7 +548,19 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<Path> putFile(String url, Path path, HttpRequest.BodyPublisher body) throws IOException, InterruptedException {
-        return putBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), body);
+        return putFile(url, path, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a PUT request toward the provided url the response by storing it in <b>File</b> define by the provided {@link Path}
+     * @param url The Request URL
+     * @param path The location where the file should be downloaded
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<Path> putFile(String url, Path path, HttpRequest.BodyPublisher body, RequestOptions options) throws IOException, InterruptedException {
+        return putBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), body, options);
     }
 
     /**
@@ -237,8 +571,20 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public <T> HttpResponse<T> patchBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, HttpRequest.BodyPublisher body) throws IOException, InterruptedException {
-        var request = HttpRequest.newBuilder().uri(URI.create(url)).method("PATCH", body).headers(RequestHelper.convertToHeadersArray(headers)).build();
-        return httpClient.send(request, respHandler);
+        return patchBodyHandler(url, respHandler, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a PATCH request toward the provided url
+     * @param url The Request URL
+     * @param respHandler The specific handler to process the response (refer: {@link java.net.http.HttpResponse.BodyHandler})
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public <T> HttpResponse<T> patchBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, HttpRequest.BodyPublisher body, RequestOptions options) throws IOException, InterruptedException {
+        var request = RequestFactory.build(url, "PATCH", body, headers, options, traceContext);
+        return send(request, respHandler, options);
     }
 
     /**
@@ -248,7 +594,18 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<byte[]> patchBinary(String url, HttpRequest.BodyPublisher body) throws IOException, InterruptedException {
-        return patchBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), body);
+        return patchBinary(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a PATCH request toward the provided url and process the response as <b>byte[]</b>
+     * @param url The Request URL
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<byte[]> patchBinary(String url, HttpRequest.BodyPublisher body, RequestOptions options) throws IOException, InterruptedException {
+        return patchBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), body, options);
     }
 
     /**
@@ -258,7 +615,18 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<String> patchString(String url, HttpRequest.BodyPublisher body) throws IOException, InterruptedException {
-        return patchBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), body);
+        return patchString(url, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a PATCH request toward the provided url and process the response as {@link String}
+     * @param url The Request URL
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<String> patchString(String url, HttpRequest.BodyPublisher body, RequestOptions options) throws IOException, InterruptedException {
+        return patchBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), body, options);
     }
 
     /**
@@ -269,7 +637,19 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<Path> patchFile(String url, Path path, HttpRequest.BodyPublisher body) throws IOException, InterruptedException {
-        return patchBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), body);
+        return patchFile(url, path, body, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a PATCH request toward the provided url the response by storing it in <b>File</b> define by the provided {@link Path}
+     * @param url The Request URL
+     * @param path The location where the file should be downloaded
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<Path> patchFile(String url, Path path, HttpRequest.BodyPublisher body, RequestOptions options) throws IOException, InterruptedException {
+        return patchBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), body, options);
     }
 
     /**
@@ -279,8 +659,19 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public <T> HttpResponse<T> deleteBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler) throws IOException, InterruptedException {
-        var request = HttpRequest.newBuilder().uri(URI.create(url)).DELETE().headers(RequestHelper.convertToHeadersArray(headers)).build();
-        return httpClient.send(request, respHandler);
+        return deleteBodyHandler(url, respHandler, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a DELETE request toward the provided url
+     * @param url The Request URL
+     * @param respHandler The specific handler to process the response (refer: {@link java.net.http.HttpResponse.BodyHandler})
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public <T> HttpResponse<T> deleteBodyHandler(String url, HttpResponse.BodyHandler<T> respHandler, RequestOptions options) throws IOException, InterruptedException {
+        var request = RequestFactory.build(url, "DELETE", HttpRequest.BodyPublishers.noBody(), headers, options, traceContext);
+        return send(request, respHandler, options);
     }
 
     /**
@@ -289,7 +680,17 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<byte[]> deleteBinary(String url) throws IOException, InterruptedException {
-        return deleteBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray());
+        return deleteBinary(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a DELETE request toward the provided url and process the response as <b>byte[]</b>
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<byte[]> deleteBinary(String url, RequestOptions options) throws IOException, InterruptedException {
+        return deleteBodyHandler(url, HttpResponse.BodyHandlers.ofByteArray(), options);
     }
 
     /**
@@ -298,7 +699,17 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<String> deleteString(String url) throws IOException, InterruptedException {
-        return deleteBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset));
+        return deleteString(url, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a DELETE request toward the provided url and process the response as {@link String}
+     * @param url The Request URL
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<String> deleteString(String url, RequestOptions options) throws IOException, InterruptedException {
+        return deleteBodyHandler(url, HttpResponse.BodyHandlers.ofString(charset), options);
     }
 
     /**
@@ -308,7 +719,126 @@ public class BlockingHttpClient {
      * @return {@link java.net.http.HttpResponse} object
      */
     public HttpResponse<Path> deleteFile(String url, Path path) throws IOException, InterruptedException {
-        return deleteBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path));
+        return deleteFile(url, path, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes in a blocking manner a DELETE request toward the provided url and process the response by storing it in <b>File</b> define by the provided {@link Path}
+     * @param url The Request URL
+     * @param path The location where the file should be downloaded
+     * @param options the per-request {@link RequestOptions} merged with the client defaults
+     * @return {@link java.net.http.HttpResponse} object
+     */
+    public HttpResponse<Path> deleteFile(String url, Path path, RequestOptions options) throws IOException, InterruptedException {
+        return deleteBodyHandler(url, HttpResponse.BodyHandlers.ofFileDownload(path), options);
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, RequestOptions options) throws IOException, InterruptedException {
+        var chain = interceptors;
+        if (chain.length == 0) {
+            return execute(request, bodyHandler, options);
+        }
+        for (var i = 0; i < chain.length; i++) {
+            request = chain[i].onRequest(request);
+            var intercepted = chain[i].respond(request);
+            if (intercepted != null) {
+                return Interceptors.respond(request, intercepted, Interceptors.wrap(chain, i, request, bodyHandler));
+            }
+        }
+        return execute(request, Interceptors.wrap(chain, chain.length, request, bodyHandler), options);
+    }
+
+    private <T> HttpResponse<T> execute(HttpRequest original, HttpResponse.BodyHandler<T> bodyHandler, RequestOptions options) throws IOException, InterruptedException {
+        var tracker = timeoutTracker;
+        var request = tracker != null ? tracker.apply(original) : original;
+        var recorder = ExchangeRecorder.start(request);
+        var inFlight = monitor.begin(request);
+        var respHandler = inFlight.wrap(LimitingBodyHandler.of(bodyHandler, request.method(), options, maxResponseSize));
+        var budget = monitor.budget();
+        if (budget != null) {
+            respHandler = budget.wrap(respHandler, request.method());
+        }
+        if (tracker != null) {
+            respHandler = tracker.wrap(request, respHandler, inFlight);
+        }
+        try {
+            var response = limit(request, recorder != null ? recorder.wrap(respHandler) : respHandler, inFlight);
+            if (recorder != null) {
+                recorder.finish(response, null);
+            }
+            return response;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            if (tracker != null) {
+                tracker.onFailure(original, request, e);
+            }
+            if (recorder != null) {
+                recorder.finish(null, e);
+            }
+            throw e;
+        } finally {
+            inFlight.end();
+        }
+    }
+
+    private <T> HttpResponse<T> limit(HttpRequest request, HttpResponse.BodyHandler<T> respHandler, ClientMonitor.InFlight inFlight) throws IOException, InterruptedException {
+        var limiter = rateLimiter;
+        if (limiter == null) {
+            inFlight.activate();
+            return exchange(request, respHandler);
+        }
+        var wait = limiter.reserve(request.uri());
+        if (wait < 0) {
+            throw new RateLimitExceededException(request.uri());
+        }
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                limiter.release(request.uri());
+                throw e;
+            }
+        }
+        inFlight.activate();
+        var response = exchange(request, respHandler);
+        limiter.onResponse(request.uri(), response.statusCode(), response.headers());
+        return response;
+    }
+
+    private <T> HttpResponse<T> exchange(HttpRequest request, HttpResponse.BodyHandler<T> respHandler) throws IOException, InterruptedException {
+        var guard = expectContinue;
+        if (guard != null) {
+            request = guard.mark(request);
+            if (guard.bounds(request)) {
+                return await(guard.send(request, respHandler, (marked, handler) -> transport.client().sendAsync(marked, handler)));
+            }
+        }
+        try {
+            return transport.client().send(request, respHandler);
+        } catch (IOException e) {
+            // the HttpClient wraps exceptions raised by the body subscribers, surface the typed ones
+            if (e.getCause() instanceof ResponseTooLargeException tooLarge) {
+                throw tooLarge;
+            }
+            throw e;
+        }
+    }
+
+    private <T> HttpResponse<T> await(CompletableFuture<HttpResponse<T>> response) throws IOException, InterruptedException {
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            var cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io.getCause() instanceof ResponseTooLargeException tooLarge ? tooLarge : io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
     }
 
 }
@@ -0,0 +1,136 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import io.github.nestigogroup.jhttpclient.interfaces.IBodyCodec;
+import io.github.nestigogroup.jhttpclient.requests.RequestOptions;
+
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Immutable set of the {@link IBodyCodec} registered with a Json client, negotiating the format of each body by media type.
+ * Bodies of other media types are left to the Json mapper
+ */
+public final class BodyCodecs {
+
+    /**
+     * No codecs, every body is Json
+     */
+    public static final BodyCodecs EMPTY = new BodyCodecs(new IBodyCodec[0]);
+
+    private static final String JSON = "application/json";
+
+    private final IBodyCodec[] codecs;
+    private final String accept;
+
+    private BodyCodecs(IBodyCodec[] codecs) {
+        this.codecs = codecs;
+        if (codecs.length == 0) {
+            accept = null;
+        } else {
+            var value = new StringBuilder();
+            for (var codec : codecs) {
+                value.append(codec.mediaType()).append(", ");
+            }
+            accept = value.append(JSON).append(";q=0.5").toString();
+        }
+    }
+
+    /**
+     * @return a copy with the codec added, replacing a codec of the same media type
+     */
+    public BodyCodecs with(IBodyCodec codec) {
+        Objects.requireNonNull(codec, "codec");
+        var key = essence(codec.mediaType());
+        for (var i = 0; i < codecs.length; i++) {
+            if (essence(codecs[i].mediaType()).equals(key)) {
+                var copy = codecs.clone();
+                copy[i] = codec;
+                return new BodyCodecs(copy);
+            }
+        }
+        var copy = Arrays.copyOf(codecs, codecs.length + 1);
+        copy[codecs.length] = codec;
+        return new BodyCodecs(copy);
+    }
+
+    /**
+     * @return the <b>Accept</b> header value preferring the codecs in the order they were added over Json, <b>null</b> without codecs
+     */
+    public String accept() {
+        return accept;
+    }
+
+    /**
+     * Adds the {@link #accept()} header to the options of a request decoded with {@link #handler(Charset)}
+     * @param options the per-request {@link RequestOptions}
+     * @return the options with the <b>Accept</b> header, unchanged without codecs or if they already set <b>Accept</b>
+     */
+    public RequestOptions negotiate(RequestOptions options) {
+        return accept == null || options.headers().containsKey("Accept") ? options : options.withHeader("Accept", accept);
+    }
+
+    /**
+     * Adds <b>Accept: application/json</b> to the options of a request that can only read Json
+     * @param options the per-request {@link RequestOptions}
+     * @return the options with the <b>Accept</b> header, unchanged if they already set <b>Accept</b>
+     */
+    public static RequestOptions json(RequestOptions options) {
+        return options.headers().containsKey("Accept") ? options : options.withHeader("Accept", JSON);
+    }
+
+    /**
+     * @param mediaType a <b>Content-Type</b> value, parameters are ignored
+     * @return the codec of the media type or <b>null</b> if the body is left to the Json mapper
+     */
+    public IBodyCodec find(String mediaType) {
+        if (codecs.length == 0 || mediaType == null) {
+            return null;
+        }
+        var key = essence(mediaType);
+        for (var codec : codecs) {
+            if (essence(codec.mediaType()).equals(key)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Response handler reading the body as bytes if a codec matches the response <b>Content-Type</b>, otherwise as text
+     * @param charset the charset of the text bodies
+     * @return the {@link HttpResponse.BodyHandler}
+     */
+    public HttpResponse.BodyHandler<Body> handler(Charset charset) {
+        return info -> {
+            var codec = find(info.headers().firstValue("Content-Type").orElse(null));
+            if (codec != null) {
+                return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> new Body(codec, bytes, null));
+            }
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofString(charset), text -> new Body(null, null, text));
+        };
+    }
+
+    private static String essence(String mediaType) {
+        var end = mediaType.indexOf(';');
+        return (end >= 0 ? mediaType.substring(0, end) : mediaType).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A negotiated response body: the bytes and their codec, or the Json text
+     * @param codec the matching {@link IBodyCodec} or <b>null</b> for Json
+     * @param bytes the body bytes if a codec matched
+     * @param text the body text otherwise
+     */
+    public record Body(IBodyCodec codec, byte[] bytes, String text) {
+
+        /**
+         * @return the body size in bytes, or characters for Json
+         */
+        public long size() {
+            return codec != null ? bytes.length : text != null ? text.length() : 0;
+        }
+    }
+}
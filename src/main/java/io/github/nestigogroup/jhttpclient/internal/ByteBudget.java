@@ -0,0 +1,261 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Client-wide budget of the response body bytes held by the body subscribers. Body bytes are pulled from the connection one chunk at a time
+ * and count against the budget until the subscriber requests more (a streaming subscriber has consumed them) or the body ends.
+ * An admitted response reserves its announced <b>Content-Length</b> (at most the whole budget) until it starts to consume its body as a stream.
+ * While the budget can't take the reservation of the next response, new responses wait in arrival order before their first chunk is requested.
+ * Responses already reading are never paused, so the budget can't deadlock but bodies of unknown length may overshoot it,
+ * and a response larger than the whole budget starts once no other response is admitted
+ */
+final class ByteBudget {
+
+    private final long maxBytes;
+    private final ArrayDeque<Gated<?>> waiting = new ArrayDeque<>();
+    private long used;
+    private int active;
+
+    /**
+     * @param maxBytes the budget in bytes
+     */
+    ByteBudget(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Wraps the response handler to account its body bytes and hold back its demand while the budget is exhausted
+     * @param handler the {@link HttpResponse.BodyHandler}
+     * @param method the request method
+     * @return the wrapped handler
+     */
+    <T> HttpResponse.BodyHandler<T> wrap(HttpResponse.BodyHandler<T> handler, String method) {
+        var head = "HEAD".equals(method);
+        return info -> {
+            var status = info.statusCode();
+            var expected = head || status == 204 || status == 304 ? 0 : info.headers().firstValueAsLong("Content-Length").orElse(0);
+            return new Gated<>(handler.apply(info), Math.min(Math.max(expected, 0), maxBytes));
+        };
+    }
+
+    /**
+     * @return the budget in bytes
+     */
+    long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return the body bytes currently held against the budget
+     */
+    synchronized long used() {
+        return used;
+    }
+
+    /**
+     * @return the responses waiting for budget
+     */
+    synchronized int waiting() {
+        return waiting.size();
+    }
+
+    private boolean fits(long reserve) {
+        return active == 0 || (used < maxBytes && used + reserve <= maxBytes);
+    }
+
+    private void enqueue(Gated<?> response) {
+        synchronized (this) {
+            if (!waiting.isEmpty() || !fits(response.reservation)) {
+                waiting.addLast(response);
+                return;
+            }
+            active++;
+            used += response.reservation;
+        }
+        response.start();
+    }
+
+    private synchronized void charge(long bytes) {
+        used += bytes;
+    }
+
+    private void release(long bytes) {
+        synchronized (this) {
+            used -= bytes;
+        }
+        drain();
+    }
+
+    private void end(Gated<?> response, boolean admitted, long bytes) {
+        synchronized (this) {
+            if (admitted) {
+                active--;
+                used -= bytes;
+            } else {
+                waiting.remove(response);
+            }
+        }
+        drain();
+    }
+
+    private void drain() {
+        while (true) {
+            Gated<?> next;
+            synchronized (this) {
+                next = waiting.peekFirst();
+                if (next == null || !fits(next.reservation)) {
+                    return;
+                }
+                waiting.pollFirst();
+                active++;
+                used += next.reservation;
+            }
+            next.start();
+        }
+    }
+
+    /**
+     * Body subscriber between the connection and the handler subscriber, requesting one chunk at a time once admitted
+     */
+    private final class Gated<T> implements HttpResponse.BodySubscriber<T>, Flow.Subscription {
+
+        private final HttpResponse.BodySubscriber<T> delegate;
+        private final long reservation;
+        private long reserve;
+        private Flow.Subscription upstream;
+        private long demand;
+        private long held;
+        private boolean admitted;
+        private boolean requested;
+        private boolean finished;
+
+        private Gated(HttpResponse.BodySubscriber<T> delegate, long reserve) {
+            this.delegate = delegate;
+            this.reservation = reserve;
+            this.reserve = reserve;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            synchronized (this) {
+                upstream = subscription;
+            }
+            delegate.onSubscribe(this);
+            enqueue(this);
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                upstream.request(n);
+                return;
+            }
+            long consumed = 0;
+            synchronized (this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                if (admitted && held > 0) {
+                    consumed = Math.max(held, reserve);
+                    held = 0;
+                    reserve = 0;
+                }
+            }
+            if (consumed > 0) {
+                release(consumed);
+            }
+            pull();
+        }
+
+        @Override
+        public void cancel() {
+            finish();
+            upstream.cancel();
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            var bytes = 0L;
+            for (var buffer : item) {
+                bytes += buffer.remaining();
+            }
+            long extra;
+            synchronized (this) {
+                requested = false;
+                extra = Math.max(held + bytes, reserve) - Math.max(held, reserve);
+                held += bytes;
+            }
+            charge(extra);
+            delegate.onNext(item);
+            pull();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            finish();
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            finish();
+            delegate.onComplete();
+        }
+
+        /**
+         * Called once the budget admitted the response
+         */
+        private void start() {
+            boolean late;
+            synchronized (this) {
+                late = finished;
+                admitted = !finished;
+            }
+            if (late) {
+                end(this, true, reservation);
+                return;
+            }
+            pull();
+        }
+
+        private void pull() {
+            Flow.Subscription subscription;
+            synchronized (this) {
+                if (!admitted || finished || requested || demand == 0) {
+                    return;
+                }
+                requested = true;
+                if (demand != Long.MAX_VALUE) {
+                    demand--;
+                }
+                subscription = upstream;
+            }
+            subscription.request(1);
+        }
+
+        private void finish() {
+            boolean wasAdmitted;
+            long bytes;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                wasAdmitted = admitted;
+                bytes = Math.max(held, reserve);
+                held = 0;
+                reserve = 0;
+            }
+            end(this, wasAdmitted, bytes);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import io.github.nestigogroup.jhttpclient.cache.DiskCache;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * A single file download through a {@link DiskCache}: revalidates a cached body with <b>If-None-Match</b>,
+ * streams a fresh body into a cache temporary file while hashing it and finally serves the caller's {@link Path}
+ */
+final class CachedDownload {
+
+    private final DiskCache cache;
+    private final HttpRequest request;
+    private final DiskCache.Entry cached;
+    private final Path tempFile;
+    private final MessageDigest digest;
+
+    /**
+     * @param cache the {@link DiskCache}
+     * @param request the unconditional request
+     * @param revalidate whether to look up the cache, <b>false</b> forces a full download
+     */
+    CachedDownload(DiskCache cache, HttpRequest request, boolean revalidate) throws IOException {
+        this.cache = cache;
+        this.request = request;
+        this.cached = revalidate ? cache.lookup(request.uri(), request.headers()) : null;
+        this.tempFile = cache.createTempFile();
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @return the request to send, conditional when a cached body exists
+     */
+    HttpRequest request() {
+        if (cached == null) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true).header("If-None-Match", cached.etag()).build();
+    }
+
+    /**
+     * @return the {@link HttpResponse.BodyHandler} streaming the body into the temporary file
+     */
+    HttpResponse.BodyHandler<Path> bodyHandler() {
+        return info -> new HashingSubscriber(HttpResponse.BodySubscribers.ofFile(tempFile), digest);
+    }
+
+    /**
+     * Serves the target file from the cache or the downloaded body
+     * @param response the received {@link HttpResponse}
+     * @param target the caller's file
+     * @return the response reported to the caller or <b>null</b> when the revalidated body was evicted meanwhile and the download must be repeated
+     */
+    HttpResponse<Path> complete(HttpResponse<Path> response, Path target) throws IOException {
+        if (response.statusCode() == 304 && cached != null) {
+            Files.deleteIfExists(tempFile);
+            try {
+                cache.copyTo(cached, target);
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+            return SyntheticResponse.of(response, 200, target);
+        }
+        var stored = response.statusCode() == 200 ? cache.store(request.uri(), request.headers(), response.headers(), tempFile, digest.digest()) : null;
+        if (stored != null) {
+            cache.copyTo(stored, target);
+        } else {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return SyntheticResponse.of(response, response.statusCode(), target);
+    }
+
+    /**
+     * Discards the temporary file of a failed download
+     */
+    void abort() {
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException ignored) {
+            // the cache clears leftover temporary files when opened
+        }
+    }
+
+    /**
+     * Updates the digest with every received buffer before handing it to the file subscriber
+     */
+    private record HashingSubscriber(HttpResponse.BodySubscriber<Path> delegate, MessageDigest digest) implements HttpResponse.BodySubscriber<Path> {
+
+        @Override
+        public CompletionStage<Path> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            for (var buffer : item) {
+                digest.update(buffer.duplicate());
+            }
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            delegate.onComplete();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Cancellation of an async exchange, owned by the future returned to the caller (and by the mapped futures the clients return instead, see {@link #derive}).
+ * Cancelling that future before it completes, or the {@link TimeoutException} of its {@link CompletableFuture#orTimeout}, aborts the exchange:
+ * a queued request is dropped, a sent request is cancelled with its connection stream and a body still being received is cancelled
+ * and fails its subscriber, so stages such as the mapping of the body don't run. Stages the caller derives from the future are plain
+ * {@link CompletableFuture}s, cancelling one of them doesn't affect the exchange or the other stages
+ */
+final class Cancellation {
+
+    private final List<CompletableFuture<?>> futures = new ArrayList<>();
+    private final List<Aborting<?>> bodies = new ArrayList<>();
+    private boolean cancelled;
+
+    /**
+     * @return whether the exchange was cancelled
+     */
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns the future handed to the caller, completed with the outcome of the exchange
+     * @param exchange the exchange future
+     * @return the linked future, cancelling it or letting its timeout fire aborts the exchange
+     */
+    <T> CompletableFuture<T> link(CompletableFuture<T> exchange) {
+        var linked = new Linked<T>(this);
+        exchange.whenComplete((value, error) -> {
+            if (error != null) {
+                linked.completeExceptionally(error);
+            } else {
+                linked.complete(value);
+            }
+        });
+        return linked;
+    }
+
+    /**
+     * Lets a stage derived from a linked future abort the exchange like the linked future, for the clients that map the response before handing the future to the caller
+     * @param source the future returned by {@link #link(CompletableFuture)}
+     * @param derived the stage derived from the source
+     * @return the linked stage, or the derived stage as is if the source is not linked
+     */
+    static <U> CompletableFuture<U> derive(CompletableFuture<?> source, CompletableFuture<U> derived) {
+        return source instanceof Linked<?> linked ? linked.cancellation.link(derived) : derived;
+    }
+
+    /**
+     * Registers a future of the exchange (queued or sent) to be cancelled with it until it completes, cancels it right away if already cancelled
+     * @param future the future
+     */
+    void attach(CompletableFuture<?> future) {
+        boolean registered;
+        synchronized (this) {
+            registered = !cancelled;
+            if (registered) {
+                futures.add(future);
+            }
+        }
+        if (registered) {
+            future.whenComplete((value, error) -> forget(future));
+        } else {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Wraps the response handler so a cancellation stops the body transfer
+     * @param handler the {@link HttpResponse.BodyHandler}
+     * @return the wrapped handler
+     */
+    <T> HttpResponse.BodyHandler<T> wrap(HttpResponse.BodyHandler<T> handler) {
+        return info -> new Aborting<>(handler.apply(info));
+    }
+
+    private synchronized void forget(Object registered) {
+        futures.remove(registered);
+        bodies.remove(registered);
+    }
+
+    /**
+     * Aborts the exchange, has no effect once cancelled
+     */
+    void cancel() {
+        List<CompletableFuture<?>> pending;
+        List<Aborting<?>> receiving;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            pending = new ArrayList<>(futures);
+            receiving = new ArrayList<>(bodies);
+            futures.clear();
+            bodies.clear();
+        }
+        for (var future : pending) {
+            future.cancel(true);
+        }
+        for (var body : receiving) {
+            body.abort();
+        }
+    }
+
+    /**
+     * Future that aborts the exchange when cancelled or timed out, its derived stages are plain {@link CompletableFuture}s
+     */
+    private static final class Linked<T> extends CompletableFuture<T> {
+
+        private final Cancellation cancellation;
+
+        private Linked(Cancellation cancellation) {
+            this.cancellation = cancellation;
+        }
+
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            return new CompletableFuture<>();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            var result = super.cancel(mayInterruptIfRunning);
+            if (result) {
+                cancellation.cancel();
+            }
+            return result;
+        }
+
+        @Override
+        public boolean completeExceptionally(Throwable ex) {
+            var result = super.completeExceptionally(ex);
+            if (result && ex instanceof TimeoutException) {
+                cancellation.cancel();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Body subscriber that cancels the transfer and fails the handler subscriber when the exchange is cancelled
+     */
+    private final class Aborting<T> implements HttpResponse.BodySubscriber<T> {
+
+        private final HttpResponse.BodySubscriber<T> delegate;
+        private Flow.Subscription subscription;
+        private boolean terminated;
+
+        private Aborting(HttpResponse.BodySubscriber<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            synchronized (this) {
+                this.subscription = subscription;
+            }
+            delegate.onSubscribe(subscription);
+            synchronized (Cancellation.this) {
+                if (!cancelled) {
+                    synchronized (this) {
+                        if (!terminated) {
+                            bodies.add(this);
+                        }
+                    }
+                    return;
+                }
+            }
+            abort();
+        }
+
+        @Override
+        public synchronized void onNext(List<ByteBuffer> item) {
+            if (!terminated) {
+                delegate.onNext(item);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            synchronized (this) {
+                if (terminated) {
+                    return;
+                }
+                terminated = true;
+                delegate.onError(throwable);
+            }
+            forget(this);
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                if (terminated) {
+                    return;
+                }
+                terminated = true;
+                delegate.onComplete();
+            }
+            forget(this);
+        }
+
+        private void abort() {
+            Flow.Subscription upstream;
+            synchronized (this) {
+                upstream = subscription;
+            }
+            if (upstream != null) {
+                upstream.cancel();
+            }
+            onError(new CancellationException("Exchange cancelled"));
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import io.github.nestigogroup.jhttpclient.monitoring.ClientMonitorMXBean;
+import io.github.nestigogroup.jhttpclient.monitoring.ClientSnapshot;
+import io.github.nestigogroup.jhttpclient.monitoring.HostSnapshot;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the requests in flight of a client per host and its recent throughput, backing the snapshot API and the {@link ClientMonitorMXBean}
+ */
+final class ClientMonitor implements ClientMonitorMXBean {
+
+    private static final int WINDOW_SECONDS = 10;
+
+    private final Map<String, Set<InFlight>> hosts = new ConcurrentHashMap<>();
+    private final long[] seconds = new long[WINDOW_SECONDS];
+    private final long[] completed = new long[WINDOW_SECONDS];
+    private final long[] received = new long[WINDOW_SECONDS];
+    private volatile ObjectName objectName;
+    private volatile ByteBudget budget;
+
+    /**
+     * Registers a request, queued until {@link InFlight#activate()} is called
+     * @param request the {@link HttpRequest}
+     * @return the {@link InFlight} to be ended when the exchange completes
+     */
+    InFlight begin(HttpRequest request) {
+        var host = request.uri().getAuthority();
+        var inFlight = new InFlight(host != null ? host : "", System.nanoTime());
+        hosts.compute(inFlight.host, (key, requests) -> {
+            var added = requests != null ? requests : ConcurrentHashMap.<InFlight>newKeySet();
+            added.add(inFlight);
+            return added;
+        });
+        return inFlight;
+    }
+
+    /**
+     * @return the response {@link ByteBudget} or <b>null</b> if disabled
+     */
+    ByteBudget budget() {
+        return budget;
+    }
+
+    /**
+     * @param budget the response {@link ByteBudget} applied to the requests sent after, <b>null</b> to disable it
+     */
+    void budget(ByteBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Registers the monitor with the platform MBean server, replacing a previous registration of this monitor
+     * @param name the client name used as the <i>name</i> key of the {@link ObjectName}
+     * @return the registered {@link ObjectName}
+     */
+    synchronized ObjectName register(String name) throws JMException {
+        unregister();
+        var server = ManagementFactory.getPlatformMBeanServer();
+        var registered = server.registerMBean(this, new ObjectName("io.github.nestigogroup.jhttpclient:type=HttpClient,name=" + ObjectName.quote(name))).getObjectName();
+        objectName = registered;
+        return registered;
+    }
+
+    /**
+     * Removes the registration made by {@link #register(String)}, if any
+     */
+    synchronized void unregister() throws JMException {
+        var registered = objectName;
+        if (registered != null) {
+            objectName = null;
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registered);
+        }
+    }
+
+    @Override
+    public ClientSnapshot getSnapshot() {
+        var now = System.nanoTime();
+        var perHost = new ArrayList<HostSnapshot>();
+        int active = 0, queued = 0;
+        long oldest = 0, buffered = 0;
+        for (var entry : hosts.entrySet()) {
+            int hostActive = 0, hostQueued = 0;
+            long hostOldest = 0, hostBuffered = 0;
+            for (var inFlight : entry.getValue()) {
+                if (inFlight.active) {
+                    hostActive++;
+                } else {
+                    hostQueued++;
+                }
+                hostOldest = Math.max(hostOldest, now - inFlight.start);
+                hostBuffered += inFlight.received;
+            }
+            if (hostActive + hostQueued == 0) {
+                continue;
+            }
+            var oldestMillis = TimeUnit.NANOSECONDS.toMillis(hostOldest);
+            perHost.add(new HostSnapshot(entry.getKey(), hostActive, hostQueued, oldestMillis, hostBuffered));
+            active += hostActive;
+            queued += hostQueued;
+            oldest = Math.max(oldest, oldestMillis);
+            buffered += hostBuffered;
+        }
+        perHost.sort(Comparator.comparingInt((HostSnapshot host) -> host.active() + host.queued()).reversed());
+        var rates = rates(now);
+        var bytes = budget;
+        return new ClientSnapshot(active, queued, oldest, buffered, rates[0], rates[1],
+                bytes != null ? bytes.maxBytes() : 0, bytes != null ? bytes.used() : 0, bytes != null ? bytes.waiting() : 0, List.copyOf(perHost));
+    }
+
+    @Override
+    public int getActive() {
+        return getSnapshot().active();
+    }
+
+    @Override
+    public int getQueued() {
+        return getSnapshot().queued();
+    }
+
+    @Override
+    public long getOldestInFlightMillis() {
+        return getSnapshot().oldestAgeMillis();
+    }
+
+    @Override
+    public long getBufferedBytes() {
+        return getSnapshot().bufferedBytes();
+    }
+
+    @Override
+    public double getRequestsPerSecond() {
+        return rates(System.nanoTime())[0];
+    }
+
+    @Override
+    public double getBytesPerSecond() {
+        return rates(System.nanoTime())[1];
+    }
+
+    @Override
+    public long getBudgetUsedBytes() {
+        var bytes = budget;
+        return bytes != null ? bytes.used() : 0;
+    }
+
+    @Override
+    public int getBudgetWaiting() {
+        var bytes = budget;
+        return bytes != null ? bytes.waiting() : 0;
+    }
+
+    private synchronized void record(long bytes, long now) {
+        var second = TimeUnit.NANOSECONDS.toSeconds(now);
+        var slot = Math.floorMod(second, WINDOW_SECONDS);
+        if (seconds[slot] != second) {
+            seconds[slot] = second;
+            completed[slot] = 0;
+            received[slot] = 0;
+        }
+        completed[slot]++;
+        received[slot] += bytes;
+    }
+
+    private synchronized double[] rates(long now) {
+        var second = TimeUnit.NANOSECONDS.toSeconds(now);
+        long requests = 0, bytes = 0;
+        for (var slot = 0; slot < WINDOW_SECONDS; slot++) {
+            if (second - seconds[slot] < WINDOW_SECONDS && completed[slot] > 0) {
+                requests += completed[slot];
+                bytes += received[slot];
+            }
+        }
+        return new double[] {(double) requests / WINDOW_SECONDS, (double) bytes / WINDOW_SECONDS};
+    }
+
+    /**
+     * A request in flight, queued until handed to the {@link java.net.http.HttpClient}
+     */
+    final class InFlight {
+
+        private final String host;
+        private final long start;
+        private volatile boolean active;
+        private volatile long activatedAt;
+        private volatile long received;
+
+        private InFlight(String host, long start) {
+            this.host = host;
+            this.start = start;
+        }
+
+        /**
+         * Marks the request as handed to the {@link java.net.http.HttpClient}
+         */
+        void activate() {
+            activatedAt = System.nanoTime();
+            active = true;
+        }
+
+        /**
+         * @return whether the request was handed to the {@link java.net.http.HttpClient}
+         */
+        boolean isActive() {
+            return active;
+        }
+
+        /**
+         * @return the {@link System#nanoTime()} when the request was handed to the {@link java.net.http.HttpClient}
+         */
+        long activatedAt() {
+            return activatedAt;
+        }
+
+        /**
+         * Wraps the response handler to count the received body bytes
+         * @param handler the {@link HttpResponse.BodyHandler}
+         * @return the wrapped handler
+         */
+        <T> HttpResponse.BodyHandler<T> wrap(HttpResponse.BodyHandler<T> handler) {
+            return info -> new CountingSubscriber<>(handler.apply(info), this);
+        }
+
+        /**
+         * Unregisters the request and records it in the throughput, to be called once when the exchange completed or failed
+         */
+        void end() {
+            var removed = new boolean[1];
+            // the host is dropped with its last request, so calling many hosts doesn't grow the map
+            hosts.computeIfPresent(host, (key, requests) -> {
+                removed[0] = requests.remove(this);
+                return requests.isEmpty() ? null : requests;
+            });
+            if (removed[0]) {
+                record(received, System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * Counts the received body bytes of an {@link InFlight} request
+     */
+    private record CountingSubscriber<T>(HttpResponse.BodySubscriber<T> delegate, InFlight inFlight) implements HttpResponse.BodySubscriber<T> {
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            var bytes = 0L;
+            for (var buffer : item) {
+                bytes += buffer.remaining();
+            }
+            inFlight.received += bytes;
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            delegate.onComplete();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import io.github.nestigogroup.jhttpclient.monitoring.TenantSnapshot;
+import io.github.nestigogroup.jhttpclient.requests.Priority;
+import io.github.nestigogroup.jhttpclient.requests.TenantSettings;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Caps the requests a client has in flight, overall and per tenant. The surplus waits in a {@link WeightedQueue} per tenant
+ * and is started as slots free up: tenants by deficit round-robin, the requests of a tenant by {@link Priority}
+ */
+final class DispatchGate {
+
+    private static final String UNTAGGED = "";
+
+    private final int maxInFlight;
+    private final TenantSettings settings;
+    private final Map<String, Tenant> tenants = new HashMap<>();
+    private final ArrayDeque<Tenant> round = new ArrayDeque<>();
+    private int active;
+
+    /**
+     * @param maxInFlight the maximum number of requests in flight, <b>0</b> for no overall cap
+     * @param settings the {@link TenantSettings}
+     */
+    DispatchGate(int maxInFlight, TenantSettings settings) {
+        this.maxInFlight = maxInFlight;
+        this.settings = settings;
+    }
+
+    /**
+     * Starts the exchange now if the overall and tenant caps allow it, otherwise once a slot is given to it
+     * @param tenantKey the tenant of the exchange or <b>null</b>
+     * @param priority the {@link Priority} of the exchange
+     * @param exchange starts the exchange and returns its future
+     * @return the exchange future, cancelling it drops a waiting exchange and cancels a started one
+     */
+    <T> CompletableFuture<T> submit(String tenantKey, Priority priority, Supplier<CompletableFuture<T>> exchange) {
+        Tenant tenant;
+        synchronized (this) {
+            tenant = tenants.computeIfAbsent(tenantKey != null ? tenantKey : UNTAGGED, Tenant::new);
+            if (!tenant.queue.isEmpty() || !hasSlot() || !tenant.hasSlot()) {
+                var entry = new Waiting<>(tenant, exchange, new CompletableFuture<>());
+                tenant.queue.add(priority, entry);
+                if (!tenant.listed) {
+                    tenant.listed = true;
+                    round.addLast(tenant);
+                }
+                return entry.result;
+            }
+            active++;
+            tenant.active++;
+        }
+        return start(tenant, exchange);
+    }
+
+    /**
+     * @return the tenants with requests in flight or waiting
+     */
+    synchronized List<TenantSnapshot> tenants() {
+        var snapshot = new ArrayList<TenantSnapshot>(tenants.size());
+        for (var tenant : tenants.values()) {
+            snapshot.add(new TenantSnapshot(tenant.key, tenant.active, tenant.queue.size(), tenant.maxInFlight));
+        }
+        return snapshot;
+    }
+
+    private boolean hasSlot() {
+        return maxInFlight <= 0 || active < maxInFlight;
+    }
+
+    private <T> CompletableFuture<T> start(Tenant tenant, Supplier<CompletableFuture<T>> exchange) {
+        CompletableFuture<T> future;
+        try {
+            future = exchange.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((result, error) -> release(tenant));
+        return future;
+    }
+
+    private void release(Tenant tenant) {
+        var next = new ArrayList<Waiting<?>>();
+        synchronized (this) {
+            active--;
+            tenant.active--;
+            while (hasSlot()) {
+                var waiting = pick();
+                if (waiting == null) {
+                    break;
+                }
+                active++;
+                waiting.tenant.active++;
+                next.add(waiting);
+            }
+            if (tenant.active == 0 && tenant.queue.isEmpty() && !tenant.listed) {
+                tenants.remove(tenant.key);
+            }
+        }
+        for (var waiting : next) {
+            waiting.start();
+        }
+    }
+
+    /**
+     * Deficit round-robin over the tenants with waiting requests: the tenant at the head of the round earns its weight in credits
+     * when it is reached and is moved to the back once they are spent. Tenants at their cap are passed over keeping the credits left, they earn no new ones
+     * before these are spent
+     * @return the next request to start or <b>null</b> if none may start
+     */
+    private Waiting<?> pick() {
+        var passed = 0;
+        while (!round.isEmpty() && passed < round.size()) {
+            var tenant = round.peekFirst();
+            while (!tenant.queue.isEmpty() && tenant.queue.peek().result.isDone()) {
+                tenant.queue.poll();
+            }
+            if (tenant.queue.isEmpty()) {
+                round.pollFirst();
+                tenant.listed = false;
+                tenant.deficit = 0;
+                tenant.visited = false;
+                if (tenant.active == 0) {
+                    tenants.remove(tenant.key);
+                }
+                continue;
+            }
+            if (!tenant.hasSlot()) {
+                round.addLast(round.pollFirst());
+                passed++;
+                continue;
+            }
+            if (!tenant.visited) {
+                tenant.visited = true;
+                tenant.deficit += tenant.weight;
+            }
+            var waiting = tenant.queue.poll();
+            if (--tenant.deficit <= 0) {
+                tenant.visited = false;
+                round.addLast(round.pollFirst());
+            }
+            return waiting;
+        }
+        return null;
+    }
+
+    /**
+     * Per-tenant queue and accounting, guarded by the gate monitor
+     */
+    private final class Tenant {
+        private final String key;
+        private final int weight;
+        private final int maxInFlight;
+        private final WeightedQueue<Waiting<?>> queue = new WeightedQueue<>();
+        private int active;
+        private int deficit;
+        private boolean visited;
+        private boolean listed;
+
+        private Tenant(String key) {
+            this.key = key;
+            this.weight = settings.weight(key);
+            this.maxInFlight = settings.maxInFlight(key);
+        }
+
+        private boolean hasSlot() {
+            return maxInFlight <= 0 || active < maxInFlight;
+        }
+    }
+
+    /**
+     * An exchange waiting for a slot
+     */
+    private final class Waiting<T> {
+        private final Tenant tenant;
+        private final Supplier<CompletableFuture<T>> exchange;
+        private final CompletableFuture<T> result;
+
+        private Waiting(Tenant tenant, Supplier<CompletableFuture<T>> exchange, CompletableFuture<T> result) {
+            this.tenant = tenant;
+            this.exchange = exchange;
+            this.result = result;
+        }
+
+        private void start() {
+            if (result.isDone()) {
+                release(tenant);
+                return;
+            }
+            var started = DispatchGate.this.start(tenant, exchange);
+            started.whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                } else {
+                    result.complete(value);
+                }
+            });
+            result.whenComplete((value, error) -> {
+                if (result.isCancelled()) {
+                    started.cancel(true);
+                }
+            });
+        }
+    }
+}
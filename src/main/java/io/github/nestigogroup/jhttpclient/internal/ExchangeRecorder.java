@@ -0,0 +1,182 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import jdk.jfr.EventType;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Collects the timings of a single exchange and commits them as {@link HttpExchangeEvent}.
+ * Nothing is wrapped or measured while the event is disabled in the running recordings
+ */
+final class ExchangeRecorder {
+
+    private static final EventType EXCHANGE = EventType.getEventType(HttpExchangeEvent.class);
+
+    private final HttpExchangeEvent event = new HttpExchangeEvent();
+    private final long start = System.nanoTime();
+    private final TimedBodyPublisher publisher;
+    private volatile long headers;
+    private volatile long responseBytes;
+
+    private ExchangeRecorder(HttpRequest request) {
+        event.begin();
+        var traceparent = request.headers().firstValue(TraceContext.HEADER).orElse(null);
+        event.method = request.method();
+        event.host = request.uri().getHost();
+        event.path = request.uri().getPath();
+        event.traceId = TraceContext.traceId(traceparent);
+        event.spanId = TraceContext.spanId(traceparent);
+        publisher = request.bodyPublisher().orElse(null) instanceof TimedBodyPublisher timed ? timed : null;
+    }
+
+    /**
+     * @param request the {@link HttpRequest} about to be sent
+     * @return the recorder or <b>null</b> while the event is disabled
+     */
+    static ExchangeRecorder start(HttpRequest request) {
+        return EXCHANGE.isEnabled() ? new ExchangeRecorder(request) : null;
+    }
+
+    /**
+     * Wraps a request body to record when it is written, applied when the request is built
+     * @param body the {@link HttpRequest.BodyPublisher}
+     * @return the timed publisher or the provided one while the event is disabled
+     */
+    static HttpRequest.BodyPublisher timed(HttpRequest.BodyPublisher body) {
+        return EXCHANGE.isEnabled() ? new TimedBodyPublisher(body) : body;
+    }
+
+    /**
+     * Wraps the response handler to record the arrival of the headers and count the body bytes
+     * @param handler the {@link HttpResponse.BodyHandler}
+     * @return the wrapped handler
+     */
+    <T> HttpResponse.BodyHandler<T> wrap(HttpResponse.BodyHandler<T> handler) {
+        return info -> {
+            headers = System.nanoTime();
+            return new CountingSubscriber<>(handler.apply(info), this);
+        };
+    }
+
+    /**
+     * Commits the event, to be called when the exchange completed
+     * @param response the {@link HttpResponse} or <b>null</b> on failure
+     * @param error the failure or <b>null</b>
+     */
+    void finish(HttpResponse<?> response, Throwable error) {
+        var end = System.nanoTime();
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        var subscribed = publisher != null ? publisher.subscribed : 0;
+        var sent = publisher != null ? publisher.completed : 0;
+        var headersAt = headers;
+        var written = sent != 0 ? sent : subscribed;
+        event.queueTime = subscribed != 0 ? subscribed - start : 0;
+        event.sendTime = sent != 0 && subscribed != 0 ? sent - subscribed : 0;
+        event.timeToHeaders = headersAt != 0 ? headersAt - (written != 0 ? written : start) : 0;
+        event.bodyTime = headersAt != 0 ? end - headersAt : 0;
+        event.requestBytes = publisher != null ? publisher.bytes : 0;
+        event.responseBytes = responseBytes;
+        if (response != null) {
+            event.status = response.statusCode();
+        }
+        if (error != null) {
+            event.error = (error instanceof CompletionException && error.getCause() != null ? error.getCause() : error).toString();
+        }
+        event.commit();
+    }
+
+    /**
+     * Records when the request body is subscribed to (the request is being written) and completed
+     */
+    private static final class TimedBodyPublisher implements HttpRequest.BodyPublisher {
+
+        private final HttpRequest.BodyPublisher delegate;
+        private volatile long subscribed;
+        private volatile long completed;
+        private volatile long bytes;
+
+        private TimedBodyPublisher(HttpRequest.BodyPublisher delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            subscribed = System.nanoTime();
+            completed = 0;
+            bytes = 0;
+            delegate.subscribe(new Flow.Subscriber<ByteBuffer>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscriber.onSubscribe(subscription);
+                }
+
+                @Override
+                public void onNext(ByteBuffer item) {
+                    bytes += item.remaining();
+                    subscriber.onNext(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    subscriber.onError(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    completed = System.nanoTime();
+                    subscriber.onComplete();
+                }
+            });
+        }
+    }
+
+    /**
+     * Counts the received body bytes
+     */
+    private record CountingSubscriber<T>(HttpResponse.BodySubscriber<T> delegate, ExchangeRecorder recorder) implements HttpResponse.BodySubscriber<T> {
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            var received = 0L;
+            for (var buffer : item) {
+                received += buffer.remaining();
+            }
+            recorder.responseBytes += received;
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            delegate.onComplete();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+/**
+ * Client <b>Expect: 100-continue</b> policy: requests with a body of at least the threshold, or of unknown length, announce it and the
+ * {@link java.net.http.HttpClient} sends the body only after <b>100 Continue</b>, so a final response such as 401 or 413 arrives without it.
+ * The HttpClient waits for the interim response until the request timeout, with a bounded wait an exchange that got neither the
+ * interim nor the final response in time is cancelled and sent again without the expectation. This is safe for any body publisher
+ * since the body is never subscribed before <b>100 Continue</b>. A final response received in time is never followed by the upload,
+ * even while its body still streams. JDK 17 only applies the handler once it drained the body of such a response, then stalls:
+ * a rejection whose body streams past the wait is still retried there, one drained in time is reported without its body
+ */
+final class ExpectContinue {
+
+    private static final int WAITING = 0, SENDING = 1, ANSWERED = 2, EXPIRED = 3;
+
+    private final long threshold;
+    private final Duration wait;
+
+    /**
+     * @param threshold the minimum body size in bytes, <b>0</b> or negative for per-request expectations only
+     * @param wait the wait for the interim response or <b>null</b> to leave it to the HttpClient
+     */
+    ExpectContinue(long threshold, Duration wait) {
+        this.threshold = threshold;
+        this.wait = wait;
+    }
+
+    /**
+     * @return the request with the expectation if its body reaches the threshold, the request itself otherwise
+     */
+    HttpRequest mark(HttpRequest request) {
+        if (request.expectContinue() || threshold <= 0) {
+            return request;
+        }
+        var body = request.bodyPublisher().orElse(null);
+        if (body == null || body.contentLength() == 0 || (body.contentLength() > 0 && body.contentLength() < threshold)) {
+            return request;
+        }
+        return copy(request, body, true);
+    }
+
+    /**
+     * @return whether the wait for the interim response of the marked request is bounded
+     */
+    boolean bounds(HttpRequest request) {
+        return wait != null && request.expectContinue() && request.bodyPublisher().isPresent();
+    }
+
+    /**
+     * Sends the request with the expectation if it applies
+     * @param request the {@link HttpRequest}
+     * @param handler the {@link HttpResponse.BodyHandler}
+     * @param sender sends a request with a handler and returns its response future
+     * @return the response future, cancelling it cancels the current attempt
+     */
+    <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                               BiFunction<HttpRequest, HttpResponse.BodyHandler<T>, CompletableFuture<HttpResponse<T>>> sender) {
+        request = mark(request);
+        if (!bounds(request)) {
+            return sender.apply(request, handler);
+        }
+        var original = request.bodyPublisher().get();
+        var body = new WatchedBody(original);
+        var result = new CompletableFuture<HttpResponse<T>>();
+        var current = new AtomicReference<CompletableFuture<HttpResponse<T>>>();
+        var rejection = new AtomicReference<RejectedBody<T>>();
+        var timer = new CompletableFuture<Void>();
+        var sent = copy(request, body, true);
+        var attempt = sender.apply(sent, info -> {
+            var subscriber = handler.apply(info);
+            if (!body.answer()) {
+                return subscriber;
+            }
+            // a final status before 100 Continue, the body will never be sent
+            var rejected = new RejectedBody<>(subscriber, sent, info, timer);
+            rejection.set(rejected);
+            return rejected;
+        });
+        current.set(attempt);
+        var fallback = request;
+        timer.thenRun(() -> {
+            if (attempt.isDone() || result.isDone()) {
+                return;
+            }
+            if (body.expire()) {
+                attempt.cancel(true);
+                var retry = sender.apply(copy(fallback, original, false), handler);
+                current.set(retry);
+                forward(retry, result);
+                return;
+            }
+            var rejected = rejection.get();
+            if (rejected != null && rejected.abandon()) {
+                // the HttpClient drained the body of the rejection before applying the handler and waits for it again (JDK 17)
+                attempt.cancel(true);
+                forward(rejected.response(), result);
+            }
+        });
+        CompletableFuture.delayedExecutor(wait.toNanos(), TimeUnit.NANOSECONDS).execute(() -> timer.complete(null));
+        attempt.whenComplete((response, error) -> {
+            timer.cancel(false);
+            var rejected = rejection.get();
+            if (!body.expired() && (rejected == null || !rejected.abandoned())) {
+                forward(attempt, result);
+            }
+        });
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                current.get().cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private static <T> void forward(CompletableFuture<HttpResponse<T>> source, CompletableFuture<HttpResponse<T>> target) {
+        source.whenComplete((response, error) -> {
+            if (error != null) {
+                target.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                target.complete(response);
+            }
+        });
+    }
+
+    private static HttpRequest copy(HttpRequest request, HttpRequest.BodyPublisher body, boolean expectContinue) {
+        return HttpRequest.newBuilder(request, (name, value) -> true).method(request.method(), body).expectContinue(expectContinue).build();
+    }
+
+    /**
+     * Body publisher that refuses to start once the wait expired, a final status received before it started keeps the wait from expiring
+     */
+    private static final class WatchedBody implements HttpRequest.BodyPublisher {
+
+        private final HttpRequest.BodyPublisher delegate;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private WatchedBody(HttpRequest.BodyPublisher delegate) {
+            this.delegate = delegate;
+        }
+
+        private boolean expire() {
+            return state.compareAndSet(WAITING, EXPIRED);
+        }
+
+        private boolean answer() {
+            return state.compareAndSet(WAITING, ANSWERED);
+        }
+
+        private boolean expired() {
+            return state.get() == EXPIRED;
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            if (state.compareAndSet(WAITING, SENDING) || state.get() != EXPIRED) {
+                delegate.subscribe(subscriber);
+                return;
+            }
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            subscriber.onError(new CancellationException("Interim response wait expired"));
+        }
+    }
+
+    /**
+     * Response body of a final status received before the request body was sent. Its first bytes stop the timer, if none arrive
+     * within the wait the body is ended empty and the rejection reported without it
+     */
+    private static final class RejectedBody<T> implements HttpResponse.BodySubscriber<T> {
+
+        private final HttpResponse.BodySubscriber<T> delegate;
+        private final HttpRequest request;
+        private final HttpResponse.ResponseInfo info;
+        private final CompletableFuture<Void> timer;
+        private boolean subscribed;
+        private boolean receiving;
+        private boolean abandoned;
+
+        private RejectedBody(HttpResponse.BodySubscriber<T> delegate, HttpRequest request, HttpResponse.ResponseInfo info, CompletableFuture<Void> timer) {
+            this.delegate = delegate;
+            this.request = request;
+            this.info = info;
+            this.timer = timer;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public synchronized void onSubscribe(Flow.Subscription subscription) {
+            if (abandoned) {
+                subscription.cancel();
+                return;
+            }
+            subscribed = true;
+            delegate.onSubscribe(subscription);
+        }
+
+        @Override
+        public synchronized void onNext(List<ByteBuffer> item) {
+            if (abandoned) {
+                return;
+            }
+            if (!receiving) {
+                receiving = true;
+                timer.cancel(false);
+            }
+            delegate.onNext(item);
+        }
+
+        @Override
+        public synchronized void onError(Throwable throwable) {
+            if (!abandoned) {
+                receiving = true;
+                delegate.onError(throwable);
+            }
+        }
+
+        @Override
+        public synchronized void onComplete() {
+            if (!abandoned) {
+                receiving = true;
+                delegate.onComplete();
+            }
+        }
+
+        /**
+         * Ends the body without content unless some of it was received
+         * @return whether the body was ended
+         */
+        private synchronized boolean abandon() {
+            if (receiving || abandoned) {
+                return false;
+            }
+            abandoned = true;
+            if (!subscribed) {
+                delegate.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {}
+
+                    @Override
+                    public void cancel() {}
+                });
+            }
+            delegate.onComplete();
+            return true;
+        }
+
+        private synchronized boolean abandoned() {
+            return abandoned;
+        }
+
+        /**
+         * @return the rejection with the body as ended by {@link #abandon()}
+         */
+        private CompletableFuture<HttpResponse<T>> response() {
+            return delegate.getBody().toCompletableFuture()
+                    .thenApply(value -> new SyntheticResponse<>(info.statusCode(), request, info.headers(), value, request.uri(), info.version()));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder event of a single HTTP exchange, from the client call until the response body completed
+ */
+@Name("io.github.nestigogroup.jhttpclient.HttpExchange")
+@Label("HTTP Exchange")
+@Category({"JHttpClient"})
+@Description("HTTP request sent by a JHttpClient client")
+@StackTrace(false)
+final class HttpExchangeEvent extends jdk.jfr.Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Host")
+    String host;
+
+    @Label("Path")
+    String path;
+
+    @Label("Status")
+    int status;
+
+    @Label("Request Bytes")
+    @DataAmount
+    long requestBytes;
+
+    @Label("Response Bytes")
+    @DataAmount
+    long responseBytes;
+
+    @Label("Queue Time")
+    @Description("Rate limiting, stream scheduling and connection setup until the request body started to be written, included in the time to headers for requests without a body")
+    @Timespan
+    long queueTime;
+
+    @Label("Send Time")
+    @Description("Writing the request body")
+    @Timespan
+    long sendTime;
+
+    @Label("Time To Headers")
+    @Description("From the request body being written (or the exchange start without a body) until the response headers were received")
+    @Timespan
+    long timeToHeaders;
+
+    @Label("Body Time")
+    @Description("Receiving the response body")
+    @Timespan
+    long bodyTime;
+
+    @Label("Trace Id")
+    String traceId;
+
+    @Label("Span Id")
+    String spanId;
+
+    @Label("Error")
+    String error;
+}
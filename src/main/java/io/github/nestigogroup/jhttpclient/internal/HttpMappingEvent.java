@@ -0,0 +1,68 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.lang.reflect.Type;
+import java.net.http.HttpResponse;
+
+/**
+ * JDK Flight Recorder event of the deserialization of a response body by the Json clients,
+ * correlated with its {@link HttpExchangeEvent} by the trace and span ids
+ */
+@Name("io.github.nestigogroup.jhttpclient.HttpMapping")
+@Label("HTTP Response Mapping")
+@Category({"JHttpClient"})
+@Description("Deserialization of a response body by a JHttpClient Json client")
+@StackTrace(false)
+public final class HttpMappingEvent extends jdk.jfr.Event {
+
+    @Label("Host")
+    String host;
+
+    @Label("Path")
+    String path;
+
+    @Label("Type")
+    String type;
+
+    @Label("Media Type")
+    String mediaType;
+
+    @Label("Body Size")
+    @Description("Body bytes of the codec formats, characters of Json")
+    @DataAmount(DataAmount.BYTES)
+    long size;
+
+    @Label("Trace Id")
+    String traceId;
+
+    @Label("Span Id")
+    String spanId;
+
+    /**
+     * Ends the event started with {@link #begin()} and commits it if enabled
+     * @param response the mapped {@link HttpResponse}
+     * @param type the target type
+     * @param size the body size in bytes, or characters for Json
+     */
+    public void complete(HttpResponse<?> response, Type type, long size) {
+        end();
+        if (shouldCommit()) {
+            var uri = response.request().uri();
+            var traceparent = response.request().headers().firstValue(TraceContext.HEADER).orElse(null);
+            host = uri.getHost();
+            path = uri.getPath();
+            this.type = type.getTypeName();
+            mediaType = response.headers().firstValue("Content-Type").orElse(null);
+            this.size = size;
+            traceId = TraceContext.traceId(traceparent);
+            spanId = TraceContext.spanId(traceparent);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import io.github.nestigogroup.jhttpclient.interfaces.IAsyncInterceptor;
+import io.github.nestigogroup.jhttpclient.responses.InterceptedResponse;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Helpers of the interceptor chains, kept by the clients as copy-on-write arrays so an empty chain costs a single length check per request
+ */
+final class Interceptors {
+
+    private Interceptors() {}
+
+    /**
+     * @return a copy of the chain with the interceptor appended
+     */
+    static <I extends IAsyncInterceptor> I[] add(I[] chain, I interceptor) {
+        var copy = Arrays.copyOf(chain, chain.length + 1);
+        copy[chain.length] = Objects.requireNonNull(interceptor, "interceptor");
+        return copy;
+    }
+
+    /**
+     * @return a copy of the chain without the first occurrence of the interceptor, the chain itself if absent
+     */
+    static <I extends IAsyncInterceptor> I[] remove(I[] chain, IAsyncInterceptor interceptor) {
+        for (var i = 0; i < chain.length; i++) {
+            if (chain[i] == interceptor) {
+                var copy = Arrays.copyOf(chain, chain.length - 1);
+                System.arraycopy(chain, i + 1, copy, i, chain.length - i - 1);
+                return copy;
+            }
+        }
+        return chain;
+    }
+
+    /**
+     * Wraps the handler with the first <i>count</i> interceptors of the chain, the first one being the outermost
+     */
+    static <T> HttpResponse.BodyHandler<T> wrap(IAsyncInterceptor[] chain, int count, HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        for (var i = count - 1; i >= 0; i--) {
+            handler = chain[i].wrap(request, handler);
+        }
+        return handler;
+    }
+
+    /**
+     * Passes the body of a short-circuit response through the handler, as if it was received
+     * @param request the intercepted {@link HttpRequest}
+     * @param intercepted the {@link InterceptedResponse}
+     * @param handler the {@link HttpResponse.BodyHandler}
+     * @return the response future, completed once the handler has consumed the body
+     */
+    static <T> CompletableFuture<HttpResponse<T>> respondAsync(HttpRequest request, InterceptedResponse intercepted, HttpResponse.BodyHandler<T> handler) {
+        var headers = HttpHeaders.of(intercepted.headers(), (name, value) -> true);
+        var version = request.version().orElse(HttpClient.Version.HTTP_1_1);
+        HttpResponse.BodySubscriber<T> subscriber;
+        try {
+            subscriber = handler.apply(new Info(intercepted.code(), headers, version));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        var body = ByteBuffer.wrap(intercepted.body());
+        var delivered = new AtomicBoolean();
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n > 0 && delivered.compareAndSet(false, true)) {
+                    if (body.hasRemaining()) {
+                        subscriber.onNext(List.of(body));
+                    }
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                delivered.set(true);
+            }
+        });
+        return subscriber.getBody().toCompletableFuture()
+                .thenApply(value -> new SyntheticResponse<>(intercepted.code(), request, headers, value, request.uri(), version));
+    }
+
+    /**
+     * Blocking form of {@link #respondAsync(HttpRequest, InterceptedResponse, HttpResponse.BodyHandler)}
+     */
+    static <T> HttpResponse<T> respond(HttpRequest request, InterceptedResponse intercepted, HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+        try {
+            return respondAsync(request, intercepted, handler).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private record Info(int statusCode, HttpHeaders headers, HttpClient.Version version) implements HttpResponse.ResponseInfo {}
+}
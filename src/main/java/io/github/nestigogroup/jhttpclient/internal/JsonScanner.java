@@ -0,0 +1,226 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal pull tokenizer over UTF-8 Json bytes. Values that are not needed are skipped without being decoded,
+ * values that are needed as Json text are captured as raw bytes. Shared by the Json projection and the record mapper
+ */
+public final class JsonScanner {
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private ByteArrayOutputStream capture;
+
+    public JsonScanner(InputStream in) {
+        this.in = in;
+        this.buffer = new byte[8192];
+    }
+
+    public JsonScanner(byte[] json) {
+        this.in = InputStream.nullInputStream();
+        this.buffer = json;
+        this.limit = json.length;
+    }
+
+    /**
+     * @return the next non-whitespace byte without consuming it, <b>-1</b> at the end of the input
+     */
+    public int peek() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            var c = buffer[position];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                position++;
+            } else {
+                return c & 0xFF;
+            }
+        }
+    }
+
+    /**
+     * Consumes the next non-whitespace byte and checks it is the expected one
+     */
+    public void expect(char expected) throws IOException {
+        var c = peek();
+        if (c != expected) {
+            throw error("expected '" + expected + "' but found " + describe(c));
+        }
+        read();
+    }
+
+    /**
+     * Consumes a ',' and returns <b>true</b> or consumes the closing bracket and returns <b>false</b>
+     */
+    public boolean nextElement(char close) throws IOException {
+        var c = peek();
+        if (c == ',') {
+            read();
+            return true;
+        }
+        if (c == close) {
+            read();
+            return false;
+        }
+        throw error("expected ',' or '" + close + "' but found " + describe(c));
+    }
+
+    /**
+     * Decodes a Json string, the scanner has to be positioned on the opening quote
+     */
+    public String readString() throws IOException {
+        expect('"');
+        var sb = new StringBuilder();
+        while (true) {
+            var c = read();
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c == '\\') {
+                var escaped = read();
+                switch (escaped) {
+                    case '"', '\\', '/' -> sb.append((char) escaped);
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'u' -> {
+                        var code = 0;
+                        for (var i = 0; i < 4; i++) {
+                            var digit = Character.digit(read(), 16);
+                            if (digit < 0) {
+                                throw error("invalid unicode escape");
+                            }
+                            code = code << 4 | digit;
+                        }
+                        sb.append((char) code);
+                    }
+                    default -> throw error("invalid escape \\" + (char) escaped);
+                }
+            } else if (c < 0x80) {
+                sb.append((char) c);
+            } else if (c < 0xE0) {
+                sb.append((char) ((c & 0x1F) << 6 | read() & 0x3F));
+            } else if (c < 0xF0) {
+                sb.append((char) ((c & 0x0F) << 12 | (read() & 0x3F) << 6 | read() & 0x3F));
+            } else {
+                sb.appendCodePoint((c & 0x07) << 18 | (read() & 0x3F) << 12 | (read() & 0x3F) << 6 | read() & 0x3F);
+            }
+        }
+    }
+
+    /**
+     * Reads the text of a number or literal (<i>true</i>, <i>false</i>, <i>null</i>)
+     */
+    public String readScalar() throws IOException {
+        peek();
+        var sb = new StringBuilder();
+        while (true) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            var c = buffer[position];
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                break;
+            }
+            sb.append((char) read());
+        }
+        if (sb.isEmpty()) {
+            throw error("expected a value");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Skips the next value including all nested values
+     */
+    public void skipValue() throws IOException {
+        var c = peek();
+        switch (c) {
+            case '"' -> skipString();
+            case '{', '[' -> {
+                var depth = 0;
+                do {
+                    var b = read();
+                    if (b == '"') {
+                        skipStringBody();
+                    } else if (b == '{' || b == '[') {
+                        depth++;
+                    } else if (b == '}' || b == ']') {
+                        depth--;
+                    }
+                } while (depth > 0);
+            }
+            case -1 -> throw error("unexpected end of input");
+            default -> readScalar();
+        }
+    }
+
+    /**
+     * Skips the next value and returns it as Json text
+     */
+    public String captureValue() throws IOException {
+        peek();
+        var previous = capture;
+        capture = new ByteArrayOutputStream();
+        try {
+            skipValue();
+            return capture.toString(StandardCharsets.UTF_8);
+        } finally {
+            capture = previous;
+        }
+    }
+
+    private void skipString() throws IOException {
+        expect('"');
+        skipStringBody();
+    }
+
+    private void skipStringBody() throws IOException {
+        while (true) {
+            var c = read();
+            if (c == '\\') {
+                read();
+            } else if (c == '"') {
+                return;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            throw error("unexpected end of input");
+        }
+        var c = buffer[position++];
+        if (capture != null) {
+            capture.write(c);
+        }
+        return c & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        var read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private static String describe(int c) {
+        return c < 0 ? "end of input" : "'" + (char) c + "'";
+    }
+
+    private IOException error(String message) {
+        return new IOException("Invalid Json: " + message);
+    }
+}
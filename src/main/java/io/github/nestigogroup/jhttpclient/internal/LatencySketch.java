@@ -0,0 +1,90 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streaming latency quantile sketch: logarithmic buckets with 4% relative accuracy between 1 microsecond and 1 hour,
+ * counted in a current and a previous time window so the quantiles follow recent latency. Recording is lock-free
+ */
+final class LatencySketch {
+
+    private static final double GAMMA = 1.04;
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final int BUCKETS = (int) Math.ceil(Math.log(TimeUnit.HOURS.toMicros(1)) / LOG_GAMMA) + 1;
+
+    private final long windowNanos;
+    private volatile Window current;
+    private volatile Window previous;
+
+    /**
+     * @param windowNanos the window length
+     */
+    LatencySketch(long windowNanos) {
+        this.windowNanos = windowNanos;
+        this.current = new Window(System.nanoTime());
+        this.previous = new Window(current.start - windowNanos);
+    }
+
+    /**
+     * @param nanos the observed latency
+     */
+    void record(long nanos) {
+        var micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos));
+        var bucket = Math.min(BUCKETS - 1, (int) (Math.log(micros) / LOG_GAMMA));
+        var window = window(System.nanoTime());
+        window.counts.incrementAndGet(bucket);
+        window.total.increment();
+    }
+
+    /**
+     * @param quantile the quantile between <b>0</b> and <b>1</b>
+     * @param minSamples the samples needed in the current and previous window
+     * @return the quantile in nanoseconds (the upper bound of its bucket) or <b>-1</b> with fewer samples
+     */
+    long quantile(double quantile, long minSamples) {
+        var latest = window(System.nanoTime());
+        var older = previous;
+        var total = latest.total.sum() + older.total.sum();
+        if (total < minSamples) {
+            return -1;
+        }
+        var rank = (long) Math.ceil(quantile * total);
+        var seen = 0L;
+        for (var bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += latest.counts.get(bucket) + older.counts.get(bucket);
+            if (seen >= rank) {
+                return TimeUnit.MICROSECONDS.toNanos((long) Math.ceil(Math.pow(GAMMA, bucket + 1)));
+            }
+        }
+        return TimeUnit.HOURS.toNanos(1);
+    }
+
+    private Window window(long now) {
+        var window = current;
+        if (now - window.start < windowNanos) {
+            return window;
+        }
+        synchronized (this) {
+            window = current;
+            if (now - window.start >= windowNanos) {
+                // a window older than two lengths no longer describes the recent latency
+                previous = now - window.start < 2 * windowNanos ? window : new Window(now - windowNanos);
+                window = new Window(now);
+                current = window;
+            }
+            return window;
+        }
+    }
+
+    private static final class Window {
+        private final long start;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder total = new LongAdder();
+
+        private Window(long start) {
+            this.start = start;
+        }
+    }
+}
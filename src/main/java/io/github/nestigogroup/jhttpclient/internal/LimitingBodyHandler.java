@@ -0,0 +1,156 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import io.github.nestigogroup.jhttpclient.exceptions.ResponseTooLargeException;
+import io.github.nestigogroup.jhttpclient.requests.RequestOptions;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * {@link HttpResponse.BodyHandler} decorator that enforces a maximum response size.
+ * Responses announcing a larger <b>Content-Length</b> are rejected before the first body byte is read,
+ * streamed bodies are aborted as soon as the received byte count exceeds the cap. In both cases the subscription is cancelled,
+ * which closes the exchange, and the body completes with {@link ResponseTooLargeException}
+ */
+final class LimitingBodyHandler<T> implements HttpResponse.BodyHandler<T> {
+
+    private final HttpResponse.BodyHandler<T> delegate;
+    private final long maxResponseSize;
+    private final boolean checkContentLength;
+
+    /**
+     * @param delegate the wrapped {@link HttpResponse.BodyHandler}
+     * @param maxResponseSize the cap in bytes
+     * @param checkContentLength whether the <b>Content-Length</b> header describes the body (not the case for HEAD requests)
+     */
+    LimitingBodyHandler(HttpResponse.BodyHandler<T> delegate, long maxResponseSize, boolean checkContentLength) {
+        this.delegate = delegate;
+        this.maxResponseSize = maxResponseSize;
+        this.checkContentLength = checkContentLength;
+    }
+
+    /**
+     * Applies the per-request cap or, if not set, the client cap to the handler
+     * @param handler the {@link HttpResponse.BodyHandler} to limit
+     * @param method the request method
+     * @param options the per-request {@link RequestOptions}
+     * @param clientMaxResponseSize the client cap in bytes, <b>0</b> or negative for no cap
+     * @return the limited handler or the provided one when no cap applies
+     */
+    static <T> HttpResponse.BodyHandler<T> of(HttpResponse.BodyHandler<T> handler, String method, RequestOptions options, long clientMaxResponseSize) {
+        var max = options.maxResponseSize() != null ? options.maxResponseSize() : clientMaxResponseSize;
+        return max > 0 ? new LimitingBodyHandler<>(handler, max, !"HEAD".equals(method)) : handler;
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<T> apply(HttpResponse.ResponseInfo responseInfo) {
+        if (checkContentLength) {
+            var contentLength = responseInfo.headers().firstValueAsLong("Content-Length").orElse(-1);
+            if (contentLength > maxResponseSize) {
+                return new RejectingSubscriber<>(new ResponseTooLargeException(maxResponseSize, contentLength));
+            }
+        }
+        return new LimitingSubscriber<>(delegate.apply(responseInfo), maxResponseSize);
+    }
+
+    /**
+     * Counts the received bytes and aborts the exchange when the cap is exceeded
+     */
+    private static final class LimitingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+
+        private final HttpResponse.BodySubscriber<T> delegate;
+        private final long maxResponseSize;
+        private Flow.Subscription subscription;
+        private long received;
+        private boolean aborted;
+
+        private LimitingSubscriber(HttpResponse.BodySubscriber<T> delegate, long maxResponseSize) {
+            this.delegate = delegate;
+            this.maxResponseSize = maxResponseSize;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            delegate.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            if (aborted) {
+                return;
+            }
+            for (var buffer : item) {
+                received += buffer.remaining();
+            }
+            if (received > maxResponseSize) {
+                aborted = true;
+                subscription.cancel();
+                delegate.onError(new ResponseTooLargeException(maxResponseSize, received));
+                return;
+            }
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (!aborted) {
+                delegate.onError(throwable);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!aborted) {
+                delegate.onComplete();
+            }
+        }
+    }
+
+    /**
+     * Cancels the exchange as soon as it is subscribed
+     */
+    private static final class RejectingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+
+        private final CompletableFuture<T> body = new CompletableFuture<>();
+        private final ResponseTooLargeException exception;
+
+        private RejectingSubscriber(ResponseTooLargeException exception) {
+            this.exception = exception;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.cancel();
+            body.completeExceptionally(exception);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(exception);
+        }
+
+        @Override
+        public void onComplete() {
+            body.completeExceptionally(exception);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Republishes a streamed response body ({@link java.net.http.HttpResponse.BodyHandlers#ofPublisher()}) as a request body.
+ * A single list of buffers is requested from the source at a time and only when the request body has unmet demand, so at most one
+ * received chunk is held in memory. Cancelling the request body cancels the source and {@link #cancel()} fails the request body
+ */
+final class RelayPublisher implements Flow.Publisher<ByteBuffer>, Flow.Subscriber<List<ByteBuffer>> {
+
+    private final Flow.Publisher<List<ByteBuffer>> source;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+    private volatile Flow.Subscriber<? super ByteBuffer> downstream;
+    private Flow.Subscription upstream;
+    private long demand;
+    private boolean upstreamRequested;
+    private boolean done;
+    private Throwable error;
+    private boolean cancelled;
+    private boolean terminated;
+    private boolean draining;
+    private boolean missed;
+
+    /**
+     * @param source the response body publisher, subscribed to when the request body is
+     */
+    RelayPublisher(Flow.Publisher<List<ByteBuffer>> source) {
+        this.source = source;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        if (!started.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            subscriber.onError(new IllegalStateException("A relayed body can only be sent once"));
+            return;
+        }
+        downstream = subscriber;
+        source.subscribe(this);
+    }
+
+    /**
+     * Stops the relay: releases the source connection (subscribing just to cancel if the request body was never sent)
+     * and fails the request body if it is still being sent. Has no effect once the body was fully relayed
+     */
+    void cancel() {
+        if (started.compareAndSet(false, true)) {
+            synchronized (this) {
+                cancelled = true;
+            }
+            source.subscribe(this);
+            return;
+        }
+        Flow.Subscription subscription;
+        synchronized (this) {
+            if (done || cancelled) {
+                return;
+            }
+            done = true;
+            error = new CancellationException("Relay cancelled");
+            pending.clear();
+            subscription = upstream;
+        }
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (this) {
+            if (upstream != null || cancelled || done) {
+                subscription.cancel();
+                return;
+            }
+            upstream = subscription;
+        }
+        downstream.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                synchronized (RelayPublisher.this) {
+                    if (n <= 0) {
+                        if (!done) {
+                            done = true;
+                            error = new IllegalArgumentException("non-positive request: " + n);
+                            pending.clear();
+                        }
+                    } else {
+                        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                    }
+                }
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                Flow.Subscription source;
+                synchronized (RelayPublisher.this) {
+                    if (cancelled) {
+                        return;
+                    }
+                    cancelled = true;
+                    pending.clear();
+                    source = upstream;
+                }
+                source.cancel();
+            }
+        });
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> item) {
+        synchronized (this) {
+            if (done || cancelled) {
+                return;
+            }
+            upstreamRequested = false;
+            for (var buffer : item) {
+                if (buffer.hasRemaining()) {
+                    pending.add(buffer);
+                }
+            }
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+            error = throwable;
+        }
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+        }
+        drain();
+    }
+
+    /**
+     * Delivers the pending buffers within the demand, requests the next chunk from the source when they run out
+     * and signals the end once the source ended, serialized across the threads that call it
+     */
+    private void drain() {
+        synchronized (this) {
+            if (draining) {
+                missed = true;
+                return;
+            }
+            draining = true;
+        }
+        var subscriber = downstream;
+        while (true) {
+            ByteBuffer next = null;
+            Throwable failure = null;
+            var complete = false;
+            var requestMore = false;
+            Flow.Subscription source;
+            synchronized (this) {
+                source = upstream;
+                if (cancelled || terminated || subscriber == null) {
+                    draining = false;
+                    return;
+                }
+                if (!pending.isEmpty() && demand > 0) {
+                    next = pending.poll();
+                    demand--;
+                } else if (pending.isEmpty() && done) {
+                    terminated = true;
+                    failure = error;
+                    complete = true;
+                } else if (pending.isEmpty() && demand > 0 && !upstreamRequested && source != null) {
+                    upstreamRequested = true;
+                    requestMore = true;
+                } else if (missed) {
+                    missed = false;
+                    continue;
+                } else {
+                    draining = false;
+                    return;
+                }
+            }
+            if (next != null) {
+                subscriber.onNext(next);
+            } else if (complete) {
+                if (failure != null) {
+                    subscriber.onError(failure);
+                } else {
+                    subscriber.onComplete();
+                }
+            } else if (requestMore) {
+                source.request(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import io.github.nestigogroup.jhttpclient.requests.RequestOptions;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Map;
+
+/**
+ * Builds the {@link HttpRequest} objects for the internal clients by merging the client default headers with the per-request {@link RequestOptions}
+ */
+final class RequestFactory {
+
+    private RequestFactory() {}
+
+    /**
+     * Builds a request without copying the client headers. Per-request headers take precedence over client headers with the same name
+     * @param url The Request URL
+     * @param method the HTTP method
+     * @param body The pre-build {@link java.net.http.HttpRequest.BodyPublisher} with the request body
+     * @param headers the client default headers
+     * @param options the per-request {@link RequestOptions}
+     * @param traceContext whether to send a <b>traceparent</b>, a child of the one in the per-request or client headers if present
+     * @return the built {@link HttpRequest}
+     */
+    static HttpRequest build(String url, String method, HttpRequest.BodyPublisher body, Map<String, String> headers, RequestOptions options, boolean traceContext) {
+        var builder = HttpRequest.newBuilder().uri(URI.create(url)).method(method, ExchangeRecorder.timed(body));
+        var overrides = options.headers();
+        String parent = null;
+        for (var header : headers.entrySet()) {
+            if (traceContext && TraceContext.HEADER.equalsIgnoreCase(header.getKey())) {
+                parent = parent != null ? parent : header.getValue();
+            } else if (!overrides.containsKey(header.getKey())) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+        for (var header : overrides.entrySet()) {
+            if (traceContext && TraceContext.HEADER.equalsIgnoreCase(header.getKey())) {
+                parent = header.getValue();
+            } else {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+        if (traceContext) {
+            builder.header(TraceContext.HEADER, TraceContext.child(parent));
+        }
+        if (options.timeout() != null) {
+            builder.timeout(options.timeout());
+        }
+        if (options.version() != null) {
+            builder.version(options.version());
+        }
+        if (options.expectContinue()) {
+            builder.expectContinue(true);
+        }
+        return builder.build();
+    }
+}
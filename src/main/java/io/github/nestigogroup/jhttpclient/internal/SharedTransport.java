@@ -0,0 +1,172 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import javax.net.ssl.SSLContext;
+import java.lang.ref.Cleaner;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Registry of the {@link HttpClient} instances shared by the clients with identical transport settings, so they share the selector thread
+ * and the connection pool. A shared instance is built on the first request of any of its clients and dropped once the last client is closed
+ * or garbage collected (and closed gracefully, in the background, where the {@link HttpClient} is {@link AutoCloseable}).
+ * The HTTP/2 lanes of the {@link StreamScheduler} are shared the same way, per lane index
+ */
+final class SharedTransport {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final Map<Key, Entry> ENTRIES = new HashMap<>();
+
+    private SharedTransport() {}
+
+    /**
+     * Leases the transport of the settings for the owner client, released by {@link Lease#release()} or when the owner becomes unreachable
+     * @param owner the client
+     * @param version the HTTP version
+     * @param executor the executor or <b>null</b> for the default one
+     * @param redirectPolicy the redirect policy
+     * @param connectTimeout the connect timeout
+     * @param sslContext the {@link SSLContext} or <b>null</b> for the default one
+     * @return the {@link Lease}
+     */
+    static Lease acquire(Object owner, HttpClient.Version version, Executor executor, HttpClient.Redirect redirectPolicy, Duration connectTimeout, SSLContext sslContext) {
+        return acquire(owner, new Key(version, executor, redirectPolicy, connectTimeout, sslContext, -1));
+    }
+
+    private static Lease acquire(Object owner, Key key) {
+        Entry entry;
+        synchronized (ENTRIES) {
+            entry = ENTRIES.computeIfAbsent(key, Entry::new);
+            entry.leases++;
+        }
+        var lease = new Lease(entry);
+        CLEANER.register(owner, lease::release);
+        return lease;
+    }
+
+    private static void release(Entry entry) {
+        HttpClient client;
+        synchronized (ENTRIES) {
+            if (--entry.leases > 0) {
+                return;
+            }
+            ENTRIES.remove(entry.key, entry);
+            synchronized (entry) {
+                client = entry.client;
+                entry.client = null;
+                entry.closed = true;
+            }
+        }
+        if (client instanceof AutoCloseable closeable) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    closeable.close();
+                } catch (Exception ignored) {
+                    // the instance is unreachable either way
+                }
+            });
+        }
+    }
+
+    /**
+     * The transport settings, compared by value except for the executor and the {@link SSLContext} which are compared by identity.
+     * The lane is the index of an HTTP/2 lane or <b>-1</b> for the client transport
+     */
+    private record Key(HttpClient.Version version, Executor executor, HttpClient.Redirect redirectPolicy, Duration connectTimeout, SSLContext sslContext, int lane) {
+
+        private Key {
+            Objects.requireNonNull(version, "version");
+            Objects.requireNonNull(redirectPolicy, "redirectPolicy");
+            Objects.requireNonNull(connectTimeout, "connectTimeout");
+            if (connectTimeout.isNegative() || connectTimeout.isZero()) {
+                throw new IllegalArgumentException("Invalid duration: " + connectTimeout);
+            }
+        }
+
+        private HttpClient build() {
+            var builder = HttpClient.newBuilder().version(version).followRedirects(redirectPolicy).connectTimeout(connectTimeout);
+            if (executor != null) {
+                builder.executor(executor);
+            }
+            if (sslContext != null) {
+                builder.sslContext(sslContext);
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * A shared instance and the number of clients using it, the instance is guarded by the entry monitor
+     */
+    private static final class Entry {
+        private final Key key;
+        private int leases;
+        private HttpClient client;
+        private boolean closed;
+
+        private Entry(Key key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * The use of a shared transport by one client
+     */
+    static final class Lease {
+
+        private final Entry entry;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile HttpClient client;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * @return the shared {@link HttpClient}, built on the first call across the clients sharing it
+         * @throws IllegalStateException if the client was closed
+         */
+        HttpClient client() {
+            var shared = client;
+            if (shared != null && !released.get()) {
+                return shared;
+            }
+            synchronized (entry) {
+                if (released.get() || entry.closed) {
+                    throw new IllegalStateException("The client is closed");
+                }
+                if (entry.client == null) {
+                    entry.client = entry.key.build();
+                }
+                client = entry.client;
+                return entry.client;
+            }
+        }
+
+        /**
+         * Leases an HTTP/2 lane with the settings of this transport, built on its first use like the transport
+         * @param owner the owner of the lane, released when it becomes unreachable
+         * @param index the lane index
+         * @return the {@link Lease} of the lane
+         */
+        Lease lane(Object owner, int index) {
+            var key = entry.key;
+            return acquire(owner, new Key(HttpClient.Version.HTTP_2, key.executor(), key.redirectPolicy(), key.connectTimeout(), key.sslContext(), index));
+        }
+
+        /**
+         * Ends the use of the transport by the client, has no effect once released
+         */
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                client = null;
+                SharedTransport.release(entry);
+            }
+        }
+    }
+}
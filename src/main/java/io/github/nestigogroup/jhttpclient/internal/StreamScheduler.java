@@ -0,0 +1,278 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import io.github.nestigogroup.jhttpclient.http2.Http2Settings;
+import io.github.nestigogroup.jhttpclient.http2.StreamUtilization;
+import io.github.nestigogroup.jhttpclient.requests.Priority;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Dispatches requests over HTTP/2 "lanes", separate {@link HttpClient} instances that each hold one multiplexed connection per host.
+ * The lanes are leased from the {@link SharedTransport} on first use, so clients with the same settings share them and they are released with the scheduler.
+ * The in-flight requests per host and lane are kept under the stream limit and the surplus is queued locally, a new lane is opened for a host
+ * only when all its lanes are full, queued requests are started by {@link Priority}. Hosts that negotiate HTTP/1.1 bypass the limits (the {@link HttpClient} pools their connections itself).
+ * <p>
+ * The {@link HttpClient} does not expose the server's <b>SETTINGS_MAX_CONCURRENT_STREAMS</b>, a lower server limit is learned from the
+ * streams it refuses and the refused request is queued again. The learned limit is raised back by one stream per full window of successful
+ * responses, so a transient refusal doesn't throttle the host for the life of the client
+ */
+final class StreamScheduler {
+
+    private final Http2Settings settings;
+    private final SharedTransport.Lease transport;
+    private final List<SharedTransport.Lease> lanes = new CopyOnWriteArrayList<>();
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * @param settings the {@link Http2Settings}
+     * @param transport the client transport whose settings (redirects, timeouts, TLS, executor) the lanes copy
+     */
+    StreamScheduler(Http2Settings settings, SharedTransport.Lease transport) {
+        this.settings = settings;
+        this.transport = transport;
+    }
+
+    /**
+     * Sends the request on the least loaded lane with a free stream or queues it until one frees up
+     * @param request the {@link HttpRequest}
+     * @param handler the {@link HttpResponse.BodyHandler}
+     * @param priority the {@link Priority} while queued
+     * @param onStart called when the request leaves the queue and is sent
+     * @return the response future, cancelling it drops a queued request and cancels a sent one
+     */
+    <T> CompletableFuture<HttpResponse<T>> submit(HttpRequest request, HttpResponse.BodyHandler<T> handler, Priority priority, Runnable onStart) {
+        var host = hosts.computeIfAbsent(origin(request.uri()), Host::new);
+        var exchange = new Exchange<>(request, handler, priority, onStart, new CompletableFuture<>());
+        host.submit(exchange);
+        return exchange.result;
+    }
+
+    /**
+     * @return the utilization of every connection opened so far
+     */
+    List<StreamUtilization> utilization() {
+        var snapshot = new ArrayList<StreamUtilization>();
+        for (var host : hosts.values()) {
+            host.describe(snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Releases the lanes, the requests started after fail with {@link IllegalStateException}
+     */
+    void close() {
+        synchronized (lanes) {
+            for (var lane : lanes) {
+                lane.release();
+            }
+        }
+    }
+
+    private HttpClient lane(int index) {
+        if (index < lanes.size()) {
+            return lanes.get(index).client();
+        }
+        synchronized (lanes) {
+            while (lanes.size() <= index) {
+                lanes.add(transport.lane(this, lanes.size()));
+            }
+            return lanes.get(index).client();
+        }
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(int lane, Exchange<T> exchange) {
+        try {
+            return lane(lane).sendAsync(exchange.request, exchange.handler);
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static String origin(URI uri) {
+        var port = uri.getPort() >= 0 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        return uri.getScheme().toLowerCase(Locale.ROOT) + "://" + uri.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+    }
+
+    /**
+     * Whether the stream of the failed exchange was refused before the server processed the request, so it is safe to send again.
+     * <p>
+     * The {@link HttpClient} reports both refusals as a plain {@link IOException} with no dedicated type or error code, this check is a fallback
+     * on the exception class and the messages of the JDK implementation:
+     * <ul>
+     *     <li><i>too many concurrent streams</i>: the local connection is at the limit the server announced</li>
+     *     <li><i>Received RST_STREAM: Stream not processed</i>: the server reset the stream with <b>REFUSED_STREAM</b> (0x7)</li>
+     * </ul>
+     * Subclasses ({@link java.net.http.HttpTimeoutException}, {@link java.net.ConnectException}, ...) are never refusals. A JDK that words them
+     * differently only loses the learned limit, the failure then reaches the caller like any other
+     */
+    private static boolean isStreamRefused(Throwable error) {
+        var cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause == null || cause.getClass() != IOException.class || cause.getMessage() == null) {
+            return false;
+        }
+        var message = cause.getMessage().toLowerCase(Locale.ROOT);
+        return message.contains("too many concurrent streams") || message.contains("stream not processed");
+    }
+
+    /**
+     * A request waiting for or occupying a stream
+     */
+    private static final class Exchange<T> {
+        private final HttpRequest request;
+        private final HttpResponse.BodyHandler<T> handler;
+        private final Priority priority;
+        private final Runnable onStart;
+        private final CompletableFuture<HttpResponse<T>> result;
+        private boolean refused;
+
+        private Exchange(HttpRequest request, HttpResponse.BodyHandler<T> handler, Priority priority, Runnable onStart, CompletableFuture<HttpResponse<T>> result) {
+            this.request = request;
+            this.handler = handler;
+            this.priority = priority;
+            this.onStart = onStart;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Per-origin stream accounting, guarded by its own monitor
+     */
+    private final class Host {
+
+        private final String origin;
+        private final int[] active;
+        private final WeightedQueue<Exchange<?>> queue = new WeightedQueue<>();
+        private int lanesInUse;
+        private int streamLimit;
+        private int successes;
+        private Boolean multiplexed;
+
+        private Host(String origin) {
+            this.origin = origin;
+            this.active = new int[settings.maxConnectionsPerHost()];
+            this.streamLimit = settings.maxConcurrentStreams();
+        }
+
+        private void submit(Exchange<?> exchange) {
+            int lane;
+            synchronized (this) {
+                lane = acquire();
+                if (lane < 0) {
+                    queue.add(exchange.priority, exchange);
+                    return;
+                }
+            }
+            start(exchange, lane);
+        }
+
+        /**
+         * @return the least loaded lane with a free stream or <b>-1</b> if all lanes are full and no new one may be opened
+         */
+        private int acquire() {
+            if (Boolean.FALSE.equals(multiplexed)) {
+                active[0]++;
+                return 0;
+            }
+            var best = -1;
+            for (var i = 0; i < lanesInUse; i++) {
+                if (active[i] < streamLimit && (best < 0 || active[i] < active[best])) {
+                    best = i;
+                }
+            }
+            if (best < 0 && lanesInUse < active.length) {
+                best = lanesInUse++;
+            }
+            if (best >= 0) {
+                active[best]++;
+            }
+            return best;
+        }
+
+        private <T> void start(Exchange<T> exchange, int lane) {
+            if (exchange.result.isDone()) {
+                release(lane, null, null, exchange);
+                return;
+            }
+            exchange.onStart.run();
+            var sent = send(lane, exchange);
+            exchange.result.whenComplete((response, error) -> {
+                if (exchange.result.isCancelled()) {
+                    sent.cancel(true);
+                }
+            });
+            sent.whenComplete((response, error) -> {
+                if (release(lane, response, error, exchange)) {
+                    return;
+                }
+                if (response != null) {
+                    exchange.result.complete(response);
+                } else {
+                    exchange.result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                }
+            });
+        }
+
+        /**
+         * Frees the stream and starts the queued requests that fit
+         * @return <b>true</b> when the exchange was refused by the server and queued again
+         */
+        private boolean release(int lane, HttpResponse<?> response, Throwable error, Exchange<?> exchange) {
+            var requeued = false;
+            var next = new ArrayList<Exchange<?>>();
+            var nextLanes = new ArrayList<Integer>();
+            synchronized (this) {
+                active[lane]--;
+                if (response != null) {
+                    multiplexed = response.version() == HttpClient.Version.HTTP_2;
+                    if (streamLimit < settings.maxConcurrentStreams() && ++successes >= streamLimit) {
+                        streamLimit++;
+                        successes = 0;
+                    }
+                } else if (error != null && !exchange.refused && !Boolean.FALSE.equals(multiplexed) && isStreamRefused(error)) {
+                    streamLimit = Math.max(1, active[lane]);
+                    successes = 0;
+                    exchange.refused = true;
+                    queue.addFirst(exchange.priority, exchange);
+                    requeued = true;
+                }
+                while (!queue.isEmpty()) {
+                    if (queue.peek().result.isDone()) {
+                        queue.poll();
+                        continue;
+                    }
+                    var free = acquire();
+                    if (free < 0) {
+                        break;
+                    }
+                    next.add(queue.poll());
+                    nextLanes.add(free);
+                }
+            }
+            for (var i = 0; i < next.size(); i++) {
+                start(next.get(i), nextLanes.get(i));
+            }
+            return requeued;
+        }
+
+        private synchronized void describe(List<StreamUtilization> snapshot) {
+            var http1 = Boolean.FALSE.equals(multiplexed);
+            var used = http1 ? Math.max(1, lanesInUse) : lanesInUse;
+            for (var i = 0; i < used; i++) {
+                snapshot.add(new StreamUtilization(origin, i, active[i], http1 ? 0 : streamLimit, queue.size(), Boolean.TRUE.equals(multiplexed)));
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+
+/**
+ * {@link HttpResponse} assembled by the client instead of received as is (e.g. a cache hit served for a <b>304 Not Modified</b>)
+ */
+record SyntheticResponse<T>(int statusCode, HttpRequest request, HttpHeaders headers, T body, URI uri, HttpClient.Version version) implements HttpResponse<T> {
+
+    /**
+     * Copies the received response replacing its status code and body
+     * @param received the received {@link HttpResponse}
+     * @param statusCode the status code to report
+     * @param body the body to report
+     */
+    static <T> SyntheticResponse<T> of(HttpResponse<?> received, int statusCode, T body) {
+        return new SyntheticResponse<>(statusCode, received.request(), received.headers(), body, received.uri(), received.version());
+    }
+
+    @Override
+    public Optional<HttpResponse<T>> previousResponse() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import io.github.nestigogroup.jhttpclient.timeouts.AdaptiveTimeouts;
+
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies the {@link AdaptiveTimeouts} of a client: one {@link LatencySketch} per host and route template, fed with the time from the
+ * request being handed to the {@link java.net.http.HttpClient} to its response headers. The timeout of a route is recomputed every
+ * {@value #REFRESH_EVERY} samples instead of on every request
+ */
+final class TimeoutTracker {
+
+    private static final int REFRESH_EVERY = 32;
+
+    private final AdaptiveTimeouts settings;
+    private final long minNanos;
+    private final long maxNanos;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    TimeoutTracker(AdaptiveTimeouts settings) {
+        this.settings = settings;
+        this.minNanos = settings.minTimeout().toNanos();
+        this.maxNanos = settings.maxTimeout().toNanos();
+    }
+
+    /**
+     * @param request the built {@link HttpRequest}
+     * @return the request with the adaptive timeout of its route, the request itself if it has an explicit timeout
+     */
+    HttpRequest apply(HttpRequest request) {
+        if (request.timeout().isPresent()) {
+            return request;
+        }
+        var timeout = route(request).timeoutNanos;
+        return HttpRequest.newBuilder(request, (name, value) -> true).timeout(Duration.ofNanos(timeout)).build();
+    }
+
+    /**
+     * Wraps the response handler to record the time to headers of the request
+     * @param request the request as sent
+     * @param handler the {@link HttpResponse.BodyHandler}
+     * @param inFlight the {@link ClientMonitor.InFlight} of the request, providing the dispatch time
+     * @return the wrapped handler
+     */
+    <T> HttpResponse.BodyHandler<T> wrap(HttpRequest request, HttpResponse.BodyHandler<T> handler, ClientMonitor.InFlight inFlight) {
+        var route = route(request);
+        return info -> {
+            route.record(System.nanoTime() - inFlight.activatedAt());
+            return handler.apply(info);
+        };
+    }
+
+    /**
+     * Records a response timeout as a sample of the timeout length, so a slowing route raises its timeout instead of failing forever.
+     * Only timeouts applied by this tracker are recorded, an explicit timeout says nothing about the latency of the route
+     * @param request the request before {@link #apply(HttpRequest)}
+     * @param sent the request returned by {@link #apply(HttpRequest)}
+     * @param error the failure of the request
+     */
+    void onFailure(HttpRequest request, HttpRequest sent, Throwable error) {
+        if (sent == request) {
+            return;
+        }
+        var cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpTimeoutException && !(cause instanceof HttpConnectTimeoutException) && sent.timeout().isPresent()) {
+            route(sent).record(sent.timeout().get().toNanos());
+        }
+    }
+
+    /**
+     * @return the current timeout per tracked route, keyed by <i>host route-template</i>
+     */
+    Map<String, Duration> timeouts() {
+        var snapshot = new TreeMap<String, Duration>();
+        routes.forEach((key, route) -> snapshot.put(key, Duration.ofNanos(route.timeoutNanos)));
+        return snapshot;
+    }
+
+    private Route route(HttpRequest request) {
+        var key = request.uri().getHost() + " " + settings.routeTemplate(request.uri());
+        var route = routes.get(key);
+        return route != null ? route : routes.computeIfAbsent(key, ignored -> new Route());
+    }
+
+    /**
+     * Sketch and cached timeout of a single route
+     */
+    private final class Route {
+        private final LatencySketch sketch = new LatencySketch(settings.window().toNanos());
+        private final AtomicInteger samples = new AtomicInteger();
+        private volatile long timeoutNanos = maxNanos;
+
+        private void record(long nanos) {
+            sketch.record(nanos);
+            if (samples.incrementAndGet() % REFRESH_EVERY == 0) {
+                var quantile = sketch.quantile(settings.quantile(), settings.minSamples());
+                timeoutNanos = quantile < 0 ? maxNanos : Math.max(minNanos, Math.min(maxNanos, (long) (quantile * settings.multiplier())));
+            }
+        }
+    }
+}
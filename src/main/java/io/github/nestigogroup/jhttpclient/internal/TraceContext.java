@@ -0,0 +1,79 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * W3C trace-context (<b>traceparent</b>) helpers, version <i>00</i>: <i>00-&lt;trace-id&gt;-&lt;parent-id&gt;-&lt;flags&gt;</i>
+ */
+final class TraceContext {
+
+    static final String HEADER = "traceparent";
+    private static final HexFormat HEX = HexFormat.of();
+
+    private TraceContext() {}
+
+    /**
+     * Creates the <b>traceparent</b> of a new client span
+     * @param parent the incoming <b>traceparent</b> or <b>null</b>
+     * @return a child of a valid parent (same trace-id and flags, new parent-id) or the root of a new sampled trace
+     */
+    static String child(String parent) {
+        if (isValid(parent)) {
+            return "00-" + parent.substring(3, 35) + "-" + randomHex(8) + "-" + parent.substring(53, 55);
+        }
+        return "00-" + randomHex(16) + "-" + randomHex(8) + "-01";
+    }
+
+    /**
+     * @return the trace-id of a valid <b>traceparent</b> or <b>null</b>
+     */
+    static String traceId(String traceparent) {
+        return isValid(traceparent) ? traceparent.substring(3, 35) : null;
+    }
+
+    /**
+     * @return the parent-id (the client span id) of a valid <b>traceparent</b> or <b>null</b>
+     */
+    static String spanId(String traceparent) {
+        return isValid(traceparent) ? traceparent.substring(36, 52) : null;
+    }
+
+    private static boolean isValid(String traceparent) {
+        if (traceparent == null || traceparent.length() != 55 || traceparent.charAt(2) != '-' || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-') {
+            return false;
+        }
+        return isHex(traceparent, 0, 2) && isHex(traceparent, 3, 35) && isHex(traceparent, 36, 52) && isHex(traceparent, 53, 55)
+                && !traceparent.startsWith("ff") && !isZero(traceparent.substring(3, 35)) && !isZero(traceparent.substring(36, 52));
+    }
+
+    /**
+     * @return whether the characters in the range are lowercase hex digits
+     */
+    private static boolean isHex(String value, int from, int to) {
+        for (var i = from; i < to; i++) {
+            var c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isZero(String hex) {
+        for (var i = 0; i < hex.length(); i++) {
+            if (hex.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String randomHex(int bytes) {
+        var random = new byte[bytes];
+        do {
+            ThreadLocalRandom.current().nextBytes(random);
+        } while (isZero(HEX.formatHex(random)));
+        return HEX.formatHex(random);
+    }
+}
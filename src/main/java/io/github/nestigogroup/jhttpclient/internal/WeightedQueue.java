@@ -0,0 +1,95 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import io.github.nestigogroup.jhttpclient.requests.Priority;
+
+import java.util.ArrayDeque;
+
+/**
+ * FIFO queue per {@link Priority} class, polled by smooth weighted round-robin over the non-empty classes:
+ * each class is served in proportion to its weight and the picks are interleaved rather than bursty.
+ * Not thread-safe, guarded by the owner
+ */
+final class WeightedQueue<E> {
+
+    private static final Priority[] CLASSES = Priority.values();
+
+    private final ArrayDeque<E>[] queues;
+    private final int[] credits = new int[CLASSES.length];
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    WeightedQueue() {
+        queues = (ArrayDeque<E>[]) new ArrayDeque<?>[CLASSES.length];
+        for (var i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+    }
+
+    void add(Priority priority, E element) {
+        queues[priority.ordinal()].addLast(element);
+        size++;
+    }
+
+    /**
+     * Puts an element back in front of its class, e.g. a request refused by the server
+     */
+    void addFirst(Priority priority, E element) {
+        queues[priority.ordinal()].addFirst(element);
+        size++;
+    }
+
+    /**
+     * @return the element {@link #poll()} would return or <b>null</b> if empty
+     */
+    E peek() {
+        var next = next();
+        return next < 0 ? null : queues[next].peekFirst();
+    }
+
+    /**
+     * @return the head of the class whose turn it is or <b>null</b> if empty
+     */
+    E poll() {
+        var next = next();
+        if (next < 0) {
+            return null;
+        }
+        var total = 0;
+        for (var i = 0; i < CLASSES.length; i++) {
+            if (!queues[i].isEmpty()) {
+                credits[i] += CLASSES[i].weight();
+                total += CLASSES[i].weight();
+            }
+        }
+        credits[next] -= total;
+        var element = queues[next].pollFirst();
+        if (queues[next].isEmpty()) {
+            credits[next] = 0;
+        }
+        size--;
+        return element;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int next() {
+        var best = -1;
+        var bestCredit = 0;
+        for (var i = 0; i < CLASSES.length; i++) {
+            if (!queues[i].isEmpty()) {
+                var credit = credits[i] + CLASSES[i].weight();
+                if (best < 0 || credit > bestCredit) {
+                    best = i;
+                    bestCredit = credit;
+                }
+            }
+        }
+        return best;
+    }
+}
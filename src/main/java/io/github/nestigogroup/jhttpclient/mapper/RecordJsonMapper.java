@@ -0,0 +1,880 @@
+package io.github.nestigogroup.jhttpclient.mapper;
+
+import io.github.nestigogroup.jhttpclient.exceptions.ObjectMappingException;
+import io.github.nestigogroup.jhttpclient.helpers.TypeToken;
+import io.github.nestigogroup.jhttpclient.interfaces.IObjectCodec;
+import io.github.nestigogroup.jhttpclient.interfaces.IObjectMapper;
+import io.github.nestigogroup.jhttpclient.internal.JsonScanner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Zero-dependency {@link IObjectMapper} tuned for {@link Record} DTOs.
+ * Json is parsed directly from UTF-8 bytes, records are bound through {@link MethodHandle}s to their canonical constructors and accessors
+ * resolved once per class, and output is written through a reusable per-thread byte buffer.
+ * <p>
+ * Supported types: records, {@link String}, primitives and their wrappers, {@link BigDecimal}, {@link BigInteger}, enums, arrays,
+ * {@link List}, {@link Set}, {@link Collection}, {@link Map} with String/number/enum keys, {@link Optional}, {@link Object} (mapped to maps, lists and scalars)
+ * and value types with a static <i>parse(CharSequence)</i>, <i>fromString(String)</i> or <i>valueOf(String)</i> factory (e.g. java.time types, UUID) written as their {@link Object#toString()}.
+ * Record classes must be accessible to this module (on the class path or public in an exported package)
+ */
+public final class RecordJsonMapper implements IObjectMapper {
+
+    private static final int MAX_RETAINED_BUFFER = 1 << 20;
+    private static final ThreadLocal<JsonWriter> WRITERS = ThreadLocal.withInitial(JsonWriter::new);
+    private static final ClassValue<Codec> CLASS_CODECS = new ClassValue<>() {
+        @Override
+        protected Codec computeValue(Class<?> type) {
+            return classCodec(type);
+        }
+    };
+    private static final Map<Type, Codec> GENERIC_CODECS = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a mapper, the record bindings are resolved once per class and shared by all instances
+     */
+    public RecordJsonMapper() {
+    }
+
+    @Override
+    public String convertToJson(Object obj) throws ObjectMappingException {
+        var writer = writer();
+        writer.writeValue(obj);
+        return writer.asString();
+    }
+
+    /**
+     * Converts POJO/Record to UTF-8 Json bytes without the intermediate {@link String}
+     * @param obj the input POJO or {@link Record}
+     * @return UTF-8 Json bytes
+     * @throws ObjectMappingException when the value (or one of its components) is of unsupported type
+     */
+    public byte[] convertToJsonBytes(Object obj) throws ObjectMappingException {
+        var writer = writer();
+        writer.writeValue(obj);
+        return writer.toByteArray();
+    }
+
+    @Override
+    public <T> T convertFromJson(String json, Class<T> outClass) throws ObjectMappingException {
+        return convertFromJson(json.getBytes(StandardCharsets.UTF_8), outClass);
+    }
+
+    @Override
+    public <T> T convertFromJson(String json, Type type) throws ObjectMappingException {
+        return read(new JsonScanner(json.getBytes(StandardCharsets.UTF_8)), codec(type));
+    }
+
+    /**
+     * Maps UTF-8 Json bytes to POJO/Record
+     * @param json UTF-8 Json bytes
+     * @param outClass Target {@link Class} of the desired {@link Record} or value
+     * @return the mapped value
+     * @throws ObjectMappingException when input is not valid Json or can't be mapped to the provided {@link Class}
+     */
+    public <T> T convertFromJson(byte[] json, Class<T> outClass) throws ObjectMappingException {
+        return read(new JsonScanner(json), codec(outClass));
+    }
+
+    /**
+     * Maps an UTF-8 Json stream to POJO/Record, the caller remains responsible for closing the stream
+     * @param json UTF-8 Json {@link InputStream}
+     * @param outClass Target {@link Class} of the desired {@link Record} or value
+     * @return the mapped value
+     * @throws ObjectMappingException when input is not valid Json or can't be mapped to the provided {@link Class}
+     */
+    public <T> T convertFromJson(InputStream json, Class<T> outClass) throws ObjectMappingException {
+        return read(new JsonScanner(json), codec(outClass));
+    }
+
+    @Override
+    public <T> IObjectCodec<T> bind(TypeToken<T> type) {
+        var codec = codec(type.getType());
+        return new IObjectCodec<>() {
+            @Override
+            public T read(String json) throws ObjectMappingException {
+                return RecordJsonMapper.read(new JsonScanner(json.getBytes(StandardCharsets.UTF_8)), codec);
+            }
+
+            @Override
+            public String write(T value) throws ObjectMappingException {
+                var writer = writer();
+                writer.writeValue(value);
+                return writer.asString();
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T read(JsonScanner scanner, Codec codec) throws ObjectMappingException {
+        try {
+            var value = codec.read(scanner);
+            if (scanner.peek() != -1) {
+                throw new ObjectMappingException("Invalid Json: unexpected content after the value");
+            }
+            return (T) value;
+        } catch (IOException | RuntimeException e) {
+            throw new ObjectMappingException(e.getMessage(), e);
+        }
+    }
+
+    private static JsonWriter writer() {
+        var writer = WRITERS.get();
+        writer.reset();
+        return writer;
+    }
+
+    private static Codec codec(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return CLASS_CODECS.get(clazz);
+        }
+        var codec = GENERIC_CODECS.get(type);
+        if (codec == null) {
+            // resolved outside of the map, nested generic types are cached in the same map
+            codec = genericCodec(type);
+            var existing = GENERIC_CODECS.putIfAbsent(type, codec);
+            codec = existing != null ? existing : codec;
+        }
+        return codec;
+    }
+
+    private static Codec classCodec(Class<?> type) {
+        if (type == String.class || type == CharSequence.class) {
+            return STRING;
+        } else if (type == int.class || type == Integer.class) {
+            return new ScalarCodec(Integer::valueOf);
+        } else if (type == long.class || type == Long.class) {
+            return new ScalarCodec(Long::valueOf);
+        } else if (type == double.class || type == Double.class) {
+            return new ScalarCodec(Double::valueOf);
+        } else if (type == float.class || type == Float.class) {
+            return new ScalarCodec(Float::valueOf);
+        } else if (type == short.class || type == Short.class) {
+            return new ScalarCodec(Short::valueOf);
+        } else if (type == byte.class || type == Byte.class) {
+            return new ScalarCodec(Byte::valueOf);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return BOOLEAN;
+        } else if (type == char.class || type == Character.class) {
+            return CHARACTER;
+        } else if (type == BigDecimal.class) {
+            return new ScalarCodec(BigDecimal::new);
+        } else if (type == BigInteger.class) {
+            return new ScalarCodec(BigInteger::new);
+        } else if (type == Object.class) {
+            return ANY;
+        } else if (Enum.class.isAssignableFrom(type)) {
+            return type.isEnum() ? new EnumCodec(type) : CLASS_CODECS.get(type.getSuperclass());
+        } else if (type.isRecord()) {
+            return new RecordCodec(type);
+        } else if (type.isArray()) {
+            return new ArrayCodec(type.getComponentType(), codec(type.getComponentType()));
+        } else if (Collection.class.isAssignableFrom(type)) {
+            return new CollectionCodec(collectionFactory(type), ANY);
+        } else if (Map.class.isAssignableFrom(type)) {
+            return new MapCodec(mapFactory(type), STRING, ANY);
+        } else if (type == Optional.class) {
+            return new OptionalCodec(ANY);
+        } else if (Number.class.isAssignableFrom(type)) {
+            return new UnsupportedCodec(type);
+        }
+        var factory = valueFactory(type);
+        return factory != null ? new ValueCodec(factory) : new UnsupportedCodec(type);
+    }
+
+    private static Codec genericCodec(Type type) {
+        if (type instanceof ParameterizedType parameterized && parameterized.getRawType() instanceof Class<?> raw) {
+            var arguments = parameterized.getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(raw)) {
+                return new CollectionCodec(collectionFactory(raw), codec(arguments[0]));
+            } else if (Map.class.isAssignableFrom(raw)) {
+                return new MapCodec(mapFactory(raw), codec(arguments[0]), codec(arguments[1]));
+            } else if (raw == Optional.class) {
+                return new OptionalCodec(codec(arguments[0]));
+            }
+            return codec(raw);
+        } else if (type instanceof GenericArrayType array) {
+            var component = codec(array.getGenericComponentType());
+            return new ArrayCodec(erasure(array.getGenericComponentType()), component);
+        } else if (type instanceof WildcardType wildcard) {
+            return codec(wildcard.getUpperBounds()[0]);
+        } else if (type instanceof TypeVariable<?> variable) {
+            return codec(variable.getBounds()[0]);
+        }
+        return new UnsupportedCodec(type);
+    }
+
+    private static Class<?> erasure(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return clazz;
+        } else if (type instanceof ParameterizedType parameterized) {
+            return erasure(parameterized.getRawType());
+        } else if (type instanceof GenericArrayType array) {
+            return erasure(array.getGenericComponentType()).arrayType();
+        }
+        return Object.class;
+    }
+
+    private static Supplier<Collection<Object>> collectionFactory(Class<?> type) {
+        if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+            try {
+                var constructor = type.getConstructor();
+                return () -> {
+                    try {
+                        @SuppressWarnings("unchecked")
+                        var collection = (Collection<Object>) constructor.newInstance();
+                        return collection;
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException("Failed to create " + type.getName(), e);
+                    }
+                };
+            } catch (NoSuchMethodException ignored) {
+                // fall back to the interface defaults
+            }
+        }
+        if (SortedSet.class.isAssignableFrom(type)) {
+            return TreeSet::new;
+        }
+        return Set.class.isAssignableFrom(type) ? LinkedHashSet::new : ArrayList::new;
+    }
+
+    private static Supplier<Map<Object, Object>> mapFactory(Class<?> type) {
+        return SortedMap.class.isAssignableFrom(type) ? TreeMap::new : LinkedHashMap::new;
+    }
+
+    private static MethodHandle valueFactory(Class<?> type) {
+        var lookup = MethodHandles.publicLookup();
+        for (var candidate : List.of(MethodType.methodType(type, CharSequence.class), MethodType.methodType(type, String.class))) {
+            for (var name : List.of("parse", "fromString", "valueOf")) {
+                try {
+                    return lookup.findStatic(type, name, candidate).asType(MethodType.methodType(Object.class, String.class));
+                } catch (NoSuchMethodException | IllegalAccessException ignored) {
+                    // try the next candidate
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Object readNull(JsonScanner scanner) throws IOException, ObjectMappingException {
+        if (!scanner.readScalar().equals("null")) {
+            throw new ObjectMappingException("Invalid Json literal");
+        }
+        return null;
+    }
+
+    private static String readText(JsonScanner scanner) throws IOException, ObjectMappingException {
+        var c = scanner.peek();
+        if (c == '{' || c == '[') {
+            throw new ObjectMappingException("Expected a scalar value but found " + (char) c);
+        }
+        return c == '"' ? scanner.readString() : scanner.readScalar();
+    }
+
+    /**
+     * Reader/writer of a single type, resolved once
+     */
+    private interface Codec {
+
+        Object read(JsonScanner scanner) throws IOException, ObjectMappingException;
+
+        void write(Object value, JsonWriter out) throws ObjectMappingException;
+    }
+
+    /**
+     * Conversion of scalar text that may fail with {@link IllegalArgumentException}
+     */
+    private interface Parser {
+        Object parse(String text);
+    }
+
+    private static final Codec STRING = new Codec() {
+        @Override
+        public Object read(JsonScanner scanner) throws IOException, ObjectMappingException {
+            var c = scanner.peek();
+            if (c == 'n') {
+                return readNull(scanner);
+            }
+            return c == '"' ? scanner.readString() : scanner.captureValue();
+        }
+
+        @Override
+        public void write(Object value, JsonWriter out) {
+            out.writeString(value.toString());
+        }
+    };
+
+    private static final Codec BOOLEAN = new Codec() {
+        @Override
+        public Object read(JsonScanner scanner) throws IOException, ObjectMappingException {
+            var text = readText(scanner);
+            return switch (text) {
+                case "true" -> Boolean.TRUE;
+                case "false" -> Boolean.FALSE;
+                case "null" -> null;
+                default -> throw new ObjectMappingException("Invalid boolean " + text);
+            };
+        }
+
+        @Override
+        public void write(Object value, JsonWriter out) {
+            out.writeAscii(value.toString());
+        }
+    };
+
+    private static final Codec CHARACTER = new Codec() {
+        @Override
+        public Object read(JsonScanner scanner) throws IOException, ObjectMappingException {
+            if (scanner.peek() == 'n') {
+                return readNull(scanner);
+            }
+            var text = readText(scanner);
+            if (text.length() != 1) {
+                throw new ObjectMappingException("Invalid character " + text);
+            }
+            return text.charAt(0);
+        }
+
+        @Override
+        public void write(Object value, JsonWriter out) {
+            out.writeString(value.toString());
+        }
+    };
+
+    private static final Codec ANY = new Codec() {
+        @Override
+        public Object read(JsonScanner scanner) throws IOException, ObjectMappingException {
+            return switch (scanner.peek()) {
+                case '{' -> new MapCodec(LinkedHashMap::new, STRING, this).read(scanner);
+                case '[' -> new CollectionCodec(ArrayList::new, this).read(scanner);
+                case '"' -> scanner.readString();
+                case 't', 'f' -> BOOLEAN.read(scanner);
+                case 'n' -> readNull(scanner);
+                default -> number(scanner.readScalar());
+            };
+        }
+
+        @Override
+        public void write(Object value, JsonWriter out) throws ObjectMappingException {
+            out.writeValue(value);
+        }
+
+        private Object number(String text) throws ObjectMappingException {
+            try {
+                if (text.indexOf('.') >= 0 || text.indexOf('e') >= 0 || text.indexOf('E') >= 0) {
+                    return Double.valueOf(text);
+                }
+                var value = new BigInteger(text);
+                if (value.bitLength() < 32) {
+                    return value.intValue();
+                }
+                return value.bitLength() < 64 ? (Object) value.longValue() : value;
+            } catch (NumberFormatException e) {
+                throw new ObjectMappingException("Invalid number " + text, e);
+            }
+        }
+    };
+
+    private record ScalarCodec(Parser parser) implements Codec {
+
+        @Override
+        public Object read(JsonScanner scanner) throws IOException, ObjectMappingException {
+            var text = readText(scanner);
+            if (text.equals("null")) {
+                return null;
+            }
+            try {
+                return parser.parse(text);
+            } catch (IllegalArgumentException e) {
+                throw new ObjectMappingException("Invalid number " + text, e);
+            }
+        }
+
+        @Override
+        public void write(Object value, JsonWriter out) {
+            out.writeNumber(value);
+        }
+    }
+
+    private record ValueCodec(MethodHandle factory) implements Codec {
+
+        @Override
+        public Object read(JsonScanner scanner) throws IOException, ObjectMappingException {
+            if (scanner.peek() == 'n') {
+                return readNull(scanner);
+            }
+            var text = readText(scanner);
+            try {
+                return (Object) factory.invokeExact(text);
+            } catch (Throwable e) {
+                throw new ObjectMappingException("Can't convert " + text, e);
+            }
+        }
+
+        @Override
+        public void write(Object value, JsonWriter out) {
+            out.writeString(value.toString());
+        }
+    }
+
+    private static final class EnumCodec implements Codec {
+
+        private final Class<?> type;
+        private final Map<String, Object> constants = new HashMap<>();
+
+        private EnumCodec(Class<?> type) {
+            this.type = type;
+            for (var constant : type.getEnumConstants()) {
+                constants.put(((Enum<?>) constant).name(), constant);
+            }
+        }
+
+        @Override
+        public Object read(JsonScanner scanner) throws IOException, ObjectMappingException {
+            if (scanner.peek() == 'n') {
+                return readNull(scanner);
+            }
+            var text = readText(scanner);
+            var constant = constants.get(text);
+            if (constant == null) {
+                throw new ObjectMappingException("Unknown " + type.getName() + " constant " + text);
+            }
+            return constant;
+        }
+
+        @Override
+        public void write(Object value, JsonWriter out) {
+            out.writeString(((Enum<?>) value).name());
+        }
+    }
+
+    private record UnsupportedCodec(Type type) implements Codec {
+
+        @Override
+        public Object read(JsonScanner scanner) throws ObjectMappingException {
+            throw new ObjectMappingException("Unsupported type " + type.getTypeName());
+        }
+
+        @Override
+        public void write(Object value, JsonWriter out) throws ObjectMappingException {
+            throw new ObjectMappingException("Unsupported type " + type.getTypeName());
+        }
+    }
+
+    private record OptionalCodec(Codec value) implements Codec {
+
+        @Override
+        public Object read(JsonScanner scanner) throws IOException, ObjectMappingException {
+            return Optional.ofNullable(value.read(scanner));
+        }
+
+        @Override
+        public void write(Object optional, JsonWriter out) throws ObjectMappingException {
+            out.writeValue(((Optional<?>) optional).orElse(null));
+        }
+    }
+
+    private record ArrayCodec(Class<?> componentType, Codec component) implements Codec {
+
+        @Override
+        public Object read(JsonScanner scanner) throws IOException, ObjectMappingException {
+            if (scanner.peek() == 'n') {
+                return readNull(scanner);
+            }
+            var values = new ArrayList<>();
+            scanner.expect('[');
+            if (scanner.peek() == ']') {
+                scanner.expect(']');
+            } else {
+                do {
+                    values.add(component.read(scanner));
+                } while (scanner.nextElement(']'));
+            }
+            var array = Array.newInstance(componentType, values.size());
+            for (var i = 0; i < values.size(); i++) {
+                var value = values.get(i);
+                if (value == null && componentType.isPrimitive()) {
+                    throw new ObjectMappingException("Null element in " + componentType.getName() + "[]");
+                }
+                Array.set(array, i, value);
+            }
+            return array;
+        }
+
+        @Override
+        public void write(Object array, JsonWriter out) throws ObjectMappingException {
+            out.writeByte('[');
+            var length = Array.getLength(array);
+            for (var i = 0; i < length; i++) {
+                if (i > 0) {
+                    out.writeByte(',');
+                }
+                out.writeValue(Array.get(array, i));
+            }
+            out.writeByte(']');
+        }
+    }
+
+    private record CollectionCodec(Supplier<Collection<Object>> factory, Codec element) implements Codec {
+
+        @Override
+        public Object read(JsonScanner scanner) throws IOException, ObjectMappingException {
+            if (scanner.peek() == 'n') {
+                return readNull(scanner);
+            }
+            var collection = factory.get();
+            scanner.expect('[');
+            if (scanner.peek() == ']') {
+                scanner.expect(']');
+                return collection;
+            }
+            do {
+                collection.add(element.read(scanner));
+            } while (scanner.nextElement(']'));
+            return collection;
+        }
+
+        @Override
+        public void write(Object collection, JsonWriter out) throws ObjectMappingException {
+            out.writeByte('[');
+            var first = true;
+            for (var value : (Collection<?>) collection) {
+                if (!first) {
+                    out.writeByte(',');
+                }
+                first = false;
+                out.writeValue(value);
+            }
+            out.writeByte(']');
+        }
+    }
+
+    private record MapCodec(Supplier<Map<Object, Object>> factory, Codec key, Codec value) implements Codec {
+
+        @Override
+        public Object read(JsonScanner scanner) throws IOException, ObjectMappingException {
+            if (scanner.peek() == 'n') {
+                return readNull(scanner);
+            }
+            var map = factory.get();
+            scanner.expect('{');
+            if (scanner.peek() == '}') {
+                scanner.expect('}');
+                return map;
+            }
+            do {
+                var name = key == STRING ? scanner.readString() : key.read(scanner);
+                scanner.expect(':');
+                map.put(name, value.read(scanner));
+            } while (scanner.nextElement('}'));
+            return map;
+        }
+
+        @Override
+        public void write(Object map, JsonWriter out) throws ObjectMappingException {
+            out.writeByte('{');
+            var first = true;
+            for (var entry : ((Map<?, ?>) map).entrySet()) {
+                if (!first) {
+                    out.writeByte(',');
+                }
+                first = false;
+                var name = entry.getKey();
+                out.writeString(name instanceof Enum<?> constant ? constant.name() : String.valueOf(name));
+                out.writeByte(':');
+                out.writeValue(entry.getValue());
+            }
+            out.writeByte('}');
+        }
+    }
+
+    /**
+     * Binding of a single {@link Record} class: canonical constructor and accessors as {@link MethodHandle}s,
+     * component codecs are resolved on first use so self-referencing records are supported
+     */
+    private static final class RecordCodec implements Codec {
+
+        private final Class<?> type;
+        private final Type[] componentTypes;
+        private final Class<?>[] rawTypes;
+        private final byte[][] names;
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final MethodHandle constructor;
+        private final MethodHandle[] accessors;
+        private volatile Codec[] codecs;
+
+        private RecordCodec(Class<?> type) {
+            this.type = type;
+            var components = type.getRecordComponents();
+            componentTypes = new Type[components.length];
+            rawTypes = new Class<?>[components.length];
+            names = new byte[components.length][];
+            accessors = new MethodHandle[components.length];
+            RecordJsonMapper.class.getModule().addReads(type.getModule());
+            var lookup = MethodHandles.lookup();
+            try {
+                for (var i = 0; i < components.length; i++) {
+                    componentTypes[i] = components[i].getGenericType();
+                    rawTypes[i] = components[i].getType();
+                    indices.put(components[i].getName(), i);
+                    names[i] = JsonWriter.quotedName(components[i].getName());
+                    Method accessor = components[i].getAccessor();
+                    accessor.trySetAccessible();
+                    accessors[i] = lookup.unreflect(accessor).asType(MethodType.methodType(Object.class, Object.class));
+                }
+                var canonical = type.getDeclaredConstructor(rawTypes);
+                canonical.trySetAccessible();
+                constructor = lookup.unreflectConstructor(canonical)
+                        .asSpreader(Object[].class, components.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalArgumentException("Canonical constructor or accessors of " + type.getName() + " are not accessible", e);
+            }
+        }
+
+        private Codec[] codecs() {
+            var resolved = codecs;
+            if (resolved == null) {
+                resolved = new Codec[componentTypes.length];
+                for (var i = 0; i < resolved.length; i++) {
+                    resolved[i] = codec(componentTypes[i]);
+                }
+                codecs = resolved;
+            }
+            return resolved;
+        }
+
+        @Override
+        public Object read(JsonScanner scanner) throws IOException, ObjectMappingException {
+            if (scanner.peek() == 'n') {
+                return readNull(scanner);
+            }
+            var resolved = codecs();
+            var args = new Object[resolved.length];
+            scanner.expect('{');
+            if (scanner.peek() != '}') {
+                do {
+                    var index = indices.get(scanner.readString());
+                    scanner.expect(':');
+                    if (index == null) {
+                        scanner.skipValue();
+                    } else {
+                        args[index] = resolved[index].read(scanner);
+                    }
+                } while (scanner.nextElement('}'));
+            } else {
+                scanner.expect('}');
+            }
+            for (var i = 0; i < args.length; i++) {
+                if (args[i] == null && rawTypes[i].isPrimitive()) {
+                    args[i] = defaultValue(rawTypes[i]);
+                }
+            }
+            try {
+                return (Object) constructor.invokeExact(args);
+            } catch (Throwable e) {
+                throw new ObjectMappingException("Failed to create " + type.getName(), e);
+            }
+        }
+
+        @Override
+        public void write(Object record, JsonWriter out) throws ObjectMappingException {
+            out.writeByte('{');
+            for (var i = 0; i < accessors.length; i++) {
+                if (i > 0) {
+                    out.writeByte(',');
+                }
+                out.writeBytes(names[i]);
+                Object value;
+                try {
+                    value = (Object) accessors[i].invokeExact(record);
+                } catch (Throwable e) {
+                    throw new ObjectMappingException("Failed to read " + type.getName(), e);
+                }
+                out.writeValue(value);
+            }
+            out.writeByte('}');
+        }
+
+        private static Object defaultValue(Class<?> type) {
+            if (type == boolean.class) {
+                return false;
+            } else if (type == char.class) {
+                return '\0';
+            } else if (type == long.class) {
+                return 0L;
+            } else if (type == double.class) {
+                return 0d;
+            } else if (type == float.class) {
+                return 0f;
+            } else if (type == short.class) {
+                return (short) 0;
+            } else if (type == byte.class) {
+                return (byte) 0;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Growable UTF-8 output buffer, reused per thread
+     */
+    private static final class JsonWriter {
+
+        private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+        private byte[] buffer = new byte[1024];
+        private int length;
+
+        private void reset() {
+            if (buffer.length > MAX_RETAINED_BUFFER) {
+                buffer = new byte[1024];
+            }
+            length = 0;
+        }
+
+        private String asString() {
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, length);
+        }
+
+        private static byte[] quotedName(String name) {
+            var writer = new JsonWriter();
+            writer.writeString(name);
+            writer.writeByte(':');
+            return writer.toByteArray();
+        }
+
+        private void writeValue(Object value) throws ObjectMappingException {
+            if (value == null) {
+                writeAscii("null");
+            } else if (value instanceof String string) {
+                writeString(string);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Boolean) {
+                writeAscii(value.toString());
+            } else {
+                CLASS_CODECS.get(value.getClass()).write(value, this);
+            }
+        }
+
+        private void writeNumber(Object number) {
+            if ((number instanceof Double d && !Double.isFinite(d)) || (number instanceof Float f && !Float.isFinite(f))) {
+                writeAscii("null");
+            } else {
+                writeAscii(number.toString());
+            }
+        }
+
+        private void writeByte(int b) {
+            ensure(1);
+            buffer[length++] = (byte) b;
+        }
+
+        private void writeBytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+
+        private void writeAscii(String text) {
+            ensure(text.length());
+            for (var i = 0; i < text.length(); i++) {
+                buffer[length++] = (byte) text.charAt(i);
+            }
+        }
+
+        private void writeString(String text) {
+            ensure(text.length() + 2);
+            buffer[length++] = '"';
+            for (var i = 0; i < text.length(); i++) {
+                var c = text.charAt(i);
+                if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                    ensure(1);
+                    buffer[length++] = (byte) c;
+                } else if (c < 0x80) {
+                    writeEscape(c);
+                } else if (c < 0x800) {
+                    ensure(2);
+                    buffer[length++] = (byte) (0xC0 | c >> 6);
+                    buffer[length++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    var codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    ensure(4);
+                    buffer[length++] = (byte) (0xF0 | codePoint >> 18);
+                    buffer[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    buffer[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    buffer[length++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    writeEscape(c);
+                } else {
+                    ensure(3);
+                    buffer[length++] = (byte) (0xE0 | c >> 12);
+                    buffer[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    buffer[length++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            writeByte('"');
+        }
+
+        private void writeEscape(char c) {
+            ensure(6);
+            buffer[length++] = '\\';
+            switch (c) {
+                case '"' -> buffer[length++] = '"';
+                case '\\' -> buffer[length++] = '\\';
+                case '\n' -> buffer[length++] = 'n';
+                case '\r' -> buffer[length++] = 'r';
+                case '\t' -> buffer[length++] = 't';
+                case '\b' -> buffer[length++] = 'b';
+                case '\f' -> buffer[length++] = 'f';
+                default -> {
+                    buffer[length++] = 'u';
+                    buffer[length++] = HEX[c >> 12 & 0xF];
+                    buffer[length++] = HEX[c >> 8 & 0xF];
+                    buffer[length++] = HEX[c >> 4 & 0xF];
+                    buffer[length++] = HEX[c & 0xF];
+                }
+            }
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+    }
+}
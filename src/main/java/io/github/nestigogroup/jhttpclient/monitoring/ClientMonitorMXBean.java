@@ -0,0 +1,52 @@
+package io.github.nestigogroup.jhttpclient.monitoring;
+
+/**
+ * JMX view of a client, registered under <i>io.github.nestigogroup.jhttpclient:type=HttpClient,name=...</i>
+ */
+public interface ClientMonitorMXBean {
+
+    /**
+     * @return the full {@link ClientSnapshot} including the per-host breakdown
+     */
+    ClientSnapshot getSnapshot();
+
+    /**
+     * @return the requests handed to the {@link java.net.http.HttpClient}
+     */
+    int getActive();
+
+    /**
+     * @return the requests waiting for a rate limiter reservation or a free HTTP/2 stream
+     */
+    int getQueued();
+
+    /**
+     * @return the age of the oldest request in flight in milliseconds
+     */
+    long getOldestInFlightMillis();
+
+    /**
+     * @return the response body bytes received by the requests still in progress
+     */
+    long getBufferedBytes();
+
+    /**
+     * @return the completed requests per second over the last 10 seconds
+     */
+    double getRequestsPerSecond();
+
+    /**
+     * @return the received response body bytes per second over the last 10 seconds
+     */
+    double getBytesPerSecond();
+
+    /**
+     * @return the response body bytes held against the response byte budget, <b>0</b> when disabled
+     */
+    long getBudgetUsedBytes();
+
+    /**
+     * @return the responses waiting for budget before reading their body
+     */
+    int getBudgetWaiting();
+}
@@ -0,0 +1,27 @@
+package io.github.nestigogroup.jhttpclient.monitoring;
+
+import java.util.List;
+
+/**
+ * Point-in-time view of a client: the requests in flight and the recent throughput
+ * @param active the requests handed to the {@link java.net.http.HttpClient}
+ * @param queued the requests waiting for a rate limiter reservation or a free HTTP/2 stream
+ * @param oldestAgeMillis the age of the oldest request in flight, <b>0</b> when idle
+ * @param bufferedBytes the response body bytes received by the requests still in progress
+ * @param requestsPerSecond the completed requests per second over the last 10 seconds
+ * @param bytesPerSecond the received response body bytes per second over the last 10 seconds
+ * @param budgetBytes the response byte budget, <b>0</b> when disabled
+ * @param budgetUsedBytes the response body bytes held against the budget
+ * @param budgetWaiting the responses waiting for budget before reading their body
+ * @param hosts the per-host breakdown of the requests in flight, busiest first
+ */
+public record ClientSnapshot(int active, int queued, long oldestAgeMillis, long bufferedBytes, double requestsPerSecond, double bytesPerSecond,
+                             long budgetBytes, long budgetUsedBytes, int budgetWaiting, List<HostSnapshot> hosts) {
+
+    /**
+     * @return the requests in flight, queued or active
+     */
+    public int inFlight() {
+        return active + queued;
+    }
+}
@@ -0,0 +1,11 @@
+package io.github.nestigogroup.jhttpclient.monitoring;
+
+/**
+ * Point-in-time view of the requests in flight toward a single host
+ * @param host the host (<i>host[:port]</i> as in the request URL)
+ * @param active the requests handed to the {@link java.net.http.HttpClient}
+ * @param queued the requests waiting for a rate limiter reservation or a free HTTP/2 stream
+ * @param oldestAgeMillis the age of the oldest request in flight, queued or active
+ * @param bufferedBytes the response body bytes received by the requests still in progress
+ */
+public record HostSnapshot(String host, int active, int queued, long oldestAgeMillis, long bufferedBytes) {}
@@ -0,0 +1,10 @@
+package io.github.nestigogroup.jhttpclient.monitoring;
+
+/**
+ * Point-in-time view of a tenant in the fair dispatch queue of an async client
+ * @param tenant the tenant key, empty for requests without a tenant
+ * @param active the requests of the tenant in flight
+ * @param queued the requests of the tenant waiting for an in-flight slot
+ * @param maxInFlight the in-flight cap of the tenant, <b>0</b> for no cap
+ */
+public record TenantSnapshot(String tenant, int active, int queued, int maxInFlight) {}
@@ -0,0 +1,20 @@
+package io.github.nestigogroup.jhttpclient.projection;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a component of a projection {@link Record} to a path in the Json document, e.g. <i>data.items[0].id</i>.
+ * Components without the annotation are bound to the top-level field with the component name
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.RECORD_COMPONENT, ElementType.PARAMETER, ElementType.FIELD, ElementType.METHOD})
+public @interface JsonPath {
+
+    /**
+     * @return dot-separated field names with optional <i>[index]</i> array selectors, optionally prefixed by <i>$.</i>
+     */
+    String value();
+}
@@ -0,0 +1,350 @@
+package io.github.nestigogroup.jhttpclient.projection;
+
+import io.github.nestigogroup.jhttpclient.exceptions.ObjectMappingException;
+import io.github.nestigogroup.jhttpclient.interfaces.IObjectMapper;
+import io.github.nestigogroup.jhttpclient.internal.JsonScanner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads a few fields out of a (large) Json document into a projection {@link Record} without materializing the document.
+ * Each record component names the path it is read from (see {@link JsonPath}), the body is scanned as a stream,
+ * subtrees that are not on any requested path are skipped without being decoded and scanning stops as soon as all paths were found.
+ * <p>
+ * Components of type {@link String}, primitives and their wrappers, {@link BigDecimal}, {@link BigInteger} and enums are converted directly,
+ * {@link String} components pointing to an object or array receive the raw Json text and any other type is delegated to the provided {@link IObjectMapper}
+ * for the selected subtree only
+ * <pre>
+ * record OrderSummary(String id, &#64;JsonPath("customer.address.city") String city, &#64;JsonPath("lines[0].sku") String firstSku) {}
+ * </pre>
+ */
+public final class JsonProjector {
+
+    private static final ClassValue<Projection> PROJECTIONS = new ClassValue<>() {
+        @Override
+        protected Projection computeValue(Class<?> type) {
+            return new Projection(type);
+        }
+    };
+
+    private JsonProjector() {}
+
+    /**
+     * Projects a Json stream. Stops reading as soon as all paths were found, the caller remains responsible for closing the stream
+     * @param json UTF-8 Json {@link InputStream}
+     * @param type the projection {@link Record} class
+     * @param mapper the {@link IObjectMapper} used for components of complex types, may be <b>null</b> if there are none
+     * @return the projection {@link Record}, components whose path is missing are <b>null</b> (or the default primitive value)
+     * @throws ObjectMappingException when the input is not valid Json or a value can't be converted to the component type
+     */
+    public static <R extends Record> R project(InputStream json, Class<R> type, IObjectMapper mapper) throws ObjectMappingException {
+        return projection(type).read(new JsonScanner(json), mapper, type);
+    }
+
+    /**
+     * Projects Json bytes
+     * @param json UTF-8 Json bytes
+     * @param type the projection {@link Record} class
+     * @param mapper the {@link IObjectMapper} used for components of complex types, may be <b>null</b> if there are none
+     * @return the projection {@link Record}, components whose path is missing are <b>null</b> (or the default primitive value)
+     * @throws ObjectMappingException when the input is not valid Json or a value can't be converted to the component type
+     */
+    public static <R extends Record> R project(byte[] json, Class<R> type, IObjectMapper mapper) throws ObjectMappingException {
+        return projection(type).read(new JsonScanner(json), mapper, type);
+    }
+
+    /**
+     * Projects a Json String
+     * @param json Valid Json {@link String}
+     * @param type the projection {@link Record} class
+     * @param mapper the {@link IObjectMapper} used for components of complex types, may be <b>null</b> if there are none
+     * @return the projection {@link Record}, components whose path is missing are <b>null</b> (or the default primitive value)
+     * @throws ObjectMappingException when the input is not valid Json or a value can't be converted to the component type
+     */
+    public static <R extends Record> R project(String json, Class<R> type, IObjectMapper mapper) throws ObjectMappingException {
+        return project(json.getBytes(StandardCharsets.UTF_8), type, mapper);
+    }
+
+    private static Projection projection(Class<?> type) throws ObjectMappingException {
+        try {
+            return PROJECTIONS.get(type);
+        } catch (IllegalArgumentException e) {
+            throw new ObjectMappingException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Node of the path trie, compiled once per projection class
+     */
+    private static final class Node {
+        private final Map<String, Node> fields = new HashMap<>();
+        private final Map<Integer, Node> indices = new HashMap<>();
+        private int target = -1;
+
+        private boolean isLeaf() {
+            return fields.isEmpty() && indices.isEmpty();
+        }
+    }
+
+    /**
+     * Compiled projection of a single {@link Record} class
+     */
+    private static final class Projection {
+
+        private final Class<?>[] types;
+        private final Type[] genericTypes;
+        private final Constructor<?> constructor;
+        private final Node root = new Node();
+
+        private Projection(Class<?> type) {
+            if (!type.isRecord()) {
+                throw new IllegalArgumentException(type.getName() + " is not a record");
+            }
+            RecordComponent[] components = type.getRecordComponents();
+            types = new Class<?>[components.length];
+            genericTypes = new Type[components.length];
+            for (var i = 0; i < components.length; i++) {
+                types[i] = components[i].getType();
+                genericTypes[i] = components[i].getGenericType();
+                var path = components[i].getAnnotation(JsonPath.class);
+                var node = compile(path != null ? path.value() : components[i].getName());
+                if (node.target >= 0) {
+                    throw new IllegalArgumentException("Duplicate Json path for " + components[i].getName());
+                }
+                node.target = i;
+            }
+            try {
+                constructor = type.getDeclaredConstructor(types);
+                constructor.trySetAccessible();
+            } catch (NoSuchMethodException | RuntimeException e) {
+                throw new IllegalArgumentException("Canonical constructor of " + type.getName() + " is not accessible", e);
+            }
+        }
+
+        private Node compile(String path) {
+            var node = root;
+            var p = path.startsWith("$.") ? path.substring(2) : path.equals("$") ? "" : path;
+            var i = 0;
+            while (i < p.length()) {
+                var c = p.charAt(i);
+                if (c == '.') {
+                    i++;
+                } else if (c == '[') {
+                    var end = p.indexOf(']', i);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("Invalid Json path " + path);
+                    }
+                    var index = Integer.parseInt(p.substring(i + 1, end).trim());
+                    node = node.indices.computeIfAbsent(index, k -> new Node());
+                    i = end + 1;
+                } else {
+                    var end = i;
+                    while (end < p.length() && p.charAt(end) != '.' && p.charAt(end) != '[') {
+                        end++;
+                    }
+                    node = node.fields.computeIfAbsent(p.substring(i, end), k -> new Node());
+                    i = end;
+                }
+            }
+            return node;
+        }
+
+        private <R> R read(JsonScanner scanner, IObjectMapper mapper, Class<R> type) throws ObjectMappingException {
+            var state = new State(types.length, mapper);
+            try {
+                scan(scanner, root, state);
+            } catch (IOException | RuntimeException e) {
+                throw new ObjectMappingException(e.getMessage(), e);
+            }
+            var args = state.values;
+            for (var i = 0; i < args.length; i++) {
+                if (args[i] == null && types[i].isPrimitive()) {
+                    args[i] = defaultValue(types[i]);
+                }
+            }
+            try {
+                return type.cast(constructor.newInstance(args));
+            } catch (InvocationTargetException e) {
+                throw new ObjectMappingException("Failed to create " + type.getName(), e.getCause());
+            } catch (ReflectiveOperationException e) {
+                throw new ObjectMappingException("Failed to create " + type.getName(), e);
+            }
+        }
+
+        private void scan(JsonScanner scanner, Node node, State state) throws IOException, ObjectMappingException {
+            if (node == null) {
+                scanner.skipValue();
+                return;
+            }
+            if (node.target >= 0) {
+                if (node.isLeaf()) {
+                    state.set(node.target, readValue(scanner, types[node.target], genericTypes[node.target], state.mapper));
+                    return;
+                }
+                var raw = scanner.captureValue();
+                state.set(node.target, convertRaw(raw, types[node.target], genericTypes[node.target], state.mapper));
+                scanContainer(new JsonScanner(raw.getBytes(StandardCharsets.UTF_8)), node, state);
+                return;
+            }
+            scanContainer(scanner, node, state);
+        }
+
+        private void scanContainer(JsonScanner scanner, Node node, State state) throws IOException, ObjectMappingException {
+            var c = scanner.peek();
+            if (c == '{' && !node.fields.isEmpty()) {
+                scanner.expect('{');
+                if (scanner.peek() == '}') {
+                    scanner.expect('}');
+                    return;
+                }
+                do {
+                    var key = scanner.readString();
+                    scanner.expect(':');
+                    scan(scanner, node.fields.get(key), state);
+                    if (state.remaining == 0) {
+                        return;
+                    }
+                } while (scanner.nextElement('}'));
+            } else if (c == '[' && !node.indices.isEmpty()) {
+                scanner.expect('[');
+                if (scanner.peek() == ']') {
+                    scanner.expect(']');
+                    return;
+                }
+                var index = 0;
+                do {
+                    scan(scanner, node.indices.get(index++), state);
+                    if (state.remaining == 0) {
+                        return;
+                    }
+                } while (scanner.nextElement(']'));
+            } else {
+                scanner.skipValue();
+            }
+        }
+
+        private static Object readValue(JsonScanner scanner, Class<?> type, Type genericType, IObjectMapper mapper) throws IOException, ObjectMappingException {
+            var c = scanner.peek();
+            if (c == 'n') {
+                scanner.readScalar();
+                return null;
+            }
+            if (type == String.class) {
+                return c == '"' ? scanner.readString() : scanner.captureValue();
+            }
+            if (!isScalar(type)) {
+                return convertRaw(scanner.captureValue(), type, genericType, mapper);
+            }
+            if (c == '{' || c == '[') {
+                throw new ObjectMappingException("Expected a scalar value for " + type.getName());
+            }
+            return convertScalar(c == '"' ? scanner.readString() : scanner.readScalar(), type);
+        }
+
+        private static Object convertRaw(String raw, Class<?> type, Type genericType, IObjectMapper mapper) throws ObjectMappingException {
+            if (type == String.class) {
+                return raw;
+            }
+            if (mapper == null) {
+                throw new ObjectMappingException("An IObjectMapper is required to map Json to " + type.getName());
+            }
+            return mapper.convertFromJson(raw, genericType);
+        }
+
+        private static boolean isScalar(Class<?> type) {
+            return type.isPrimitive() || type == Integer.class || type == Long.class || type == Double.class || type == Float.class
+                    || type == Short.class || type == Byte.class || type == Boolean.class || type == Character.class
+                    || type == BigDecimal.class || type == BigInteger.class || type.isEnum();
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static Object convertScalar(String text, Class<?> type) throws ObjectMappingException {
+            try {
+                if (type == int.class || type == Integer.class) {
+                    return Integer.valueOf(text);
+                } else if (type == long.class || type == Long.class) {
+                    return Long.valueOf(text);
+                } else if (type == double.class || type == Double.class) {
+                    return Double.valueOf(text);
+                } else if (type == float.class || type == Float.class) {
+                    return Float.valueOf(text);
+                } else if (type == short.class || type == Short.class) {
+                    return Short.valueOf(text);
+                } else if (type == byte.class || type == Byte.class) {
+                    return Byte.valueOf(text);
+                } else if (type == boolean.class || type == Boolean.class) {
+                    if (!text.equals("true") && !text.equals("false")) {
+                        throw new ObjectMappingException("Invalid boolean " + text);
+                    }
+                    return Boolean.valueOf(text);
+                } else if (type == char.class || type == Character.class) {
+                    if (text.length() != 1) {
+                        throw new ObjectMappingException("Invalid character " + text);
+                    }
+                    return text.charAt(0);
+                } else if (type == BigDecimal.class) {
+                    return new BigDecimal(text);
+                } else if (type == BigInteger.class) {
+                    return new BigInteger(text);
+                }
+                return Enum.valueOf((Class<Enum>) type, text);
+            } catch (IllegalArgumentException e) {
+                throw new ObjectMappingException("Can't convert " + text + " to " + type.getName(), e);
+            }
+        }
+
+        private static Object defaultValue(Class<?> type) {
+            if (type == boolean.class) {
+                return false;
+            } else if (type == char.class) {
+                return '\0';
+            } else if (type == long.class) {
+                return 0L;
+            } else if (type == double.class) {
+                return 0d;
+            } else if (type == float.class) {
+                return 0f;
+            } else if (type == short.class) {
+                return (short) 0;
+            } else if (type == byte.class) {
+                return (byte) 0;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Values found during a single scan
+     */
+    private static final class State {
+        private final Object[] values;
+        private final boolean[] found;
+        private final IObjectMapper mapper;
+        private int remaining;
+
+        private State(int size, IObjectMapper mapper) {
+            this.values = new Object[size];
+            this.found = new boolean[size];
+            this.mapper = mapper;
+            this.remaining = size;
+        }
+
+        private void set(int index, Object value) {
+            values[index] = value;
+            if (!found[index]) {
+                found[index] = true;
+                remaining--;
+            }
+        }
+    }
+}
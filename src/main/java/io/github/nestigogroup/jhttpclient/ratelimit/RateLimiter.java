@@ -0,0 +1,235 @@
+package io.github.nestigogroup.jhttpclient.ratelimit;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side token bucket rate limiter, configurable per host and per path prefix.
+ * The limiter never blocks: it hands out reservations that the clients honor by delaying (async) or waiting (blocking) the dispatch.
+ * Rates are adapted automatically from <b>429</b>/<b>503</b> responses and the <b>Retry-After</b> and <b>RateLimit-Remaining</b>/<b>RateLimit-Reset</b> headers,
+ * hosts without configured limits are still paused when the server asks for it
+ */
+public class RateLimiter {
+
+    private static final int STATUS_TOO_MANY_REQUESTS = 429;
+    private static final int STATUS_SERVICE_UNAVAILABLE = 503;
+
+    private final Map<String, HostLimits> hosts = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+
+    /**
+     * Creates a {@link RateLimiter} that waits as long as needed for a token
+     */
+    public RateLimiter() {
+        this(null);
+    }
+
+    /**
+     * Creates a {@link RateLimiter} that fails requests which would have to wait longer than <i>maxWait</i>
+     * @param maxWait the longest acceptable wait as {@link Duration}, {@link Duration#ZERO} to fail fast or <b>null</b> for unbounded wait
+     */
+    public RateLimiter(Duration maxWait) {
+        this.maxWaitNanos = maxWait != null ? maxWait.toNanos() : -1;
+    }
+
+    /**
+     * Limits all requests toward the provided host
+     * @param host the host name (as in {@link URI#getHost()})
+     * @param permitsPerSecond the sustained request rate
+     * @param burst the number of requests that can be sent at once after an idle period
+     * @return this {@link RateLimiter}
+     */
+    public RateLimiter limitHost(String host, double permitsPerSecond, int burst) {
+        validate(permitsPerSecond);
+        hostLimits(host).hostBucket = new TokenBucket(permitsPerSecond, burst, System.nanoTime());
+        return this;
+    }
+
+    /**
+     * Limits the requests toward the provided host whose path starts with the provided prefix.
+     * When several prefixes match, the longest one is used. Host limits still apply on top of route limits
+     * @param host the host name (as in {@link URI#getHost()})
+     * @param pathPrefix the path prefix, e.g. <i>/api/search</i>
+     * @param permitsPerSecond the sustained request rate
+     * @param burst the number of requests that can be sent at once after an idle period
+     * @return this {@link RateLimiter}
+     */
+    public RateLimiter limitRoute(String host, String pathPrefix, double permitsPerSecond, int burst) {
+        validate(permitsPerSecond);
+        hostLimits(host).addRoute(pathPrefix, new TokenBucket(permitsPerSecond, burst, System.nanoTime()));
+        return this;
+    }
+
+    /**
+     * Reserves a permit for a request toward the provided {@link URI}
+     * @param uri the request {@link URI}
+     * @return the nanoseconds to wait before sending the request or <b>-1</b> if the wait exceeds the configured maximum (nothing is reserved in this case)
+     */
+    public long reserve(URI uri) {
+        var limits = hosts.get(key(uri));
+        if (limits == null) {
+            return 0;
+        }
+        var now = System.nanoTime();
+        var hostBucket = limits.hostBucket;
+        var routeBucket = limits.route(uri.getRawPath());
+        long wait = 0;
+        if (hostBucket != null) {
+            wait = hostBucket.reserve(now, maxWaitNanos);
+            if (wait < 0) {
+                return -1;
+            }
+        }
+        if (routeBucket != null) {
+            var routeWait = routeBucket.reserve(now, maxWaitNanos);
+            if (routeWait < 0) {
+                if (hostBucket != null) {
+                    hostBucket.refund();
+                }
+                return -1;
+            }
+            wait = Math.max(wait, routeWait);
+        }
+        return wait;
+    }
+
+    /**
+     * Returns the permit reserved by {@link #reserve(URI)} for a request that was not sent after all (e.g. cancelled while waiting)
+     * @param uri the request {@link URI}
+     */
+    public void release(URI uri) {
+        var limits = hosts.get(key(uri));
+        if (limits == null) {
+            return;
+        }
+        var hostBucket = limits.hostBucket;
+        var routeBucket = limits.route(uri.getRawPath());
+        if (hostBucket != null) {
+            hostBucket.refund();
+        }
+        if (routeBucket != null) {
+            routeBucket.refund();
+        }
+    }
+
+    /**
+     * Adapts the limits for the request {@link URI} using the received response
+     * @param uri the request {@link URI}
+     * @param statusCode the response status code
+     * @param headers the response {@link HttpHeaders}
+     */
+    public void onResponse(URI uri, int statusCode, HttpHeaders headers) {
+        var now = System.nanoTime();
+        var retryAfter = headers.firstValue("Retry-After").map(v -> parseRetryAfter(v, now)).orElse(-1L);
+        var remaining = headers.firstValueAsLong("RateLimit-Remaining");
+        var reset = headers.firstValueAsLong("RateLimit-Reset");
+        var throttled = statusCode == STATUS_TOO_MANY_REQUESTS || (statusCode == STATUS_SERVICE_UNAVAILABLE && retryAfter >= 0);
+        var limits = hosts.get(key(uri));
+        if (limits == null) {
+            if (!throttled && !(remaining.isPresent() && remaining.getAsLong() <= 0)) {
+                return;
+            }
+            limits = hosts.computeIfAbsent(key(uri), h -> new HostLimits());
+        }
+        var bucket = limits.bucketFor(uri.getRawPath(), now);
+        if (throttled) {
+            bucket.throttle(now, Math.max(0, retryAfter));
+        } else if (remaining.isPresent() && reset.isPresent()) {
+            bucket.quota(now, remaining.getAsLong(), TimeUnit.SECONDS.toNanos(reset.getAsLong()));
+        } else if (statusCode < 400) {
+            bucket.recover();
+        }
+    }
+
+    /**
+     * @return the configured maximum wait in nanoseconds or <b>-1</b> for unbounded wait
+     */
+    public long maxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    private HostLimits hostLimits(String host) {
+        return hosts.computeIfAbsent(host.toLowerCase(Locale.ROOT), h -> new HostLimits());
+    }
+
+    private static String key(URI uri) {
+        var host = uri.getHost();
+        return host != null ? host.toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static void validate(double permitsPerSecond) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+    }
+
+    private static long parseRetryAfter(String value, long now) {
+        try {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                var date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toNanos());
+            } catch (DateTimeParseException ex) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * The buckets configured for a single host
+     */
+    private static final class HostLimits {
+
+        private volatile TokenBucket hostBucket;
+        private volatile List<Map.Entry<String, TokenBucket>> routes = List.of();
+
+        private synchronized void addRoute(String prefix, TokenBucket bucket) {
+            var updated = new ArrayList<>(routes);
+            updated.removeIf(e -> e.getKey().equals(prefix));
+            updated.add(Map.entry(prefix, bucket));
+            updated.sort(Comparator.comparingInt((Map.Entry<String, TokenBucket> e) -> e.getKey().length()).reversed());
+            routes = List.copyOf(updated);
+        }
+
+        private TokenBucket route(String path) {
+            if (path == null) {
+                return null;
+            }
+            for (var route : routes) {
+                if (path.startsWith(route.getKey())) {
+                    return route.getValue();
+                }
+            }
+            return null;
+        }
+
+        private TokenBucket bucketFor(String path, long now) {
+            var bucket = route(path);
+            if (bucket != null) {
+                return bucket;
+            }
+            bucket = hostBucket;
+            if (bucket == null) {
+                synchronized (this) {
+                    if (hostBucket == null) {
+                        hostBucket = new TokenBucket(Double.POSITIVE_INFINITY, 1, now);
+                    }
+                    bucket = hostBucket;
+                }
+            }
+            return bucket;
+        }
+    }
+}
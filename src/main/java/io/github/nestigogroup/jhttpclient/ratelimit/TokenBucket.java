@@ -0,0 +1,117 @@
+package io.github.nestigogroup.jhttpclient.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket that hands out reservations instead of blocking, so callers decide whether to wait, delay or fail.
+ * The rate is adapted at runtime from the server responses and recovers towards the configured rate
+ */
+final class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double RECOVERY_STEP = 0.1;
+
+    private final double configuredRate;
+    private final double burst;
+    private final double minRate;
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    /**
+     * @param permitsPerSecond the sustained rate, {@link Double#POSITIVE_INFINITY} for buckets that only honor server pauses
+     * @param burst the maximum number of tokens that can be accumulated
+     * @param now current {@link System#nanoTime()}
+     */
+    TokenBucket(double permitsPerSecond, int burst, long now) {
+        this.configuredRate = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.minRate = Double.isInfinite(permitsPerSecond) ? 1 : permitsPerSecond / 100;
+        this.rate = permitsPerSecond;
+        this.tokens = this.burst;
+        this.lastRefill = now;
+        this.pausedUntil = now;
+    }
+
+    /**
+     * Reserves a single token
+     * @param now current {@link System#nanoTime()}
+     * @param maxWaitNanos the longest acceptable wait or negative value for unbounded wait
+     * @return the nanoseconds the caller has to wait before using the token or <b>-1</b> if the wait exceeds <i>maxWaitNanos</i> (nothing is reserved in this case)
+     */
+    synchronized long reserve(long now, long maxWaitNanos) {
+        refill(now);
+        long wait = Math.max(0, pausedUntil - now);
+        if (tokens < 1) {
+            wait = Math.max(wait, (long) Math.ceil((1 - tokens) / rate * NANOS_PER_SECOND));
+        }
+        if (maxWaitNanos >= 0 && wait > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= 1;
+        return wait;
+    }
+
+    /**
+     * Returns a token obtained by {@link #reserve(long, long)} that was not used
+     */
+    synchronized void refund() {
+        tokens = Math.min(burst, tokens + 1);
+    }
+
+    /**
+     * Stops handing out tokens until the provided deadline and halves the rate
+     * @param now current {@link System#nanoTime()}
+     * @param pauseNanos the pause requested by the server, <b>0</b> when unknown
+     */
+    synchronized void throttle(long now, long pauseNanos) {
+        refill(now);
+        pausedUntil = Math.max(pausedUntil, now + pauseNanos);
+        if (!Double.isInfinite(rate)) {
+            rate = Math.max(minRate, rate / 2);
+        }
+        tokens = Math.min(tokens, 0);
+    }
+
+    /**
+     * Aligns the bucket with the quota announced by the server
+     * @param now current {@link System#nanoTime()}
+     * @param remaining the requests left in the current window
+     * @param resetNanos the time until the window resets
+     */
+    synchronized void quota(long now, long remaining, long resetNanos) {
+        refill(now);
+        if (remaining <= 0) {
+            pausedUntil = Math.max(pausedUntil, now + resetNanos);
+            tokens = Math.min(tokens, 0);
+        } else if (resetNanos > 0 && !Double.isInfinite(configuredRate)) {
+            rate = Math.max(minRate, Math.min(configuredRate, remaining * NANOS_PER_SECOND / resetNanos));
+        }
+    }
+
+    /**
+     * Moves the adapted rate back towards the configured one after a successful response
+     */
+    synchronized void recover() {
+        if (rate < configuredRate) {
+            rate = Math.min(configuredRate, rate + configuredRate * RECOVERY_STEP);
+        }
+    }
+
+    /**
+     * @return the current (possibly adapted) rate in permits per second
+     */
+    synchronized double rate() {
+        return rate;
+    }
+
+    private void refill(long now) {
+        if (Double.isInfinite(rate)) {
+            tokens = burst;
+        } else if (now > lastRefill) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * rate / NANOS_PER_SECOND);
+        }
+        lastRefill = Math.max(lastRefill, now);
+    }
+}
@@ -0,0 +1,149 @@
+package io.github.nestigogroup.jhttpclient.replay;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary append-only format of the recorded exchanges: a sequence of length-prefixed records, each holding the fields of a
+ * {@link RecordedExchange} with strings as UTF-8 and headers as name/values lists. A record cut short by a crash ends the log
+ */
+public final class ExchangeLog {
+
+    private static final int RECORD_MAGIC = 0x4a485231;
+
+    private ExchangeLog() {}
+
+    /**
+     * Reads all complete records of a log
+     * @param file the log file
+     * @return {@link List} of {@link RecordedExchange} in recording order
+     * @throws IOException if the file can't be read or holds a malformed record
+     */
+    public static List<RecordedExchange> read(Path file) throws IOException {
+        var exchanges = new ArrayList<RecordedExchange>();
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                int magic;
+                try {
+                    magic = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (magic != RECORD_MAGIC) {
+                    throw new IOException("Malformed exchange log " + file + " at record " + exchanges.size());
+                }
+                var length = in.readInt();
+                var record = new byte[length];
+                try {
+                    in.readFully(record);
+                } catch (EOFException e) {
+                    break;
+                }
+                exchanges.add(decode(new DataInputStream(new ByteArrayInputStream(record))));
+            }
+        }
+        return exchanges;
+    }
+
+    /**
+     * @return the exchange as a complete record, ready to be appended in a single write
+     */
+    static byte[] encode(RecordedExchange exchange) throws IOException {
+        var bytes = new ByteArrayOutputStream(256 + exchange.requestBody().length + exchange.responseBody().length);
+        var out = new DataOutputStream(bytes);
+        out.writeInt(RECORD_MAGIC);
+        out.writeInt(0);
+        out.writeLong(exchange.timestamp());
+        writeString(out, exchange.method());
+        writeString(out, exchange.uri().toString());
+        writeHeaders(out, exchange.requestHeaders());
+        writeBytes(out, exchange.requestBody());
+        out.writeInt(exchange.statusCode());
+        writeHeaders(out, exchange.responseHeaders());
+        writeBytes(out, exchange.responseBody());
+        out.writeLong(exchange.headersNanos());
+        out.writeLong(exchange.totalNanos());
+        out.flush();
+        var record = bytes.toByteArray();
+        var length = record.length - 8;
+        record[4] = (byte) (length >>> 24);
+        record[5] = (byte) (length >>> 16);
+        record[6] = (byte) (length >>> 8);
+        record[7] = (byte) length;
+        return record;
+    }
+
+    private static RecordedExchange decode(DataInputStream in) throws IOException {
+        var timestamp = in.readLong();
+        var method = readString(in);
+        var uri = URI.create(readString(in));
+        var requestHeaders = readHeaders(in);
+        var requestBody = readBytes(in);
+        var statusCode = in.readInt();
+        var responseHeaders = readHeaders(in);
+        var responseBody = readBytes(in);
+        var headersNanos = in.readLong();
+        var totalNanos = in.readLong();
+        return new RecordedExchange(timestamp, method, uri, requestHeaders, requestBody, statusCode, responseHeaders, responseBody, headersNanos, totalNanos);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        var length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Malformed exchange log record");
+        }
+        return in.readNBytes(length);
+    }
+
+    private static void writeHeaders(DataOutputStream out, Map<String, List<String>> headers) throws IOException {
+        out.writeInt(headers.size());
+        for (var header : headers.entrySet()) {
+            writeString(out, header.getKey());
+            out.writeInt(header.getValue().size());
+            for (var value : header.getValue()) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static Map<String, List<String>> readHeaders(DataInputStream in) throws IOException {
+        var count = in.readInt();
+        var headers = new LinkedHashMap<String, List<String>>();
+        for (var i = 0; i < count; i++) {
+            var name = readString(in);
+            var values = new ArrayList<String>();
+            var valueCount = in.readInt();
+            for (var j = 0; j < valueCount; j++) {
+                values.add(readString(in));
+            }
+            headers.put(name, List.copyOf(values));
+        }
+        return headers;
+    }
+}
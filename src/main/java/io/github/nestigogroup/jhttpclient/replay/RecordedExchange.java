@@ -0,0 +1,22 @@
+package io.github.nestigogroup.jhttpclient.replay;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A request/response pair stored by the {@link RecordingInterceptor}
+ * @param timestamp the epoch milliseconds when the request was sent
+ * @param method the HTTP method
+ * @param uri the request URL
+ * @param requestHeaders the request headers
+ * @param requestBody the request body, empty without body
+ * @param statusCode the response status code
+ * @param responseHeaders the response headers
+ * @param responseBody the response body
+ * @param headersNanos the time until the response headers were received
+ * @param totalNanos the time until the response body was received
+ */
+public record RecordedExchange(long timestamp, String method, URI uri, Map<String, List<String>> requestHeaders, byte[] requestBody,
+                               int statusCode, Map<String, List<String>> responseHeaders, byte[] responseBody, long headersNanos, long totalNanos) {
+}
@@ -0,0 +1,240 @@
+package io.github.nestigogroup.jhttpclient.replay;
+
+import io.github.nestigogroup.jhttpclient.interfaces.IInterceptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Interceptor that appends every completed exchange (request and response headers, bodies, status and timing) to an
+ * {@link ExchangeLog} file, to be served later by a {@link ReplayInterceptor}. Add it last so it records the requests as sent.
+ * Bodies are held in memory until the exchange completes, failed or cancelled exchanges are not recorded.
+ * Credential headers ({@link #DEFAULT_REDACTED_HEADERS} unless configured otherwise) are left out of the log
+ */
+public final class RecordingInterceptor implements IInterceptor, Closeable {
+
+    /**
+     * The request and response headers that are not recorded by default: <b>Authorization</b>, <b>Proxy-Authorization</b>, <b>Cookie</b> and <b>Set-Cookie</b>
+     */
+    public static final Set<String> DEFAULT_REDACTED_HEADERS = Set.of("Authorization", "Proxy-Authorization", "Cookie", "Set-Cookie");
+
+    private final FileChannel channel;
+    private final Set<String> redactedHeaders;
+    private volatile IOException failure;
+
+    /**
+     * Opens the file for appending, creating it if needed. The {@link #DEFAULT_REDACTED_HEADERS} are not recorded
+     * @param file the log file
+     * @throws IOException if the file can't be opened
+     */
+    public RecordingInterceptor(Path file) throws IOException {
+        this(file, DEFAULT_REDACTED_HEADERS);
+    }
+
+    /**
+     * Opens the file for appending, creating it if needed
+     * @param file the log file
+     * @param redactedHeaders the names (case-insensitive) of the request and response headers not to record, empty to record all headers
+     * @throws IOException if the file can't be opened
+     */
+    public RecordingInterceptor(Path file, Set<String> redactedHeaders) throws IOException {
+        var names = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+        names.addAll(redactedHeaders);
+        this.redactedHeaders = Collections.unmodifiableSet(names);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public HttpRequest onRequest(HttpRequest request) {
+        var publisher = request.bodyPublisher().orElse(null);
+        if (publisher == null || publisher.contentLength() == 0 || publisher instanceof TeePublisher) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true).method(request.method(), new TeePublisher(publisher)).build();
+    }
+
+    @Override
+    public <T> HttpResponse.BodyHandler<T> wrap(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        var timestamp = System.currentTimeMillis();
+        var start = System.nanoTime();
+        return info -> new RecordingSubscriber<>(handler.apply(info), request, info, timestamp, start, System.nanoTime() - start);
+    }
+
+    /**
+     * Closes the file
+     * @throws IOException if closing failed or a record could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        var error = failure;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            if (error != null) {
+                e.addSuppressed(error);
+            }
+            throw e;
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private Map<String, List<String>> redact(Map<String, List<String>> headers) {
+        if (redactedHeaders.isEmpty()) {
+            return headers;
+        }
+        var kept = new LinkedHashMap<String, List<String>>();
+        headers.forEach((name, values) -> {
+            if (!redactedHeaders.contains(name)) {
+                kept.put(name, values);
+            }
+        });
+        return kept;
+    }
+
+    private void append(RecordedExchange exchange) {
+        try {
+            var record = ByteBuffer.wrap(ExchangeLog.encode(exchange));
+            synchronized (channel) {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            }
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+
+    /**
+     * Copies the response body and appends the exchange once it completes
+     */
+    private final class RecordingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+
+        private final HttpResponse.BodySubscriber<T> delegate;
+        private final HttpRequest request;
+        private final HttpResponse.ResponseInfo info;
+        private final long timestamp;
+        private final long start;
+        private final long headersNanos;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        private RecordingSubscriber(HttpResponse.BodySubscriber<T> delegate, HttpRequest request, HttpResponse.ResponseInfo info, long timestamp, long start, long headersNanos) {
+            this.delegate = delegate;
+            this.request = request;
+            this.info = info;
+            this.timestamp = timestamp;
+            this.start = start;
+            this.headersNanos = headersNanos;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            for (var buffer : item) {
+                copy(buffer, body);
+            }
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            var requestBody = request.bodyPublisher().orElse(null) instanceof TeePublisher tee ? tee.bytes() : new byte[0];
+            append(new RecordedExchange(timestamp, request.method(), request.uri(), redact(request.headers().map()), requestBody,
+                    info.statusCode(), redact(info.headers().map()), body.toByteArray(), headersNanos, System.nanoTime() - start));
+            delegate.onComplete();
+        }
+    }
+
+    /**
+     * Request body publisher keeping a copy of the bytes of its latest subscription
+     */
+    private static final class TeePublisher implements HttpRequest.BodyPublisher {
+
+        private final HttpRequest.BodyPublisher delegate;
+        private volatile ByteArrayOutputStream sent = new ByteArrayOutputStream();
+
+        private TeePublisher(HttpRequest.BodyPublisher delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            var copy = new ByteArrayOutputStream();
+            sent = copy;
+            delegate.subscribe(new Flow.Subscriber<ByteBuffer>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscriber.onSubscribe(subscription);
+                }
+
+                @Override
+                public void onNext(ByteBuffer item) {
+                    copy(item, copy);
+                    subscriber.onNext(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    subscriber.onError(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    subscriber.onComplete();
+                }
+            });
+        }
+
+        private byte[] bytes() {
+            return sent.toByteArray();
+        }
+    }
+
+    private static void copy(ByteBuffer buffer, ByteArrayOutputStream target) {
+        var view = buffer.duplicate();
+        if (view.hasArray()) {
+            target.write(view.array(), view.arrayOffset() + view.position(), view.remaining());
+        } else {
+            var bytes = new byte[view.remaining()];
+            view.get(bytes);
+            target.write(bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package io.github.nestigogroup.jhttpclient.replay;
+
+import io.github.nestigogroup.jhttpclient.interfaces.IInterceptor;
+import io.github.nestigogroup.jhttpclient.responses.InterceptedResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interceptor that answers requests from an {@link ExchangeLog} file written by a {@link RecordingInterceptor}, without network access.
+ * Each response is delayed by its recorded total time multiplied by the latency scale: the blocking clients sleep on the calling thread,
+ * the async clients complete the response on a timer. Add it first so no other interceptor runs for a replayed request
+ */
+public final class ReplayInterceptor implements IInterceptor {
+
+    private final ReplayMatcher matcher;
+    private final double latencyScale;
+    private final boolean passthrough;
+    private final Map<ReplayMatcher.Key, Recorded> exchanges = new HashMap<>();
+
+    /**
+     * Replays the file with the {@link ReplayMatcher#DEFAULT} matcher and the recorded latency, failing unmatched requests
+     * @param file the log file
+     * @throws IOException if the file can't be read
+     */
+    public ReplayInterceptor(Path file) throws IOException {
+        this(file, ReplayMatcher.DEFAULT, 1, false);
+    }
+
+    /**
+     * @param file the log file
+     * @param matcher the {@link ReplayMatcher}
+     * @param latencyScale the factor applied to the recorded latency, <b>0</b> to answer immediately
+     * @param passthrough whether unmatched requests are sent, otherwise they fail with {@link IOException}
+     * @throws IOException if the file can't be read
+     */
+    public ReplayInterceptor(Path file, ReplayMatcher matcher, double latencyScale, boolean passthrough) throws IOException {
+        if (!(latencyScale >= 0)) {
+            throw new IllegalArgumentException("latencyScale must not be negative");
+        }
+        this.matcher = matcher;
+        this.latencyScale = latencyScale;
+        this.passthrough = passthrough;
+        for (var exchange : ExchangeLog.read(file)) {
+            var key = matcher.key(exchange.method(), exchange.uri(), exchange.requestHeaders(), exchange.requestBody());
+            exchanges.computeIfAbsent(key, k -> new Recorded()).list.add(exchange);
+        }
+    }
+
+    @Override
+    public InterceptedResponse respond(HttpRequest request) throws IOException {
+        byte[] body;
+        try {
+            body = matcher.body() ? body(request).get() : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading the request body");
+        } catch (ExecutionException e) {
+            throw new IOException("Request body can't be read for matching", e.getCause());
+        }
+        var exchange = lookup(request, body);
+        if (exchange == null) {
+            return null;
+        }
+        var delay = delayNanos(exchange);
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while replaying " + request.uri());
+            }
+        }
+        return response(exchange);
+    }
+
+    @Override
+    public CompletableFuture<InterceptedResponse> respondAsync(HttpRequest request) {
+        var body = matcher.body() ? body(request) : CompletableFuture.<byte[]>completedFuture(null);
+        return body.thenCompose(bytes -> {
+            RecordedExchange exchange;
+            try {
+                exchange = lookup(request, bytes);
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            if (exchange == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            var delay = delayNanos(exchange);
+            if (delay <= 0) {
+                return CompletableFuture.completedFuture(response(exchange));
+            }
+            return CompletableFuture.supplyAsync(() -> response(exchange), CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private RecordedExchange lookup(HttpRequest request, byte[] body) throws IOException {
+        var key = matcher.key(request.method(), request.uri(), request.headers().map(), body);
+        var recorded = exchanges.get(key);
+        if (recorded == null) {
+            if (passthrough) {
+                return null;
+            }
+            throw new IOException("No recorded exchange for " + key);
+        }
+        return recorded.list.get(Math.floorMod(recorded.next.getAndIncrement(), recorded.list.size()));
+    }
+
+    private long delayNanos(RecordedExchange exchange) {
+        return (long) (exchange.totalNanos() * latencyScale);
+    }
+
+    private static InterceptedResponse response(RecordedExchange exchange) {
+        return new InterceptedResponse(exchange.statusCode(), exchange.responseHeaders(), exchange.responseBody());
+    }
+
+    /**
+     * Reads the request body by subscribing to its publisher
+     */
+    private static CompletableFuture<byte[]> body(HttpRequest request) {
+        var publisher = request.bodyPublisher().orElse(null);
+        if (publisher == null || publisher.contentLength() == 0) {
+            return CompletableFuture.completedFuture(new byte[0]);
+        }
+        var result = new CompletableFuture<byte[]>();
+        var bytes = new ByteArrayOutputStream();
+        publisher.subscribe(new Flow.Subscriber<ByteBuffer>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                var chunk = new byte[item.remaining()];
+                item.get(chunk);
+                bytes.write(chunk, 0, chunk.length);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                result.complete(bytes.toByteArray());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The recorded exchanges of a key and the index of the next one to serve
+     */
+    private static final class Recorded {
+        private final List<RecordedExchange> list = new ArrayList<>();
+        private final AtomicInteger next = new AtomicInteger();
+    }
+}
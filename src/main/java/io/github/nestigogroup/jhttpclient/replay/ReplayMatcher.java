@@ -0,0 +1,127 @@
+package io.github.nestigogroup.jhttpclient.replay;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable settings of how the {@link ReplayInterceptor} matches a request with the recorded exchanges. A request always matches on
+ * method, scheme, authority and path, and optionally on the query, selected request headers and the request body.
+ * Requests matching several recorded exchanges are answered with them in recording order, starting over after the last
+ */
+public final class ReplayMatcher {
+
+    /**
+     * Matches on method and full URL including the query
+     */
+    public static final ReplayMatcher DEFAULT = new ReplayMatcher(true, List.of(), false);
+
+    private final boolean query;
+    private final List<String> headers;
+    private final boolean body;
+
+    private ReplayMatcher(boolean query, List<String> headers, boolean body) {
+        this.query = query;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    /**
+     * Creates the {@link #DEFAULT} matcher to be extended with the <i>with*</i> methods
+     * @return the {@link #DEFAULT} matcher
+     */
+    public static ReplayMatcher create() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a copy of the matcher that compares or ignores the URL query
+     * @param query whether the query must be equal
+     * @return new {@link ReplayMatcher} instance
+     */
+    public ReplayMatcher withQuery(boolean query) {
+        return new ReplayMatcher(query, headers, body);
+    }
+
+    /**
+     * Returns a copy of the matcher that also compares the values of the specified request headers
+     * @param names the (case-insensitive) header names
+     * @return new {@link ReplayMatcher} instance
+     */
+    public ReplayMatcher withHeaders(String... names) {
+        var merged = new ArrayList<>(headers);
+        for (var name : names) {
+            var lower = Objects.requireNonNull(name, "name").toLowerCase(Locale.ROOT);
+            if (!merged.contains(lower)) {
+                merged.add(lower);
+            }
+        }
+        return new ReplayMatcher(query, List.copyOf(merged), body);
+    }
+
+    /**
+     * Returns a copy of the matcher that compares or ignores the request body. Matching on the body reads the request body publisher
+     * once more before the request is answered, so it requires a publisher that can be subscribed to repeatedly (e.g. from a string or byte array)
+     * @param body whether the request body must be equal
+     * @return new {@link ReplayMatcher} instance
+     */
+    public ReplayMatcher withBody(boolean body) {
+        return new ReplayMatcher(query, headers, body);
+    }
+
+    /**
+     * @return whether the URL query is compared
+     */
+    public boolean query() {
+        return query;
+    }
+
+    /**
+     * @return the lower-case names of the compared request headers
+     */
+    public List<String> headers() {
+        return headers;
+    }
+
+    /**
+     * @return whether the request body is compared
+     */
+    public boolean body() {
+        return body;
+    }
+
+    /**
+     * @return the key under which the request is matched, the body being ignored unless compared
+     */
+    Key key(String method, URI uri, Map<String, List<String>> requestHeaders, byte[] requestBody) {
+        var url = uri.getScheme() + "://" + uri.getRawAuthority() + (uri.getRawPath() != null ? uri.getRawPath() : "");
+        if (query && uri.getRawQuery() != null) {
+            url += "?" + uri.getRawQuery();
+        }
+        List<List<String>> values = List.of();
+        if (!headers.isEmpty()) {
+            var all = HttpHeaders.of(requestHeaders, (name, value) -> true);
+            values = new ArrayList<>(headers.size());
+            for (var name : headers) {
+                values.add(all.allValues(name));
+            }
+        }
+        return new Key(method.toUpperCase(Locale.ROOT), url, values, body ? ByteBuffer.wrap(requestBody) : null);
+    }
+
+    /**
+     * Match key of a request, the body compared by content
+     */
+    record Key(String method, String url, List<List<String>> headers, ByteBuffer body) {
+
+        @Override
+        public String toString() {
+            return method + " " + url + (headers.isEmpty() ? "" : " " + headers) + (body != null ? " (" + body.remaining() + " body bytes)" : "");
+        }
+    }
+}
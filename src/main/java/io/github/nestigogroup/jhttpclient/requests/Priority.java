@@ -0,0 +1,37 @@
+package io.github.nestigogroup.jhttpclient.requests;
+
+/**
+ * Dispatch priority class of a request, see {@link RequestOptions#withPriority(Priority)}.
+ * When requests have to wait for an in-flight or HTTP/2 stream limit, the waiting classes are served in proportion to their weights,
+ * so lower classes are slowed down but never starved
+ */
+public enum Priority {
+
+    /**
+     * User-facing requests, served 16 times as often as {@link #BULK}
+     */
+    INTERACTIVE(16),
+
+    /**
+     * Requests without a priority class, served 4 times as often as {@link #BULK}
+     */
+    DEFAULT(4),
+
+    /**
+     * Background and batch requests
+     */
+    BULK(1);
+
+    private final int weight;
+
+    Priority(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * @return the share of the dispatch slots given to the class while others wait too
+     */
+    public int weight() {
+        return weight;
+    }
+}
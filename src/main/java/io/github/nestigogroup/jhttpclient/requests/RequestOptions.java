@@ -0,0 +1,177 @@
+package io.github.nestigogroup.jhttpclient.requests;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Immutable per-request options, merged with the client defaults when the request is built.
+ * The client headers are never copied or modified, so a single client can safely serve requests with different headers (e.g. per tenant or per token) from many threads
+ */
+public final class RequestOptions {
+
+    /**
+     * Options that add nothing on top of the client defaults
+     */
+    public static final RequestOptions DEFAULT = new RequestOptions(Collections.emptyMap(), null, null, false, null, Priority.DEFAULT, null);
+
+    private final Map<String, String> headers;
+    private final Duration timeout;
+    private final HttpClient.Version version;
+    private final boolean expectContinue;
+    private final Long maxResponseSize;
+    private final Priority priority;
+    private final String tenant;
+
+    private RequestOptions(Map<String, String> headers, Duration timeout, HttpClient.Version version, boolean expectContinue, Long maxResponseSize, Priority priority, String tenant) {
+        this.headers = headers;
+        this.timeout = timeout;
+        this.version = version;
+        this.expectContinue = expectContinue;
+        this.maxResponseSize = maxResponseSize;
+        this.priority = priority;
+        this.tenant = tenant;
+    }
+
+    /**
+     * Creates empty {@link RequestOptions} to be extended with the <i>with*</i> methods
+     * @return the {@link #DEFAULT} options
+     */
+    public static RequestOptions create() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a copy of the options with an additional header. Overrides the client header with the same (case-insensitive) name
+     * @param name the header name
+     * @param value the header value
+     * @return new {@link RequestOptions} instance
+     */
+    public RequestOptions withHeader(String name, String value) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(value, "value");
+        var merged = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        merged.putAll(headers);
+        merged.put(name, value);
+        return new RequestOptions(Collections.unmodifiableMap(merged), timeout, version, expectContinue, maxResponseSize, priority, tenant);
+    }
+
+    /**
+     * Returns a copy of the options with additional headers. Overrides the client headers with the same (case-insensitive) names
+     * @param headers {@link Map} of header key/value pairs
+     * @return new {@link RequestOptions} instance
+     */
+    public RequestOptions withHeaders(Map<String, String> headers) {
+        var merged = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        merged.putAll(this.headers);
+        merged.putAll(headers);
+        return new RequestOptions(Collections.unmodifiableMap(merged), timeout, version, expectContinue, maxResponseSize, priority, tenant);
+    }
+
+    /**
+     * Returns a copy of the options with the specified response timeout
+     * @param timeout the timeout as {@link Duration} or <b>null</b> for no per-request timeout
+     * @return new {@link RequestOptions} instance
+     */
+    public RequestOptions withTimeout(Duration timeout) {
+        return new RequestOptions(headers, timeout, version, expectContinue, maxResponseSize, priority, tenant);
+    }
+
+    /**
+     * Returns a copy of the options with the specified HTTP version
+     * @param version the HTTP version (refer: {@link java.net.http.HttpClient.Version}) or <b>null</b> to use the client version
+     * @return new {@link RequestOptions} instance
+     */
+    public RequestOptions withVersion(HttpClient.Version version) {
+        return new RequestOptions(headers, timeout, version, expectContinue, maxResponseSize, priority, tenant);
+    }
+
+    /**
+     * Returns a copy of the options with the <b>Expect: 100-continue</b> handling enabled or disabled
+     * @param expectContinue whether to request <b>100 Continue</b> before sending the body
+     * @return new {@link RequestOptions} instance
+     */
+    public RequestOptions withExpectContinue(boolean expectContinue) {
+        return new RequestOptions(headers, timeout, version, expectContinue, maxResponseSize, priority, tenant);
+    }
+
+    /**
+     * Returns a copy of the options with a response size cap that overrides the client cap for this request
+     * @param maxResponseSize the maximum response body size in bytes, <b>0</b> or negative value to disable the cap for this request
+     * @return new {@link RequestOptions} instance
+     */
+    public RequestOptions withMaxResponseSize(long maxResponseSize) {
+        return new RequestOptions(headers, timeout, version, expectContinue, maxResponseSize, priority, tenant);
+    }
+
+    /**
+     * Returns a copy of the options with the dispatch priority class used by the async clients while requests wait for a limit
+     * @param priority the {@link Priority}
+     * @return new {@link RequestOptions} instance
+     */
+    public RequestOptions withPriority(Priority priority) {
+        Objects.requireNonNull(priority, "priority");
+        return new RequestOptions(headers, timeout, version, expectContinue, maxResponseSize, priority, tenant);
+    }
+
+    /**
+     * Returns a copy of the options with the tenant the request is queued and capped under by the async clients (see {@link TenantSettings})
+     * @param tenant the tenant key or <b>null</b> for the shared untagged tenant
+     * @return new {@link RequestOptions} instance
+     */
+    public RequestOptions withTenant(String tenant) {
+        return new RequestOptions(headers, timeout, version, expectContinue, maxResponseSize, priority, tenant);
+    }
+
+    /**
+     * @return unmodifiable, case-insensitive {@link Map} of the per-request headers
+     */
+    public Map<String, String> headers() {
+        return headers;
+    }
+
+    /**
+     * @return the per-request timeout or <b>null</b> if not set
+     */
+    public Duration timeout() {
+        return timeout;
+    }
+
+    /**
+     * @return the per-request HTTP version or <b>null</b> if not set
+     */
+    public HttpClient.Version version() {
+        return version;
+    }
+
+    /**
+     * @return whether <b>Expect: 100-continue</b> is requested
+     */
+    public boolean expectContinue() {
+        return expectContinue;
+    }
+
+    /**
+     * @return the per-request response size cap in bytes or <b>null</b> if the client cap applies
+     */
+    public Long maxResponseSize() {
+        return maxResponseSize;
+    }
+
+    /**
+     * @return the dispatch {@link Priority}, {@link Priority#DEFAULT} if not set
+     */
+    public Priority priority() {
+        return priority;
+    }
+
+    /**
+     * @return the tenant key or <b>null</b> if not set
+     */
+    public String tenant() {
+        return tenant;
+    }
+}
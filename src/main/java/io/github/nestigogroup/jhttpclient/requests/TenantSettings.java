@@ -0,0 +1,103 @@
+package io.github.nestigogroup.jhttpclient.requests;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable fair queuing settings of the async clients for requests tagged with {@link RequestOptions#withTenant(String)}.
+ * While requests wait for an in-flight cap, tenants are served by deficit round-robin: each round a tenant may start as many
+ * requests as its weight, so a tenant with a deep queue cannot crowd out the others
+ */
+public final class TenantSettings {
+
+    /**
+     * All tenants weighted equally, without per-tenant in-flight caps
+     */
+    public static final TenantSettings DEFAULT = new TenantSettings(0, Map.of(), Map.of());
+
+    private final int maxInFlightPerTenant;
+    private final Map<String, Integer> weights;
+    private final Map<String, Integer> maxInFlight;
+
+    private TenantSettings(int maxInFlightPerTenant, Map<String, Integer> weights, Map<String, Integer> maxInFlight) {
+        this.maxInFlightPerTenant = maxInFlightPerTenant;
+        this.weights = weights;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Creates the {@link #DEFAULT} settings to be extended with the <i>with*</i> methods
+     * @return the {@link #DEFAULT} settings
+     */
+    public static TenantSettings create() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a copy of the settings with the in-flight cap applied to every tenant without its own cap
+     * @param maxInFlightPerTenant the maximum requests in flight per tenant, <b>0</b> or negative value for no cap
+     * @return new {@link TenantSettings} instance
+     */
+    public TenantSettings withMaxInFlightPerTenant(int maxInFlightPerTenant) {
+        return new TenantSettings(Math.max(0, maxInFlightPerTenant), weights, maxInFlight);
+    }
+
+    /**
+     * Returns a copy of the settings with the in-flight cap of a single tenant
+     * @param tenant the tenant key
+     * @param maxInFlight the maximum requests in flight for the tenant, <b>0</b> or negative value for no cap
+     * @return new {@link TenantSettings} instance
+     */
+    public TenantSettings withMaxInFlight(String tenant, int maxInFlight) {
+        var caps = new HashMap<>(this.maxInFlight);
+        caps.put(Objects.requireNonNull(tenant, "tenant"), Math.max(0, maxInFlight));
+        return new TenantSettings(maxInFlightPerTenant, weights, Map.copyOf(caps));
+    }
+
+    /**
+     * Returns a copy of the settings with the weight of a single tenant, the number of requests it may start per round (<b>1</b> by default).
+     * Rounds only exist while requests wait for the client or a tenant in-flight cap
+     * @param tenant the tenant key
+     * @param weight the positive weight
+     * @return new {@link TenantSettings} instance
+     */
+    public TenantSettings withWeight(String tenant, int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("weight must be positive");
+        }
+        var merged = new HashMap<>(weights);
+        merged.put(Objects.requireNonNull(tenant, "tenant"), weight);
+        return new TenantSettings(maxInFlightPerTenant, Map.copyOf(merged), maxInFlight);
+    }
+
+    /**
+     * @return the default per-tenant in-flight cap, <b>0</b> for no cap
+     */
+    public int maxInFlightPerTenant() {
+        return maxInFlightPerTenant;
+    }
+
+    /**
+     * @param tenant the tenant key
+     * @return the in-flight cap of the tenant, <b>0</b> for no cap
+     */
+    public int maxInFlight(String tenant) {
+        return maxInFlight.getOrDefault(tenant, maxInFlightPerTenant);
+    }
+
+    /**
+     * @param tenant the tenant key
+     * @return the weight of the tenant
+     */
+    public int weight(String tenant) {
+        return weights.getOrDefault(tenant, 1);
+    }
+
+    /**
+     * @return whether any tenant has an in-flight cap
+     */
+    public boolean hasCaps() {
+        return maxInFlightPerTenant > 0 || maxInFlight.values().stream().anyMatch(cap -> cap > 0);
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.nestigogroup.jhttpclient.responses;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response produced by an interceptor instead of sending the request, its body is passed through the request body handler
+ * @param code the response status {@link Integer code}
+ * @param headers {@link Map response headers}, <b>null</b> for none
+ * @param body the response as <b>byte[]</b>, <b>null</b> for empty
+ */
+public record InterceptedResponse(int code, Map<String, List<String>> headers, byte[] body) {
+
+    public InterceptedResponse {
+        headers = headers != null ? headers : Map.of();
+        body = body != null ? body : new byte[0];
+    }
+}
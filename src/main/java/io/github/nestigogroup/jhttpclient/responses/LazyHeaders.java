@@ -0,0 +1,89 @@
+package io.github.nestigogroup.jhttpclient.responses;
+
+import java.net.http.HttpHeaders;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Read-only, case-insensitive {@link Map} view over the response {@link HttpHeaders}.
+ * Single header lookups are answered directly from the {@link HttpHeaders}, the map itself is only materialized when it is iterated,
+ * using shared instances for the common header names. Once materialized the {@link HttpHeaders} reference is released
+ */
+public final class LazyHeaders extends AbstractMap<String, List<String>> {
+
+    private static final Map<String, String> COMMON_NAMES = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        for (var name : new String[]{"Accept-Ranges", "Age", "Allow", "Cache-Control", "Connection", "Content-Disposition",
+                "Content-Encoding", "Content-Language", "Content-Length", "Content-Location", "Content-Range", "Content-Type",
+                "Date", "ETag", "Expires", "Keep-Alive", "Last-Modified", "Link", "Location", "Pragma", "RateLimit-Limit",
+                "RateLimit-Remaining", "RateLimit-Reset", "Retry-After", "Server", "Set-Cookie", "Strict-Transport-Security",
+                "traceparent", "tracestate", "Transfer-Encoding", "Vary", "Via", "WWW-Authenticate", "X-Content-Type-Options",
+                "X-Frame-Options", "X-Request-Id"}) {
+            COMMON_NAMES.put(name, name);
+        }
+    }
+
+    private volatile HttpHeaders source;
+    private volatile Map<String, List<String>> materialized;
+
+    /**
+     * Creates a view over the provided headers without copying them
+     * @param headers the response {@link HttpHeaders}
+     */
+    public LazyHeaders(HttpHeaders headers) {
+        this.source = headers;
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        var map = materialized;
+        if (map != null) {
+            return map.get(key);
+        }
+        var headers = source;
+        if (headers == null || !(key instanceof String name)) {
+            return materialize().get(key);
+        }
+        var values = headers.allValues(name);
+        return values.isEmpty() ? null : values;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        return materialize().entrySet();
+    }
+
+    @Override
+    public int size() {
+        return materialize().size();
+    }
+
+    private Map<String, List<String>> materialize() {
+        var map = materialized;
+        if (map == null) {
+            synchronized (this) {
+                map = materialized;
+                if (map == null) {
+                    var copy = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+                    for (var header : source.map().entrySet()) {
+                        copy.put(COMMON_NAMES.getOrDefault(header.getKey(), header.getKey()), List.copyOf(header.getValue()));
+                    }
+                    map = Collections.unmodifiableMap(copy);
+                    materialized = map;
+                    source = null;
+                }
+            }
+        }
+        return map;
+    }
+}
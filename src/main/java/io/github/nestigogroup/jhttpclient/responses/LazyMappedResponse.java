@@ -0,0 +1,98 @@
+package io.github.nestigogroup.jhttpclient.responses;
+
+import io.github.nestigogroup.jhttpclient.exceptions.ObjectMappingException;
+import io.github.nestigogroup.jhttpclient.exceptions.RuntimeObjectMappingException;
+import io.github.nestigogroup.jhttpclient.interfaces.IObjectCodec;
+import io.github.nestigogroup.jhttpclient.interfaces.IObjectMapper;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * POJO/Record response wrapper that keeps the raw Json body and deserializes it on the first {@link #body()} call.
+ * The raw body is released once it was deserialized
+ */
+public final class LazyMappedResponse<T> {
+
+    private final int code;
+    private final Map<String, List<String>> headers;
+    private final IObjectCodec<T> codec;
+    private String json;
+    private T body;
+    private volatile boolean mapped;
+
+    /**
+     * @param code The response status {@link Integer code}
+     * @param headers The response {@link Map headers}
+     * @param json The raw Json body
+     * @param mapper the {@link IObjectMapper} used for the deserialization
+     * @param outClass Target {@link Class} of the desired POJO or {@link Record}
+     */
+    public LazyMappedResponse(int code, Map<String, List<String>> headers, String json, IObjectMapper mapper, Class<T> outClass) {
+        this(code, headers, json, mapper.bind(outClass));
+    }
+
+    /**
+     * @param code The response status {@link Integer code}
+     * @param headers The response {@link Map headers}
+     * @param json The raw Json body
+     * @param codec the bound {@link IObjectCodec} used for the deserialization
+     */
+    public LazyMappedResponse(int code, Map<String, List<String>> headers, String json, IObjectCodec<T> codec) {
+        this.code = code;
+        this.headers = headers;
+        this.json = json;
+        this.codec = codec;
+    }
+
+    /**
+     * @return The response status {@link Integer code}
+     */
+    public int code() {
+        return code;
+    }
+
+    /**
+     * @return The response {@link Map headers}
+     */
+    public Map<String, List<String>> headers() {
+        return headers;
+    }
+
+    /**
+     * Deserializes the body on the first call and returns the cached instance after
+     * @return Response as POJO/Record
+     * @throws RuntimeObjectMappingException if the deserialization fails
+     */
+    public T body() {
+        if (!mapped) {
+            synchronized (this) {
+                if (!mapped) {
+                    try {
+                        body = codec.read(json);
+                    } catch (ObjectMappingException e) {
+                        throw new RuntimeObjectMappingException(e);
+                    }
+                    json = null;
+                    mapped = true;
+                }
+            }
+        }
+        return body;
+    }
+
+    /**
+     * @return whether the body was already deserialized
+     */
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * Converts to the eager {@link MappedResponse}, deserializing the body if needed
+     * @return {@link MappedResponse} with the same code, headers and body
+     */
+    public MappedResponse<T> toMappedResponse() {
+        return new MappedResponse<>(code, headers, body());
+    }
+}
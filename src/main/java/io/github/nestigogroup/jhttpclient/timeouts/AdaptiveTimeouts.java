@@ -0,0 +1,180 @@
+package io.github.nestigogroup.jhttpclient.timeouts;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable settings of the adaptive response timeouts: the time to response headers is tracked per host and route template in a
+ * streaming quantile sketch and every request without an explicit timeout gets <i>multiplier</i> times the <i>quantile</i> of its route,
+ * clamped to <i>[minTimeout, maxTimeout]</i>. Routes with fewer than <i>minSamples</i> recent samples get <i>maxTimeout</i>
+ */
+public final class AdaptiveTimeouts {
+
+    private static final Pattern ID_SEGMENT = Pattern.compile("\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|[0-9a-fA-F]{16,}");
+
+    /**
+     * 3 times the p99.9 of the last 1-2 minutes, between 100 milliseconds and 30 seconds, after 200 samples,
+     * with numeric, UUID and long hexadecimal path segments templated as <i>{id}</i>
+     */
+    public static final AdaptiveTimeouts DEFAULT = new AdaptiveTimeouts(0.999, 3, Duration.ofMillis(100), Duration.ofSeconds(30), 200, Duration.ofMinutes(1), AdaptiveTimeouts::defaultRoute);
+
+    private final double quantile;
+    private final double multiplier;
+    private final Duration minTimeout;
+    private final Duration maxTimeout;
+    private final int minSamples;
+    private final Duration window;
+    private final Function<URI, String> routeTemplate;
+
+    private AdaptiveTimeouts(double quantile, double multiplier, Duration minTimeout, Duration maxTimeout, int minSamples, Duration window, Function<URI, String> routeTemplate) {
+        if (!(quantile > 0 && quantile < 1)) {
+            throw new IllegalArgumentException("quantile must be between 0 and 1");
+        }
+        if (!(multiplier >= 1)) {
+            throw new IllegalArgumentException("multiplier must be at least 1");
+        }
+        if (minTimeout.isNegative() || minTimeout.isZero() || maxTimeout.compareTo(minTimeout) < 0) {
+            throw new IllegalArgumentException("minTimeout must be positive and not above maxTimeout");
+        }
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        this.quantile = quantile;
+        this.multiplier = multiplier;
+        this.minTimeout = minTimeout;
+        this.maxTimeout = maxTimeout;
+        this.minSamples = Math.max(1, minSamples);
+        this.window = window;
+        this.routeTemplate = Objects.requireNonNull(routeTemplate, "routeTemplate");
+    }
+
+    /**
+     * Creates the {@link #DEFAULT} settings to be extended with the <i>with*</i> methods
+     * @return the {@link #DEFAULT} settings
+     */
+    public static AdaptiveTimeouts create() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a copy of the settings with the tracked quantile
+     * @param quantile the quantile, e.g. <b>0.999</b> for p99.9
+     * @return new {@link AdaptiveTimeouts} instance
+     */
+    public AdaptiveTimeouts withQuantile(double quantile) {
+        return new AdaptiveTimeouts(quantile, multiplier, minTimeout, maxTimeout, minSamples, window, routeTemplate);
+    }
+
+    /**
+     * Returns a copy of the settings with the factor applied to the quantile
+     * @param multiplier the factor, at least <b>1</b>
+     * @return new {@link AdaptiveTimeouts} instance
+     */
+    public AdaptiveTimeouts withMultiplier(double multiplier) {
+        return new AdaptiveTimeouts(quantile, multiplier, minTimeout, maxTimeout, minSamples, window, routeTemplate);
+    }
+
+    /**
+     * Returns a copy of the settings with the bounds of the computed timeouts
+     * @param minTimeout the lowest timeout
+     * @param maxTimeout the highest timeout, also used until a route has enough samples
+     * @return new {@link AdaptiveTimeouts} instance
+     */
+    public AdaptiveTimeouts withBounds(Duration minTimeout, Duration maxTimeout) {
+        return new AdaptiveTimeouts(quantile, multiplier, Objects.requireNonNull(minTimeout, "minTimeout"), Objects.requireNonNull(maxTimeout, "maxTimeout"), minSamples, window, routeTemplate);
+    }
+
+    /**
+     * Returns a copy of the settings with the number of recent samples a route needs before its timeout adapts
+     * @param minSamples the sample count
+     * @return new {@link AdaptiveTimeouts} instance
+     */
+    public AdaptiveTimeouts withMinSamples(int minSamples) {
+        return new AdaptiveTimeouts(quantile, multiplier, minTimeout, maxTimeout, minSamples, window, routeTemplate);
+    }
+
+    /**
+     * Returns a copy of the settings with the sketch window: the quantile covers the current and the previous window
+     * @param window the window as {@link Duration}
+     * @return new {@link AdaptiveTimeouts} instance
+     */
+    public AdaptiveTimeouts withWindow(Duration window) {
+        return new AdaptiveTimeouts(quantile, multiplier, minTimeout, maxTimeout, minSamples, Objects.requireNonNull(window, "window"), routeTemplate);
+    }
+
+    /**
+     * Returns a copy of the settings with the function that maps a request URL to its route template, combined with the host to key the sketches
+     * @param routeTemplate the function, e.g. <i>uri -&gt; uri.getPath()</i> to track every path separately
+     * @return new {@link AdaptiveTimeouts} instance
+     */
+    public AdaptiveTimeouts withRouteTemplate(Function<URI, String> routeTemplate) {
+        return new AdaptiveTimeouts(quantile, multiplier, minTimeout, maxTimeout, minSamples, window, routeTemplate);
+    }
+
+    /**
+     * @return the tracked quantile
+     */
+    public double quantile() {
+        return quantile;
+    }
+
+    /**
+     * @return the factor applied to the quantile
+     */
+    public double multiplier() {
+        return multiplier;
+    }
+
+    /**
+     * @return the lowest timeout
+     */
+    public Duration minTimeout() {
+        return minTimeout;
+    }
+
+    /**
+     * @return the highest timeout
+     */
+    public Duration maxTimeout() {
+        return maxTimeout;
+    }
+
+    /**
+     * @return the samples needed before a route timeout adapts
+     */
+    public int minSamples() {
+        return minSamples;
+    }
+
+    /**
+     * @return the sketch window
+     */
+    public Duration window() {
+        return window;
+    }
+
+    /**
+     * @param uri the request URL
+     * @return the route template of the URL
+     */
+    public String routeTemplate(URI uri) {
+        return routeTemplate.apply(uri);
+    }
+
+    private static String defaultRoute(URI uri) {
+        var path = uri.getPath();
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        var segments = path.split("/", -1);
+        for (var i = 0; i < segments.length; i++) {
+            if (ID_SEGMENT.matcher(segments[i]).matches()) {
+                segments[i] = "{id}";
+            }
+        }
+        return String.join("/", segments);
+    }
+}
@@ -1,8 +1,20 @@
 module jhttpclient {
     requires java.net.http;
+    requires java.management;
+    requires jdk.jfr;
     exports io.github.nestigogroup.jhttpclient;
+    exports io.github.nestigogroup.jhttpclient.batch;
+    exports io.github.nestigogroup.jhttpclient.cache;
     exports io.github.nestigogroup.jhttpclient.exceptions;
     exports io.github.nestigogroup.jhttpclient.interfaces;
+    exports io.github.nestigogroup.jhttpclient.mapper;
+    exports io.github.nestigogroup.jhttpclient.projection;
     exports io.github.nestigogroup.jhttpclient.helpers;
+    exports io.github.nestigogroup.jhttpclient.http2;
+    exports io.github.nestigogroup.jhttpclient.monitoring;
+    exports io.github.nestigogroup.jhttpclient.ratelimit;
+    exports io.github.nestigogroup.jhttpclient.replay;
+    exports io.github.nestigogroup.jhttpclient.requests;
     exports io.github.nestigogroup.jhttpclient.responses;
+    exports io.github.nestigogroup.jhttpclient.timeouts;
 }
\ No newline at end of file
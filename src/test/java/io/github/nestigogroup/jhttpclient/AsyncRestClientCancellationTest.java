@@ -0,0 +1,109 @@
+package io.github.nestigogroup.jhttpclient;
+
+import io.github.nestigogroup.jhttpclient.responses.StringResponse;
+import io.github.nestigogroup.jhttpclient.testing.FaultInjectingServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cancelling the future of an {@link AsyncRestClient} call, or letting its timeout fire, aborts the exchange and frees its connection
+ */
+public class AsyncRestClientCancellationTest {
+
+    private static final Duration AWAIT = Duration.ofSeconds(5);
+
+    private FaultInjectingServer server;
+    private FaultInjectingServer.Route slow;
+    private AsyncRestClient client;
+
+    @BeforeEach
+    public void start() {
+        server = FaultInjectingServer.start();
+        // 8 MB at 256 KB/s takes 32 seconds, any exchange that keeps reading would outlive the test
+        slow = server.route("/slow").bandwidth(256 * 1024).body(new byte[8 << 20]);
+        server.route("/fast").body("ok");
+        client = new AsyncRestClient();
+        client.setMaxInFlight(1);
+    }
+
+    @AfterEach
+    public void stop() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void cancelAbortsTheBodyAndReleasesTheConnection() throws Exception {
+        var response = client.get(server.url("/slow"));
+        awaitReceiving();
+
+        assertTrue(response.cancel(true));
+
+        await(() -> slow.aborted() == 1, "the server still writes the body");
+        await(() -> client.getSnapshot().active() == 0, "the exchange is still in flight");
+        assertReleased();
+    }
+
+    @Test
+    public void timeoutAbortsTheBodyAndReleasesTheConnection() throws Exception {
+        var response = client.get(server.url("/slow")).orTimeout(500, TimeUnit.MILLISECONDS);
+
+        var error = assertThrows(CompletionException.class, response::join);
+        assertInstanceOf(TimeoutException.class, error.getCause());
+
+        await(() -> slow.aborted() == 1, "the server still writes the body");
+        await(() -> client.getSnapshot().active() == 0, "the exchange is still in flight");
+        assertReleased();
+    }
+
+    @Test
+    public void cancellingADerivedStageLeavesTheExchangeAlone() {
+        var response = client.get(server.url("/fast"));
+        var derived = response.thenApply(StringResponse::body);
+        var sibling = response.thenApply(StringResponse::code);
+
+        derived.cancel(true);
+
+        assertEquals(200, sibling.join());
+        assertFalse(response.isCancelled());
+        assertThrows(CancellationException.class, derived::join);
+    }
+
+    private void awaitReceiving() throws InterruptedException {
+        await(() -> client.getSnapshot().bufferedBytes() > 0, "the body never started");
+    }
+
+    /**
+     * The aborted exchange is not retried and the single in-flight slot is free again
+     */
+    private void assertReleased() {
+        assertEquals(1, slow.calls());
+        assertEquals(0, client.getSnapshot().bufferedBytes());
+        var next = client.get(server.url("/fast")).orTimeout(AWAIT.toMillis(), TimeUnit.MILLISECONDS).join();
+        assertEquals("ok", next.body());
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        var deadline = System.nanoTime() + AWAIT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError(message);
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.nestigogroup.jhttpclient;
+
+import io.github.nestigogroup.jhttpclient.testing.FaultInjectingServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A final status received before <b>100 Continue</b> ends the exchange, the bounded wait must not send the upload again
+ */
+public class ExpectContinueTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(1);
+    private static final String UPLOAD = "x".repeat(256 * 1024);
+
+    private FaultInjectingServer server;
+    private FaultInjectingServer.Route upload;
+
+    @BeforeEach
+    public void start() {
+        server = FaultInjectingServer.start();
+        // 16 KB at 32 KB/s, the rejection body streams for half of the wait
+        upload = server.route("/upload").ignoreRequestBody().statuses(413).bandwidth(32 * 1024).body(new byte[16 * 1024]);
+    }
+
+    @AfterEach
+    public void stop() {
+        server.close();
+    }
+
+    @Test
+    public void slowRejectionIsNotUploadedAgain() {
+        try (var client = new AsyncRestClient()) {
+            client.setExpectContinue(1, WAIT);
+
+            var response = client.post(server.urlWithoutContinue("/upload"), UPLOAD).orTimeout(10, TimeUnit.SECONDS).join();
+
+            assertEquals(413, response.code());
+            assertEquals(1, upload.calls());
+        }
+    }
+
+    @Test
+    public void slowRejectionIsNotUploadedAgainByTheBlockingClient() throws Exception {
+        try (var client = new RestClient()) {
+            client.setExpectContinue(1, WAIT);
+
+            var response = client.post(server.urlWithoutContinue("/upload"), UPLOAD);
+
+            assertEquals(413, response.code());
+            assertEquals(1, upload.calls());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.nestigogroup.jhttpclient;
+
+import io.github.nestigogroup.jhttpclient.interfaces.IBodyCodec;
+import io.github.nestigogroup.jhttpclient.mapper.RecordJsonMapper;
+import io.github.nestigogroup.jhttpclient.requests.RequestOptions;
+import io.github.nestigogroup.jhttpclient.testing.FaultInjectingServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * A registered {@link IBodyCodec} is only offered in <b>Accept</b> by the calls that can decode it
+ */
+public class RestJsonClientAcceptTest {
+
+    private static final String NEGOTIATED = "application/x-test, application/json;q=0.5";
+
+    public record Item(String name) {
+    }
+
+    private FaultInjectingServer server;
+    private FaultInjectingServer.Route item;
+    private RestJsonClient client;
+    private AsyncRestJsonClient asyncClient;
+
+    @BeforeEach
+    public void start() {
+        server = FaultInjectingServer.start();
+        item = server.route("/item").header("Content-Type", "application/json").body("{\"name\":\"a\"}");
+        client = new RestJsonClient(new RecordJsonMapper());
+        client.addBodyCodec(new TestCodec());
+        asyncClient = new AsyncRestJsonClient(new RecordJsonMapper());
+        asyncClient.addBodyCodec(new TestCodec());
+    }
+
+    @AfterEach
+    public void stop() {
+        client.close();
+        asyncClient.close();
+        server.close();
+    }
+
+    @Test
+    public void typedCallsPreferTheCodecs() throws Exception {
+        assertEquals("a", client.get(server.url("/item"), Item.class).body().name());
+        assertEquals(NEGOTIATED, item.requestHeader("Accept"));
+
+        assertEquals("a", asyncClient.get(server.url("/item"), Item.class).join().body().name());
+        assertEquals(NEGOTIATED, item.requestHeader("Accept"));
+    }
+
+    @Test
+    public void lazyAndProjectedCallsAskForJson() throws Exception {
+        assertEquals("a", client.getLazy(server.url("/item"), Item.class).body().name());
+        assertEquals("application/json", item.requestHeader("Accept"));
+        assertEquals("a", client.getProjected(server.url("/item"), Item.class).body().name());
+        assertEquals("application/json", item.requestHeader("Accept"));
+
+        assertEquals("a", asyncClient.getLazy(server.url("/item"), Item.class).join().body().name());
+        assertEquals("application/json", item.requestHeader("Accept"));
+        assertEquals("a", asyncClient.getProjected(server.url("/item"), Item.class).join().body().name());
+        assertEquals("application/json", item.requestHeader("Accept"));
+    }
+
+    @Test
+    public void untypedCallsSendNoAccept() throws Exception {
+        client.getString(server.url("/item"));
+        assertNull(item.requestHeader("Accept"));
+
+        asyncClient.getString(server.url("/item")).join();
+        assertNull(item.requestHeader("Accept"));
+    }
+
+    @Test
+    public void explicitAcceptWins() throws Exception {
+        var options = RequestOptions.create().withHeader("Accept", "application/json");
+        client.get(server.url("/item"), Item.class, options);
+        assertEquals("application/json", item.requestHeader("Accept"));
+    }
+
+    /**
+     * Codec of a media type the server never answers with, it only shows up in <b>Accept</b>
+     */
+    private static final class TestCodec implements IBodyCodec {
+
+        @Override
+        public String mediaType() {
+            return "application/x-test";
+        }
+
+        @Override
+        public byte[] encode(Object value) {
+            return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T decode(byte[] body, Type type) {
+            return (T) new String(body, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.nestigogroup.jhttpclient.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Window and size flushing, key deduplication and per-caller futures of the {@link BatchLoader}
+ */
+public class BatchLoaderTest {
+
+    private static final BatchSettings NEVER_BY_TIME = BatchSettings.create().withMaxDelay(Duration.ofHours(1));
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private final List<CompletableFuture<Map<String, String>>> pending = new CopyOnWriteArrayList<>();
+
+    /**
+     * Batch function recording its keys and answering only when the test completes its future
+     */
+    private CompletableFuture<Map<String, String>> record(List<String> keys) {
+        batches.add(keys);
+        var result = new CompletableFuture<Map<String, String>>();
+        pending.add(result);
+        return result;
+    }
+
+    private static Map<String, String> upper(List<String> keys) {
+        var values = new HashMap<String, String>();
+        keys.forEach(key -> values.put(key, key.toUpperCase()));
+        return values;
+    }
+
+    @Test
+    public void keysOfAWindowAreLoadedInOneBatch() {
+        var loader = new BatchLoader<String, String>(keys -> {
+            batches.add(keys);
+            return CompletableFuture.completedFuture(upper(keys));
+        }, BatchSettings.create().withMaxDelay(Duration.ofMillis(20)));
+
+        var a = loader.load("a");
+        var b = loader.load("b");
+
+        assertEquals("A", a.orTimeout(5, TimeUnit.SECONDS).join());
+        assertEquals("B", b.join());
+        assertEquals(List.of(List.of("a", "b")), batches);
+    }
+
+    @Test
+    public void fullWindowIsDispatchedWithoutWaiting() {
+        var loader = new BatchLoader<String, String>(this::record, NEVER_BY_TIME.withMaxBatchSize(2));
+
+        loader.load("a");
+        assertTrue(batches.isEmpty());
+        loader.load("b");
+        loader.load("c");
+
+        assertEquals(List.of(List.of("a", "b")), batches);
+        loader.flush();
+        assertEquals(List.of(List.of("a", "b"), List.of("c")), batches);
+    }
+
+    @Test
+    public void duplicateKeysAreLoadedOnce() {
+        var loader = new BatchLoader<String, String>(this::record, NEVER_BY_TIME);
+
+        var first = loader.load("a");
+        var inWindow = loader.load("a");
+        loader.flush();
+        var inFlight = loader.load("a");
+        loader.flush();
+
+        assertEquals(List.of(List.of("a")), batches);
+        assertNotSame(first, inWindow);
+        assertNotSame(first, inFlight);
+        pending.get(0).complete(upper(List.of("a")));
+        assertEquals("A", first.join());
+        assertEquals("A", inWindow.join());
+        assertEquals("A", inFlight.join());
+
+        // the batch completed, the key is loaded again
+        loader.load("a");
+        loader.flush();
+        assertEquals(2, batches.size());
+    }
+
+    @Test
+    public void cancellingACallerLeavesTheOtherCallersOfTheKeyWaiting() {
+        var loader = new BatchLoader<String, String>(this::record, NEVER_BY_TIME);
+
+        var cancelled = loader.load("a");
+        var waiting = loader.load("a");
+        loader.flush();
+        var late = loader.load("a");
+
+        cancelled.cancel(true);
+        late.complete("overridden");
+        assertFalse(waiting.isDone());
+
+        pending.get(0).complete(upper(List.of("a")));
+        assertEquals("A", waiting.join());
+        assertThrows(CancellationException.class, cancelled::join);
+        assertEquals("overridden", late.join());
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void missingKeysResolveToNullAndFailuresReachEveryCaller() {
+        var loader = new BatchLoader<String, String>(this::record, NEVER_BY_TIME);
+
+        var missing = loader.loadMany(List.of("a", "b"));
+        loader.flush();
+        pending.get(0).complete(Map.of("a", "A"));
+        var values = missing.join();
+        assertEquals("A", values.get("a"));
+        assertNull(values.get("b"));
+        assertTrue(values.containsKey("b"));
+
+        var first = loader.load("c");
+        var second = loader.load("c");
+        loader.flush();
+        pending.get(1).completeExceptionally(new IllegalStateException("batch failed"));
+        assertEquals(IllegalStateException.class, assertThrows(Exception.class, first::join).getCause().getClass());
+        assertEquals(IllegalStateException.class, assertThrows(Exception.class, second::join).getCause().getClass());
+    }
+}
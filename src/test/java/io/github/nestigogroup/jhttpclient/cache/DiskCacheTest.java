@@ -0,0 +1,177 @@
+package io.github.nestigogroup.jhttpclient.cache;
+
+import io.github.nestigogroup.jhttpclient.AsyncRestClient;
+import io.github.nestigogroup.jhttpclient.RestClient;
+import io.github.nestigogroup.jhttpclient.testing.FaultInjectingServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Storing, evicting, <b>Vary</b> keying and reopening of the {@link DiskCache}, and revalidated downloads through it
+ */
+public class DiskCacheTest {
+
+    private static final HttpHeaders NO_HEADERS = HttpHeaders.of(Map.of(), (name, value) -> true);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void storingTheSameBodyAgainKeepsTheObject() throws Exception {
+        var body = "cached body".getBytes(StandardCharsets.UTF_8);
+        var uri = URI.create("http://localhost/artifact");
+        try (var cache = new DiskCache(directory.resolve("cache"), 1 << 20)) {
+            var first = cache.store(uri, NO_HEADERS, etag("\"v1\""), download(cache, body), sha256(body));
+            var second = cache.store(uri, NO_HEADERS, etag("\"v2\""), download(cache, body), sha256(body));
+
+            assertNotNull(first);
+            assertNotNull(second);
+            assertTrue(Files.exists(second.file()));
+            assertEquals("\"v2\"", cache.lookup(uri, NO_HEADERS).etag());
+            assertEquals(1, cache.entries());
+            assertEquals(body.length, cache.totalBytes());
+        }
+    }
+
+    @Test
+    public void repeatedOkWithTheSameBodyIsServed(@TempDir Path downloads) throws Exception {
+        var body = "artifact".repeat(1024);
+        try (var server = FaultInjectingServer.start(); var cache = new DiskCache(directory.resolve("cache"), 1 << 20)) {
+            // the route ignores If-None-Match and answers 200 with the same body every time
+            server.route("/artifact").header("ETag", "\"v1\"").body(body);
+            var client = new RestClient();
+            client.setDiskCache(cache);
+            for (var i = 0; i < 3; i++) {
+                var target = downloads.resolve("artifact-" + i);
+                var response = client.getCachedFile(server.url("/artifact"), target);
+                assertEquals(200, response.statusCode());
+                assertEquals(body, Files.readString(target));
+            }
+            assertEquals(1, cache.entries());
+            client.close();
+        }
+    }
+
+    @Test
+    public void leastRecentlyUsedBodiesAreEvictedPastTheByteLimit() throws Exception {
+        try (var cache = new DiskCache(directory.resolve("cache"), 100)) {
+            var a = URI.create("http://localhost/a");
+            var b = URI.create("http://localhost/b");
+            var c = URI.create("http://localhost/c");
+            store(cache, a, body('a', 40), etag("\"a\""));
+            tick();
+            store(cache, b, body('b', 40), etag("\"b\""));
+            tick();
+            // a becomes more recently used than b
+            assertNotNull(cache.lookup(a, NO_HEADERS));
+            tick();
+            store(cache, c, body('c', 40), etag("\"c\""));
+
+            assertNull(cache.lookup(b, NO_HEADERS));
+            assertNotNull(cache.lookup(a, NO_HEADERS));
+            assertNotNull(cache.lookup(c, NO_HEADERS));
+            assertEquals(2, cache.entries());
+            assertEquals(80, cache.totalBytes());
+        }
+    }
+
+    @Test
+    public void varyKeysEntriesByTheNamedRequestHeaders() throws Exception {
+        var uri = URI.create("http://localhost/greeting");
+        var response = HttpHeaders.of(Map.of("ETag", List.of("\"g\""), "Vary", List.of("Accept-Language")), (name, value) -> true);
+        try (var cache = new DiskCache(directory.resolve("cache"), 1 << 20)) {
+            var english = cache.store(uri, language("en"), response, download(cache, body('e', 10)), sha256(body('e', 10)));
+            var french = cache.store(uri, language("fr"), response, download(cache, body('f', 20)), sha256(body('f', 20)));
+
+            assertEquals(english.file(), cache.lookup(uri, language("en")).file());
+            assertEquals(french.file(), cache.lookup(uri, language("fr")).file());
+            assertEquals(20, cache.lookup(uri, language("fr")).size());
+            assertNull(cache.lookup(uri, language("de")));
+            assertEquals(2, cache.entries());
+        }
+    }
+
+    @Test
+    public void reopenedIndexKeepsTheEntries() throws Exception {
+        var uri = URI.create("http://localhost/artifact");
+        var body = body('r', 64);
+        try (var cache = new DiskCache(directory.resolve("cache"), 1 << 20)) {
+            store(cache, uri, body, etag("\"v1\""));
+        }
+        try (var reopened = new DiskCache(directory.resolve("cache"), 1 << 20)) {
+            var entry = reopened.lookup(uri, NO_HEADERS);
+            assertNotNull(entry);
+            assertEquals("\"v1\"", entry.etag());
+            assertEquals(1, reopened.entries());
+            assertEquals(body.length, reopened.totalBytes());
+            var copy = directory.resolve("copy");
+            reopened.copyTo(entry, copy);
+            assertEquals(new String(body, StandardCharsets.UTF_8), Files.readString(copy));
+        }
+    }
+
+    @Test
+    public void notModifiedIsServedFromTheCache(@TempDir Path downloads) throws Exception {
+        var body = "artifact".repeat(1024);
+        try (var server = FaultInjectingServer.start(); var cache = new DiskCache(directory.resolve("cache"), 1 << 20);
+             var client = new AsyncRestClient()) {
+            var artifact = server.route("/artifact").header("ETag", "\"v1\"").statuses(200, 304).body(body);
+            client.setDiskCache(cache);
+
+            var first = client.getCachedFile(server.url("/artifact"), downloads.resolve("first")).get(10, TimeUnit.SECONDS);
+            var second = client.getCachedFile(server.url("/artifact"), downloads.resolve("second")).get(10, TimeUnit.SECONDS);
+
+            assertEquals(200, first.statusCode());
+            assertEquals(200, second.statusCode());
+            assertEquals("\"v1\"", artifact.requestHeader("If-None-Match"));
+            assertEquals(2, artifact.calls());
+            assertEquals(body, Files.readString(second.body()));
+        }
+    }
+
+    private static void store(DiskCache cache, URI uri, byte[] body, HttpHeaders responseHeaders) throws Exception {
+        assertNotNull(cache.store(uri, NO_HEADERS, responseHeaders, download(cache, body), sha256(body)));
+    }
+
+    /**
+     * Access times have millisecond resolution, keeps the recency order of consecutive operations unambiguous
+     */
+    private static void tick() throws InterruptedException {
+        Thread.sleep(5);
+    }
+
+    private static byte[] body(char fill, int size) {
+        return String.valueOf(fill).repeat(size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static HttpHeaders language(String language) {
+        return HttpHeaders.of(Map.of("Accept-Language", List.of(language)), (name, value) -> true);
+    }
+
+    private static Path download(DiskCache cache, byte[] body) throws Exception {
+        return Files.write(cache.createTempFile(), body);
+    }
+
+    private static HttpHeaders etag(String etag) {
+        return HttpHeaders.of(Map.of("ETag", List.of(etag)), (name, value) -> true);
+    }
+
+    private static byte[] sha256(byte[] body) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(body);
+    }
+}
@@ -0,0 +1,195 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import io.github.nestigogroup.jhttpclient.AsyncRestClient;
+import io.github.nestigogroup.jhttpclient.testing.FaultInjectingServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Accounting of the {@link ByteBudget}: the budget is fully returned by completed, cancelled and failed bodies
+ * and responses waiting for it start in arrival order as it frees up
+ */
+public class ByteBudgetTest {
+
+    private static final Duration AWAIT = Duration.ofSeconds(5);
+
+    private final ByteBudget budget = new ByteBudget(100);
+
+    private record Info(int statusCode, HttpHeaders headers, HttpClient.Version version) implements HttpResponse.ResponseInfo {
+    }
+
+    /**
+     * Connection side of a body, counts the chunks requested by the budget
+     */
+    private static final class Feed implements Flow.Subscription {
+        private long requested;
+        private boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requested += n;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static HttpResponse.ResponseInfo info(long contentLength) {
+        var headers = HttpHeaders.of(Map.of("Content-Length", List.of(String.valueOf(contentLength))), (name, value) -> true);
+        return new Info(200, headers, HttpClient.Version.HTTP_1_1);
+    }
+
+    private <T> HttpResponse.BodySubscriber<T> subscribe(HttpResponse.BodyHandler<T> handler, long contentLength, Feed feed) {
+        var subscriber = budget.wrap(handler, "GET").apply(info(contentLength));
+        subscriber.onSubscribe(feed);
+        return subscriber;
+    }
+
+    private static List<ByteBuffer> chunk(int size) {
+        return List.of(ByteBuffer.wrap(new byte[size]));
+    }
+
+    @Test
+    public void completedBodyReturnsTheBudget() {
+        var feed = new Feed();
+        var body = subscribe(HttpResponse.BodyHandlers.ofByteArray(), 60, feed);
+
+        assertEquals(60, budget.used());
+        assertEquals(1, feed.requested);
+        body.onNext(chunk(30));
+        body.onNext(chunk(30));
+        assertEquals(60, budget.used());
+        assertEquals(3, feed.requested);
+        body.onComplete();
+
+        assertEquals(0, budget.used());
+        assertArrayEquals(new byte[60], body.getBody().toCompletableFuture().join());
+    }
+
+    @Test
+    public void waitingResponseStartsOnceTheBudgetFrees() {
+        var first = new Feed();
+        var firstBody = subscribe(HttpResponse.BodyHandlers.ofByteArray(), 60, first);
+        var second = new Feed();
+        subscribe(HttpResponse.BodyHandlers.ofByteArray(), 60, second);
+        var third = new Feed();
+        subscribe(HttpResponse.BodyHandlers.ofByteArray(), 10, third);
+
+        // the smaller third response fits but does not overtake the second one
+        assertEquals(0, second.requested);
+        assertEquals(0, third.requested);
+        assertEquals(2, budget.waiting());
+
+        firstBody.onNext(chunk(60));
+        firstBody.onComplete();
+
+        assertEquals(1, second.requested);
+        assertEquals(1, third.requested);
+        assertEquals(70, budget.used());
+        assertEquals(0, budget.waiting());
+    }
+
+    @Test
+    public void cancelledBodyReturnsTheBudget() throws IOException {
+        var feed = new Feed();
+        var body = subscribe(HttpResponse.BodyHandlers.ofInputStream(), 80, feed);
+        var waitingFeed = new Feed();
+        var waiting = subscribe(HttpResponse.BodyHandlers.ofInputStream(), 80, waitingFeed);
+        body.onNext(chunk(40));
+
+        waiting.getBody().toCompletableFuture().join().close();
+        assertEquals(0, budget.waiting());
+        body.getBody().toCompletableFuture().join().close();
+
+        assertTrue(feed.cancelled);
+        assertTrue(waitingFeed.cancelled);
+        assertEquals(0, waitingFeed.requested);
+        assertEquals(0, budget.used());
+    }
+
+    @Test
+    public void failedBodyReturnsTheBudgetAndStartsTheNextResponse() {
+        var feed = new Feed();
+        var body = subscribe(HttpResponse.BodyHandlers.ofByteArray(), 50, feed);
+        body.onNext(chunk(70));
+        var next = new Feed();
+        subscribe(HttpResponse.BodyHandlers.ofByteArray(), 40, next);
+        assertEquals(70, budget.used());
+        assertEquals(0, next.requested);
+
+        body.onError(new IOException("connection reset"));
+
+        assertEquals(1, next.requested);
+        assertEquals(40, budget.used());
+        var error = assertThrows(CompletionException.class, () -> body.getBody().toCompletableFuture().join());
+        assertEquals("connection reset", error.getCause().getMessage());
+    }
+
+    @Test
+    public void streamedChunksAreReleasedAsTheyAreConsumed() throws IOException {
+        var feed = new Feed();
+        var body = subscribe(HttpResponse.BodyHandlers.ofInputStream(), -1, feed);
+        body.onNext(chunk(30));
+        assertEquals(30, budget.used());
+
+        try (InputStream in = body.getBody().toCompletableFuture().join()) {
+            assertEquals(30, in.readNBytes(30).length);
+            body.onNext(chunk(20));
+            assertEquals(20, budget.used());
+            body.onComplete();
+        }
+        assertEquals(0, budget.used());
+    }
+
+    @Test
+    public void clientReturnsTheBudgetAfterEveryOutcome() throws Exception {
+        try (var server = FaultInjectingServer.start(); var client = new AsyncRestClient()) {
+            server.route("/ok").body(new byte[64 * 1024]);
+            server.route("/slow").bandwidth(64 * 1024).body(new byte[4 << 20]);
+            server.route("/broken").dropAfter(16 * 1024).body(new byte[64 * 1024]);
+            client.setByteBudget(32 * 1024);
+
+            assertEquals(64 * 1024, client.get(server.url("/ok")).orTimeout(5, TimeUnit.SECONDS).join().body().length());
+            assertEquals(0, client.getSnapshot().budgetUsedBytes());
+
+            assertThrows(CompletionException.class, () -> client.get(server.url("/broken")).orTimeout(5, TimeUnit.SECONDS).join());
+            await(() -> client.getSnapshot().budgetUsedBytes() == 0);
+
+            var slow = client.get(server.url("/slow"));
+            await(() -> client.getSnapshot().bufferedBytes() > 0);
+            slow.cancel(true);
+            await(() -> client.getSnapshot().budgetUsedBytes() == 0 && client.getSnapshot().active() == 0);
+            assertEquals(0, client.getSnapshot().budgetWaiting());
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + AWAIT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("the budget was not returned");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import io.github.nestigogroup.jhttpclient.requests.Priority;
+import io.github.nestigogroup.jhttpclient.requests.TenantSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deficit round-robin share, per-tenant caps and cancelled waiters of the {@link DispatchGate}
+ */
+public class DispatchGateTest {
+
+    private final List<String> started = new ArrayList<>();
+    private final List<Exchange> running = new ArrayList<>();
+
+    private record Exchange(String name, CompletableFuture<String> future) {
+    }
+
+    /**
+     * Submits an exchange that records its start and completes only when the test completes it
+     */
+    private CompletableFuture<String> submit(DispatchGate gate, String tenant, String name) {
+        return gate.submit(tenant, Priority.DEFAULT, () -> {
+            var future = new CompletableFuture<String>();
+            started.add(name);
+            running.add(new Exchange(name, future));
+            return future;
+        });
+    }
+
+    private void complete(int index) {
+        var exchange = running.remove(index);
+        exchange.future().complete(exchange.name());
+    }
+
+    @Test
+    public void tenantsShareSlotsByWeight() {
+        var gate = new DispatchGate(1, TenantSettings.create().withWeight("a", 3));
+        submit(gate, "f", "f1");
+        for (var i = 1; i <= 6; i++) {
+            submit(gate, "a", "a" + i);
+        }
+        for (var i = 1; i <= 3; i++) {
+            submit(gate, "b", "b" + i);
+        }
+
+        while (!running.isEmpty()) {
+            complete(0);
+        }
+
+        assertEquals(List.of("f1", "a1", "a2", "a3", "b1", "a4", "a5", "a6", "b2", "b3"), started);
+    }
+
+    @Test
+    public void cappedTenantWaitsWhileOthersStart() {
+        var gate = new DispatchGate(0, TenantSettings.create().withMaxInFlight("a", 1));
+        var first = submit(gate, "a", "a1");
+        var second = submit(gate, "a", "a2");
+        submit(gate, "b", "b1");
+        submit(gate, "b", "b2");
+
+        assertEquals(List.of("a1", "b1", "b2"), started);
+        var capped = gate.tenants().stream().filter(tenant -> tenant.tenant().equals("a")).findFirst().orElseThrow();
+        assertEquals(1, capped.active());
+        assertEquals(1, capped.queued());
+
+        complete(0);
+        assertEquals("a1", first.join());
+        assertEquals(List.of("a1", "b1", "b2", "a2"), started);
+        complete(running.size() - 1);
+        assertEquals("a2", second.join());
+    }
+
+    @Test
+    public void cappedTenantEarnsNoCreditWhilePassedOver() {
+        // completion orders vary, a tenant at its cap must never come back with more than its weight in a row
+        for (var seed = 0; seed < 20; seed++) {
+            started.clear();
+            running.clear();
+            var random = new Random(seed);
+            var gate = new DispatchGate(2, TenantSettings.create().withWeight("a", 3).withMaxInFlight("a", 1));
+            submit(gate, "f", "f1");
+            submit(gate, "f", "f2");
+            for (var i = 1; i <= 8; i++) {
+                submit(gate, "a", "a" + i);
+            }
+            for (var i = 1; i <= 8; i++) {
+                submit(gate, "b", "b" + i);
+            }
+
+            while (!running.isEmpty()) {
+                complete(random.nextInt(running.size()));
+            }
+
+            var inRow = 0;
+            for (var name : started.subList(0, started.indexOf("b8"))) {
+                inRow = name.startsWith("a") ? inRow + 1 : 0;
+                assertTrue(inRow <= 3, "seed " + seed + ": " + started);
+            }
+        }
+    }
+
+    @Test
+    public void cancelledWaiterIsDroppedAndItsSlotReused() {
+        var gate = new DispatchGate(1, TenantSettings.DEFAULT);
+        submit(gate, null, "first");
+        var cancelled = submit(gate, null, "cancelled");
+        var next = submit(gate, null, "next");
+
+        assertTrue(cancelled.cancel(true));
+        complete(0);
+
+        assertEquals(List.of("first", "next"), started);
+        assertFalse(next.isDone());
+        complete(0);
+        assertEquals("next", next.join());
+        assertTrue(gate.tenants().isEmpty());
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Skipping and capturing of nested values by the {@link JsonScanner}, from bytes and from a stream delivering one byte per read
+ */
+public class JsonScannerTest {
+
+    private static final String NESTED = "{\"a\":[1,{\"b\":\"]}\\\"\"},[[],{}]],\"c\":{\"d\":null}}";
+
+    private static JsonScanner trickle(String json) {
+        var bytes = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+        return new JsonScanner(new InputStream() {
+            @Override
+            public int read() {
+                return bytes.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return bytes.read(b, off, Math.min(len, 1));
+            }
+        });
+    }
+
+    @Test
+    public void nestedValuesAreSkippedWhole() throws Exception {
+        for (var scanner : new JsonScanner[]{new JsonScanner((NESTED + " 7").getBytes(StandardCharsets.UTF_8)), trickle(NESTED + " 7")}) {
+            scanner.skipValue();
+            assertEquals("7", scanner.readScalar());
+            assertEquals(-1, scanner.peek());
+        }
+    }
+
+    @Test
+    public void capturedValuesKeepTheirJsonText() throws Exception {
+        var scanner = trickle("[ " + NESTED + " , \"x\\u00e9\" ]");
+        scanner.expect('[');
+        assertEquals(NESTED, scanner.captureValue());
+        assertTrue(scanner.nextElement(']'));
+        assertEquals("\"x\\u00e9\"", scanner.captureValue());
+        assertFalse(scanner.nextElement(']'));
+    }
+
+    @Test
+    public void stringsAreDecoded() throws Exception {
+        var scanner = trickle("\"a\\\"\\n\\u0041é€\"");
+        assertEquals("a\"\nAé€", scanner.readString());
+    }
+
+    @Test
+    public void truncatedInputIsRejected() {
+        var e = assertThrows(IOException.class, () -> trickle("{\"a\":[1,").skipValue());
+        assertTrue(e.getMessage().startsWith("Invalid Json"));
+        assertThrows(IOException.class, () -> new JsonScanner(new byte[0]).skipValue());
+        assertThrows(IOException.class, () -> trickle("{}").expect('['));
+    }
+}
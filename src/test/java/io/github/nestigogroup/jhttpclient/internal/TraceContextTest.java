@@ -0,0 +1,54 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Parsing and propagation of the W3C <b>traceparent</b> by {@link TraceContext}
+ */
+public class TraceContextTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String PARENT = "00-" + TRACE_ID + "-00f067aa0ba902b7-01";
+
+    @Test
+    public void childKeepsTheTraceAndFlags() {
+        var child = TraceContext.child(PARENT);
+
+        assertEquals(TRACE_ID, TraceContext.traceId(child));
+        assertTrue(child.endsWith("-01"));
+        assertNotEquals("00f067aa0ba902b7", TraceContext.spanId(child));
+        assertEquals("00f067aa0ba902b7", TraceContext.spanId(PARENT));
+    }
+
+    @Test
+    public void invalidParentsStartANewTrace() {
+        var invalid = List.of(
+                "00-" + TRACE_ID.substring(0, 31) + "--00f067aa0ba902b7-01",
+                "00-" + TRACE_ID + "-00f067aa0ba9-2b7-01",
+                "0--" + TRACE_ID + "-00f067aa0ba902b7-01",
+                "00-" + TRACE_ID + "-00f067aa0ba902b7--1",
+                "00-" + TRACE_ID.toUpperCase() + "-00f067aa0ba902b7-01",
+                "00-" + TRACE_ID + "-00f067aa0ba902g7-01",
+                "00-" + TRACE_ID.replace('4', '４') + "-00f067aa0ba902b7-01",
+                "ff-" + TRACE_ID + "-00f067aa0ba902b7-01",
+                "00-" + "0".repeat(32) + "-00f067aa0ba902b7-01",
+                "00-" + TRACE_ID + "-" + "0".repeat(16) + "-01",
+                "00-" + TRACE_ID + "-00f067aa0ba902b7-01-extra",
+                "");
+
+        for (var parent : invalid) {
+            assertNull(TraceContext.traceId(parent), parent);
+            var root = TraceContext.child(parent);
+            assertNotEquals(TRACE_ID, TraceContext.traceId(root), parent);
+            assertTrue(root.endsWith("-01"));
+        }
+        assertNull(TraceContext.spanId(null));
+    }
+}
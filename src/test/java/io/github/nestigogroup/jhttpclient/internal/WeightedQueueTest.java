@@ -0,0 +1,68 @@
+package io.github.nestigogroup.jhttpclient.internal;
+
+import io.github.nestigogroup.jhttpclient.requests.Priority;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Weighted share between the {@link Priority} classes and FIFO order within a class of the {@link WeightedQueue}
+ */
+public class WeightedQueueTest {
+
+    @Test
+    public void classesAreServedByWeight() {
+        var queue = new WeightedQueue<Priority>();
+        for (var i = 0; i < 100; i++) {
+            queue.add(Priority.INTERACTIVE, Priority.INTERACTIVE);
+            queue.add(Priority.DEFAULT, Priority.DEFAULT);
+            queue.add(Priority.BULK, Priority.BULK);
+        }
+
+        var polled = new ArrayList<Priority>();
+        for (var i = 0; i < 21; i++) {
+            polled.add(queue.poll());
+        }
+
+        assertEquals(16, polled.stream().filter(Priority.INTERACTIVE::equals).count());
+        assertEquals(4, polled.stream().filter(Priority.DEFAULT::equals).count());
+        assertEquals(1, polled.stream().filter(Priority.BULK::equals).count());
+        // smooth, the lower classes are interleaved rather than served after a burst
+        assertTrue(polled.indexOf(Priority.DEFAULT) < 8);
+        assertEquals(279, queue.size());
+    }
+
+    @Test
+    public void classIsFifoAndAddFirstGoesBackInFront() {
+        var queue = new WeightedQueue<String>();
+        queue.add(Priority.BULK, "a");
+        queue.add(Priority.BULK, "b");
+        queue.addFirst(Priority.BULK, "retry");
+
+        assertEquals("retry", queue.peek());
+        assertEquals(List.of("retry", "a", "b"), List.of(queue.poll(), queue.poll(), queue.poll()));
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+    }
+
+    @Test
+    public void lowerClassIsNotStarvedByARefilledHigherClass() {
+        var queue = new WeightedQueue<Priority>();
+        queue.add(Priority.BULK, Priority.BULK);
+        var bulkAt = -1;
+        for (var i = 0; i < 40 && bulkAt < 0; i++) {
+            queue.add(Priority.INTERACTIVE, Priority.INTERACTIVE);
+            if (queue.poll() == Priority.BULK) {
+                bulkAt = i;
+            }
+        }
+
+        assertTrue(bulkAt >= 0 && bulkAt <= 17, "bulk polled at " + bulkAt);
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.nestigogroup.jhttpclient.mapper;
+
+import io.github.nestigogroup.jhttpclient.exceptions.ObjectMappingException;
+import io.github.nestigogroup.jhttpclient.helpers.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips of records, generic containers, optionals, enums and value types through the {@link RecordJsonMapper},
+ * and rejection of malformed input
+ */
+public class RecordJsonMapperTest {
+
+    public enum Status { OPEN, CLOSED }
+
+    public record Line(String sku, int quantity, BigDecimal price) {
+    }
+
+    public record Order(long id, Status status, List<Line> lines, Map<String, Integer> counts, Optional<String> note,
+                        LocalDate due, UUID ref, Duration ttl, Set<Status> history, double[] weights, boolean paid, char code) {
+    }
+
+    public record Node(String name, List<Node> children) {
+    }
+
+    private final RecordJsonMapper mapper = new RecordJsonMapper();
+
+    @Test
+    public void recordsRoundTrip() throws Exception {
+        var order = new Order(42, Status.CLOSED, List.of(new Line("a", 2, new BigDecimal("9.99")), new Line("b\"\n\u00e9", 1, BigDecimal.ONE)),
+                Map.of("x", 1), Optional.of("fragile"), LocalDate.of(2024, 2, 29), UUID.fromString("123e4567-e89b-12d3-a456-426614174000"),
+                Duration.ofSeconds(90), Set.of(Status.OPEN), new double[]{0.5, 2}, true, 'z');
+
+        var json = mapper.convertToJson(order);
+        var read = mapper.convertFromJson(json, Order.class);
+
+        assertEquals(order.id(), read.id());
+        assertEquals(order.status(), read.status());
+        assertEquals(order.lines(), read.lines());
+        assertEquals(order.counts(), read.counts());
+        assertEquals(order.note(), read.note());
+        assertEquals(order.due(), read.due());
+        assertEquals(order.ref(), read.ref());
+        assertEquals(order.ttl(), read.ttl());
+        assertEquals(order.history(), read.history());
+        assertEquals(0.5, read.weights()[0]);
+        assertEquals(2.0, read.weights()[1]);
+        assertTrue(read.paid());
+        assertEquals('z', read.code());
+        assertEquals(json, mapper.convertToJson(read));
+        assertEquals(read.lines(), mapper.convertFromJson(json.getBytes(StandardCharsets.UTF_8), Order.class).lines());
+        assertEquals(read.lines(), mapper.convertFromJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), Order.class).lines());
+    }
+
+    @Test
+    public void missingAndUnknownComponents() throws Exception {
+        var order = mapper.convertFromJson("{\"extra\":{\"a\":[1,{\"b\":null}]},\"status\":\"OPEN\"}", Order.class);
+
+        assertEquals(0, order.id());
+        assertEquals(Status.OPEN, order.status());
+        assertNull(order.lines());
+        assertNull(order.note());
+        assertEquals(Optional.empty(), mapper.convertFromJson("{\"note\":null}", Order.class).note());
+    }
+
+    @Test
+    public void genericTypes() throws Exception {
+        var lines = mapper.convertFromJson("[{\"sku\":\"a\",\"quantity\":1,\"price\":1.5}]", new TypeToken<List<Line>>() {}.getType());
+        assertEquals(List.of(new Line("a", 1, new BigDecimal("1.5"))), lines);
+
+        var codec = mapper.bind(new TypeToken<Map<Status, List<Optional<Integer>>>>() {});
+        var value = Map.of(Status.OPEN, List.of(Optional.of(1), Optional.of(2)));
+        assertEquals(value, codec.read(codec.write(value)));
+
+        var tree = new Node("root", List.of(new Node("leaf", List.of())));
+        assertEquals(tree, mapper.convertFromJson(mapper.convertToJson(tree), Node.class));
+
+        Object untyped = mapper.convertFromJson("{\"a\":[1,\"b\",true,null]}", Object.class);
+        assertTrue(untyped instanceof Map<?, ?>);
+    }
+
+    @Test
+    public void unicodeEscapes() throws Exception {
+        assertEquals("\u00e9A", mapper.convertFromJson("\"\\u00e9\\u0041\"", String.class));
+    }
+
+    @Test
+    public void malformedInputIsRejected() {
+        for (var json : List.of("{\"sku\":", "{\"sku\" \"a\"}", "{\"sku\":\"a\"} trailing", "[1,2", "")) {
+            var e = assertThrows(ObjectMappingException.class, () -> mapper.convertFromJson(json, Line.class), json);
+            assertTrue(e.getMessage().startsWith("Invalid Json"), json + ": " + e.getMessage());
+        }
+        for (var json : List.of("\"\\q\"", "\"\\u00g1\"", "\"\\u-001\"", "\"\\u12\"")) {
+            var e = assertThrows(ObjectMappingException.class, () -> mapper.convertFromJson(json, String.class), json);
+            assertTrue(e.getMessage().startsWith("Invalid Json"), json + ": " + e.getMessage());
+        }
+        assertThrows(ObjectMappingException.class, () -> mapper.convertFromJson("{\"status\":\"UNKNOWN\"}", Order.class));
+        assertThrows(ObjectMappingException.class, () -> mapper.convertFromJson("{\"quantity\":\"many\"}", Line.class));
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.nestigogroup.jhttpclient.projection;
+
+import io.github.nestigogroup.jhttpclient.exceptions.ObjectMappingException;
+import io.github.nestigogroup.jhttpclient.mapper.RecordJsonMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Path selection, skipping, early stop and component conversion of the {@link JsonProjector}
+ */
+public class JsonProjectorTest {
+
+    private static final String ORDER = """
+            {"meta":{"tags":["a",{"deep":[[1,2],{"x":"}"}]}],"note":"skip \\"me\\" ]}"},
+             "id":"o-1",
+             "customer":{"name":"Ann","address":{"city":"Oslo","zip":"0150"}},
+             "lines":[{"sku":"s-1","qty":2,"price":9.5},{"sku":"s-2","qty":1,"price":1}],
+             "status":"OPEN"}
+            """;
+
+    public enum Status { OPEN, CLOSED }
+
+    public record Line(String sku, int qty, BigDecimal price) {
+    }
+
+    public record Summary(String id, @JsonPath("customer.address.city") String city, @JsonPath("$.lines[1].sku") String secondSku,
+                          @JsonPath("lines[0].qty") int firstQty, Status status) {
+    }
+
+    public record Nested(@JsonPath("customer.address") String address, @JsonPath("customer.address.zip") String zip,
+                         @JsonPath("customer") Map<String, Object> customer) {
+    }
+
+    public record Typed(@JsonPath("lines") List<Line> lines, @JsonPath("lines[0]") Line first) {
+    }
+
+    public record Missing(@JsonPath("customer.phone") String phone, @JsonPath("lines[5].qty") int qty,
+                          @JsonPath("customer.vip") boolean vip, @JsonPath("lines[9]") Line line) {
+    }
+
+    public record First(String id) {
+    }
+
+    @Test
+    public void pathsWithFieldsAndIndicesSkipOtherSubtrees() throws Exception {
+        var summary = JsonProjector.project(ORDER, Summary.class, null);
+
+        assertEquals(new Summary("o-1", "Oslo", "s-2", 2, Status.OPEN), summary);
+    }
+
+    @Test
+    public void parentAndChildPathsAreBothFilled() throws Exception {
+        var nested = JsonProjector.project(ORDER, Nested.class, new RecordJsonMapper());
+
+        assertEquals("{\"city\":\"Oslo\",\"zip\":\"0150\"}", nested.address());
+        assertEquals("0150", nested.zip());
+        assertEquals("Ann", nested.customer().get("name"));
+    }
+
+    @Test
+    public void genericComponentsAreMappedWithTheirTypeArguments() throws Exception {
+        var typed = JsonProjector.project(ORDER, Typed.class, new RecordJsonMapper());
+
+        assertEquals(List.of(new Line("s-1", 2, new BigDecimal("9.5")), new Line("s-2", 1, BigDecimal.ONE)), typed.lines());
+        assertEquals(new Line("s-1", 2, new BigDecimal("9.5")), typed.first());
+    }
+
+    @Test
+    public void missingPathsAreNullOrDefault() throws Exception {
+        var missing = JsonProjector.project(ORDER, Missing.class, new RecordJsonMapper());
+
+        assertEquals(new Missing(null, 0, false, null), missing);
+    }
+
+    @Test
+    public void scanningStopsOnceAllPathsWereFound() throws Exception {
+        // the document is cut off after the requested value, the rest is never read
+        var truncated = "{\"meta\":{\"a\":[1]},\"id\":\"o-1\",\"lines\":[{\"sku\":";
+        var stream = new ByteArrayInputStream(truncated.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(new First("o-1"), JsonProjector.project(stream, First.class, null));
+        assertThrows(ObjectMappingException.class, () -> JsonProjector.project(truncated, Summary.class, null));
+    }
+
+    @Test
+    public void invalidValuesAreRejected() {
+        assertThrows(ObjectMappingException.class, () -> JsonProjector.project("{\"id\":\"o\",\"lines\":[{\"qty\":\"two\"}]}", Summary.class, null));
+        assertThrows(ObjectMappingException.class, () -> JsonProjector.project("{\"status\":\"LOST\"}", Summary.class, null));
+        assertThrows(ObjectMappingException.class, () -> JsonProjector.project(ORDER, Typed.class, null));
+        assertFalse(assertThrows(ObjectMappingException.class, () -> JsonProjector.project("{\"id\":}", First.class, null)).getMessage().isEmpty());
+    }
+}
@@ -0,0 +1,177 @@
+package io.github.nestigogroup.jhttpclient.ratelimit;
+
+import io.github.nestigogroup.jhttpclient.AsyncRestClient;
+import io.github.nestigogroup.jhttpclient.RestClient;
+import io.github.nestigogroup.jhttpclient.testing.FaultInjectingServer;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Route selection, fail-fast reservations, server driven throttling and permit refunds of the {@link RateLimiter}
+ */
+public class RateLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final URI API = URI.create("http://api.test/api/orders");
+    private static final URI SEARCH = URI.create("http://api.test/api/search?q=a");
+    private static final URI OTHER = URI.create("http://API.test/other");
+
+    private static HttpHeaders headers(String... namesAndValues) {
+        var map = new HashMap<String, List<String>>();
+        for (var i = 0; i < namesAndValues.length; i += 2) {
+            map.put(namesAndValues[i], List.of(namesAndValues[i + 1]));
+        }
+        return HttpHeaders.of(Map.copyOf(map), (name, value) -> true);
+    }
+
+    /**
+     * The wait shrinks by the time the test took since the reservation it depends on, it never exceeds the expected one
+     */
+    private static void assertAbout(long expectedMs, long waitNanos) {
+        assertTrue(waitNanos > expectedMs / 2 * MS && waitNanos <= expectedMs * MS, "waits " + waitNanos / MS + " ms");
+    }
+
+    @Test
+    public void longestRouteWinsAndHostLimitsStillApply() {
+        var limiter = new RateLimiter()
+                .limitHost("api.test", 0.001, 3)
+                .limitRoute("api.test", "/api", 1, 1)
+                .limitRoute("api.test", "/api/search", 1000, 10);
+
+        assertEquals(0, limiter.reserve(API));
+        assertAbout(1000, limiter.reserve(API));
+        assertEquals(0, limiter.reserve(SEARCH));
+        // the host burst of 3 is spent
+        assertTrue(limiter.reserve(SEARCH) > 0);
+        assertEquals(0, limiter.reserve(URI.create("http://unlimited.test/api")));
+    }
+
+    @Test
+    public void failedReservationTakesNothing() {
+        var limiter = new RateLimiter(Duration.ZERO)
+                .limitHost("api.test", 0.001, 2)
+                .limitRoute("api.test", "/api", 0.001, 1);
+
+        assertEquals(0, limiter.reserve(API));
+        // the route refuses, the host permit taken first is given back
+        assertEquals(-1, limiter.reserve(API));
+        assertEquals(0, limiter.reserve(OTHER));
+        assertEquals(-1, limiter.reserve(OTHER));
+    }
+
+    @Test
+    public void tooManyRequestsPausesUnconfiguredHosts() {
+        var limiter = new RateLimiter();
+
+        limiter.onResponse(API, 503, headers());
+        assertEquals(0, limiter.reserve(API));
+
+        limiter.onResponse(API, 429, headers("Retry-After", "2"));
+        assertAbout(2000, limiter.reserve(OTHER));
+    }
+
+    @Test
+    public void unavailableWithRetryAfterPauses() {
+        var limiter = new RateLimiter();
+
+        limiter.onResponse(API, 503, headers("Retry-After", "1"));
+
+        assertAbout(1000, limiter.reserve(API));
+    }
+
+    @Test
+    public void throttlingHalvesTheConfiguredRate() {
+        var limiter = new RateLimiter().limitHost("api.test", 10, 1);
+
+        limiter.onResponse(API, 429, headers());
+
+        assertAbout(200, limiter.reserve(API));
+    }
+
+    @Test
+    public void quotaHeadersPauseAndAdaptTheRate() {
+        var limiter = new RateLimiter().limitHost("api.test", 100, 1);
+
+        limiter.onResponse(API, 200, headers("RateLimit-Remaining", "5", "RateLimit-Reset", "1"));
+        assertEquals(0, limiter.reserve(API));
+        assertAbout(200, limiter.reserve(API));
+
+        var unconfigured = new RateLimiter();
+        unconfigured.onResponse(API, 200, headers("RateLimit-Remaining", "0", "RateLimit-Reset", "3"));
+        assertAbout(3000, unconfigured.reserve(API));
+    }
+
+    @Test
+    public void releaseRefundsThePermit() {
+        var limiter = new RateLimiter().limitHost("api.test", 1, 1);
+
+        assertEquals(0, limiter.reserve(API));
+        assertAbout(1000, limiter.reserve(API));
+        limiter.release(API);
+
+        assertAbout(1000, limiter.reserve(API));
+    }
+
+    @Test
+    public void requestCancelledWhileDelayedRefundsItsPermit() {
+        try (var server = FaultInjectingServer.start(); var client = new AsyncRestClient()) {
+            var route = server.route("/limited").body("ok");
+            var uri = server.uri("/limited");
+            // a permit every 10 seconds, the time the exchanges take does not matter
+            var limiter = new RateLimiter().limitHost(uri.getHost(), 0.1, 1);
+            client.setRateLimiter(limiter);
+
+            client.get(uri.toString()).orTimeout(5, TimeUnit.SECONDS).join();
+            var delayed = client.get(uri.toString());
+            assertTrue(delayed.cancel(true));
+
+            assertThrows(CancellationException.class, delayed::join);
+            assertEquals(1, route.calls());
+            // only the first request holds a permit, the next one waits a single period
+            assertAbout(10_000, limiter.reserve(uri));
+        }
+    }
+
+    @Test
+    public void blockingRequestInterruptedWhileDelayedRefundsItsPermit() throws Exception {
+        try (var server = FaultInjectingServer.start(); var client = new RestClient()) {
+            var route = server.route("/limited").body("ok");
+            var uri = server.uri("/limited");
+            // a permit every 10 seconds, the time the exchanges take does not matter
+            var limiter = new RateLimiter().limitHost(uri.getHost(), 0.1, 1);
+            client.setRateLimiter(limiter);
+
+            client.get(uri.toString());
+            var error = new AtomicReference<Throwable>();
+            var caller = new Thread(() -> {
+                try {
+                    client.get(uri.toString());
+                } catch (Exception e) {
+                    error.set(e);
+                }
+            });
+            caller.start();
+            TimeUnit.MILLISECONDS.sleep(100);
+            caller.interrupt();
+            caller.join(5000);
+
+            assertInstanceOf(InterruptedException.class, error.get());
+            assertEquals(1, route.calls());
+            assertAbout(10_000, limiter.reserve(uri));
+        }
+    }
+}
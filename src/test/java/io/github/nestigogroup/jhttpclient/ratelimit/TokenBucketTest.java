@@ -0,0 +1,100 @@
+package io.github.nestigogroup.jhttpclient.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Refill, reservations, refunds and server driven adaptation of the {@link TokenBucket}, on a synthetic clock
+ */
+public class TokenBucketTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void burstThenSustainedRate() {
+        var bucket = new TokenBucket(10, 2, 0);
+
+        assertEquals(0, bucket.reserve(0, -1));
+        assertEquals(0, bucket.reserve(0, -1));
+        assertEquals(100 * MS, bucket.reserve(0, -1));
+        assertEquals(200 * MS, bucket.reserve(0, -1));
+        // the reservations above were paid back by then, the refill stops at the burst
+        assertEquals(0, bucket.reserve(10 * SECOND, -1));
+        assertEquals(0, bucket.reserve(10 * SECOND, -1));
+        assertEquals(100 * MS, bucket.reserve(10 * SECOND, -1));
+    }
+
+    @Test
+    public void waitAboveTheMaximumReservesNothing() {
+        var bucket = new TokenBucket(10, 1, 0);
+        bucket.reserve(0, -1);
+
+        assertEquals(-1, bucket.reserve(0, 50 * MS));
+        assertEquals(-1, bucket.reserve(0, 50 * MS));
+        assertEquals(100 * MS, bucket.reserve(0, 100 * MS));
+    }
+
+    @Test
+    public void refundReturnsTheTokenUpToTheBurst() {
+        var bucket = new TokenBucket(10, 1, 0);
+        bucket.reserve(0, -1);
+        bucket.reserve(0, -1);
+
+        bucket.refund();
+        assertEquals(100 * MS, bucket.reserve(0, -1));
+
+        bucket.refund();
+        bucket.refund();
+        bucket.refund();
+        assertEquals(0, bucket.reserve(0, -1));
+        assertEquals(100 * MS, bucket.reserve(0, -1));
+    }
+
+    @Test
+    public void throttlePausesHalvesTheRateAndRecovers() {
+        var bucket = new TokenBucket(10, 5, 0);
+
+        bucket.throttle(0, 2 * SECOND);
+        assertEquals(5, bucket.rate());
+        assertEquals(2 * SECOND, bucket.reserve(0, -1));
+
+        bucket.throttle(0, 0);
+        assertEquals(2.5, bucket.rate());
+        bucket.recover();
+        assertEquals(3.5, bucket.rate());
+        for (var i = 0; i < 10; i++) {
+            bucket.recover();
+        }
+        assertEquals(10, bucket.rate());
+    }
+
+    @Test
+    public void quotaPausesWhenExhaustedAndAdaptsTheRate() {
+        var bucket = new TokenBucket(100, 1, 0);
+
+        bucket.quota(0, 5, SECOND);
+        assertEquals(5, bucket.rate());
+        bucket.quota(0, 1000, SECOND);
+        assertEquals(100, bucket.rate());
+
+        bucket.quota(0, 0, 3 * SECOND);
+        assertEquals(3 * SECOND, bucket.reserve(0, -1));
+    }
+
+    @Test
+    public void unlimitedBucketOnlyHonorsPauses() {
+        var bucket = new TokenBucket(Double.POSITIVE_INFINITY, 1, 0);
+
+        for (var i = 0; i < 100; i++) {
+            assertEquals(0, bucket.reserve(0, -1));
+        }
+        bucket.throttle(0, SECOND);
+        assertEquals(Double.POSITIVE_INFINITY, bucket.rate());
+        assertEquals(SECOND, bucket.reserve(0, -1));
+        assertEquals(0, bucket.reserve(SECOND, -1));
+    }
+}
@@ -0,0 +1,477 @@
+package io.github.nestigogroup.jhttpclient.testing;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Embedded HTTP server (JDK {@link HttpServer}) on the loopback interface for testing the clients under degraded networks, fully offline.
+ * Every route is programmable with a {@link LatencyDistribution}, bandwidth throttling, slowloris-style stalls mid-body, connection drops,
+ * chunked and gzip bodies and scripted status codes. Random decisions use a per-route seeded {@link Random}, so runs are reproducible
+ * <pre>
+ * try (var server = FaultInjectingServer.start(42)) {
+ *     server.route("/slow").latency(LatencyDistribution.logNormal(Duration.ofMillis(20), 0.8)).bandwidth(64 * 1024).body(new byte[1 &lt;&lt; 20]);
+ *     server.route("/flaky").statuses(503, 503, 200).body("{}");
+ *     var resp = new RestClient().get(server.url("/flaky"));
+ * }
+ * </pre>
+ */
+public final class FaultInjectingServer implements AutoCloseable {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final long seed;
+    private ServerSocket withoutContinue;
+
+    private FaultInjectingServer(long seed) {
+        this.seed = seed;
+        // the JDK server writes headers and body separately, without TCP_NODELAY every response waits for the delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        workers = Executors.newCachedThreadPool(r -> {
+            var thread = new Thread(r, "fault-injecting-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(workers);
+        server.start();
+    }
+
+    /**
+     * Starts a server with a fixed seed of 0
+     * @return the started {@link FaultInjectingServer}
+     */
+    public static FaultInjectingServer start() {
+        return start(0);
+    }
+
+    /**
+     * Starts a server on an ephemeral loopback port
+     * @param seed the seed for the per-route {@link Random} sources
+     * @return the started {@link FaultInjectingServer}
+     */
+    public static FaultInjectingServer start(long seed) {
+        return new FaultInjectingServer(seed);
+    }
+
+    /**
+     * Registers a route that answers <b>200</b> with an empty body until programmed otherwise
+     * @param path the path prefix the route handles
+     * @return the {@link Route} to program
+     */
+    public Route route(String path) {
+        var route = new Route(new Random(seed ^ path.hashCode()));
+        server.createContext(path, route::handle);
+        return route;
+    }
+
+    /**
+     * @param path the request path
+     * @return the absolute URL of the path on this server
+     */
+    public String url(String path) {
+        return uri(path).toString();
+    }
+
+    /**
+     * @param path the request path
+     * @return the absolute {@link URI} of the path on this server
+     */
+    public URI uri(String path) {
+        var address = server.getAddress();
+        return URI.create("http://" + address.getHostString() + ":" + address.getPort() + path);
+    }
+
+    /**
+     * The JDK server answers <b>Expect: 100-continue</b> with <b>100 Continue</b> before any route runs. This URL reaches the same routes
+     * through a loopback port that removes the expectation from the first request of each connection, so a route answers it like a server
+     * that rejects an upload without inviting it. Such routes should {@link Route#ignoreRequestBody()}, the client never sends it
+     * @param path the request path
+     * @return the absolute URL of the path behind the port without interim responses
+     */
+    public synchronized String urlWithoutContinue(String path) {
+        if (withoutContinue == null) {
+            try {
+                withoutContinue = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            var front = withoutContinue;
+            workers.execute(() -> {
+                while (!front.isClosed()) {
+                    try {
+                        var client = front.accept();
+                        workers.execute(() -> forwardWithoutContinue(client));
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+        }
+        return "http://" + withoutContinue.getInetAddress().getHostAddress() + ":" + withoutContinue.getLocalPort() + path;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (withoutContinue != null) {
+                try {
+                    withoutContinue.close();
+                } catch (IOException ignored) {
+                    // closing anyway
+                }
+            }
+        }
+        server.stop(0);
+        workers.shutdownNow();
+    }
+
+    private void forwardWithoutContinue(Socket client) {
+        try (client; var backend = new Socket(server.getAddress().getAddress(), server.getAddress().getPort())) {
+            client.setTcpNoDelay(true);
+            backend.setTcpNoDelay(true);
+            var in = client.getInputStream();
+            var head = new StringBuilder();
+            while (!head.toString().endsWith("\r\n\r\n")) {
+                var next = in.read();
+                if (next < 0) {
+                    return;
+                }
+                head.append((char) next);
+            }
+            var kept = new StringBuilder();
+            for (var line : head.toString().split("\r\n")) {
+                if (!line.toLowerCase(Locale.ROOT).startsWith("expect:")) {
+                    kept.append(line).append("\r\n");
+                }
+            }
+            var toBackend = backend.getOutputStream();
+            toBackend.write(kept.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1));
+            toBackend.flush();
+            workers.execute(() -> pipe(in, toBackend, backend));
+            pipe(backend.getInputStream(), client.getOutputStream(), client);
+        } catch (IOException e) {
+            // either side closed the connection
+        }
+    }
+
+    private static void pipe(InputStream from, OutputStream to, Socket target) {
+        var buffer = new byte[CHUNK_SIZE];
+        try {
+            int read;
+            while ((read = from.read(buffer)) >= 0) {
+                to.write(buffer, 0, read);
+                to.flush();
+            }
+            target.shutdownOutput();
+        } catch (IOException e) {
+            try {
+                target.close();
+            } catch (IOException ignored) {
+                // already broken
+            }
+        }
+    }
+
+    /**
+     * Programmable behavior of a single route. All settings can be changed while the server is running
+     */
+    public static final class Route {
+
+        private final Random random;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger aborted = new AtomicInteger();
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private volatile Headers lastRequestHeaders = new Headers();
+        private volatile LatencyDistribution latency = LatencyDistribution.none();
+        private volatile int[] statuses = {200};
+        private volatile boolean cycleStatuses;
+        private volatile byte[] body = new byte[0];
+        private volatile long bytesPerSecond;
+        private volatile long stallAfterBytes = -1;
+        private volatile long stallNanos;
+        private volatile double dropProbability;
+        private volatile long dropAfterBytes = -1;
+        private volatile boolean chunked;
+        private volatile boolean gzip;
+        private volatile boolean ignoreRequestBody;
+
+        private Route(Random random) {
+            this.random = random;
+        }
+
+        /**
+         * @param latency the delay before the response headers are sent
+         * @return this {@link Route}
+         */
+        public Route latency(LatencyDistribution latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * Scripts the status codes of the following calls, the last status repeats once the script is exhausted
+         * @param statuses the status codes in call order
+         * @return this {@link Route}
+         */
+        public Route statuses(int... statuses) {
+            this.statuses = statuses.clone();
+            this.cycleStatuses = false;
+            calls.set(0);
+            return this;
+        }
+
+        /**
+         * Scripts the status codes of the following calls, restarting from the first status once the script is exhausted
+         * @param statuses the status codes in call order
+         * @return this {@link Route}
+         */
+        public Route cycleStatuses(int... statuses) {
+            this.statuses = statuses.clone();
+            this.cycleStatuses = true;
+            calls.set(0);
+            return this;
+        }
+
+        /**
+         * @param body the response body
+         * @return this {@link Route}
+         */
+        public Route body(byte[] body) {
+            this.body = body.clone();
+            return this;
+        }
+
+        /**
+         * @param body the response body, encoded as UTF-8
+         * @return this {@link Route}
+         */
+        public Route body(String body) {
+            return body(body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @param name the response header name
+         * @param value the response header value
+         * @return this {@link Route}
+         */
+        public synchronized Route header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        /**
+         * @param bytesPerSecond the maximum rate the body is written with, <b>0</b> for unlimited
+         * @return this {@link Route}
+         */
+        public Route bandwidth(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+            return this;
+        }
+
+        /**
+         * Slowloris-style stall: the body is paused after the provided number of bytes
+         * @param afterBytes the number of body bytes sent before the stall
+         * @param stall the stall duration
+         * @return this {@link Route}
+         */
+        public Route stall(long afterBytes, Duration stall) {
+            this.stallAfterBytes = afterBytes;
+            this.stallNanos = stall.toNanos();
+            return this;
+        }
+
+        /**
+         * Drops the connection without any response for the provided share of the calls
+         * @param probability value between 0 and 1
+         * @return this {@link Route}
+         */
+        public Route drop(double probability) {
+            this.dropProbability = probability;
+            return this;
+        }
+
+        /**
+         * Drops the connection mid-body, after the headers and the provided number of body bytes were sent
+         * @param afterBytes the number of body bytes sent before the connection is dropped
+         * @return this {@link Route}
+         */
+        public Route dropAfter(long afterBytes) {
+            this.dropAfterBytes = afterBytes;
+            return this;
+        }
+
+        /**
+         * @param chunked whether to send the body with chunked transfer encoding instead of <b>Content-Length</b>
+         * @return this {@link Route}
+         */
+        public Route chunked(boolean chunked) {
+            this.chunked = chunked;
+            return this;
+        }
+
+        /**
+         * @param gzip whether to gzip the body and send <b>Content-Encoding: gzip</b>
+         * @return this {@link Route}
+         */
+        public Route gzip(boolean gzip) {
+            this.gzip = gzip;
+            return this;
+        }
+
+        /**
+         * Answers without reading the request body, as a server rejecting an upload does
+         * @return this {@link Route}
+         */
+        public Route ignoreRequestBody() {
+            this.ignoreRequestBody = true;
+            return this;
+        }
+
+        /**
+         * @return the number of calls the route received since the last status script change
+         */
+        public int calls() {
+            return calls.get();
+        }
+
+        /**
+         * @return the number of responses whose body could not be written because the client closed the connection
+         */
+        public int aborted() {
+            return aborted.get();
+        }
+
+        /**
+         * @param name the request header name (case-insensitive)
+         * @return the first value of the header in the latest request or <b>null</b> if it was not sent
+         */
+        public String requestHeader(String name) {
+            return lastRequestHeaders.getFirst(name);
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            var call = calls.getAndIncrement();
+            lastRequestHeaders = exchange.getRequestHeaders();
+            if (!ignoreRequestBody) {
+                exchange.getRequestBody().readAllBytes();
+            }
+            long latencyNanos;
+            boolean drop;
+            synchronized (random) {
+                latencyNanos = latency.sampleNanos(random);
+                drop = dropProbability > 0 && random.nextDouble() < dropProbability;
+            }
+            sleep(latencyNanos);
+            if (drop) {
+                // an exception from the handler makes the server close the connection without a response
+                throw new IOException("dropped by fault injection");
+            }
+            var script = statuses;
+            var status = cycleStatuses ? script[call % script.length] : script[Math.min(call, script.length - 1)];
+            var payload = gzip ? gzip(body) : body;
+            synchronized (this) {
+                headers.forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+            }
+            if (gzip) {
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            // HEAD requests and 204/304 responses have no body
+            var noBody = "HEAD".equalsIgnoreCase(exchange.getRequestMethod()) || status == 204 || status == 304;
+            exchange.sendResponseHeaders(status, chunked && !noBody ? 0 : (payload.length == 0 || noBody ? -1 : payload.length));
+            if (!noBody) {
+                writeBody(exchange, payload);
+            }
+            exchange.close();
+        }
+
+        private void writeBody(HttpExchange exchange, byte[] payload) throws IOException {
+            var out = exchange.getResponseBody();
+            var rate = bytesPerSecond;
+            var stallAt = stallAfterBytes;
+            var dropAt = dropAfterBytes;
+            var start = System.nanoTime();
+            var stalled = false;
+            long written = 0;
+            while (written < payload.length) {
+                var end = payload.length;
+                if (!stalled && stallAt >= 0 && written < stallAt) {
+                    end = (int) Math.min(end, stallAt);
+                }
+                if (dropAt >= 0) {
+                    end = (int) Math.min(end, dropAt);
+                }
+                var size = (int) Math.min(CHUNK_SIZE, end - written);
+                if (size > 0) {
+                    try {
+                        out.write(payload, (int) written, size);
+                        out.flush();
+                    } catch (IOException e) {
+                        aborted.incrementAndGet();
+                        throw e;
+                    }
+                    written += size;
+                }
+                if (dropAt >= 0 && written >= dropAt) {
+                    throw new IOException("dropped by fault injection");
+                }
+                if (!stalled && stallAt >= 0 && written >= stallAt) {
+                    stalled = true;
+                    sleep(stallNanos);
+                    start += stallNanos;
+                }
+                if (rate > 0) {
+                    sleep(start + written * TimeUnit.SECONDS.toNanos(1) / rate - System.nanoTime());
+                }
+            }
+        }
+
+        private static byte[] gzip(byte[] data) throws IOException {
+            var bytes = new ByteArrayOutputStream();
+            try (var out = new GZIPOutputStream(bytes)) {
+                out.write(data);
+            }
+            return bytes.toByteArray();
+        }
+
+        private static void sleep(long nanos) throws IOException {
+            if (nanos <= 0) {
+                return;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted", e);
+            }
+        }
+    }
+}
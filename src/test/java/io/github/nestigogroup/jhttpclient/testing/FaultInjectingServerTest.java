@@ -0,0 +1,200 @@
+package io.github.nestigogroup.jhttpclient.testing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Behavior of the {@link FaultInjectingServer} routes as seen by a plain {@link HttpClient}: scripted statuses, delays, drops,
+ * body encodings and request inspection
+ */
+public class FaultInjectingServerTest {
+
+    private FaultInjectingServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    public void start() {
+        server = FaultInjectingServer.start(42);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    public void stop() {
+        server.close();
+    }
+
+    private HttpResponse<byte[]> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(server.uri(path)).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static long millisSince(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Test
+    public void statusScriptsRepeatTheLastStatusOrCycle() throws Exception {
+        var flaky = server.route("/flaky").statuses(503, 503, 200).body("ok");
+        var cycling = server.route("/cycling").cycleStatuses(500, 200);
+
+        var codes = new ArrayList<Integer>();
+        for (var i = 0; i < 4; i++) {
+            codes.add(get("/flaky").statusCode());
+        }
+        for (var i = 0; i < 3; i++) {
+            codes.add(get("/cycling").statusCode());
+        }
+
+        assertEquals(List.of(503, 503, 200, 200, 500, 200, 500), codes);
+        assertEquals(4, flaky.calls());
+        assertEquals(3, cycling.calls());
+        assertEquals("ok", new String(get("/flaky").body()));
+    }
+
+    @Test
+    public void latencyBandwidthAndStallsSlowTheResponseDown() throws Exception {
+        server.route("/late").latency(LatencyDistribution.fixed(Duration.ofMillis(300)));
+        server.route("/narrow").bandwidth(128 * 1024).body(new byte[64 * 1024]);
+        server.route("/stalled").stall(1024, Duration.ofMillis(300)).body(new byte[4096]);
+
+        var start = System.nanoTime();
+        get("/late");
+        assertTrue(millisSince(start) >= 300);
+
+        start = System.nanoTime();
+        assertEquals(64 * 1024, get("/narrow").body().length);
+        assertTrue(millisSince(start) >= 400);
+
+        start = System.nanoTime();
+        assertEquals(4096, get("/stalled").body().length);
+        assertTrue(millisSince(start) >= 300);
+    }
+
+    @Test
+    public void droppedConnectionsFailTheExchange() {
+        server.route("/gone").drop(1);
+        var truncated = server.route("/truncated").dropAfter(1000).body(new byte[64 * 1024]);
+
+        assertThrows(IOException.class, () -> get("/gone"));
+        assertThrows(IOException.class, () -> get("/truncated"));
+        assertTrue(truncated.calls() >= 1);
+    }
+
+    @Test
+    public void dropsFollowTheSeed() throws Exception {
+        var pattern = dropPattern(7);
+
+        assertTrue(pattern.contains(true) && pattern.contains(false), pattern.toString());
+        assertEquals(pattern, dropPattern(7));
+    }
+
+    private static List<Boolean> dropPattern(long seed) throws Exception {
+        try (var seeded = FaultInjectingServer.start(seed)) {
+            seeded.route("/coin").drop(0.5);
+            var client = HttpClient.newHttpClient();
+            var pattern = new ArrayList<Boolean>();
+            for (var i = 0; i < 12; i++) {
+                try {
+                    client.send(HttpRequest.newBuilder(seeded.uri("/coin")).build(), HttpResponse.BodyHandlers.discarding());
+                    pattern.add(true);
+                } catch (IOException e) {
+                    pattern.add(false);
+                }
+            }
+            return pattern;
+        }
+    }
+
+    @Test
+    public void chunkedAndGzipBodies() throws Exception {
+        var body = new byte[20_000];
+        new Random(1).nextBytes(body);
+        server.route("/chunked").chunked(true).body(body);
+        server.route("/gzip").gzip(true).body(body);
+
+        var chunked = get("/chunked");
+        assertTrue(chunked.headers().firstValue("Content-Length").isEmpty());
+        assertArrayEquals(body, chunked.body());
+
+        var gzip = get("/gzip");
+        assertEquals("gzip", gzip.headers().firstValue("Content-Encoding").orElse(null));
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(gzip.body()))) {
+            assertArrayEquals(body, in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void headersAreSentAndRequestHeadersCaptured() throws Exception {
+        var route = server.route("/headers").header("X-Test", "yes").statuses(204).body("ignored");
+
+        var response = client.send(HttpRequest.newBuilder(server.uri("/headers")).header("X-Request", "a").build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(204, response.statusCode());
+        assertEquals(0, response.body().length);
+        assertEquals("yes", response.headers().firstValue("X-Test").orElse(null));
+        assertEquals("a", route.requestHeader("x-request"));
+        assertNull(route.requestHeader("X-Missing"));
+    }
+
+    @Test
+    public void portWithoutContinueRemovesTheExpectation() throws Exception {
+        var route = server.route("/upload").ignoreRequestBody().statuses(413);
+
+        assertEquals("HTTP/1.1 100 Continue", firstLine(server.uri("/upload")));
+        assertEquals("HTTP/1.1 413 Request Entity Too Large", firstLine(URI.create(server.urlWithoutContinue("/upload"))));
+        assertNull(route.requestHeader("Expect"));
+    }
+
+    /**
+     * Announces an upload it never sends, the plain {@link HttpClient} can't be used as JDK 17 stalls on a rejection before the body
+     */
+    private static String firstLine(URI uri) throws IOException {
+        try (var socket = new Socket(uri.getHost(), uri.getPort())) {
+            socket.setSoTimeout(5000);
+            var head = "POST " + uri.getPath() + " HTTP/1.1\r\nHost: " + uri.getAuthority() + "\r\nExpect: 100-continue\r\nContent-Length: 7\r\n\r\n";
+            socket.getOutputStream().write(head.getBytes(StandardCharsets.ISO_8859_1));
+            var line = new StringBuilder();
+            int next;
+            while ((next = socket.getInputStream().read()) >= 0 && next != '\r') {
+                line.append((char) next);
+            }
+            return line.toString();
+        }
+    }
+
+    @Test
+    public void abortedBodiesAreCounted() throws Exception {
+        var route = server.route("/large").bandwidth(256 * 1024).body(new byte[4 << 20]);
+
+        try (var in = client.send(HttpRequest.newBuilder(server.uri("/large")).build(), HttpResponse.BodyHandlers.ofInputStream()).body()) {
+            in.readNBytes(1024);
+        }
+
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (route.aborted() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, route.aborted());
+    }
+}
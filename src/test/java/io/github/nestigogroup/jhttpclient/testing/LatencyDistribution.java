@@ -0,0 +1,76 @@
+package io.github.nestigogroup.jhttpclient.testing;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Source of per-request server-side latency for the {@link FaultInjectingServer}.
+ * Samples are drawn from the route's seeded {@link Random}, so runs are reproducible
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * @param random the seeded random source of the route
+     * @return the latency to inject in nanoseconds
+     */
+    long sampleNanos(Random random);
+
+    /**
+     * @return distribution without latency
+     */
+    static LatencyDistribution none() {
+        return random -> 0;
+    }
+
+    /**
+     * @param latency the constant latency
+     * @return distribution that always returns the provided latency
+     */
+    static LatencyDistribution fixed(Duration latency) {
+        var nanos = latency.toNanos();
+        return random -> nanos;
+    }
+
+    /**
+     * @param min the lower bound (inclusive)
+     * @param max the upper bound (exclusive)
+     * @return uniformly distributed latency
+     */
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        var from = min.toNanos();
+        var range = Math.max(1, max.toNanos() - from);
+        return random -> from + (long) (random.nextDouble() * range);
+    }
+
+    /**
+     * @param mean the mean latency
+     * @return exponentially distributed latency (memoryless, typical for queueing delays)
+     */
+    static LatencyDistribution exponential(Duration mean) {
+        var nanos = mean.toNanos();
+        return random -> (long) (-Math.log(1 - random.nextDouble()) * nanos);
+    }
+
+    /**
+     * @param median the median latency
+     * @param sigma the shape parameter, larger values give a longer tail
+     * @return log-normally distributed latency (typical for service times)
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        var nanos = median.toNanos();
+        return random -> (long) (nanos * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    /**
+     * @param base the latency for most requests
+     * @param spike the latency for the spiking requests
+     * @param probability the share of requests that spike (0..1)
+     * @return bimodal latency, e.g. for GC pauses or cold caches
+     */
+    static LatencyDistribution spikes(Duration base, Duration spike, double probability) {
+        var baseNanos = base.toNanos();
+        var spikeNanos = spike.toNanos();
+        return random -> random.nextDouble() < probability ? spikeNanos : baseNanos;
+    }
+}
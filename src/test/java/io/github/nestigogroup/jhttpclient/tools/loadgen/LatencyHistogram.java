@@ -0,0 +1,93 @@
+package io.github.nestigogroup.jhttpclient.tools.loadgen;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram of nanosecond values with ~1% relative precision.
+ * Values below 128 are recorded exactly, every following power of two is split into 64 linear sub-buckets
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKETS = index(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a single value
+     * @param nanos the latency in nanoseconds, negative values are recorded as 0
+     */
+    void record(long nanos) {
+        var value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        total.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    long count() {
+        return total.get();
+    }
+
+    /**
+     * @return the largest recorded value in nanoseconds
+     */
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * @return the mean of the recorded values in nanoseconds
+     */
+    double mean() {
+        var count = total.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    /**
+     * Returns the value at the provided percentile, reported as the upper bound of the bucket it falls into
+     * @param percentile value between 0 and 100
+     * @return the latency in nanoseconds
+     */
+    long percentile(double percentile) {
+        var count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        var rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (var i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(max.get(), lowerBound(i + 1) - 1);
+            }
+        }
+        return max.get();
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        var shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return shift * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    private static long lowerBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        var shift = index / HALF_SUB_BUCKET_COUNT - 1;
+        var subBucket = index - shift * HALF_SUB_BUCKET_COUNT;
+        return shift > 63 - SUB_BUCKET_BITS ? Long.MAX_VALUE : (long) subBucket << shift;
+    }
+}
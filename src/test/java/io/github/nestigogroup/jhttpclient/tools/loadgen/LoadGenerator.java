@@ -0,0 +1,227 @@
+package io.github.nestigogroup.jhttpclient.tools.loadgen;
+
+import io.github.nestigogroup.jhttpclient.internal.AsyncHttpClient;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator built on the {@link AsyncHttpClient}.
+ * Requests are issued at a fixed arrival rate regardless of how long the responses take, and latency is measured from the
+ * <b>intended</b> start time of each request, so queueing delays inside the client are not hidden (coordinated omission).
+ * The service time (from the actual dispatch) is recorded separately for comparison.
+ * <p>
+ * Run from the project root after <i>mvn test-compile</i>:
+ * <pre>
+ * java -cp target/classes:target/test-classes io.github.nestigogroup.jhttpclient.tools.loadgen.LoadGenerator \
+ *     --rate 2000 --duration 30s --warmup 5s --clients 2 --threads 4 --version HTTP_1_1 --report target/loadgen.txt
+ * </pre>
+ * Without <i>--url</i> a {@link LoopbackTarget} is started (tunable with <i>--loopback-delay</i> and <i>--loopback-size</i>), so the tool runs offline
+ */
+public final class LoadGenerator {
+
+    /**
+     * Load generator settings
+     * @param target the request {@link URI}
+     * @param rate the arrival rate in requests per second
+     * @param duration the measured run time
+     * @param warmup the run time before measuring starts
+     * @param clients the number of {@link AsyncHttpClient} instances (stripes) the requests are spread over, each with its own {@link HttpClient}
+     * @param threads the executor threads per client, <b>0</b> for a cached thread pool per client like the {@link HttpClient} default executor
+     * @param version the HTTP version
+     * @param maxOutstanding the number of in-flight requests above which new arrivals are counted as dropped
+     * @param report the report file, <b>null</b> to only print it
+     */
+    public record Config(URI target, double rate, Duration duration, Duration warmup, int clients, int threads,
+                         HttpClient.Version version, long maxOutstanding, Path report) {
+    }
+
+    private final Config config;
+    private final LatencyHistogram corrected = new LatencyHistogram();
+    private final LatencyHistogram service = new LatencyHistogram();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final AtomicLong outstanding = new AtomicLong();
+    private final LongAdder completed = new LongAdder();
+
+    public LoadGenerator(Config config) {
+        this.config = config;
+    }
+
+    /**
+     * Runs the configured load and writes the report
+     * @return the report text
+     */
+    public String run() throws IOException, InterruptedException, NoSuchAlgorithmException {
+        var executors = new ExecutorService[config.clients()];
+        var clients = new AsyncHttpClient[config.clients()];
+        var url = config.target().toString();
+        var interval = 1_000_000_000d / config.rate();
+        long issued = 0;
+        long measureFrom;
+        long end;
+        try {
+            for (var i = 0; i < clients.length; i++) {
+                // clients with identical settings share one HttpClient, a distinct executor keeps every stripe on its own connections and selector
+                executors[i] = config.threads() > 0 ? Executors.newFixedThreadPool(config.threads()) : Executors.newCachedThreadPool();
+                clients[i] = new AsyncHttpClient(config.version(), executors[i], HttpClient.Redirect.NORMAL, Duration.ofSeconds(30), SSLContext.getDefault(), null, null);
+            }
+            var start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+            measureFrom = start + config.warmup().toNanos();
+            end = measureFrom + config.duration().toNanos();
+            for (long i = 0; ; i++) {
+                var intended = start + (long) (i * interval);
+                if (intended >= end) {
+                    break;
+                }
+                waitUntil(intended);
+                var measured = intended >= measureFrom;
+                if (outstanding.get() >= config.maxOutstanding()) {
+                    if (measured) {
+                        error("dropped (max outstanding)");
+                    }
+                    continue;
+                }
+                if (measured) {
+                    issued++;
+                }
+                outstanding.incrementAndGet();
+                var sent = System.nanoTime();
+                clients[(int) (i % clients.length)].getBodyHandler(url, HttpResponse.BodyHandlers.discarding()).whenComplete((resp, e) -> {
+                    var now = System.nanoTime();
+                    outstanding.decrementAndGet();
+                    if (!measured) {
+                        return;
+                    }
+                    corrected.record(now - intended);
+                    service.record(now - sent);
+                    completed.increment();
+                    if (e != null) {
+                        error((e.getCause() != null ? e.getCause() : e).getClass().getSimpleName());
+                    } else if (resp.statusCode() >= 400) {
+                        error("HTTP " + resp.statusCode());
+                    }
+                });
+            }
+            var drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+        } finally {
+            for (var client : clients) {
+                if (client != null) {
+                    client.close();
+                }
+            }
+            for (var executor : executors) {
+                if (executor != null) {
+                    executor.shutdownNow();
+                }
+            }
+        }
+        var elapsed = Math.max(System.nanoTime(), end) - measureFrom;
+        var report = report(issued, elapsed);
+        if (config.report() != null) {
+            Files.writeString(config.report(), report);
+        }
+        return report;
+    }
+
+    private void error(String type) {
+        errors.computeIfAbsent(type, k -> new LongAdder()).increment();
+    }
+
+    private String report(long issued, long elapsedNanos) {
+        var sb = new StringBuilder();
+        var seconds = elapsedNanos / 1e9;
+        sb.append(String.format(Locale.ROOT, "target            %s%n", config.target()));
+        sb.append(String.format(Locale.ROOT, "version           %s, clients %d, threads %d%n", config.version(), config.clients(), config.threads()));
+        sb.append(String.format(Locale.ROOT, "requested rate    %.1f req/s for %s (warmup %s)%n", config.rate(), config.duration(), config.warmup()));
+        sb.append(String.format(Locale.ROOT, "issued            %d%n", issued));
+        sb.append(String.format(Locale.ROOT, "completed         %d%n", completed.sum()));
+        sb.append(String.format(Locale.ROOT, "throughput        %.1f req/s%n", completed.sum() / seconds));
+        sb.append(String.format(Locale.ROOT, "%-18s%12s%12s%n", "latency (ms)", "corrected", "service"));
+        for (var p : new double[]{50, 90, 99, 99.9, 99.99}) {
+            sb.append(String.format(Locale.ROOT, "%-18s%12.3f%12.3f%n", "p" + p, corrected.percentile(p) / 1e6, service.percentile(p) / 1e6));
+        }
+        sb.append(String.format(Locale.ROOT, "%-18s%12.3f%12.3f%n", "max", corrected.max() / 1e6, service.max() / 1e6));
+        sb.append(String.format(Locale.ROOT, "%-18s%12.3f%12.3f%n", "mean", corrected.mean() / 1e6, service.mean() / 1e6));
+        var sortedErrors = new TreeMap<String, LongAdder>(errors);
+        sb.append(String.format(Locale.ROOT, "errors            %d%n", sortedErrors.values().stream().mapToLong(LongAdder::sum).sum()));
+        sortedErrors.forEach((type, count) -> sb.append(String.format(Locale.ROOT, "  %-30s%d%n", type, count.sum())));
+        return sb.toString();
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > 50_000) {
+                LockSupport.parkNanos(remaining - 50_000);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = new HashMap<String, String>();
+        for (var i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        LoopbackTarget loopback = null;
+        URI target;
+        if (options.containsKey("url")) {
+            target = URI.create(options.get("url"));
+        } else {
+            loopback = new LoopbackTarget(parseDuration(options.getOrDefault("loopback-delay", "1ms")), Integer.parseInt(options.getOrDefault("loopback-size", "256")));
+            target = loopback.uri();
+        }
+        var config = new Config(target,
+                Double.parseDouble(options.getOrDefault("rate", "1000")),
+                parseDuration(options.getOrDefault("duration", "10s")),
+                parseDuration(options.getOrDefault("warmup", "2s")),
+                Integer.parseInt(options.getOrDefault("clients", "1")),
+                Integer.parseInt(options.getOrDefault("threads", "0")),
+                HttpClient.Version.valueOf(options.getOrDefault("version", "HTTP_1_1")),
+                Long.parseLong(options.getOrDefault("max-outstanding", "10000")),
+                Path.of(options.getOrDefault("report", "target/loadgen-report.txt")));
+        try {
+            System.out.print(new LoadGenerator(config).run());
+        } finally {
+            if (loopback != null) {
+                loopback.close();
+            }
+        }
+    }
+
+    private static Duration parseDuration(String value) {
+        var lower = value.toLowerCase(Locale.ROOT);
+        if (lower.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(lower.substring(0, lower.length() - 2)));
+        }
+        if (lower.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(lower.substring(0, lower.length() - 1)));
+        }
+        if (lower.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(lower.substring(0, lower.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(lower));
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.nestigogroup.jhttpclient.tools.loadgen;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal loopback HTTP target for running the {@link LoadGenerator} offline.
+ * Answers every request with a fixed size body after a fixed service time, without blocking the server threads while waiting
+ */
+final class LoopbackTarget implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService timer;
+    private final byte[] body;
+    private final long serviceTimeNanos;
+
+    /**
+     * Starts the target on an ephemeral port of the loopback interface
+     * @param serviceTime the delay before each response is sent
+     * @param bodySize the response body size in bytes
+     */
+    LoopbackTarget(Duration serviceTime, int bodySize) {
+        this.body = new byte[bodySize];
+        Arrays.fill(body, (byte) 'x');
+        this.serviceTimeNanos = serviceTime.toNanos();
+        // the JDK server writes headers and body separately, without TCP_NODELAY every response waits for the delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        workers = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        timer = Executors.newSingleThreadScheduledExecutor();
+        server.setExecutor(workers);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * @return the {@link URI} the target is listening on
+     */
+    URI uri() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        if (serviceTimeNanos > 0) {
+            timer.schedule(() -> respond(exchange), serviceTimeNanos, TimeUnit.NANOSECONDS);
+        } else {
+            respond(exchange);
+        }
+    }
+
+    private void respond(HttpExchange exchange) {
+        try (exchange) {
+            exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+            exchange.getResponseBody().write(body);
+        } catch (IOException ignored) {
+            // the client went away, nothing to report
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        timer.shutdownNow();
+        workers.shutdownNow();
+    }
+}